@@ -1,8 +1,24 @@
+import com.android.build.api.variant.BuildConfigField
+import java.math.BigDecimal
+import java.util.Locale
+import java.util.Properties
+import java.util.zip.ZipFile
+
 plugins {
     alias(libs.plugins.android.application)
     id("com.google.gms.google-services")
+    alias(libs.plugins.baselineprofile)
 }
 
+// 驗證引擎：firebase（預設，Firebase Auth SDK）或 rest（直接呼叫 Identity Toolkit REST API，不含 Play services）
+// ./gradlew :app:assembleRelease -PauthEngine=rest [-PauthRestBaseUrl=http://10.0.2.2:9099/（Auth emulator）]
+val authEngine = providers.gradleProperty("authEngine").getOrElse("firebase")
+require(authEngine == "firebase" || authEngine == "rest") { "authEngine 只能是 firebase 或 rest：$authEngine" }
+val authRestBaseUrl = providers.gradleProperty("authRestBaseUrl").getOrElse("https://")
+// 驗證流程 trace 區段（AuthTrace）：debug 與 Macrobenchmark 的 benchmarkRelease 編入，release 預設移除
+// 需要在 release 量測時：./gradlew :app:assembleRelease -PauthTrace=true
+val authTrace = providers.gradleProperty("authTrace").map { it.toBoolean() }.getOrElse(false)
+
 android {
     namespace = "com.ianfrost.example.example_simpleauth_firebaseauth_java"
     compileSdk {
@@ -17,6 +33,19 @@ android {
         versionName = "1.0"
 
         testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+        // 信箱驗證連結網域（Firebase 預設 action handler）
+        manifestPlaceholders["authLinkHost"] = "mytest-auth-d2adb.firebaseapp.com"
+        buildConfigField("String", "AUTH_REST_BASE_URL", "\"$authRestBaseUrl\"")
+    }
+
+    // 各驗證引擎專用的程式碼（AuthBackendInitializer 等）與單元測試
+    sourceSets {
+        getByName("main") {
+            java.srcDir("src/$authEngine/java")
+        }
+        getByName("test") {
+            java.srcDir("src/${authEngine}Test/java")
+        }
     }
 
     buildTypes {
@@ -35,8 +64,118 @@ android {
 
     buildFeatures{
         dataBinding = true
+        buildConfig = true
+    }
+
+}
+
+/**
+ * 依螢幕最小寬度等比例產生 dp_N / sp_N 尺寸（取代 screenMatch 產生並提交的 values-swNNNdp/dimens.xml）
+ * 規則與 screenMatch 相同：值 = N × sw / baseDp（小數 4 位），values 為 N 原值
+ * 只產生 res 與程式碼實際引用的名稱，名稱格式：dp_10、dp_0_5（0.5）、dp_m_10（-10）、sp_16
+ */
+abstract class GenerateScaledDimensTask : DefaultTask() {
+
+    @get:InputFiles
+    @get:PathSensitive(PathSensitivity.RELATIVE)
+    abstract val sources: ConfigurableFileCollection
+
+    @get:Input
+    abstract val baseDp: Property<Int>
+
+    @get:Input
+    abstract val buckets: ListProperty<Int>
+
+    @get:OutputDirectory
+    abstract val outputDir: DirectoryProperty
+
+    @TaskAction
+    fun generate() {
+        val pattern = Regex("""(?:@dimen/|R\.dimen\.)((dp|sp)_(m_)?(\d+(?:_\d+)?))\b""")
+        val dimens = sortedMapOf<String, Pair<BigDecimal, String>>()
+        sources.asFileTree.forEach { file ->
+            pattern.findAll(file.readText()).forEach { match ->
+                val (name, unit, negative, number) = match.destructured
+                val value = BigDecimal(number.replace('_', '.'))
+                dimens[name] = Pair(if (negative.isEmpty()) value else value.negate(), unit)
+            }
+        }
+
+        val out = outputDir.get().asFile
+        out.deleteRecursively()
+        write(File(out, "values/dimens.xml"), dimens) { value -> value.stripTrailingZeros().toPlainString() }
+        buckets.get().forEach { sw ->
+            write(File(out, "values-sw${sw}dp/dimens.xml"), dimens) { value ->
+                String.format(Locale.US, "%.4f", value.toDouble() * sw / baseDp.get())
+            }
+        }
+    }
+
+    private fun write(file: File, dimens: Map<String, Pair<BigDecimal, String>>, format: (BigDecimal) -> String) {
+        file.parentFile.mkdirs()
+        file.writeText(buildString {
+            append("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n<resources>\n")
+            dimens.forEach { (name, dimen) ->
+                append("    <dimen name=\"").append(name).append("\">")
+                    .append(format(dimen.first)).append(dimen.second).append("</dimen>\n")
+            }
+            append("</resources>\n")
+        })
+    }
+}
+
+// 掃描的來源由各 variant 的 source set 加入（onVariants），不寫死 src/main
+val generateScaledDimens = tasks.register<GenerateScaledDimensTask>("generateScaledDimens") {
+    // 與 screenMatch.properties 相同的基準與螢幕寬度
+    baseDp.set(360)
+    buckets.set(listOf(240, 320, 384, 392, 400, 410, 411, 432, 480, 533, 592, 600, 640, 662, 720,
+        768, 800, 811, 820, 960, 961, 1024, 1280, 1365))
+    outputDir.set(layout.buildDirectory.dir("generated/res/scaledDimens"))
+}
+
+androidComponents {
+    onVariants { variant ->
+        variant.sources.res?.addGeneratedSourceDirectory(generateScaledDimens, GenerateScaledDimensTask::outputDir)
+        // 所有 variant 的 res/java/kotlin 來源目錄（main、buildType、src/$authEngine 等），不含產生的目錄以免循環相依
+        generateScaledDimens.configure {
+            variant.sources.res?.static?.let { res ->
+                sources.from(res.map { layers -> layers.flatten().map { dir -> fileTree(dir) { include("**/*.xml") } } })
+            }
+            listOfNotNull(variant.sources.java, variant.sources.kotlin).forEach { code ->
+                sources.from(code.static.map { dirs -> dirs.map { dir -> fileTree(dir) { include("**/*.java", "**/*.kt") } } })
+            }
+        }
+        val traced = authTrace || variant.buildType != "release"
+        variant.buildConfigFields?.put("AUTH_TRACE", BuildConfigField("boolean", traced.toString(), "驗證流程 trace 區段"))
     }
+}
+
+// APK 大小報告：./gradlew :app:assembleRelease :app:apkSizeReport [-PapkSize.baseline=先前的報告檔]
+// 列出 APK 與 resources.arsc 大小，提供基準時一併列出差異；冷啟動差異以 :macrobenchmark 的 StartupBenchmark 比對
+tasks.register("apkSizeReport") {
+    val apkDir = layout.buildDirectory.dir("outputs/apk/release")
+    val report = layout.buildDirectory.file("reports/apk-size.properties")
+    val baseline = providers.gradleProperty("apkSize.baseline")
+    inputs.dir(apkDir)
+    outputs.file(report)
+    doLast {
+        val apk = apkDir.get().asFile.listFiles { file -> file.extension == "apk" }?.firstOrNull()
+            ?: throw GradleException("找不到 release APK，請先執行 :app:assembleRelease")
+        val sizes = Properties()
+        sizes["apk"] = apk.length().toString()
+        ZipFile(apk).use { zip ->
+            sizes["resources.arsc"] = (zip.getEntry("resources.arsc")?.size ?: 0L).toString()
+        }
+        report.get().asFile.apply { parentFile.mkdirs() }.outputStream().use { sizes.store(it, apk.name) }
 
+        val before = Properties()
+        baseline.orNull?.let { path -> file(path).inputStream().use { before.load(it) } }
+        sizes.stringPropertyNames().sorted().forEach { key ->
+            val size = sizes.getProperty(key).toLong()
+            val delta = before.getProperty(key)?.let { "（差異 ${size - it.toLong()} bytes）" } ?: ""
+            println("$key: $size bytes$delta")
+        }
+    }
 }
 
 dependencies {
@@ -47,13 +186,25 @@ dependencies {
     implementation(libs.legacy.support.v4)
     implementation(libs.lifecycle.livedata.ktx)
     implementation(libs.lifecycle.viewmodel.ktx)
+    implementation(libs.lifecycle.process)
+    implementation(libs.asynclayoutinflater)
+    implementation(libs.startup.runtime)
+    implementation(libs.work.runtime)
+    implementation(libs.profileinstaller)
+    baselineProfile(project(":macrobenchmark"))
     testImplementation(libs.junit)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
 
-    implementation(platform("com.google.firebase:firebase-bom:34.5.0"))
-    implementation ("com.google.firebase:firebase-auth")
-    implementation("com.google.firebase:firebase-analytics")
+    if (authEngine == "firebase") {
+        implementation(platform("com.google.firebase:firebase-bom:34.5.0"))
+        implementation ("com.google.firebase:firebase-auth")
+        implementation("com.google.firebase:firebase-analytics")
+    } else {
+        implementation(libs.okhttp)
+        implementation(libs.moshi)
+        testImplementation(libs.mockwebserver)
+    }
 
 
 }
\ No newline at end of file
@@ -0,0 +1,113 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.featureAuth;
+
+import static androidx.test.espresso.Espresso.closeSoftKeyboard;
+import static androidx.test.espresso.Espresso.onView;
+import static androidx.test.espresso.action.ViewActions.click;
+import static androidx.test.espresso.action.ViewActions.replaceText;
+import static androidx.test.espresso.matcher.ViewMatchers.withId;
+import static org.junit.Assert.assertNull;
+
+import android.app.Activity;
+import android.content.Context;
+import android.os.SystemClock;
+
+import androidx.core.content.ContextCompat;
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.MainActivity;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.R;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.FakeAuthBackend;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.data.AuthBackendProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 請求進行中旋轉螢幕：舊 Activity 必須在請求完成前就能被回收
+ * 後端延遲 30 秒，旋轉後強制 GC，確認舊 Activity 沒有被進行中的回呼（Fragment、畫面綁定）持有
+ */
+@RunWith(AndroidJUnit4.class)
+public class AuthResultRetentionTest {
+
+    private static final String EMAIL = "leak@example.com";
+    private static final String PASSWORD = "secret123";
+    // 遠大於 GC 等待時間，確保檢查時請求仍在進行中
+    private static final long LATENCY_SECONDS = 30;
+    private static final long GC_TIMEOUT_MILLIS = 5_000L;
+
+    private ScheduledExecutorService scheduler;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        FakeAuthBackend backend = FakeAuthBackend.newBuilder()
+                .setLatency(LATENCY_SECONDS, 0, TimeUnit.SECONDS)
+                .setScheduler(scheduler)
+                .setCallbackExecutor(ContextCompat.getMainExecutor(context))
+                .build();
+        backend.addAccount(EMAIL, PASSWORD);
+        AuthBackendProvider.set(backend);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void loginInFlight_rotationDoesNotLeakActivity() {
+        try (ActivityScenario<MainActivity> scenario = ActivityScenario.launch(MainActivity.class)) {
+            onView(withId(R.id.emailInput)).perform(replaceText(EMAIL));
+            onView(withId(R.id.passwordInput)).perform(replaceText(PASSWORD));
+            closeSoftKeyboard();
+            onView(withId(R.id.confirmBtn)).perform(click());
+
+            assertReleasedAfterRecreate(scenario);
+        }
+    }
+
+    @Test
+    public void phoneCodeInFlight_rotationDoesNotLeakActivity() {
+        try (ActivityScenario<MainActivity> scenario = ActivityScenario.launch(MainActivity.class)) {
+            // 登入 -> 無驗證註冊 -> 信箱驗證註冊 -> 手機驗證註冊
+            for (int i = 0; i < 3; i++) {
+                onView(withId(R.id.switchBtn)).perform(click());
+            }
+            onView(withId(R.id.emailInput)).perform(replaceText("phone-" + EMAIL));
+            onView(withId(R.id.passwordInput)).perform(replaceText(PASSWORD));
+            onView(withId(R.id.phoneInput)).perform(replaceText("+886912345678"));
+            closeSoftKeyboard();
+            onView(withId(R.id.confirmBtn)).perform(click());
+
+            assertReleasedAfterRecreate(scenario);
+        }
+    }
+
+    /**
+     * 重建 Activity（等同旋轉螢幕）後，舊 Activity 應可被回收
+     */
+    private static void assertReleasedAfterRecreate(ActivityScenario<MainActivity> scenario) {
+        WeakReference<Activity>[] previous = new WeakReference[1];
+        scenario.onActivity(activity -> previous[0] = new WeakReference<>(activity));
+        scenario.recreate();
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+
+        long deadline = SystemClock.uptimeMillis() + GC_TIMEOUT_MILLIS;
+        while (previous[0].get() != null && SystemClock.uptimeMillis() < deadline) {
+            Runtime.getRuntime().gc();
+            System.runFinalization();
+            SystemClock.sleep(100);
+        }
+        assertNull("請求進行中旋轉螢幕後，舊 Activity 仍被持有", previous[0].get());
+    }
+}
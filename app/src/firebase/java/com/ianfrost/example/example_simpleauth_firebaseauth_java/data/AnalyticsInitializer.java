@@ -0,0 +1,38 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.data;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.core.os.TraceCompat;
+import androidx.startup.Initializer;
+
+import com.google.firebase.analytics.FirebaseAnalytics;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 開啟 Analytics 收集（manifest 預設關閉，第一個畫格後才開啟）
+ * 開啟的設定會保存到下次啟動，{@link FirebaseAppInitializer} 每次建立 FirebaseApp 時先關閉
+ */
+public class AnalyticsInitializer implements Initializer<FirebaseAnalytics> {
+
+    @NonNull
+    @Override
+    public FirebaseAnalytics create(@NonNull Context context) {
+        TraceCompat.beginSection("Startup.Analytics");
+        try {
+            FirebaseAnalytics analytics = FirebaseAnalytics.getInstance(context);
+            analytics.setAnalyticsCollectionEnabled(true);
+            return analytics;
+        } finally {
+            TraceCompat.endSection();
+        }
+    }
+
+    @NonNull
+    @Override
+    public List<Class<? extends Initializer<?>>> dependencies() {
+        return Collections.singletonList(FirebaseAppInitializer.class);
+    }
+}
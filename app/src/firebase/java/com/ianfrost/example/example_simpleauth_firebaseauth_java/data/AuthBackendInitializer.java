@@ -0,0 +1,37 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.data;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.core.os.TraceCompat;
+import androidx.startup.Initializer;
+
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.auth.FirebaseAuth;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthBackend;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 建立 Firebase 驗證後端（依賴 FirebaseApp）
+ */
+public class AuthBackendInitializer implements Initializer<AuthBackend> {
+
+    @NonNull
+    @Override
+    public AuthBackend create(@NonNull Context context) {
+        TraceCompat.beginSection("Startup.FirebaseAuth");
+        try {
+            return new FirebaseAuthBackend(FirebaseAuth.getInstance(FirebaseApp.getInstance()));
+        } finally {
+            TraceCompat.endSection();
+        }
+    }
+
+    @NonNull
+    @Override
+    public List<Class<? extends Initializer<?>>> dependencies() {
+        return Collections.singletonList(FirebaseAppInitializer.class);
+    }
+}
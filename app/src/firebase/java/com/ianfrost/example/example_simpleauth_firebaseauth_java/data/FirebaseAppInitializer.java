@@ -0,0 +1,43 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.data;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.core.os.TraceCompat;
+import androidx.startup.Initializer;
+
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.analytics.FirebaseAnalytics;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 建立預設 FirebaseApp（取代 FirebaseInitProvider，由 {@link AppStartup} 在背景執行緒依需要建立）
+ * 建立後立即關閉 Analytics 收集：{@link AnalyticsInitializer} 開啟的設定會保存並優先於 manifest，
+ * 不關閉時之後每次啟動都在第一個畫格前開始收集
+ */
+public class FirebaseAppInitializer implements Initializer<FirebaseApp> {
+
+    @NonNull
+    @Override
+    public FirebaseApp create(@NonNull Context context) {
+        TraceCompat.beginSection("Startup.FirebaseApp");
+        try {
+            FirebaseApp app = FirebaseApp.initializeApp(context);
+            if (app == null) {
+                throw new IllegalStateException("缺少 google-services 設定，無法建立 FirebaseApp");
+            }
+            FirebaseAnalytics.getInstance(context).setAnalyticsCollectionEnabled(false);
+            return app;
+        } finally {
+            TraceCompat.endSection();
+        }
+    }
+
+    @NonNull
+    @Override
+    public List<Class<? extends Initializer<?>>> dependencies() {
+        return Collections.emptyList();
+    }
+}
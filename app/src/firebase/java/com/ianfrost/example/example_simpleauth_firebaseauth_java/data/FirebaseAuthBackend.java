@@ -0,0 +1,347 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.data;
+
+import android.app.Activity;
+import android.net.TrafficStats;
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import androidx.annotation.NonNull;
+import androidx.core.os.ParcelCompat;
+
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.FirebaseException;
+import com.google.firebase.FirebaseNetworkException;
+import com.google.firebase.FirebaseTooManyRequestsException;
+import com.google.firebase.auth.AdditionalUserInfo;
+import com.google.firebase.auth.EmailAuthProvider;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseAuthActionCodeException;
+import com.google.firebase.auth.FirebaseAuthException;
+import com.google.firebase.auth.FirebaseAuthInvalidCredentialsException;
+import com.google.firebase.auth.FirebaseAuthInvalidUserException;
+import com.google.firebase.auth.FirebaseAuthRecentLoginRequiredException;
+import com.google.firebase.auth.FirebaseAuthUserCollisionException;
+import com.google.firebase.auth.FirebaseAuthWeakPasswordException;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.auth.GetTokenResult;
+import com.google.firebase.auth.PhoneAuthCredential;
+import com.google.firebase.auth.PhoneAuthOptions;
+import com.google.firebase.auth.PhoneAuthProvider;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthBackend;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthErrorCode;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthUser;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.ConnectionPrewarmer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 以 FirebaseAuth 實作的驗證後端（回呼皆在主執行緒）
+ */
+public class FirebaseAuthBackend implements AuthBackend {
+
+    // Firebase驗證庫(處理用戶登入、登出、註冊)
+    private final FirebaseAuth firebaseAuth;
+    // 監聽者對應的 Firebase 監聽（移除時使用）
+    private final Map<UserListener, FirebaseAuth.IdTokenListener> idTokenListeners = new ConcurrentHashMap<>();
+
+    // Firebase Auth 使用的端點（SDK 以 HttpURLConnection 連線，與預先連線共用系統連線池與 TLS session 快取）
+    private static final List<String> AUTH_ENDPOINTS = Arrays.asList(
+            "https://www.googleapis.com/", "https://identitytoolkit.googleapis.com/", "https://securetoken.googleapis.com/");
+    // 手機驗證另外使用的 reCAPTCHA 端點
+    private static final List<String> PHONE_ENDPOINTS = Arrays.asList(
+            "https://www.google.com/", "https://www.gstatic.com/");
+    private static final int PREWARM_TIMEOUT_MILLIS = 5_000;
+    // 預先連線的 TrafficStats 標記（StrictMode 要求 socket 需標記）
+    private static final int PREWARM_TRAFFIC_TAG = 0xA017;
+    private final ConnectionPrewarmer prewarmer = new ConnectionPrewarmer(Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "auth-prewarm");
+        thread.setDaemon(true);
+        return thread;
+    }), FirebaseAuthBackend::connect);
+
+    public FirebaseAuthBackend(@NonNull FirebaseAuth firebaseAuth) {
+        this.firebaseAuth = firebaseAuth;
+    }
+
+    /**
+     * Firebase 手機驗證憑證
+     */
+    static final class FirebasePhoneCredential implements PhoneCredential {
+        final PhoneAuthCredential credential;
+
+        FirebasePhoneCredential(PhoneAuthCredential credential) {
+            this.credential = credential;
+        }
+    }
+
+    /**
+     * Firebase 重新寄送簡訊 token（可存入 SavedStateHandle，程序被回收後仍能重新寄送）
+     */
+    static final class FirebaseResendToken implements ResendToken, Parcelable {
+        final PhoneAuthProvider.ForceResendingToken token;
+
+        FirebaseResendToken(PhoneAuthProvider.ForceResendingToken token) {
+            this.token = token;
+        }
+
+        @Override
+        public int describeContents() {
+            return 0;
+        }
+
+        @Override
+        public void writeToParcel(@NonNull Parcel dest, int flags) {
+            dest.writeParcelable(token, flags);
+        }
+
+        public static final Creator<FirebaseResendToken> CREATOR = new Creator<FirebaseResendToken>() {
+            @Override
+            public FirebaseResendToken createFromParcel(Parcel in) {
+                return new FirebaseResendToken(ParcelCompat.readParcelable(in,
+                        PhoneAuthProvider.ForceResendingToken.class.getClassLoader(),
+                        PhoneAuthProvider.ForceResendingToken.class));
+            }
+
+            @Override
+            public FirebaseResendToken[] newArray(int size) {
+                return new FirebaseResendToken[size];
+            }
+        };
+    }
+
+    @Override
+    public AuthUser getCurrentUser() {
+        return wrap(firebaseAuth.getCurrentUser());
+    }
+
+    @Override
+    public void signIn(String email, String password, Callback<AuthUser> callback) {
+        firebaseAuth.signInWithEmailAndPassword(email, password)
+                .addOnCompleteListener(task -> completeWithUser(task, callback));
+    }
+
+    @Override
+    public void createUser(String email, String password, Callback<AuthUser> callback) {
+        firebaseAuth.createUserWithEmailAndPassword(email, password)
+                .addOnCompleteListener(task -> completeWithUser(task, callback));
+    }
+
+    @Override
+    public void sendEmailVerification(AuthUser user, Callback<Void> callback) {
+        unwrap(user).sendEmailVerification()
+                .addOnCompleteListener(task -> callback.onComplete(null, task.isSuccessful() ? null : task.getException()));
+    }
+
+    @Override
+    public void applyActionCode(String code, Callback<Void> callback) {
+        firebaseAuth.applyActionCode(code)
+                .addOnCompleteListener(task -> callback.onComplete(null, task.isSuccessful() ? null : task.getException()));
+    }
+
+    @Override
+    public void verifyPhoneNumber(String phone, long timeoutSeconds, Object host, ResendToken resendToken,
+                                  PhoneCallbacks callbacks) {
+        PhoneAuthOptions.Builder builder = PhoneAuthOptions.newBuilder(firebaseAuth)
+                .setPhoneNumber(phone)
+                .setTimeout(timeoutSeconds, TimeUnit.SECONDS)
+                .setCallbacks(new PhoneAuthProvider.OnVerificationStateChangedCallbacks() {
+                    @Override
+                    public void onVerificationCompleted(@NonNull PhoneAuthCredential credential) {
+                        callbacks.onVerificationCompleted(new FirebasePhoneCredential(credential));
+                    }
+
+                    @Override
+                    public void onVerificationFailed(@NonNull FirebaseException e) {
+                        callbacks.onVerificationFailed(e);
+                    }
+
+                    @Override
+                    public void onCodeSent(@NonNull String verificationId, @NonNull PhoneAuthProvider.ForceResendingToken token) {
+                        callbacks.onCodeSent(verificationId, new FirebaseResendToken(token));
+                    }
+                });
+        // 畫面已銷毀（送出前檢查期間旋轉螢幕）時不交給 Firebase，避免持有已銷毀的 Activity
+        if (host instanceof Activity && !((Activity) host).isDestroyed()) {
+            builder.setActivity((Activity) host);
+        }
+        if (resendToken instanceof FirebaseResendToken) {
+            builder.setForceResendingToken(((FirebaseResendToken) resendToken).token);
+        }
+        PhoneAuthProvider.verifyPhoneNumber(builder.build());
+    }
+
+    /**
+     * Firebase 的 verifyPhoneNumber 可重複呼叫：同一號碼逾時前不會再寄送簡訊，回呼綁定 Activity 時需重新接上
+     */
+    @Override
+    public boolean isPhoneVerificationReattachable() {
+        return true;
+    }
+
+    @Override
+    public PhoneCredential getPhoneCredential(String verificationId, String code) {
+        return new FirebasePhoneCredential(PhoneAuthProvider.getCredential(verificationId, code));
+    }
+
+    @Override
+    public void reloadUser(AuthUser user, Callback<AuthUser> callback) {
+        unwrap(user).reload()
+                .addOnCompleteListener(task -> completeWithUser(task, callback));
+    }
+
+    @Override
+    public void getIdToken(AuthUser user, boolean forceRefresh, Callback<IdToken> callback) {
+        unwrap(user).getIdToken(forceRefresh).addOnCompleteListener(task -> {
+            if (task.isSuccessful() && task.getResult().getToken() != null) {
+                GetTokenResult result = task.getResult();
+                callback.onComplete(new IdToken(result.getToken(), result.getExpirationTimestamp() * 1000L), null);
+            } else {
+                callback.onComplete(null, task.getException() != null ? task.getException() : new Exception("無法取得 ID token"));
+            }
+        });
+    }
+
+    @Override
+    public void signInWithPhoneCredential(PhoneCredential credential, Callback<SignInResult> callback) {
+        firebaseAuth.signInWithCredential(((FirebasePhoneCredential) credential).credential)
+                .addOnCompleteListener(task -> {
+                    if (!task.isSuccessful()) {
+                        callback.onComplete(null, task.getException());
+                        return;
+                    }
+                    AdditionalUserInfo info = task.getResult().getAdditionalUserInfo();
+                    callback.onComplete(new SignInResult(getCurrentUser(), info != null && info.isNewUser()), null);
+                });
+    }
+
+    @Override
+    public void linkWithEmail(AuthUser user, String email, String password, Callback<AuthUser> callback) {
+        unwrap(user).linkWithCredential(EmailAuthProvider.getCredential(email, password))
+                .addOnCompleteListener(task -> completeWithUser(task, callback));
+    }
+
+    @Override
+    public void deleteUser(AuthUser user, Callback<Void> callback) {
+        unwrap(user).delete()
+                .addOnCompleteListener(task -> callback.onComplete(null, task.isSuccessful() ? null : task.getException()));
+    }
+
+    @Override
+    public void signOut() {
+        firebaseAuth.signOut();
+    }
+
+    @Override
+    public AuthErrorCode mapError(Exception error) {
+        if (error instanceof FirebaseNetworkException) {
+            return AuthErrorCode.NETWORK;
+        }
+        if (error instanceof FirebaseTooManyRequestsException) {
+            return AuthErrorCode.TOO_MANY_REQUESTS;
+        }
+        if (error instanceof FirebaseAuthUserCollisionException) {
+            // 手機憑證已綁定其他帳號時為 ERROR_CREDENTIAL_ALREADY_IN_USE
+            return "ERROR_CREDENTIAL_ALREADY_IN_USE".equals(((FirebaseAuthException) error).getErrorCode())
+                    ? AuthErrorCode.PHONE_IN_USE : AuthErrorCode.EMAIL_IN_USE;
+        }
+        if (error instanceof FirebaseAuthWeakPasswordException) {
+            return AuthErrorCode.WEAK_PASSWORD;
+        }
+        if (error instanceof FirebaseAuthRecentLoginRequiredException) {
+            return AuthErrorCode.REQUIRES_RECENT_LOGIN;
+        }
+        if (error instanceof FirebaseAuthActionCodeException) {
+            // 驗證連結已使用或過期
+            return AuthErrorCode.VERIFICATION_EXPIRED;
+        }
+        if (error instanceof FirebaseAuthInvalidCredentialsException) {
+            switch (((FirebaseAuthException) error).getErrorCode()) {
+                case "ERROR_INVALID_VERIFICATION_CODE":
+                    return AuthErrorCode.VERIFY_CODE_REJECTED;
+                case "ERROR_SESSION_EXPIRED":
+                    return AuthErrorCode.VERIFICATION_EXPIRED;
+                case "ERROR_INVALID_EMAIL":
+                    return AuthErrorCode.EMAIL_INVALID;
+                case "ERROR_INVALID_PHONE_NUMBER":
+                    return AuthErrorCode.PHONE_INVALID;
+                default:
+                    return AuthErrorCode.INVALID_CREDENTIALS;
+            }
+        }
+        if (error instanceof FirebaseAuthInvalidUserException) {
+            return "ERROR_USER_DISABLED".equals(((FirebaseAuthException) error).getErrorCode())
+                    ? AuthErrorCode.USER_DISABLED : AuthErrorCode.INVALID_CREDENTIALS;
+        }
+        return null;
+    }
+
+    @Override
+    public void addIdTokenListener(UserListener listener) {
+        FirebaseAuth.IdTokenListener firebaseListener = auth -> listener.onUserChanged(wrap(auth.getCurrentUser()));
+        if (idTokenListeners.putIfAbsent(listener, firebaseListener) == null) {
+            firebaseAuth.addIdTokenListener(firebaseListener);
+        }
+    }
+
+    @Override
+    public void removeIdTokenListener(UserListener listener) {
+        FirebaseAuth.IdTokenListener firebaseListener = idTokenListeners.remove(listener);
+        if (firebaseListener != null) {
+            firebaseAuth.removeIdTokenListener(firebaseListener);
+        }
+    }
+
+    @Override
+    public ConnectionPrewarmer.Handle prewarm(boolean phone) {
+        List<String> endpoints = new ArrayList<>(AUTH_ENDPOINTS);
+        if (phone) endpoints.addAll(PHONE_ENDPOINTS);
+        return prewarmer.warm(endpoints);
+    }
+
+    /**
+     * 以 HEAD 請求建立連線，讀完回應後不呼叫 disconnect，連線留在連線池
+     */
+    private static void connect(String url) throws IOException {
+        TrafficStats.setThreadStatsTag(PREWARM_TRAFFIC_TAG);
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+            connection.setRequestMethod("HEAD");
+            connection.setConnectTimeout(PREWARM_TIMEOUT_MILLIS);
+            connection.setReadTimeout(PREWARM_TIMEOUT_MILLIS);
+            int code = connection.getResponseCode();
+            InputStream body = code >= 400 ? connection.getErrorStream() : connection.getInputStream();
+            if (body != null) body.close();
+        } finally {
+            TrafficStats.clearThreadStatsTag();
+        }
+    }
+
+    /**
+     * 任務完成後回傳目前用戶，失敗時回傳錯誤
+     */
+    private void completeWithUser(Task<?> task, Callback<AuthUser> callback) {
+        if (task.isSuccessful()) {
+            callback.onComplete(getCurrentUser(), null);
+        } else {
+            callback.onComplete(null, task.getException());
+        }
+    }
+
+    private static AuthUser wrap(FirebaseUser user) {
+        return user == null ? null : new FirebaseAuthUser(user);
+    }
+
+    private static FirebaseUser unwrap(AuthUser user) {
+        return ((FirebaseAuthUser) user).getFirebaseUser();
+    }
+}
@@ -0,0 +1,41 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.data;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.auth.FirebaseUser;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthUser;
+
+/**
+ * {@link FirebaseUser} 轉接為 {@link AuthUser}
+ */
+public class FirebaseAuthUser implements AuthUser {
+
+    private final FirebaseUser firebaseUser;
+
+    public FirebaseAuthUser(@NonNull FirebaseUser firebaseUser) {
+        this.firebaseUser = firebaseUser;
+    }
+
+    /**
+     * 取得原始 FirebaseUser
+     */
+    @NonNull
+    public FirebaseUser getFirebaseUser() {
+        return firebaseUser;
+    }
+
+    @Override
+    public String getUid() {
+        return firebaseUser.getUid();
+    }
+
+    @Override
+    public String getEmail() {
+        return firebaseUser.getEmail();
+    }
+
+    @Override
+    public boolean isEmailVerified() {
+        return firebaseUser.isEmailVerified();
+    }
+}
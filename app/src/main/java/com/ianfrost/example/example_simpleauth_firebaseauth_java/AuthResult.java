@@ -1,16 +1,29 @@
 package com.ianfrost.example.example_simpleauth_firebaseauth_java;
 
-import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.auth.PhoneAuthProvider;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthBackend;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthErrorCode;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthException;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthUser;
 
+/**
+ * 登入/註冊結果（不可變）
+ * 讀取中與只有錯誤代碼的失敗結果內容固定，以 {@link #load()}、{@link #failure(AuthAction, AuthErrorCode)} 取得共用實例
+ */
 public class AuthResult {
+
+    private static final AuthResult LOAD = new AuthResult(AuthAction.LOAD, true, null, null);
+    // 共用失敗結果 [AuthAction][AuthErrorCode]，第一次使用時建立（內容不可變，重複建立無影響）
+    private static final AuthResult[][] FAILURES = new AuthResult[AuthAction.values().length][AuthErrorCode.values().length];
+
     public final AuthAction action;
     public final boolean isSuccess;
-    public final FirebaseUser user;
-    public final Exception error;
+    public final AuthUser user;
+    public final AuthException error;
+    // 錯誤代碼，成功時為 null
+    public final AuthErrorCode errorCode;
     // phone 驗證，需要 verificationId、forceResendToken
     public final String verificationId;
-    public final PhoneAuthProvider.ForceResendingToken forceResendToken;
+    public final AuthBackend.ResendToken forceResendToken;
 
     public enum AuthAction {
         LOAD,
@@ -18,25 +31,67 @@ public class AuthResult {
         REGISTER_NO_VERIFY,
         REGISTER_EMAIL_VERIFY,
         REGISTER_PHONE_VERIFY,
-        REGISTER_PHONE_VERIFY_End,
-    }
+        REGISTER_PHONE_VERIFY_End;
 
-    public AuthResult(AuthAction action, boolean isSuccess, FirebaseUser user, Exception error) {
-        this(action, isSuccess, user, error, null, null);
+        /**
+         * 認證狀態切換順序：登入 -> 無驗證註冊 -> 信箱驗證註冊 -> 手機號碼驗證註冊 -> 登入
+         *
+         * @return 下一個認證狀態
+         */
+        public AuthAction next() {
+            switch (this) {
+                case LOGIN:
+                    return REGISTER_NO_VERIFY;
+                case REGISTER_NO_VERIFY:
+                    return REGISTER_EMAIL_VERIFY;
+                case REGISTER_EMAIL_VERIFY:
+                    return REGISTER_PHONE_VERIFY;
+                default:
+                    return LOGIN;
+            }
+        }
     }
 
-    public static AuthResult load() {
-        return new AuthResult(AuthAction.LOAD, true, null, null);
+    public AuthResult(AuthAction action, boolean isSuccess, AuthUser user, AuthException error) {
+        this(action, isSuccess, user, error, null, null);
     }
 
-    public AuthResult(AuthAction action, boolean isSuccess, FirebaseUser user, Exception error, String verificationId, PhoneAuthProvider.ForceResendingToken token) {
+    public AuthResult(AuthAction action, boolean isSuccess, AuthUser user, AuthException error, String verificationId, AuthBackend.ResendToken token) {
         this.action = action;
         this.isSuccess = isSuccess;
         this.user = user;
         this.error = error;
+        this.errorCode = error != null ? error.getCode() : null;
         this.verificationId = verificationId;
         this.forceResendToken = token;
     }
 
+    /**
+     * 讀取中（共用實例）
+     */
+    public static AuthResult load() {
+        return LOAD;
+    }
 
+    /**
+     * 只有錯誤代碼的失敗結果（共用實例）
+     */
+    public static AuthResult failure(AuthAction action, AuthErrorCode code) {
+        AuthResult result = FAILURES[action.ordinal()][code.ordinal()];
+        if (result == null) {
+            result = new AuthResult(action, false, null, AuthException.of(code));
+            FAILURES[action.ordinal()][code.ordinal()] = result;
+        }
+        return result;
+    }
+
+    /**
+     * 失敗結果，錯誤為共用實例時回傳共用結果
+     */
+    public static AuthResult failure(AuthAction action, AuthException error) {
+        if (error == AuthException.of(error.getCode())) {
+            return failure(action, error.getCode());
+        }
+        return new AuthResult(action, false, null, error);
+    }
 }
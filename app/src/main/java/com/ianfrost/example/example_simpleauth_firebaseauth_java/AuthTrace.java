@@ -0,0 +1,65 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java;
+
+import androidx.core.os.TraceCompat;
+
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthPipeline;
+
+/**
+ * 登入/註冊熱路徑的 trace 區段（Perfetto 中依序為）：
+ * AuthFragment.confirm → AuthViewModel.doConfirm → AuthViewModel.request（async，送出到結果）
+ * → AuthFlow.&lt;階段&gt;（async，等待後端；AuthFlow.&lt;階段&gt;.call 為呼叫後端本身）
+ * → AuthFragment.handleResult → DestinationHost.transition（async，切換到個人頁的第一個畫格）
+ * release 預設不編入（{@link BuildConfig#AUTH_TRACE} 為 false，呼叫處的判斷由 R8 移除），建置時加 -PauthTrace=true 可開啟
+ */
+public final class AuthTrace {
+
+    public static final boolean ENABLED = BuildConfig.AUTH_TRACE;
+
+    /**
+     * 流程各階段（AuthFlow.signIn、AuthFlow.linkEmail 等）
+     */
+    public static final AuthPipeline.Tracer FLOW = new AuthPipeline.Tracer() {
+        @Override
+        public void beginSection(String name) {
+            TraceCompat.beginSection("AuthFlow." + name + ".call");
+        }
+
+        @Override
+        public void endSection() {
+            TraceCompat.endSection();
+        }
+
+        @Override
+        public void beginAsyncSection(String name, int cookie) {
+            TraceCompat.beginAsyncSection("AuthFlow." + name, cookie);
+        }
+
+        @Override
+        public void endAsyncSection(String name, int cookie) {
+            TraceCompat.endAsyncSection("AuthFlow." + name, cookie);
+        }
+    };
+
+    private AuthTrace() {
+    }
+
+    public static void beginSection(String name) {
+        if (ENABLED) TraceCompat.beginSection(name);
+    }
+
+    public static void endSection() {
+        if (ENABLED) TraceCompat.endSection();
+    }
+
+    public static void beginAsyncSection(String name, int cookie) {
+        if (ENABLED) TraceCompat.beginAsyncSection(name, cookie);
+    }
+
+    public static void endAsyncSection(String name, int cookie) {
+        if (ENABLED) TraceCompat.endAsyncSection(name, cookie);
+    }
+
+    public static void setCounter(String name, int value) {
+        if (ENABLED) TraceCompat.setCounter(name, value);
+    }
+}
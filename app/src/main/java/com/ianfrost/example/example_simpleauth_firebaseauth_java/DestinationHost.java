@@ -0,0 +1,83 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java;
+
+import android.view.View;
+
+import androidx.core.view.OneShotPreDrawListener;
+import androidx.fragment.app.Fragment;
+import androidx.fragment.app.FragmentContainerView;
+import androidx.fragment.app.FragmentManager;
+import androidx.fragment.app.FragmentTransaction;
+import androidx.lifecycle.Lifecycle;
+
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.featureAuth.AuthFragment;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.featureProfile.ProfileFragment;
+
+/**
+ * MainActivity 的頁面切換（登入頁、個人頁）
+ * 頁面建立後都保留，切換只做 show/hide：隱藏的頁面限制在 STARTED（保留 View 與 ViewModel），顯示的頁面恢復到 RESUMED
+ * 限制在 CREATED 會銷毀隱藏頁面的 View；改由頁面只在 RESUMED 接收送出結果、顯示時才跳出錯誤提示
+ * 另一頁尚未建立時預先 inflate 它的版面，第一次切換也不需在主執行緒 inflate
+ */
+final class DestinationHost {
+
+    static final String AUTH = "auth";
+    static final String PROFILE = "profile";
+
+    // 切換到第一個畫格的 trace 區段（Macrobenchmark 量測用）
+    static final String TRANSITION_SECTION = "DestinationHost.transition";
+
+    private final FragmentManager fragmentManager;
+    private final FragmentContainerView container;
+    private final PreInflatedViews preInflatedViews;
+    private int transitionCookie;
+
+    DestinationHost(FragmentManager fragmentManager, FragmentContainerView container, PreInflatedViews preInflatedViews) {
+        this.fragmentManager = fragmentManager;
+        this.container = container;
+        this.preInflatedViews = preInflatedViews;
+    }
+
+    /**
+     * 顯示頁面，另一頁隱藏（已是目前頁面時無作用）
+     *
+     * @param tag {@link #AUTH} 或 {@link #PROFILE}
+     */
+    void show(String tag) {
+        String otherTag = AUTH.equals(tag) ? PROFILE : AUTH;
+        Fragment target = fragmentManager.findFragmentByTag(tag);
+        Fragment other = fragmentManager.findFragmentByTag(otherTag);
+        boolean otherVisible = other != null && !other.isHidden();
+        if (target != null && !target.isHidden() && !otherVisible) return;
+
+        int cookie = ++transitionCookie;
+        AuthTrace.beginAsyncSection(TRANSITION_SECTION, cookie);
+
+        FragmentTransaction transaction = fragmentManager.beginTransaction().setReorderingAllowed(true);
+        if (target == null) {
+            target = AUTH.equals(tag) ? AuthFragment.newInstance() : ProfileFragment.newInstance();
+            transaction.add(container.getId(), target, tag);
+        } else {
+            transaction.show(target).setMaxLifecycle(target, Lifecycle.State.RESUMED);
+        }
+        if (otherVisible) {
+            transaction.hide(other).setMaxLifecycle(other, Lifecycle.State.STARTED);
+        }
+        if (fragmentManager.isStateSaved()) {
+            // 狀態已保存（API 28 以前 onStop 前）：重建時會依目前用戶重新切換
+            transaction.commitNowAllowingStateLoss();
+        } else {
+            transaction.commitNow();
+        }
+
+        View view = target.getView();
+        if (view != null) {
+            OneShotPreDrawListener.add(view, () -> AuthTrace.endAsyncSection(TRANSITION_SECTION, cookie));
+        } else {
+            AuthTrace.endAsyncSection(TRANSITION_SECTION, cookie);
+        }
+
+        if (other == null) {
+            preInflatedViews.prepare(AUTH.equals(otherTag) ? R.layout.fragment_auth : R.layout.fragment_profile, container);
+        }
+    }
+}
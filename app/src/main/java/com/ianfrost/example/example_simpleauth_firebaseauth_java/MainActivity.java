@@ -1,6 +1,9 @@
 package com.ianfrost.example.example_simpleauth_firebaseauth_java;
 
+import android.content.Intent;
+import android.net.Uri;
 import android.os.Bundle;
+import android.widget.Toast;
 
 import androidx.activity.EdgeToEdge;
 import androidx.appcompat.app.AppCompatActivity;
@@ -8,24 +11,28 @@ import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
 import androidx.databinding.DataBindingUtil;
-import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
 
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.data.AppStartup;
 import com.ianfrost.example.example_simpleauth_firebaseauth_java.databinding.ActivityMainBinding;
-import com.ianfrost.example.example_simpleauth_firebaseauth_java.featureAuth.AuthFragment;
-import com.ianfrost.example.example_simpleauth_firebaseauth_java.featureProfile.ProfileFragment;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.featureAuth.AuthErrorMessages;
 
-public class MainActivity extends AppCompatActivity {
+public class MainActivity extends AppCompatActivity implements PreInflatedViews.Owner {
 
     private ActivityMainBinding binding;
     private MainViewModel viewModel;
+    private PreInflatedViews preInflatedViews;
+    private DestinationHost destinationHost;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        // Firebase 在背景建立，畫面先以保存的登入狀態快照決定，後端就緒後再校正
+        AppStartup.startAuth(this);
         EdgeToEdge.enable(this);
 
         binding = DataBindingUtil.setContentView(this, R.layout.activity_main);
+        AppStartup.startAnalyticsAfterFirstFrame(binding.getRoot());
 
         getWindow().setStatusBarColor(getResources().getColor(R.color.statusBar, getTheme()));
         getWindow().setNavigationBarColor(getResources().getColor(R.color.statusBar, getTheme()));
@@ -38,29 +45,65 @@ public class MainActivity extends AppCompatActivity {
 
         viewModel = new ViewModelProvider(this).get(MainViewModel.class);
 
-        viewModel.getUser().observe(this, user -> {
-            Fragment nowUseFragment = getSupportFragmentManager().findFragmentById(binding.fragmentContainer.getId());
-            if (user != null) {
-                if (!(nowUseFragment instanceof ProfileFragment)) {
-                    getSupportFragmentManager().beginTransaction().replace(binding.fragmentContainer.getId(), ProfileFragment.newInstance()).commit();
-                }
-            } else {
-                if (!(nowUseFragment instanceof AuthFragment)) {
-                    getSupportFragmentManager().beginTransaction().replace(binding.fragmentContainer.getId(), AuthFragment.newInstance() ).commit();
-                }
-            }
-        });
-
+        // 登入頁與個人頁都保留，登入狀態變動時只切換顯示
+        preInflatedViews = new PreInflatedViews(this);
+        destinationHost = new DestinationHost(getSupportFragmentManager(), binding.fragmentContainer, preInflatedViews);
+        viewModel.getUser().observe(this, user ->
+                destinationHost.show(user != null ? DestinationHost.PROFILE : DestinationHost.AUTH));
+        viewModel.observeOfflineResults(this, this::showOfflineResult);
 
+        handleDeepLink(getIntent());
     }
 
     @Override
-    protected void onResume() {
-        super.onResume();
-
-        viewModel.checkCurrentUser();
+    public PreInflatedViews getPreInflatedViews() {
+        return preInflatedViews;
+    }
 
+    @Override
+    protected void onNewIntent(Intent intent) {
+        super.onNewIntent(intent);
+        setIntent(intent);
+        handleDeepLink(intent);
     }
 
+    /**
+     * 離線時保存的登入/註冊已送出（網路恢復後在背景完成，可能已不在登入頁）
+     */
+    private void showOfflineResult(AuthResult result) {
+        if (!result.isSuccess) {
+            Toast.makeText(this, getString(R.string.Offline_Failed, getString(AuthErrorMessages.of(result.errorCode))),
+                    Toast.LENGTH_LONG).show();
+            return;
+        }
+        int message;
+        switch (result.action) {
+            case LOGIN:
+                message = R.string.Offline_LoginDone;
+                break;
+            case REGISTER_EMAIL_VERIFY:
+                message = R.string.Offline_RegisterEmailVerifyDone;
+                break;
+            default:
+                message = R.string.Offline_RegisterDone;
+                break;
+        }
+        Toast.makeText(this, message, Toast.LENGTH_LONG).show();
+    }
 
+    /**
+     * 從信箱驗證連結（mode=verifyEmail&oobCode=...）開啟時，套用驗證碼並確認驗證狀態
+     * 其他動作（重設密碼等）App 沒有對應功能，不處理
+     */
+    private void handleDeepLink(Intent intent) {
+        if (intent == null || !Intent.ACTION_VIEW.equals(intent.getAction())) return;
+        Uri data = intent.getData();
+        if (data == null || !"verifyEmail".equals(data.getQueryParameter("mode"))) return;
+        String oobCode = data.getQueryParameter("oobCode");
+        if (oobCode != null && !oobCode.isEmpty()) {
+            viewModel.onVerificationLinkOpened(oobCode);
+        }
+        // 只處理一次（旋轉螢幕重建時 getIntent() 仍是同一個連結）
+        setIntent(new Intent(intent).setData(null));
+    }
 }
\ No newline at end of file
@@ -1,40 +1,150 @@
 package com.ianfrost.example.example_simpleauth_firebaseauth_java;
 
+import android.app.Application;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.core.content.ContextCompat;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LifecycleOwner;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
-import androidx.lifecycle.ViewModel;
-import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.auth.FirebaseUser;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthBackend;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthSession;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthSessionStore;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.EmailVerificationWatcher;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.IdTokenManager;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.OfflineAuthQueue;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.data.AuthBackendProvider;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.data.OfflineAuthWorker;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.featureAuth.AuthResultDispatcher;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.featureAuth.AuthViewModel;
+
+import java.util.concurrent.Executor;
+
+public class MainViewModel extends AndroidViewModel {
+
+    // 驗證後端(處理用戶登入、登出、註冊)
+    private final AuthBackend authBackend;
+    // 登入狀態存放處（監聽後端，狀態真的變動才通知）
+    private final AuthSessionStore sessionStore;
+    // 信箱驗證等待（確認驗證後經由 sessionStore 通知）
+    private final EmailVerificationWatcher verificationWatcher;
+    // 後端 API 用 ID token（快取、到期前背景更新）
+    private final IdTokenManager idTokenManager;
+    // 用戶資料，未登入為 null
+    private final MutableLiveData<AuthSession> user = new MutableLiveData<>();
+    private final AuthSessionStore.Observer sessionObserver = this::dispatchSession;
+    // 離線時保存的登入/註冊，網路恢復後重新送出的結果（App 不在前景時先暫存）
+    private final OfflineAuthQueue offlineQueue;
+    private final AuthResultDispatcher offlineResults = new AuthResultDispatcher();
+    private final OfflineAuthQueue.Listener offlineListener;
 
-public class MainViewModel extends ViewModel {
+    public MainViewModel(@NonNull Application application) {
+        this(application, AuthBackendProvider.get(), AuthBackendProvider.getSessionStore(application),
+                AuthBackendProvider.getEmailVerificationWatcher(application), AuthBackendProvider.getIdTokenManager(application),
+                AuthBackendProvider.getOfflineQueue(application));
+    }
+
+    public MainViewModel(@NonNull Application application, AuthBackend authBackend, AuthSessionStore sessionStore,
+                         EmailVerificationWatcher verificationWatcher, IdTokenManager idTokenManager,
+                         OfflineAuthQueue offlineQueue) {
+        super(application);
+        this.authBackend = authBackend;
+        this.sessionStore = sessionStore;
+        this.verificationWatcher = verificationWatcher;
+        this.idTokenManager = idTokenManager;
+        this.offlineQueue = offlineQueue;
 
-    // Firebase驗證庫(處理用戶登入、登出、註冊)
-    private final FirebaseAuth firebaseAuth = FirebaseAuth.getInstance();
-    // 用戶資料
-    private final MutableLiveData<FirebaseUser> user = new MutableLiveData<>();
+        sessionStore.addObserver(sessionObserver);
+        // 先以保存的快照顯示畫面，後端監聽回呼後再校正
+        user.setValue(sessionStore.getCurrent());
+        sessionStore.start();
+
+        Executor mainExecutor = ContextCompat.getMainExecutor(application);
+        offlineListener = result -> mainExecutor.execute(() -> onOfflineReplayed(result));
+        offlineQueue.setListener(offlineListener);
+    }
 
     /**
      * 取得用戶
      */
-    public LiveData<FirebaseUser> getUser() {
+    public LiveData<AuthSession> getUser() {
         return user;
     }
 
     /**
-     * 用戶資料取得並儲存
+     * 取得 ID token 管理（呼叫後端 API 時使用 {@link IdTokenManager#getToken()}）
+     */
+    public IdTokenManager getIdTokenManager() {
+        return idTokenManager;
+    }
+
+    /**
+     * 訂閱離線保存的登入/註冊重新送出的結果，owner RESUMED 才回呼，DESTROYED 時自動解除
+     */
+    public void observeOfflineResults(@NonNull LifecycleOwner owner, @NonNull AuthViewModel.AuthResultCallback callback) {
+        offlineResults.observe(owner, callback);
+    }
+
+    /**
+     * 用戶資料重新讀取（狀態未變動時不會通知觀察者）
      */
     public void checkCurrentUser() {
-        FirebaseUser getUser = firebaseAuth.getCurrentUser();
-        user.setValue(getUser);
+        sessionStore.refresh();
+    }
+
+    /**
+     * 開啟信箱驗證連結（深層連結）：套用連結中的 oobCode 完成驗證後立即確認驗證狀態
+     * 套用失敗（連結已使用、過期）時仍確認一次，可能已在其他裝置或瀏覽器完成驗證
+     *
+     * @param oobCode 連結中的 oobCode
+     */
+    public void onVerificationLinkOpened(@NonNull String oobCode) {
+        authBackend.applyActionCode(oobCode, (ignored, error) -> verificationWatcher.checkNow());
     }
 
     /**
-     * 用戶登出
+     * 用戶登出（離線保存的請求一併清除，不在登出後替上一位用戶送出）
      */
     public void signOut() {
-        firebaseAuth.signOut();
+        verificationWatcher.stop();
+        AuthBackendProvider.getBackgroundExecutor().execute(offlineQueue::clear);
+        OfflineAuthWorker.cancel(getApplication());
+        authBackend.signOut();
         checkCurrentUser();
     }
 
+    /**
+     * 離線保存的請求已送出：與直接送出成功時相同更新登入狀態、開始等待信箱驗證，再交給訂閱中的頁面
+     */
+    private void onOfflineReplayed(AuthResult result) {
+        if (result.isSuccess) {
+            if (result.action == AuthResult.AuthAction.REGISTER_EMAIL_VERIFY) {
+                verificationWatcher.watch(result.user);
+            }
+            checkCurrentUser();
+        }
+        offlineResults.dispatch(result);
+    }
+
+    /**
+     * 登入狀態變動，更新 LiveData
+     */
+    private void dispatchSession(AuthSession session) {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            user.setValue(session);
+        } else {
+            user.postValue(session);
+        }
+    }
+
+    @Override
+    protected void onCleared() {
+        sessionStore.removeObserver(sessionObserver);
+        offlineQueue.removeListener(offlineListener);
+        offlineResults.clear();
+    }
+
 }
 
@@ -0,0 +1,76 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java;
+
+import android.os.Looper;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.LayoutRes;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.asynclayoutinflater.view.AsyncLayoutInflater;
+import androidx.fragment.app.Fragment;
+import androidx.fragment.app.FragmentActivity;
+
+/**
+ * 預先 inflate 的頁面版面（主執行緒閒置時以 AsyncLayoutInflater 在背景 inflate）
+ * 頁面第一次顯示時於 onCreateView 取用，沒有預先 inflate 時回到一般 inflate
+ */
+public final class PreInflatedViews {
+
+    /**
+     * 提供預先 inflate 版面的 Activity
+     */
+    public interface Owner {
+        PreInflatedViews getPreInflatedViews();
+    }
+
+    private final AsyncLayoutInflater inflater;
+    // 預先 inflate 的版面與完成的 View（同時只保留一個）
+    @LayoutRes
+    private int layoutRes;
+    private View view;
+
+    public PreInflatedViews(@NonNull FragmentActivity activity) {
+        this.inflater = new AsyncLayoutInflater(activity);
+    }
+
+    /**
+     * 主執行緒閒置時預先 inflate（已預先 inflate 同一版面時無作用）
+     *
+     * @param parent 之後放入的容器（產生正確的 LayoutParams）
+     */
+    public void prepare(@LayoutRes int layoutRes, @NonNull ViewGroup parent) {
+        if (this.layoutRes == layoutRes) return;
+        this.layoutRes = layoutRes;
+        this.view = null;
+        Looper.myQueue().addIdleHandler(() -> {
+            if (this.layoutRes == layoutRes) {
+                inflater.inflate(layoutRes, parent, (inflated, resId, p) -> {
+                    if (this.layoutRes == resId) view = inflated;
+                });
+            }
+            return false;
+        });
+    }
+
+    /**
+     * 取出預先 inflate 的版面（只能取用一次），尚未完成或不是該版面時為 null
+     */
+    @Nullable
+    public View take(@LayoutRes int layoutRes) {
+        if (this.layoutRes != layoutRes || view == null) return null;
+        View taken = view;
+        this.layoutRes = 0;
+        this.view = null;
+        return taken;
+    }
+
+    /**
+     * Fragment 所屬 Activity 有預先 inflate 的版面時取出
+     */
+    @Nullable
+    public static View take(@NonNull Fragment fragment, @LayoutRes int layoutRes) {
+        FragmentActivity activity = fragment.requireActivity();
+        return activity instanceof Owner ? ((Owner) activity).getPreInflatedViews().take(layoutRes) : null;
+    }
+}
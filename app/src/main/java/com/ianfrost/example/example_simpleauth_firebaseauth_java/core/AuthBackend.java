@@ -0,0 +1,206 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.core;
+
+import java.util.concurrent.Executor;
+
+/**
+ * 驗證後端介面（登入、註冊、寄送驗證信、手機驗證/綁定、目前用戶、登出）
+ * 正式環境使用 Firebase 實作，JVM 量測/測試使用 {@link FakeAuthBackend}
+ */
+public interface AuthBackend {
+
+    /**
+     * 非同步請求完成回呼，成功時 error 為 null，失敗時 value 為 null
+     *
+     * @param <T> 回傳資料型別
+     */
+    interface Callback<T> {
+        void onComplete(T value, Exception error);
+    }
+
+    /**
+     * 手機驗證狀態回呼，對應 Firebase 的 OnVerificationStateChangedCallbacks
+     */
+    interface PhoneCallbacks {
+        void onVerificationCompleted(PhoneCredential credential);
+
+        void onVerificationFailed(Exception e);
+
+        void onCodeSent(String verificationId, ResendToken token);
+    }
+
+    /**
+     * 手機驗證憑證（由後端實作決定內容）
+     */
+    interface PhoneCredential {
+    }
+
+    /**
+     * 重新寄送簡訊用的 token（由後端實作決定內容）
+     */
+    interface ResendToken {
+    }
+
+    /**
+     * 憑證登入結果
+     */
+    final class SignInResult {
+        public final AuthUser user;
+        // 本次登入是否新建立帳號（手機號碼已註冊過時為 false）
+        public final boolean newUser;
+
+        public SignInResult(AuthUser user, boolean newUser) {
+            this.user = user;
+            this.newUser = newUser;
+        }
+    }
+
+    /**
+     * ID token 與到期時間
+     */
+    final class IdToken {
+        public final String token;
+        // 到期時間(epoch 毫秒)
+        public final long expiresAtMillis;
+
+        public IdToken(String token, long expiresAtMillis) {
+            this.token = token;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
+    /**
+     * 用戶/ID token 變動監聽，未登入時 user 為 null
+     */
+    interface UserListener {
+        void onUserChanged(AuthUser user);
+    }
+
+    /**
+     * 失敗類型（節流退避用）
+     */
+    enum FailureKind {
+        // 網路無法連線、逾時
+        NETWORK,
+        // 後端回報請求過多
+        TOO_MANY_REQUESTS,
+        // 其他錯誤（帳密錯誤等，重試無幫助）
+        OTHER
+    }
+
+    /**
+     * 取得目前登入的用戶，未登入為 null
+     */
+    AuthUser getCurrentUser();
+
+    /**
+     * 信箱密碼登入
+     */
+    void signIn(String email, String password, Callback<AuthUser> callback);
+
+    /**
+     * 信箱密碼建立帳號（成功後即為登入狀態）
+     */
+    void createUser(String email, String password, Callback<AuthUser> callback);
+
+    /**
+     * 寄送信箱驗證信
+     */
+    void sendEmailVerification(AuthUser user, Callback<Void> callback);
+
+    /**
+     * 套用信箱驗證連結的 oobCode（完成信箱驗證，之後重新讀取用戶即為已驗證）
+     */
+    void applyActionCode(String code, Callback<Void> callback);
+
+    /**
+     * 發送手機驗證簡訊
+     *
+     * @param phone          手機號碼
+     * @param timeoutSeconds 簡訊自動讀取逾時秒數
+     * @param host           平台 UI 宿主（Android 為 Activity，用於 reCAPTCHA），可為 null
+     * @param resendToken    重新發送時帶入上次 {@link PhoneCallbacks#onCodeSent} 取得的 token，首次發送為 null
+     * @param callbacks      驗證狀態回呼（即時驗證或簡訊自動讀取成功時回呼 onVerificationCompleted）
+     */
+    void verifyPhoneNumber(String phone, long timeoutSeconds, Object host, ResendToken resendToken,
+                           PhoneCallbacks callbacks);
+
+    /**
+     * 以簡訊識別碼與驗證碼建立手機驗證憑證
+     */
+    PhoneCredential getPhoneCredential(String verificationId, String code);
+
+    /**
+     * 從後端重新讀取用戶資料（例如確認信箱是否已驗證），回傳更新後的用戶
+     */
+    void reloadUser(AuthUser user, Callback<AuthUser> callback);
+
+    /**
+     * 取得用戶 ID token（後端 API 呼叫用）
+     *
+     * @param forceRefresh true 時不使用後端快取，一定重新取得
+     */
+    void getIdToken(AuthUser user, boolean forceRefresh, Callback<IdToken> callback);
+
+    /**
+     * 以手機驗證憑證登入，號碼未註冊時建立帳號（成功後即為登入狀態）
+     * 驗證碼錯誤時直接失敗，不會建立任何帳號
+     */
+    void signInWithPhoneCredential(PhoneCredential credential, Callback<SignInResult> callback);
+
+    /**
+     * 將信箱密碼綁定到用戶
+     */
+    void linkWithEmail(AuthUser user, String email, String password, Callback<AuthUser> callback);
+
+    /**
+     * 刪除用戶（註冊失敗時補償用，成功後即為登出狀態）
+     */
+    void deleteUser(AuthUser user, Callback<Void> callback);
+
+    /**
+     * 用戶登出
+     */
+    void signOut();
+
+    /**
+     * 後端錯誤對應到錯誤代碼
+     *
+     * @return 無法對應時回傳 null（由流程依步驟決定代碼）
+     */
+    AuthErrorCode mapError(Exception error);
+
+    /**
+     * 註冊 ID token 監聽（登入、登出、token 更新時觸發），註冊當下會先回呼一次目前狀態
+     */
+    void addIdTokenListener(UserListener listener);
+
+    /**
+     * 移除 ID token 監聽
+     */
+    void removeIdTokenListener(UserListener listener);
+
+    /**
+     * 預先建立到驗證端點的連線（使用者輸入時呼叫），不支援時回傳 {@link ConnectionPrewarmer#NONE}
+     *
+     * @param phone 一併連線手機驗證使用的端點（reCAPTCHA 等）
+     */
+    default ConnectionPrewarmer.Handle prewarm(boolean phone) {
+        return ConnectionPrewarmer.NONE;
+    }
+
+    /**
+     * 手機驗證是否可重新接上：同一號碼在逾時前再次呼叫 {@link #verifyPhoneNumber} 只回傳原本的結果，不再寄送簡訊
+     * （Firebase 的回呼綁定 Activity，Activity 停止時解除，需重新呼叫才能取得結果）
+     */
+    default boolean isPhoneVerificationReattachable() {
+        return false;
+    }
+
+    /**
+     * 後端可立即回應需要回傳值的呼叫（{@link #getCurrentUser}、{@link #getPhoneCredential} 等）後執行
+     * 一律交給 executor 執行，尚未就緒時等就緒後才交給 executor（不佔住執行緒等待）
+     */
+    default void whenReady(Executor executor, Runnable action) {
+        executor.execute(action);
+    }
+}
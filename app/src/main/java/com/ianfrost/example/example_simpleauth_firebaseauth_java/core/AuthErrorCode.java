@@ -0,0 +1,62 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.core;
+
+/**
+ * 登入/註冊錯誤代碼，訊息文字由 UI 依代碼從資源取得
+ */
+public enum AuthErrorCode {
+    // 送出前檢查（未送出任何網路請求）
+    EMAIL_EMPTY,
+    EMAIL_INVALID,
+    PASSWORD_EMPTY,
+    PASSWORD_TOO_SHORT,
+    PASSWORD_TOO_LONG,
+    PASSWORD_MISSING_UPPERCASE,
+    PASSWORD_MISSING_LOWERCASE,
+    PASSWORD_MISSING_DIGIT,
+    PASSWORD_MISSING_SYMBOL,
+    PHONE_EMPTY,
+    PHONE_INVALID,
+    VERIFY_CODE_EMPTY,
+    VERIFY_CODE_INVALID,
+    // 用戶端節流
+    RATE_LIMITED,
+    // 後端回報
+    INVALID_CREDENTIALS,
+    USER_DISABLED,
+    EMAIL_IN_USE,
+    PHONE_IN_USE,
+    WEAK_PASSWORD,
+    VERIFY_CODE_REJECTED,
+    VERIFICATION_EXPIRED,
+    REQUIRES_RECENT_LOGIN,
+    NETWORK,
+    TOO_MANY_REQUESTS,
+    // 後端沒有在階段期限內回應
+    TIMEOUT,
+    // 網路無法連線，請求已保存，恢復後自動送出（OfflineAuthQueue）
+    QUEUED_OFFLINE,
+    // 流程失敗（後端錯誤無法對應時依步驟區分）
+    USER_MISSING,
+    LOGIN_FAILED,
+    REGISTER_FAILED,
+    VERIFICATION_EMAIL_FAILED,
+    SMS_SEND_FAILED,
+    PHONE_VERIFY_FAILED,
+    EMAIL_LINK_FAILED,
+    UNKNOWN;
+
+    /**
+     * 節流退避用的失敗類型
+     */
+    public AuthBackend.FailureKind getFailureKind() {
+        switch (this) {
+            case NETWORK:
+            case TIMEOUT:
+                return AuthBackend.FailureKind.NETWORK;
+            case TOO_MANY_REQUESTS:
+                return AuthBackend.FailureKind.TOO_MANY_REQUESTS;
+            default:
+                return AuthBackend.FailureKind.OTHER;
+        }
+    }
+}
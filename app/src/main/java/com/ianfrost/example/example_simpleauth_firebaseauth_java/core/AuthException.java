@@ -0,0 +1,46 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.core;
+
+/**
+ * 帶錯誤代碼的登入/註冊錯誤（不擷取 stack trace）
+ * 沒有 cause 的錯誤內容固定，可用 {@link #of(AuthErrorCode)} 取得共用實例
+ */
+public class AuthException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final AuthException[] SHARED = new AuthException[AuthErrorCode.values().length];
+
+    static {
+        for (AuthErrorCode code : AuthErrorCode.values()) {
+            SHARED[code.ordinal()] = new AuthException(code);
+        }
+    }
+
+    private final AuthErrorCode code;
+
+    public AuthException(AuthErrorCode code) {
+        this(code, null);
+    }
+
+    /**
+     * @param cause 後端原始錯誤（除錯用）
+     */
+    public AuthException(AuthErrorCode code, Throwable cause) {
+        super(code.name(), cause, false, false);
+        this.code = code;
+    }
+
+    /**
+     * 共用實例（不可變，可重複拋出）
+     */
+    public static AuthException of(AuthErrorCode code) {
+        return SHARED[code.ordinal()];
+    }
+
+    /**
+     * 錯誤代碼
+     */
+    public AuthErrorCode getCode() {
+        return code;
+    }
+}
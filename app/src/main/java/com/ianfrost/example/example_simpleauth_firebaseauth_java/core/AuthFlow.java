@@ -0,0 +1,679 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.core;
+
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.AuthResult;
+
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.validation.AuthValidator;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.validation.ValidationException;
+
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * 登入/註冊流程（不依賴 Android，可於 JVM 上直接執行與量測）
+ * 依 {@link AuthResult.AuthAction} 分派到對應流程，結果以 {@link ResultCallback} 回傳
+ */
+public class AuthFlow {
+
+    // 手機簡訊自動讀取逾時秒數
+    public static final long PHONE_TIMEOUT_SECONDS = 60L;
+    // 簡訊已送出結果快取時間（同號碼短時間內不再重發簡訊）
+    private static final long CODE_SENT_CACHE_MILLIS = 30_000L;
+    // 每個階段的期限（後端沒有回應時結束讀取中）
+    static final long STAGE_DEADLINE_MILLIS = 20_000L;
+
+    // 流程階段名稱（StageListener、trace 使用）
+    public static final String STAGE_SIGN_IN = "signIn";
+    public static final String STAGE_CREATE_USER = "createUser";
+    public static final String STAGE_SEND_EMAIL_VERIFICATION = "sendEmailVerification";
+    public static final String STAGE_VERIFY_PHONE = "verifyPhone";
+    public static final String STAGE_LINK_EMAIL = "linkEmail";
+    public static final String STAGE_ROLLBACK = "rollback";
+
+    private final AuthBackend backend;
+    // 用戶端節流，null 表示不節流
+    private final AuthRateLimiter rateLimiter;
+    // 送出前檢查，在 validationExecutor 執行，結果切回 resultExecutor 再送出請求
+    private final AuthValidator validator;
+    private final Executor validationExecutor;
+    private final Executor resultExecutor;
+    // 階段期限排程，null 表示不設期限
+    private final ScheduledExecutorService scheduler;
+    // 取消進行中的流程（ViewModel 清除時）
+    private final AuthPipeline.Cancellation cancellation = new AuthPipeline.Cancellation();
+    private volatile AuthPipeline.Tracer tracer = AuthPipeline.Tracer.NONE;
+    // 已開始的登入/註冊流程數（逾時後才成功的結果只在之後沒有新的流程時補償）
+    private final AtomicInteger flowStarts = new AtomicInteger();
+    // 相同請求(AuthAction + 信箱/手機)進行中時合併為一次
+    private final SingleFlight<String, AuthResult> singleFlight = new SingleFlight<>(AuthFlow::cacheTtl);
+    // 階段耗時回呼，null 表示不回報
+    private volatile StageListener stageListener;
+
+    /**
+     * 登入/註冊/驗證處理結果的回呼介面
+     */
+    public interface ResultCallback {
+        void onResult(AuthResult result);
+    }
+
+    /**
+     * 流程各階段耗時回呼（量測用，於後端回呼的執行緒呼叫）
+     */
+    public interface StageListener {
+        void onStage(AuthResult.AuthAction action, String stage, long elapsedNanos, boolean success);
+    }
+
+    public AuthFlow(AuthBackend backend) {
+        this(backend, null, new AuthValidator(), Runnable::run, Runnable::run);
+    }
+
+    public AuthFlow(AuthBackend backend, AuthRateLimiter rateLimiter, AuthValidator validator,
+                    Executor validationExecutor, Executor resultExecutor) {
+        this(backend, rateLimiter, validator, validationExecutor, resultExecutor, null);
+    }
+
+    /**
+     * @param backend            驗證後端
+     * @param rateLimiter        用戶端節流，null 表示不節流
+     * @param validator          送出前檢查
+     * @param validationExecutor 送出前檢查與流程各階段之間的執行緒（Android 為背景執行緒）
+     * @param resultExecutor     檢查完成後送出請求與回傳結果的執行緒（Android 為主執行緒）
+     * @param scheduler          階段期限排程，null 表示不設期限
+     */
+    public AuthFlow(AuthBackend backend, AuthRateLimiter rateLimiter, AuthValidator validator,
+                    Executor validationExecutor, Executor resultExecutor, ScheduledExecutorService scheduler) {
+        this.backend = backend;
+        this.rateLimiter = rateLimiter;
+        this.validator = validator;
+        this.validationExecutor = validationExecutor;
+        this.resultExecutor = resultExecutor;
+        this.scheduler = scheduler;
+    }
+
+    public AuthBackend getBackend() {
+        return backend;
+    }
+
+    /**
+     * 根據認證狀態決定採用哪一種註冊/登入方式
+     * 先做送出前檢查（信箱格式、密碼規則、手機 E.164），通過後才送出
+     * 相同請求進行中時（例如連點）不再送出，等待中的呼叫者都會收到同一個結果
+     *
+     * @param action   認證狀態 {@link AuthResult.AuthAction}
+     * @param request  輸入資料
+     * @param host     平台 UI 宿主（手機驗證使用），可為 null
+     * @param callback 回傳送出結果
+     */
+    public void confirm(AuthResult.AuthAction action, AuthRequest request, Object host, ResultCallback callback) {
+        validationExecutor.execute(() -> {
+            AuthRequest checked;
+            try {
+                checked = validator.validate(action, request);
+            } catch (ValidationException e) {
+                resultExecutor.execute(() -> callback.onResult(AuthResult.failure(action, e.getCode())));
+                return;
+            }
+            loadRateLimiter();
+            resultExecutor.execute(() -> submit(action, checked, host, callback));
+        });
+    }
+
+    /**
+     * 手機驗證 - 使用上次簡訊送出時取得的 token 重新發送簡訊
+     * 與首次發送相同經過送出前檢查與節流，並略過簡訊已送出的快取
+     *
+     * @param request     輸入資料
+     * @param resendToken {@link AuthResult#forceResendToken}
+     * @param host        平台 UI 宿主，可為 null
+     * @param callback    回傳送出結果
+     */
+    public void resendPhoneCode(AuthRequest request, AuthBackend.ResendToken resendToken, Object host, ResultCallback callback) {
+        final AuthResult.AuthAction action = AuthResult.AuthAction.REGISTER_PHONE_VERIFY;
+        validationExecutor.execute(() -> {
+            AuthRequest checked;
+            try {
+                checked = validator.validate(action, request);
+            } catch (ValidationException e) {
+                resultExecutor.execute(() -> callback.onResult(AuthResult.failure(action, e.getCode())));
+                return;
+            }
+            loadRateLimiter();
+            resultExecutor.execute(() -> {
+                singleFlight.forget(requestKey(action, checked));
+                submitCall(action, checked, callback, cb -> sendPhoneCode(checked, resendToken, host, cb));
+            });
+        });
+    }
+
+    /**
+     * 手機驗證 - 重新接上進行中的簡訊發送（Activity 停止時後端解除了回呼，或程序被回收後還原）
+     * 後端支援重新接上時再次呼叫，不會再寄送簡訊，也不經過節流；原本卡住的相同請求一併放棄
+     *
+     * @param request     輸入資料（簡訊發送時的號碼）
+     * @param host        平台 UI 宿主，可為 null
+     * @param interrupted 原本的回呼已不存在（程序被回收），後端不支援重新接上時回傳發送失敗；
+     *                    false 時不支援重新接上則不回傳任何結果（原本的回呼仍會回傳）
+     * @param callback    回傳送出結果
+     */
+    public void resumePhoneVerification(AuthRequest request, Object host, boolean interrupted, ResultCallback callback) {
+        final AuthResult.AuthAction action = AuthResult.AuthAction.REGISTER_PHONE_VERIFY;
+        validationExecutor.execute(() -> {
+            AuthRequest checked;
+            try {
+                checked = validator.validate(action, request);
+            } catch (ValidationException e) {
+                resultExecutor.execute(() -> callback.onResult(AuthResult.failure(action, e.getCode())));
+                return;
+            }
+            backend.whenReady(validationExecutor, () -> {
+                boolean reattachable = backend.isPhoneVerificationReattachable();
+                resultExecutor.execute(() -> {
+                    if (!reattachable) {
+                        if (interrupted) callback.onResult(AuthResult.failure(action, AuthErrorCode.SMS_SEND_FAILED));
+                        return;
+                    }
+                    singleFlight.abandon(requestKey(action, checked));
+                    sendPhoneCode(checked, null, host, callback);
+                });
+            });
+        });
+    }
+
+    /**
+     * 還原程序被回收前送出的請求結果：只讀取後端保存的登入狀態，不送出網路請求
+     * 登入用戶的信箱與送出時相同才回傳該動作的成功結果，否則不回傳（結果未知，由用戶重新送出）
+     * 手機註冊階段2 例外：信箱不符表示綁定信箱前中斷，刪除只有手機號碼的帳號（其他帳號只登出）後回傳綁定失敗
+     *
+     * @param action        被中斷的認證動作
+     * @param expectedEmail 送出時的信箱，未知時為 null（不回傳結果）
+     * @param callback      回傳還原的結果
+     */
+    public void recover(AuthResult.AuthAction action, String expectedEmail, ResultCallback callback) {
+        backend.whenReady(validationExecutor, () -> {
+            AuthUser user = backend.getCurrentUser();
+            if (user == null) return;
+            String email = user.getEmail();
+            if (expectedEmail != null && !expectedEmail.isEmpty() && expectedEmail.equalsIgnoreCase(email)) {
+                resultExecutor.execute(() -> callback.onResult(new AuthResult(action, true, user, null)));
+                return;
+            }
+            if (action != AuthResult.AuthAction.REGISTER_PHONE_VERIFY_End) return;
+            AuthException cause = AuthException.of(AuthErrorCode.EMAIL_LINK_FAILED);
+            if (email == null || email.isEmpty()) {
+                // 本 App 不會留下只有手機號碼的帳號（綁定失敗時刪除），視為註冊到一半
+                rollback(action, user, cause, callback);
+            } else {
+                backend.signOut();
+                resultExecutor.execute(() -> callback.onResult(AuthResult.failure(action, cause)));
+            }
+        });
+    }
+
+    /**
+     * 檢查通過後送出（相同請求合併）
+     */
+    private void submit(AuthResult.AuthAction action, AuthRequest request, Object host, ResultCallback callback) {
+        submitCall(action, request, callback, cb -> dispatch(action, request, host, cb));
+    }
+
+    /**
+     * @param call 實際送出請求
+     */
+    private void submitCall(AuthResult.AuthAction action, AuthRequest request, ResultCallback callback,
+                            Consumer<ResultCallback> call) {
+        boolean joined = singleFlight.execute(requestKey(action, request), complete -> {
+            AtomicBoolean completed = new AtomicBoolean();
+            dispatchThrottled(action, request, call, result -> {
+                if (result.action == AuthResult.AuthAction.LOAD) {
+                    callback.onResult(result); // 只有實際送出請求的呼叫者會收到讀取中狀態
+                } else if (completed.compareAndSet(false, true)) {
+                    complete.accept(result);
+                } else {
+                    callback.onResult(result); // 請求完成後的後續結果（例如簡訊自動讀取完成）只回傳給發起者
+                }
+            });
+        }, callback::onResult);
+        if (joined) {
+            callback.onResult(AuthResult.load());
+        }
+    }
+
+    /**
+     * 在檢查用的背景執行緒讀取節流狀態，之後在結果執行緒扣額度時不讀取儲存
+     */
+    private void loadRateLimiter() {
+        if (rateLimiter != null) rateLimiter.load();
+    }
+
+    /**
+     * 先經過用戶端節流再分派，結果回報節流器決定是否退避
+     * 輸入為空時不扣額度（之後的欄位檢查會直接失敗，不會送出網路請求）
+     */
+    private void dispatchThrottled(AuthResult.AuthAction action, AuthRequest request, Consumer<ResultCallback> call,
+                                   ResultCallback callback) {
+        String identifier = identifier(action, request);
+        if (rateLimiter == null || identifier.isEmpty()) {
+            call.accept(callback);
+            return;
+        }
+        long waitMillis = rateLimiter.tryAcquire(action, identifier);
+        if (waitMillis > 0) {
+            callback.onResult(AuthResult.failure(action, new RateLimitedException(waitMillis)));
+            return;
+        }
+        call.accept(result -> {
+            // 只記錄本次請求的結果（手機自動驗證後的註冊結果不影響簡訊發送的退避）
+            if (result.action == action) {
+                boolean sent = result.isSuccess || result.verificationId != null;
+                rateLimiter.record(action, identifier, sent ? null
+                        : result.errorCode != null ? result.errorCode.getFailureKind() : AuthBackend.FailureKind.OTHER);
+            }
+            callback.onResult(result);
+        });
+    }
+
+    /**
+     * 送出前檢查（不送出請求、不扣節流額度），輸入變動時顯示提示用
+     *
+     * @return 通過回傳 null，否則回傳第一個錯誤代碼
+     */
+    public AuthErrorCode check(AuthResult.AuthAction action, AuthRequest request) {
+        try {
+            validator.validate(action, request);
+            return null;
+        } catch (ValidationException e) {
+            return e.getCode();
+        }
+    }
+
+    /**
+     * 取得目前剩餘冷卻毫秒數（UI 顯示用）
+     */
+    public long getCooldownMillis(AuthResult.AuthAction action, AuthRequest request) {
+        String identifier = identifier(action, request);
+        if (rateLimiter == null || identifier.isEmpty()) {
+            return 0;
+        }
+        return rateLimiter.getCooldownMillis(action, identifier);
+    }
+
+    /**
+     * 依認證狀態分派到對應流程
+     * 請求已經過 {@link AuthValidator}，各流程不再重複檢查欄位
+     */
+    private void dispatch(AuthResult.AuthAction action, AuthRequest request, Object host, ResultCallback callback) {
+        switch (action) {
+            case LOGIN:
+                login(request, callback);
+                break;
+            case REGISTER_NO_VERIFY:
+                registerNoVerify(request, callback);
+                break;
+            case REGISTER_EMAIL_VERIFY:
+                registerWithEmailVerify(request, callback);
+                break;
+            case REGISTER_PHONE_VERIFY:
+                registerWithPhoneVerify(request, host, callback); // 手機階段1
+                break;
+            case REGISTER_PHONE_VERIFY_End:
+                registerWithPhoneCodeVerify(request, callback); // 手機階段2
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 設定階段耗時回呼
+     *
+     * @param stageListener null 表示不回報
+     */
+    public void setStageListener(StageListener stageListener) {
+        this.stageListener = stageListener;
+    }
+
+    /**
+     * 設定流程階段的 trace 區段
+     */
+    public void setTracer(AuthPipeline.Tracer tracer) {
+        this.tracer = tracer != null ? tracer : AuthPipeline.Tracer.NONE;
+    }
+
+    /**
+     * 取消進行中的流程（ViewModel 清除時呼叫），之後不再開始新的階段
+     * 已建立的手機帳號仍會刪除
+     */
+    public void cancel() {
+        cancellation.cancel();
+    }
+
+    /**
+     * 合併請求統計：實際送出、合併、快取命中次數
+     */
+    public SingleFlight<String, AuthResult> getSingleFlight() {
+        return singleFlight;
+    }
+
+    /**
+     * 請求 key：AuthAction + 正規化後的識別資料
+     */
+    static String requestKey(AuthResult.AuthAction action, AuthRequest request) {
+        return action.name() + '|' + identifier(action, request);
+    }
+
+    /**
+     * 正規化後的識別資料（信箱小寫、手機只留數字與 +、驗證碼階段為 verificationId）
+     */
+    static String identifier(AuthResult.AuthAction action, AuthRequest request) {
+        switch (action) {
+            case REGISTER_PHONE_VERIFY:
+                return normalizePhone(request.phone);
+            case REGISTER_PHONE_VERIFY_End:
+                return request.verificationId;
+            default:
+                return request.email.toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private static String normalizePhone(String phone) {
+        StringBuilder sb = new StringBuilder(phone.length());
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if ((c >= '0' && c <= '9') || c == '+') sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 只快取重複執行結果相同的結果：簡訊已送出（登入/註冊會改變登入狀態，不快取）
+     */
+    private static long cacheTtl(AuthResult result) {
+        if (result.action == AuthResult.AuthAction.REGISTER_PHONE_VERIFY && result.verificationId != null) {
+            return CODE_SENT_CACHE_MILLIS;
+        }
+        return 0;
+    }
+
+    /**
+     * 登入流程
+     */
+    private void login(AuthRequest request, ResultCallback callback) {
+        final AuthResult.AuthAction action = AuthResult.AuthAction.LOGIN;
+        callback.onResult(AuthResult.load());
+        int started = flowStarts.incrementAndGet();
+        AuthPipeline.<AuthUser>first(STAGE_SIGN_IN, (ignored, cb) -> backend.signIn(request.email, request.password, cb),
+                        user -> discardLate(action, started, user, false))
+                .run(environment(action), (user, stage, error) -> deliver(action, user, stage, error, callback));
+    }
+
+    /**
+     * 註冊 - 無驗證
+     */
+    private void registerNoVerify(AuthRequest request, ResultCallback callback) {
+        final AuthResult.AuthAction action = AuthResult.AuthAction.REGISTER_NO_VERIFY;
+        callback.onResult(AuthResult.load());
+        int started = flowStarts.incrementAndGet();
+        AuthPipeline.<AuthUser>first(STAGE_CREATE_USER, (ignored, cb) -> backend.createUser(request.email, request.password, cb),
+                        user -> discardLate(action, started, user, true))
+                .run(environment(action), (user, stage, error) -> deliver(action, user, stage, error, callback));
+    }
+
+    /**
+     * 註冊 - 信箱驗證：建立帳號後寄送驗證信
+     * 寄送驗證信失敗時，失敗結果帶有已建立（已登入）的用戶
+     */
+    private void registerWithEmailVerify(AuthRequest request, ResultCallback callback) {
+        final AuthResult.AuthAction action = AuthResult.AuthAction.REGISTER_EMAIL_VERIFY;
+        callback.onResult(AuthResult.load());
+        int started = flowStarts.incrementAndGet();
+        // 已建立的帳號（寄送驗證信失敗時一併回傳，可稍後重新寄送）
+        AtomicReference<AuthUser> created = new AtomicReference<>();
+        AuthPipeline.<AuthUser>first(STAGE_CREATE_USER, (ignored, cb) -> backend.createUser(request.email, request.password, cb),
+                        user -> discardLate(action, started, user, true))
+                .<AuthUser>then(STAGE_SEND_EMAIL_VERIFICATION, (user, cb) -> {
+                    if (user == null) {
+                        cb.onComplete(null, AuthException.of(AuthErrorCode.USER_MISSING));
+                        return;
+                    }
+                    created.set(user);
+                    backend.sendEmailVerification(user, (ignored, error) -> cb.onComplete(user, error));
+                })
+                .run(environment(action), (user, stage, error) -> {
+                    AuthUser partial = created.get();
+                    if (error != null && partial != null) {
+                        AuthException cause = toAuthException(error, AuthErrorCode.VERIFICATION_EMAIL_FAILED);
+                        resultExecutor.execute(() -> callback.onResult(new AuthResult(action, false, partial, cause)));
+                    } else {
+                        deliver(action, user, stage, error, callback);
+                    }
+                });
+    }
+
+    /**
+     * 重新寄送驗證信（註冊成功但驗證信未寄出時，由離線佇列送出）
+     * 目前用戶不是該信箱時回傳 {@link AuthErrorCode#USER_MISSING}
+     */
+    public void resendEmailVerification(String email, ResultCallback callback) {
+        final AuthResult.AuthAction action = AuthResult.AuthAction.REGISTER_EMAIL_VERIFY;
+
+        callback.onResult(AuthResult.load());
+        backend.whenReady(validationExecutor, () -> {
+            AuthUser user = backend.getCurrentUser();
+            if (user == null || !email.equalsIgnoreCase(user.getEmail())) {
+                resultExecutor.execute(() -> callback.onResult(AuthResult.failure(action, AuthErrorCode.USER_MISSING)));
+                return;
+            }
+            AuthPipeline.<AuthUser>first(STAGE_SEND_EMAIL_VERIFICATION,
+                            (ignored, cb) -> backend.sendEmailVerification(user, (sent, error) -> cb.onComplete(user, error)))
+                    .run(environment(action), (sent, stage, error) -> deliver(action, sent, stage, error, callback));
+        });
+    }
+
+    /**
+     * 註冊 - 手機號碼驗證註冊（階段1：發送簡訊）
+     * 簡訊送出時回傳帶有 verificationId 的結果
+     * 即時驗證或簡訊自動讀取成功時直接建立帳號並綁定，回傳 {@link AuthResult.AuthAction#REGISTER_PHONE_VERIFY_End} 結果
+     */
+    private void registerWithPhoneVerify(AuthRequest request, Object host, ResultCallback callback) {
+        sendPhoneCode(request, null, host, callback);
+    }
+
+    private void sendPhoneCode(AuthRequest request, AuthBackend.ResendToken resendToken, Object host, ResultCallback callback) {
+        final AuthResult.AuthAction action = AuthResult.AuthAction.REGISTER_PHONE_VERIFY;
+
+        callback.onResult(AuthResult.load());
+        AtomicReference<String> sentVerificationId = new AtomicReference<>();
+        backend.verifyPhoneNumber(request.phone, PHONE_TIMEOUT_SECONDS, host, resendToken, new AuthBackend.PhoneCallbacks() {
+            @Override
+            public void onVerificationCompleted(AuthBackend.PhoneCredential credential) {
+                String verificationId = sentVerificationId.get();
+                if (verificationId == null) {
+                    // 即時驗證：沒有發送簡訊，直接建立帳號並綁定
+                    completePhoneRegistration(request, credential, callback);
+                    return;
+                }
+                // 簡訊自動讀取：與手動輸入驗證碼共用同一個請求，避免重複建立帳號
+                singleFlight.forget(requestKey(action, request));
+                AuthRequest codeRequest = new AuthRequest(request.email, request.password, request.phone, verificationId, null);
+                singleFlight.execute(requestKey(AuthResult.AuthAction.REGISTER_PHONE_VERIFY_End, codeRequest),
+                        complete -> completePhoneRegistration(request, credential, result -> {
+                            if (result.action == AuthResult.AuthAction.LOAD) {
+                                callback.onResult(result);
+                            } else {
+                                complete.accept(result);
+                            }
+                        }),
+                        callback::onResult);
+            }
+
+            @Override
+            public void onVerificationFailed(Exception e) {
+                callback.onResult(failure(action, e, AuthErrorCode.SMS_SEND_FAILED));
+            }
+
+            @Override
+            public void onCodeSent(String verificationId, AuthBackend.ResendToken token) {
+                sentVerificationId.set(verificationId);
+                callback.onResult(new AuthResult(action, false, null, null, verificationId, token));
+            }
+        });
+    }
+
+    /**
+     * 註冊 - 手機號碼註冊 -> 取得驗證碼後驗證（階段2）
+     */
+    private void registerWithPhoneCodeVerify(AuthRequest request, ResultCallback callback) {
+        // 後端建立完成前不在主執行緒等待
+        backend.whenReady(resultExecutor, () -> completePhoneRegistration(request,
+                backend.getPhoneCredential(request.verificationId, request.verifyCode), callback));
+    }
+
+    /**
+     * 以手機驗證憑證完成註冊
+     * 先以憑證登入（驗證碼錯誤時不會建立帳號），再綁定信箱密碼
+     * 綁定失敗、逾時或取消時刪除剛建立的手機帳號，不留下註冊一半的用戶
+     */
+    private void completePhoneRegistration(AuthRequest request, AuthBackend.PhoneCredential credential, ResultCallback callback) {
+        final AuthResult.AuthAction action = AuthResult.AuthAction.REGISTER_PHONE_VERIFY_End;
+
+        callback.onResult(AuthResult.load());
+        // 剛建立的手機帳號（之後的階段失敗時刪除）
+        AtomicReference<AuthUser> created = new AtomicReference<>();
+        int started = flowStarts.incrementAndGet();
+        // 綁定信箱逾時後才成功的結果不另外處理：逾時已觸發 rollback 刪除手機帳號
+        AuthPipeline.<AuthBackend.SignInResult>first(STAGE_VERIFY_PHONE,
+                        (ignored, cb) -> backend.signInWithPhoneCredential(credential, cb),
+                        signIn -> discardLate(action, started, signIn != null ? signIn.user : null, signIn != null && signIn.newUser))
+                .<AuthUser>then(STAGE_LINK_EMAIL, (signIn, cb) -> {
+                    if (signIn == null || signIn.user == null) {
+                        cb.onComplete(null, AuthException.of(AuthErrorCode.USER_MISSING));
+                        return;
+                    }
+                    if (!signIn.newUser) {
+                        // 手機號碼已註冊過：既有帳號不可刪除，只登出
+                        backend.signOut();
+                        cb.onComplete(null, AuthException.of(AuthErrorCode.PHONE_IN_USE));
+                        return;
+                    }
+                    created.set(signIn.user);
+                    backend.linkWithEmail(signIn.user, request.email, request.password,
+                            (linked, error) -> cb.onComplete(linked != null ? linked : signIn.user, error));
+                })
+                .run(environment(action), (user, stage, error) -> {
+                    AuthUser partial = created.get();
+                    if (error != null && partial != null) {
+                        rollback(action, partial, toAuthException(error, AuthErrorCode.EMAIL_LINK_FAILED), callback);
+                    } else {
+                        deliver(action, user, stage, error, callback);
+                    }
+                });
+    }
+
+    /**
+     * 補償：刪除註冊到一半的用戶後回傳原本的錯誤（不受取消影響）
+     */
+    private void rollback(AuthResult.AuthAction action, AuthUser user, AuthException cause, ResultCallback callback) {
+        deleteOrSignOut(action, user,
+                () -> resultExecutor.execute(() -> callback.onResult(AuthResult.failure(action, cause))));
+    }
+
+    /**
+     * 刪除用戶，失敗時登出（不受取消影響），完成後執行 then
+     */
+    private void deleteOrSignOut(AuthResult.AuthAction action, AuthUser user, Runnable then) {
+        AuthPipeline.<Void>first(STAGE_ROLLBACK, (ignored, cb) -> backend.deleteUser(user, cb))
+                .run(environment(action, new AuthPipeline.Cancellation()), (ignored, stage, deleteError) -> {
+                    if (deleteError != null) {
+                        backend.signOut(); // 刪除失敗至少登出，不停留在未完成註冊的帳號
+                    }
+                    then.run();
+                });
+    }
+
+    /**
+     * 逾時或取消後才成功的登入/建立帳號：畫面已顯示失敗，不保留這個登入狀態
+     * 新建立的帳號刪除（失敗時登出），既有帳號只登出；之後已開始新的流程或目前用戶已不是它時不處理
+     */
+    private void discardLate(AuthResult.AuthAction action, int started, AuthUser user, boolean created) {
+        if (user == null || started != flowStarts.get()) return;
+        AuthUser current = backend.getCurrentUser();
+        if (current == null || !current.getUid().equals(user.getUid())) return;
+        if (created) {
+            deleteOrSignOut(action, user, () -> {
+            });
+        } else {
+            backend.signOut();
+        }
+    }
+
+    /**
+     * 流程結束：切回 resultExecutor 回傳結果，失敗時以失敗階段的預設代碼對應錯誤
+     */
+    private void deliver(AuthResult.AuthAction action, AuthUser user, String stage, Exception error, ResultCallback callback) {
+        AuthResult result = error == null ? new AuthResult(action, true, user, null)
+                : AuthResult.failure(action, toAuthException(error, fallbackCode(stage)));
+        resultExecutor.execute(() -> callback.onResult(result));
+    }
+
+    /**
+     * 階段失敗且後端錯誤無法對應時的錯誤代碼
+     */
+    private static AuthErrorCode fallbackCode(String stage) {
+        switch (stage) {
+            case STAGE_SIGN_IN:
+                return AuthErrorCode.LOGIN_FAILED;
+            case STAGE_CREATE_USER:
+                return AuthErrorCode.REGISTER_FAILED;
+            case STAGE_SEND_EMAIL_VERIFICATION:
+                return AuthErrorCode.VERIFICATION_EMAIL_FAILED;
+            case STAGE_VERIFY_PHONE:
+                return AuthErrorCode.PHONE_VERIFY_FAILED;
+            case STAGE_LINK_EMAIL:
+                return AuthErrorCode.EMAIL_LINK_FAILED;
+            default:
+                return AuthErrorCode.UNKNOWN;
+        }
+    }
+
+    private AuthPipeline.Environment environment(AuthResult.AuthAction action) {
+        return environment(action, cancellation);
+    }
+
+    /**
+     * 流程執行環境：下一個階段在 validationExecutor 開始，每個階段有期限，耗時回報給 StageListener
+     */
+    private AuthPipeline.Environment environment(AuthResult.AuthAction action, AuthPipeline.Cancellation cancellation) {
+        return new AuthPipeline.Environment(validationExecutor, scheduler, STAGE_DEADLINE_MILLIS, cancellation, tracer,
+                (stage, elapsedNanos, success) -> reportStage(action, stage, elapsedNanos, success));
+    }
+
+    private void reportStage(AuthResult.AuthAction action, String stage, long elapsedNanos, boolean success) {
+        StageListener listener = stageListener;
+        if (listener != null) {
+            listener.onStage(action, stage, elapsedNanos, success);
+        }
+    }
+
+    private AuthResult failure(AuthResult.AuthAction action, Exception ex, AuthErrorCode fallback) {
+        return AuthResult.failure(action, toAuthException(ex, fallback));
+    }
+
+    /**
+     * 後端錯誤轉為錯誤代碼，無法對應或為 null 時使用步驟的預設代碼
+     * 沒有原始錯誤時回傳共用實例
+     *
+     * @param ex       後端回傳的錯誤
+     * @param fallback 步驟的預設代碼
+     */
+    private AuthException toAuthException(Exception ex, AuthErrorCode fallback) {
+        if (ex instanceof AuthException) return (AuthException) ex;
+        if (ex == null) return AuthException.of(fallback);
+        if (ex instanceof AuthPipeline.StageTimeoutException) return new AuthException(AuthErrorCode.TIMEOUT, ex);
+        AuthErrorCode code = backend.mapError(ex);
+        return new AuthException(code != null ? code : fallback, ex);
+    }
+}
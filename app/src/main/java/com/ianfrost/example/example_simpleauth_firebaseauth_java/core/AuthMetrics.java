@@ -0,0 +1,150 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.core;
+
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.AuthResult;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 登入/註冊延遲統計：每種認證動作記錄送出到畫面更新的延遲分布，並拆成 App、後端、UI 三段，失敗依錯誤代碼計數
+ * <ul>
+ *   <li>BACKEND：流程各階段等待後端的時間（SDK 與網路，{@link AuthFlow.StageListener}）</li>
+ *   <li>APP：送出到結果回到主執行緒扣掉 BACKEND（欄位檢查、節流、執行緒切換、主執行緒排隊）</li>
+ *   <li>UI：結果回到主執行緒到下一個畫格（頁面狀態、提示、切換到個人頁）</li>
+ *   <li>TOTAL：送出到下一個畫格</li>
+ * </ul>
+ * 同一時間只追蹤一個請求（送出按鈕讀取中停用）；{@link #begin}、{@link #onResult}、{@link #onUiDrawn} 在主執行緒呼叫
+ */
+public final class AuthMetrics {
+
+    public enum Phase {
+        TOTAL, APP, BACKEND, UI
+    }
+
+    private static final AuthResult.AuthAction[] ACTIONS = AuthResult.AuthAction.values();
+    private static final Phase[] PHASES = Phase.values();
+    private static final AuthErrorCode[] CODES = AuthErrorCode.values();
+
+    private final LongSupplier nanoClock;
+    private final LatencyHistogram[][] histograms = new LatencyHistogram[ACTIONS.length][PHASES.length];
+    private final AtomicLong[][] failures = new AtomicLong[ACTIONS.length][CODES.length];
+
+    // 追蹤中的請求（null 表示沒有）、送出與結果回傳時間
+    private AuthResult.AuthAction pending;
+    private long startNanos;
+    private long resultNanos;
+    private boolean awaitingDraw;
+    // 追蹤中的請求累計等待後端的時間（後端回呼的執行緒寫入）
+    private final AtomicLong backendNanos = new AtomicLong();
+
+    public AuthMetrics() {
+        this(System::nanoTime);
+    }
+
+    public AuthMetrics(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        for (int a = 0; a < ACTIONS.length; a++) {
+            for (int p = 0; p < PHASES.length; p++) {
+                histograms[a][p] = new LatencyHistogram();
+            }
+            for (int c = 0; c < CODES.length; c++) {
+                failures[a][c] = new AtomicLong();
+            }
+        }
+    }
+
+    /**
+     * 送出請求（前一個未完成的請求不再追蹤）
+     */
+    public void begin(AuthResult.AuthAction action) {
+        pending = action;
+        startNanos = nanoClock.getAsLong();
+        awaitingDraw = false;
+        backendNanos.set(0);
+    }
+
+    /**
+     * 流程階段完成（任何執行緒），可直接作為 {@link AuthFlow.StageListener}
+     */
+    public void onStage(AuthResult.AuthAction action, String stage, long elapsedNanos, boolean success) {
+        backendNanos.addAndGet(elapsedNanos);
+    }
+
+    /**
+     * 結果回到主執行緒：記錄 App 與後端時間、失敗原因，之後等待畫面更新
+     */
+    public void onResult(AuthResult result) {
+        if (pending == null || awaitingDraw) return;
+        resultNanos = nanoClock.getAsLong();
+        long backend = backendNanos.get();
+        long elapsed = resultNanos - startNanos;
+        int action = pending.ordinal();
+        histograms[action][Phase.BACKEND.ordinal()].record(backend / 1000);
+        histograms[action][Phase.APP.ordinal()].record(Math.max(0, elapsed - backend) / 1000);
+        if (!result.isSuccess && result.verificationId == null && result.errorCode != null) {
+            failures[action][result.errorCode.ordinal()].incrementAndGet();
+        }
+        awaitingDraw = true;
+    }
+
+    /**
+     * 結果回傳後的第一個畫格：記錄 UI 與總時間，結束追蹤
+     */
+    public void onUiDrawn() {
+        if (pending == null || !awaitingDraw) return;
+        long now = nanoClock.getAsLong();
+        int action = pending.ordinal();
+        histograms[action][Phase.UI.ordinal()].record((now - resultNanos) / 1000);
+        histograms[action][Phase.TOTAL.ordinal()].record((now - startNanos) / 1000);
+        pending = null;
+        awaitingDraw = false;
+    }
+
+    public LatencyHistogram getHistogram(AuthResult.AuthAction action, Phase phase) {
+        return histograms[action.ordinal()][phase.ordinal()];
+    }
+
+    public long getFailureCount(AuthResult.AuthAction action, AuthErrorCode code) {
+        return failures[action.ordinal()][code.ordinal()].get();
+    }
+
+    /**
+     * 匯出 JSON：有資料的認證動作，各階段的次數與 p50/p90/p99/max（毫秒）、失敗原因計數
+     */
+    public void writeJson(Appendable out) throws IOException {
+        out.append('{');
+        boolean firstAction = true;
+        for (AuthResult.AuthAction action : ACTIONS) {
+            if (getHistogram(action, Phase.APP).getCount() == 0) continue;
+            if (!firstAction) out.append(',');
+            firstAction = false;
+            out.append('"').append(action.name()).append("\":{");
+            for (Phase phase : PHASES) {
+                LatencyHistogram histogram = getHistogram(action, phase);
+                out.append('"').append(phase.name()).append("\":{\"count\":").append(String.valueOf(histogram.getCount()))
+                        .append(",\"p50\":").append(millis(histogram.getPercentileMicros(50)))
+                        .append(",\"p90\":").append(millis(histogram.getPercentileMicros(90)))
+                        .append(",\"p99\":").append(millis(histogram.getPercentileMicros(99)))
+                        .append(",\"max\":").append(millis(histogram.getMaxMicros()))
+                        .append("},");
+            }
+            out.append("\"failures\":{");
+            boolean firstCode = true;
+            for (AuthErrorCode code : CODES) {
+                long count = getFailureCount(action, code);
+                if (count == 0) continue;
+                if (!firstCode) out.append(',');
+                firstCode = false;
+                out.append('"').append(code.name()).append("\":").append(String.valueOf(count));
+            }
+            out.append("}}");
+        }
+        out.append('}');
+    }
+
+    private static String millis(long micros) {
+        return String.format(Locale.ROOT, "%.1f", micros / 1000.0);
+    }
+}
@@ -0,0 +1,358 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 非同步流程：依序執行的階段（每個階段呼叫一次後端，完成後把結果交給下一個階段）
+ * 每個階段有期限（逾時以 {@link StageTimeoutException} 結束，之後才到的失敗回呼忽略、成功結果交給 {@link LateResult}），
+ * 可協同取消（{@link Cancellation}，進行中的階段立即結束、不再開始下一個階段），並自動記錄階段耗時
+ * 下一個階段在 {@link Environment} 指定的執行緒開始，不佔用後端回呼的執行緒（Firebase 為主執行緒）
+ *
+ * @param <T> 最後一個階段的結果
+ */
+public final class AuthPipeline<T> {
+
+    /**
+     * 一個階段：以上一個階段的結果呼叫後端，完成時呼叫 callback 一次
+     */
+    public interface Step<I, O> {
+        void run(I input, AuthBackend.Callback<O> callback) throws Exception;
+    }
+
+    /**
+     * 階段已逾時或取消後，後端才回傳的成功結果（帳號已建立、已登入等），由呼叫端補償（刪除、登出）
+     * 於後端回呼的執行緒呼叫，流程已結束，不會再開始下一個階段
+     */
+    public interface LateResult<O> {
+        void onLateResult(O value);
+    }
+
+    /**
+     * 流程結束：成功時 error 為 null；失敗時 stage 為失敗的階段名稱
+     */
+    public interface Completion<T> {
+        void onComplete(T value, String stage, Exception error);
+    }
+
+    /**
+     * 階段耗時回報（於後端回呼、逾時或取消的執行緒呼叫）
+     */
+    public interface StageListener {
+        void onStage(String stage, long elapsedNanos, boolean success);
+    }
+
+    /**
+     * trace 區段（Android 以 TraceCompat 實作）
+     * beginSection/endSection 為階段開始工作（呼叫後端）的時間，同一執行緒內成對呼叫；
+     * async 區段為階段開始到後端回呼（含逾時、取消）的時間，可跨執行緒
+     */
+    public interface Tracer {
+        Tracer NONE = new Tracer() {
+            @Override
+            public void beginSection(String name) {
+            }
+
+            @Override
+            public void endSection() {
+            }
+        };
+
+        void beginSection(String name);
+
+        void endSection();
+
+        default void beginAsyncSection(String name, int cookie) {
+        }
+
+        default void endAsyncSection(String name, int cookie) {
+        }
+    }
+
+    /**
+     * 階段逾時（後端沒有在期限內回呼）
+     */
+    public static final class StageTimeoutException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        private final String stage;
+
+        public StageTimeoutException(String stage, long deadlineMillis) {
+            super(stage + " 超過 " + deadlineMillis + "ms 未完成", null, false, false);
+            this.stage = stage;
+        }
+
+        public String getStage() {
+            return stage;
+        }
+    }
+
+    /**
+     * 協同取消：取消後進行中的階段以 CancellationException 結束，不再開始新的階段
+     */
+    public static final class Cancellation {
+        private final List<Runnable> listeners = new ArrayList<>();
+        private boolean canceled;
+
+        public void cancel() {
+            List<Runnable> pending;
+            synchronized (this) {
+                if (canceled) return;
+                canceled = true;
+                pending = new ArrayList<>(listeners);
+                listeners.clear();
+            }
+            for (Runnable listener : pending) {
+                listener.run();
+            }
+        }
+
+        public synchronized boolean isCanceled() {
+            return canceled;
+        }
+
+        /**
+         * 註冊取消時的動作（已取消時立即執行），回傳解除註冊的動作
+         */
+        Runnable register(Runnable onCancel) {
+            synchronized (this) {
+                if (!canceled) {
+                    listeners.add(onCancel);
+                    return () -> {
+                        synchronized (this) {
+                            listeners.remove(onCancel);
+                        }
+                    };
+                }
+            }
+            onCancel.run();
+            return () -> {
+            };
+        }
+    }
+
+    /**
+     * 執行環境：下一個階段的執行緒、逾時排程（null 表示不設期限）、取消、trace 與耗時回報
+     */
+    public static final class Environment {
+        final Executor executor;
+        final ScheduledExecutorService scheduler;
+        final long deadlineMillis;
+        final Cancellation cancellation;
+        final Tracer tracer;
+        final StageListener listener;
+
+        /**
+         * @param executor       下一個階段開始的執行緒
+         * @param scheduler      逾時排程，null 表示不設期限
+         * @param deadlineMillis 每個階段的預設期限(毫秒)，0 表示不設期限
+         * @param cancellation   取消
+         * @param tracer         trace 區段
+         * @param listener       階段耗時回報，可為 null
+         */
+        public Environment(Executor executor, ScheduledExecutorService scheduler, long deadlineMillis,
+                           Cancellation cancellation, Tracer tracer, StageListener listener) {
+            this.executor = executor;
+            this.scheduler = scheduler;
+            this.deadlineMillis = deadlineMillis;
+            this.cancellation = cancellation;
+            this.tracer = tracer;
+            this.listener = listener;
+        }
+    }
+
+    private static final class StageDef {
+        final String name;
+        final Step<Object, Object> step;
+        final long deadlineMillis;
+        final LateResult<Object> late;
+
+        StageDef(String name, Step<Object, Object> step, long deadlineMillis, LateResult<Object> late) {
+            this.name = name;
+            this.step = step;
+            this.deadlineMillis = deadlineMillis;
+            this.late = late;
+        }
+    }
+
+    // 階段的結束方式
+    private static final int PENDING = 0;
+    private static final int COMPLETED = 1;
+    private static final int ABANDONED = 2;
+
+    // async trace 區段的 cookie（同名區段同時進行時區分）
+    private static final AtomicInteger traceCookies = new AtomicInteger();
+
+    private final List<StageDef> stages;
+
+    private AuthPipeline(List<StageDef> stages) {
+        this.stages = stages;
+    }
+
+    /**
+     * 第一個階段
+     */
+    public static <O> AuthPipeline<O> first(String name, Step<Void, O> step) {
+        return first(name, step, null);
+    }
+
+    /**
+     * 第一個階段，逾時或取消後才成功的結果交給 late
+     */
+    public static <O> AuthPipeline<O> first(String name, Step<Void, O> step, LateResult<? super O> late) {
+        return new AuthPipeline<Void>(Collections.emptyList()).then(name, -1, step, late);
+    }
+
+    /**
+     * 接著執行的階段（使用環境的預設期限）
+     */
+    public <O> AuthPipeline<O> then(String name, Step<? super T, O> step) {
+        return then(name, -1, step, null);
+    }
+
+    /**
+     * 接著執行的階段
+     *
+     * @param deadlineMillis 此階段的期限(毫秒)，-1 表示使用環境的預設期限，0 表示不設期限
+     */
+    public <O> AuthPipeline<O> then(String name, long deadlineMillis, Step<? super T, O> step) {
+        return then(name, deadlineMillis, step, null);
+    }
+
+    /**
+     * 接著執行的階段
+     *
+     * @param deadlineMillis 此階段的期限(毫秒)，-1 表示使用環境的預設期限，0 表示不設期限
+     * @param late           逾時或取消後才成功的結果，null 表示忽略
+     */
+    @SuppressWarnings("unchecked")
+    public <O> AuthPipeline<O> then(String name, long deadlineMillis, Step<? super T, O> step, LateResult<? super O> late) {
+        List<StageDef> next = new ArrayList<>(stages.size() + 1);
+        next.addAll(stages);
+        next.add(new StageDef(name, (Step<Object, Object>) (Step<?, ?>) step, deadlineMillis,
+                (LateResult<Object>) (LateResult<?>) late));
+        return new AuthPipeline<>(next);
+    }
+
+    /**
+     * 從第一個階段開始執行（第一個階段在呼叫端的執行緒開始）
+     */
+    public void run(Environment env, Completion<T> completion) {
+        new Run(env, completion).next(0, null);
+    }
+
+    private final class Run {
+        private final Environment env;
+        private final Completion<T> completion;
+
+        Run(Environment env, Completion<T> completion) {
+            this.env = env;
+            this.completion = completion;
+        }
+
+        @SuppressWarnings("unchecked")
+        void next(int index, Object input) {
+            if (index == stages.size()) {
+                completion.onComplete((T) input, null, null);
+                return;
+            }
+            StageDef stage = stages.get(index);
+            if (env.cancellation.isCanceled()) {
+                completion.onComplete(null, stage.name, new CancellationException(stage.name));
+                return;
+            }
+
+            Attempt attempt = new Attempt(index, stage);
+            long deadline = stage.deadlineMillis >= 0 ? stage.deadlineMillis : env.deadlineMillis;
+            if (deadline > 0 && env.scheduler != null) {
+                attempt.timer.set(env.scheduler.schedule(
+                        () -> attempt.abandon(new StageTimeoutException(stage.name, deadline)),
+                        deadline, TimeUnit.MILLISECONDS));
+            }
+            attempt.unregister.set(env.cancellation.register(
+                    () -> attempt.abandon(new CancellationException(stage.name))));
+            if (attempt.outcome.get() != PENDING) {
+                // 註冊時已取消
+                Runnable pendingUnregister = attempt.unregister.getAndSet(null);
+                if (pendingUnregister != null) pendingUnregister.run();
+                return;
+            }
+
+            env.tracer.beginSection(stage.name);
+            try {
+                stage.step.run(input, attempt);
+            } catch (Exception e) {
+                attempt.onComplete(null, e);
+            } finally {
+                env.tracer.endSection();
+            }
+        }
+
+        /**
+         * 一個階段的執行：後端回呼、逾時、取消中先到者結束此階段
+         */
+        private final class Attempt implements AuthBackend.Callback<Object> {
+            final int index;
+            final StageDef stage;
+            final long start = System.nanoTime();
+            final int cookie = traceCookies.incrementAndGet();
+            // PENDING -> COMPLETED（後端回呼）或 ABANDONED（逾時、取消，之後才到的成功結果交給 LateResult），只變動一次
+            final AtomicInteger outcome = new AtomicInteger(PENDING);
+            final AtomicReference<ScheduledFuture<?>> timer = new AtomicReference<>();
+            final AtomicReference<Runnable> unregister = new AtomicReference<>();
+
+            Attempt(int index, StageDef stage) {
+                this.index = index;
+                this.stage = stage;
+                env.tracer.beginAsyncSection(stage.name, cookie);
+            }
+
+            /**
+             * 後端回呼
+             */
+            @Override
+            public void onComplete(Object value, Exception error) {
+                if (finish(COMPLETED, value, error)) return;
+                if (outcome.get() == ABANDONED && error == null && stage.late != null) {
+                    stage.late.onLateResult(value);
+                }
+            }
+
+            /**
+             * 逾時或取消
+             */
+            void abandon(Exception error) {
+                finish(ABANDONED, null, error);
+            }
+
+            /**
+             * 結束此階段（只有第一次有效）：回報耗時後開始下一個階段或結束流程
+             */
+            private boolean finish(int result, Object value, Exception error) {
+                if (!outcome.compareAndSet(PENDING, result)) return false;
+                env.tracer.endAsyncSection(stage.name, cookie);
+                ScheduledFuture<?> pendingTimer = timer.getAndSet(null);
+                if (pendingTimer != null) pendingTimer.cancel(false);
+                Runnable pendingUnregister = unregister.getAndSet(null);
+                if (pendingUnregister != null) pendingUnregister.run();
+                if (env.listener != null) {
+                    env.listener.onStage(stage.name, System.nanoTime() - start, error == null);
+                }
+                if (error != null) {
+                    completion.onComplete(null, stage.name, error);
+                } else {
+                    env.executor.execute(() -> next(index + 1, value));
+                }
+                return true;
+            }
+        }
+    }
+}
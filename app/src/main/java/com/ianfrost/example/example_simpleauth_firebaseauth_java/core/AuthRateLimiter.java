@@ -0,0 +1,350 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.core;
+
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.AuthResult;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+/**
+ * 用戶端請求節流：每種 AuthAction 一個總量 token bucket，每個(AuthAction, 信箱/手機)再一個 bucket
+ * 網路錯誤、請求過多(TOO_MANY_REQUESTS)時以指數退避 + 隨機抖動延後下一次請求
+ * 狀態以系統時間(wall clock)保存，App 重啟後仍然有效
+ */
+public class AuthRateLimiter {
+
+    /**
+     * 節流狀態持久化，key 不含原始信箱/手機
+     */
+    public interface StateStorage {
+        Map<String, String> load();
+
+        /**
+         * 寫入一次請求造成的全部變動（每次 tryAcquire/record 最多呼叫一次）
+         *
+         * @param changed 新增或更新的狀態
+         * @param removed 移除的 key
+         */
+        void save(Map<String, String> changed, Collection<String> removed);
+    }
+
+    /**
+     * 單一 bucket 設定
+     */
+    public static final class Limit {
+        final int capacity;
+        final long refillMillis;
+
+        /**
+         * @param capacity     最多可連續請求次數
+         * @param refillMillis 每回復一次所需毫秒
+         */
+        public Limit(int capacity, long refillMillis) {
+            this.capacity = capacity;
+            this.refillMillis = refillMillis;
+        }
+    }
+
+    // 退避：網路錯誤從 2 秒起跳、請求過多從 30 秒起跳，最長 15 分鐘
+    private static final long NETWORK_BACKOFF_BASE_MILLIS = 2_000L;
+    private static final long THROTTLED_BACKOFF_BASE_MILLIS = 30_000L;
+    private static final long MAX_BACKOFF_MILLIS = 15 * 60_000L;
+    // 識別資料雜湊用的鹽（每次安裝隨機產生，與節流狀態一起保存）
+    static final String SALT_KEY = "salt";
+    private static final int SALT_BYTES = 16;
+
+    private final StateStorage storage;
+    private final LongSupplier clockMillis;
+    private final Random random;
+    private byte[] salt;
+    private volatile boolean loaded;
+    private final Map<String, State> states = new HashMap<>();
+    // 尚未寫入的變動（請求結束時一次寫入）
+    private final Map<String, String> changed = new HashMap<>();
+    private final Set<String> removed = new HashSet<>();
+
+    /**
+     * 建立時不讀取保存的狀態（可在主執行緒建立），見 {@link #load()}
+     */
+    public AuthRateLimiter(StateStorage storage) {
+        this(storage, System::currentTimeMillis, new Random());
+    }
+
+    public AuthRateLimiter(StateStorage storage, LongSupplier clockMillis, Random random) {
+        this.storage = storage;
+        this.clockMillis = clockMillis;
+        this.random = random;
+    }
+
+    /**
+     * 讀取保存的狀態（第一次讀取時才產生鹽），重複呼叫無作用
+     * 會讀寫儲存，應在背景執行緒預先呼叫；未呼叫時由第一次 tryAcquire/record 讀取
+     */
+    public void load() {
+        if (loaded) return;
+        synchronized (this) {
+            if (loaded) return;
+            Map<String, String> saved = storage.load();
+            byte[] savedSalt = saved.containsKey(SALT_KEY) ? fromHex(saved.get(SALT_KEY)) : null;
+            if (savedSalt == null) {
+                savedSalt = new byte[SALT_BYTES];
+                new SecureRandom().nextBytes(savedSalt);
+                storage.save(Collections.singletonMap(SALT_KEY, toHex(savedSalt)), Collections.emptySet());
+            }
+            salt = savedSalt;
+            for (Map.Entry<String, String> entry : saved.entrySet()) {
+                if (SALT_KEY.equals(entry.getKey())) continue;
+                State state = State.parse(entry.getValue());
+                if (state != null) {
+                    states.put(entry.getKey(), state);
+                }
+            }
+            loaded = true;
+        }
+    }
+
+    /**
+     * 預設節流設定
+     */
+    static Limit actionLimit(AuthResult.AuthAction action) {
+        switch (action) {
+            case LOGIN:
+                return new Limit(20, 3_000L);
+            case REGISTER_PHONE_VERIFY:
+                return new Limit(5, 60_000L);
+            default:
+                return new Limit(10, 6_000L);
+        }
+    }
+
+    static Limit identifierLimit(AuthResult.AuthAction action) {
+        switch (action) {
+            case LOGIN:
+                return new Limit(5, 12_000L);
+            case REGISTER_PHONE_VERIFY:
+                // 簡訊會產生費用：同號碼最多連續 2 次，之後每 2 分鐘 1 次
+                return new Limit(2, 120_000L);
+            default:
+                return new Limit(3, 20_000L);
+        }
+    }
+
+    /**
+     * 嘗試取得一次請求額度
+     *
+     * @param action     認證狀態
+     * @param identifier 正規化後的信箱/手機
+     * @return 0 表示可送出（已扣除額度），大於 0 為需等待的毫秒數
+     */
+    public synchronized long tryAcquire(AuthResult.AuthAction action, String identifier) {
+        load();
+        long now = clockMillis.getAsLong();
+        String actionKey = action.name();
+        String idKey = identifierKey(action, identifier);
+        State actionState = state(actionKey, actionLimit(action), now);
+        State idState = state(idKey, identifierLimit(action), now);
+
+        long wait = Math.max(idState.backoffUntil - now, 0);
+        wait = Math.max(wait, actionState.waitForToken(actionLimit(action), now));
+        wait = Math.max(wait, idState.waitForToken(identifierLimit(action), now));
+        if (wait > 0) {
+            return wait;
+        }
+        actionState.tokens -= 1;
+        idState.tokens -= 1;
+        persist(actionKey, actionState);
+        persist(idKey, idState);
+        flush();
+        return 0;
+    }
+
+    /**
+     * 取得剩餘冷卻毫秒數（不扣額度、不新增或修改狀態，UI 顯示用）
+     * 尚未讀取保存的狀態時回傳 0（不在呼叫端執行緒讀取儲存，送出時的 tryAcquire 仍會檢查）
+     */
+    public long getCooldownMillis(AuthResult.AuthAction action, String identifier) {
+        if (!loaded) return 0;
+        synchronized (this) {
+            long now = clockMillis.getAsLong();
+            State idState = states.get(identifierKey(action, identifier));
+            long wait = idState == null ? 0 : Math.max(idState.backoffUntil - now, 0);
+            wait = Math.max(wait, State.waitForToken(states.get(action.name()), actionLimit(action), now));
+            return Math.max(wait, State.waitForToken(idState, identifierLimit(action), now));
+        }
+    }
+
+    /**
+     * 回報請求結果，網路錯誤/請求過多時進入退避，成功時清除退避
+     *
+     * @param failure 成功時為 null
+     */
+    public synchronized void record(AuthResult.AuthAction action, String identifier, AuthBackend.FailureKind failure) {
+        load();
+        long now = clockMillis.getAsLong();
+        String idKey = identifierKey(action, identifier);
+        State idState = state(idKey, identifierLimit(action), now);
+        if (failure == null) {
+            idState.failures = 0;
+            idState.backoffUntil = 0;
+        } else if (failure == AuthBackend.FailureKind.NETWORK || failure == AuthBackend.FailureKind.TOO_MANY_REQUESTS) {
+            idState.failures++;
+            long base = failure == AuthBackend.FailureKind.TOO_MANY_REQUESTS ? THROTTLED_BACKOFF_BASE_MILLIS : NETWORK_BACKOFF_BASE_MILLIS;
+            long delay = Math.min(MAX_BACKOFF_MILLIS, base << Math.min(idState.failures - 1, 16));
+            // 抖動：delay/2 ~ delay，避免大量用戶同時重試
+            long jittered = delay / 2 + (long) (random.nextDouble() * (delay / 2));
+            idState.backoffUntil = now + jittered;
+        } else {
+            return;
+        }
+        persist(idKey, idState);
+        flush();
+    }
+
+    private State state(String key, Limit limit, long now) {
+        State state = states.get(key);
+        if (state == null) {
+            state = new State(limit.capacity, now, 0, 0);
+            states.put(key, state);
+        }
+        state.refill(limit, now);
+        return state;
+    }
+
+    private void persist(String key, State state) {
+        changed.put(key, state.format());
+        removed.remove(key);
+        prune(clockMillis.getAsLong());
+    }
+
+    /**
+     * 寫入累積的變動
+     */
+    private void flush() {
+        if (changed.isEmpty() && removed.isEmpty()) return;
+        storage.save(new HashMap<>(changed), new HashSet<>(removed));
+        changed.clear();
+        removed.clear();
+    }
+
+    /**
+     * 移除已回滿且無退避的狀態，避免保存資料無限增長
+     */
+    private void prune(long now) {
+        Iterator<Map.Entry<String, State>> it = states.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, State> entry = it.next();
+            State state = entry.getValue();
+            if (state.failures == 0 && state.backoffUntil <= now && now - state.lastRefill > MAX_BACKOFF_MILLIS) {
+                it.remove();
+                changed.remove(entry.getKey());
+                removed.add(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * 信箱/手機只保存加鹽的 SHA-256（無法從保存的資料比對出原始值，不同識別資料不會共用同一個 bucket）
+     */
+    private String identifierKey(AuthResult.AuthAction action, String identifier) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(salt);
+            return action.name() + '|' + toHex(digest.digest(identifier.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return 格式不正確時為 null
+     */
+    private static byte[] fromHex(String hex) {
+        if (hex.length() != SALT_BYTES * 2) return null;
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int high = Character.digit(hex.charAt(i * 2), 16);
+            int low = Character.digit(hex.charAt(i * 2 + 1), 16);
+            if (high < 0 || low < 0) return null;
+            bytes[i] = (byte) ((high << 4) | low);
+        }
+        return bytes;
+    }
+
+    private static final class State {
+        double tokens;
+        long lastRefill;
+        int failures;
+        long backoffUntil;
+
+        State(double tokens, long lastRefill, int failures, long backoffUntil) {
+            this.tokens = tokens;
+            this.lastRefill = lastRefill;
+            this.failures = failures;
+            this.backoffUntil = backoffUntil;
+        }
+
+        void refill(Limit limit, long now) {
+            if (now <= lastRefill) {
+                // 系統時間被往回調時不回復額度
+                lastRefill = Math.min(lastRefill, now);
+                return;
+            }
+            tokens = tokensAt(limit, now);
+            lastRefill = now;
+        }
+
+        /**
+         * 回復到 now 時的額度（不修改狀態）
+         */
+        double tokensAt(Limit limit, long now) {
+            if (now <= lastRefill) return tokens;
+            return Math.min(limit.capacity, tokens + (double) (now - lastRefill) / limit.refillMillis);
+        }
+
+        long waitForToken(Limit limit, long now) {
+            double available = tokensAt(limit, now);
+            if (available >= 1) return 0;
+            return (long) Math.ceil((1 - available) * limit.refillMillis);
+        }
+
+        /**
+         * @param state 為 null 表示額度全滿
+         */
+        static long waitForToken(State state, Limit limit, long now) {
+            return state == null ? 0 : state.waitForToken(limit, now);
+        }
+
+        String format() {
+            return tokens + "," + lastRefill + "," + failures + "," + backoffUntil;
+        }
+
+        static State parse(String value) {
+            String[] parts = value.split(",");
+            if (parts.length != 4) return null;
+            try {
+                return new State(Double.parseDouble(parts[0]), Long.parseLong(parts[1]),
+                        Integer.parseInt(parts[2]), Long.parseLong(parts[3]));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
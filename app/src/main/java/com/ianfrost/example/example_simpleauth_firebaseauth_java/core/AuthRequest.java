@@ -0,0 +1,30 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.core;
+
+/**
+ * 一次登入/註冊請求的輸入資料（皆已 trim，不為 null）
+ */
+public final class AuthRequest {
+    public final String email;
+    public final String password;
+    public final String phone;
+    // 手機註冊-簡訊識別碼、簡訊驗證碼
+    public final String verificationId;
+    public final String verifyCode;
+
+    public AuthRequest(String email, String password, String phone, String verificationId, String verifyCode) {
+        this.email = safeText(email);
+        this.password = safeText(password);
+        this.phone = safeText(phone);
+        this.verificationId = safeText(verificationId);
+        this.verifyCode = safeText(verifyCode);
+    }
+
+    /**
+     * 安全取得字串，trim/null safe
+     *
+     * @param s 字串
+     */
+    public static String safeText(String s) {
+        return s == null ? "" : s.trim();
+    }
+}
@@ -0,0 +1,40 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.core;
+
+/**
+ * 登入狀態快照（不可變），未登入以 null 表示
+ */
+public final class AuthSession {
+    public final String uid;
+    public final String email;
+    public final boolean emailVerified;
+    // ID token 更新次數（同一用戶每次 token 更新 +1，換用戶時歸 0）
+    public final long tokenGeneration;
+    // 對應的後端用戶，由持久化快照還原時為 null
+    public final AuthUser user;
+
+    public AuthSession(String uid, String email, boolean emailVerified, long tokenGeneration, AuthUser user) {
+        this.uid = uid;
+        this.email = email;
+        this.emailVerified = emailVerified;
+        this.tokenGeneration = tokenGeneration;
+        this.user = user;
+    }
+
+    /**
+     * 取得用戶信箱
+     */
+    public String getEmail() {
+        return email;
+    }
+
+    /**
+     * 兩個快照是否代表相同狀態（uid、token 世代、信箱驗證皆相同）
+     */
+    public static boolean sameState(AuthSession a, AuthSession b) {
+        if (a == b) return true;
+        if (a == null || b == null) return false;
+        return a.uid.equals(b.uid)
+                && a.tokenGeneration == b.tokenGeneration
+                && a.emailVerified == b.emailVerified;
+    }
+}
@@ -0,0 +1,121 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.core;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 登入狀態存放處
+ * 只向後端註冊一次 ID token 監聽，狀態真的變動（uid、token 世代、信箱驗證）時才通知所有觀察者，
+ * 並保存快照，下次冷啟動可在後端就緒前直接以快照決定畫面
+ */
+public class AuthSessionStore {
+
+    /**
+     * 登入狀態變動通知，未登入時 session 為 null
+     */
+    public interface Observer {
+        void onSessionChanged(AuthSession session);
+    }
+
+    /**
+     * 快照持久化
+     */
+    public interface SnapshotStorage {
+        AuthSession load();
+
+        void save(AuthSession session);
+    }
+
+    private final AuthBackend backend;
+    private final SnapshotStorage storage;
+    private final List<Observer> observers = new CopyOnWriteArrayList<>();
+    private final AuthBackend.UserListener idTokenListener = user -> apply(user, true);
+
+    private AuthSession current;
+    private boolean started;
+    // 註冊監聽後的第一次回呼只用來校正快照，不算 token 更新
+    private boolean reconciled;
+
+    public AuthSessionStore(AuthBackend backend, SnapshotStorage storage) {
+        this.backend = backend;
+        this.storage = storage;
+        this.current = storage.load();
+    }
+
+    /**
+     * 開始監聽後端（重複呼叫無作用）
+     */
+    public void start() {
+        synchronized (this) {
+            if (started) return;
+            started = true;
+            reconciled = false;
+        }
+        backend.addIdTokenListener(idTokenListener);
+    }
+
+    /**
+     * 停止監聽後端
+     */
+    public void stop() {
+        synchronized (this) {
+            if (!started) return;
+            started = false;
+        }
+        backend.removeIdTokenListener(idTokenListener);
+    }
+
+    /**
+     * 取得目前登入狀態（監聽回呼前為上次保存的快照）
+     */
+    public synchronized AuthSession getCurrent() {
+        return current;
+    }
+
+    public void addObserver(Observer observer) {
+        observers.add(observer);
+    }
+
+    public void removeObserver(Observer observer) {
+        observers.remove(observer);
+    }
+
+    /**
+     * 主動讀取後端目前用戶（例如重新載入用戶資料後），狀態相同時不通知
+     * 監聽第一次回呼前略過（後端可能尚未就緒，第一次回呼時會校正）
+     */
+    public void refresh() {
+        synchronized (this) {
+            if (!reconciled) return;
+        }
+        apply(backend.getCurrentUser(), false);
+    }
+
+    private void apply(AuthUser user, boolean tokenEvent) {
+        AuthSession next;
+        synchronized (this) {
+            AuthSession prev = current;
+            boolean tokenChanged = tokenEvent && reconciled;
+            if (tokenEvent) reconciled = true;
+
+            if (user == null) {
+                next = null;
+            } else {
+                boolean sameUser = prev != null && prev.uid.equals(user.getUid());
+                long generation = sameUser ? prev.tokenGeneration + (tokenChanged ? 1 : 0) : 0;
+                next = new AuthSession(user.getUid(), user.getEmail(), user.isEmailVerified(), generation, user);
+            }
+
+            if (AuthSession.sameState(prev, next)) {
+                // 狀態相同只更新用戶參考（快照還原時 user 為 null）
+                current = next;
+                return;
+            }
+            current = next;
+        }
+        storage.save(next);
+        for (Observer observer : observers) {
+            observer.onSessionChanged(next);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.core;
+
+/**
+ * 驗證後端回傳的使用者資料（與 Firebase 解耦，JVM 上可直接使用）
+ */
+public interface AuthUser {
+
+    /**
+     * 取得使用者唯一識別碼
+     */
+    String getUid();
+
+    /**
+     * 取得使用者信箱，可能為 null
+     */
+    String getEmail();
+
+    /**
+     * 信箱是否已完成驗證
+     */
+    boolean isEmailVerified();
+}
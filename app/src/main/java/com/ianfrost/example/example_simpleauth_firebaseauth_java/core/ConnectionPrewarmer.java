@@ -0,0 +1,152 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.core;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.LongSupplier;
+
+/**
+ * 預先建立連線（DNS、TCP、TLS）：使用者輸入帳密時在背景連到驗證端點，第一次送出時直接使用連線池中的連線
+ * 同一端點在 reuseWindowMillis 內已預先連線時略過（連線池閒置連線約保留 5 分鐘）
+ */
+public class ConnectionPrewarmer {
+
+    // 預設略過時間，略短於連線池保留閒置連線的時間
+    static final long DEFAULT_REUSE_WINDOW_MILLIS = 4 * 60_000L;
+
+    /**
+     * 建立到端點的連線並讓連線回到連線池（不得關閉底層連線）
+     */
+    public interface Connector {
+        void connect(String url) throws IOException;
+    }
+
+    /**
+     * 一次預先連線
+     */
+    public interface Handle {
+        /**
+         * 取消：不再連線下一個端點（進行中的連線最多等到逾時）
+         */
+        void cancel();
+
+        /**
+         * 所有端點都已處理（成功、失敗或取消）
+         */
+        boolean isDone();
+
+        /**
+         * 成功預先連線所花的毫秒數合計，即第一個請求不必再花的連線建立時間
+         */
+        long getConnectMillis();
+    }
+
+    /**
+     * 不需預先連線（後端不支援、端點都已預先連線過）
+     */
+    public static final Handle NONE = new Handle() {
+        @Override
+        public void cancel() {
+        }
+
+        @Override
+        public boolean isDone() {
+            return true;
+        }
+
+        @Override
+        public long getConnectMillis() {
+            return 0;
+        }
+    };
+
+    private final Executor executor;
+    private final Connector connector;
+    private final LongSupplier clockMillis;
+    private final long reuseWindowMillis;
+    // 端點最近一次成功預先連線的時間
+    private final Map<String, Long> warmedAt = new HashMap<>();
+
+    public ConnectionPrewarmer(Executor executor, Connector connector) {
+        this(executor, connector, System::currentTimeMillis, DEFAULT_REUSE_WINDOW_MILLIS);
+    }
+
+    public ConnectionPrewarmer(Executor executor, Connector connector, LongSupplier clockMillis, long reuseWindowMillis) {
+        this.executor = executor;
+        this.connector = connector;
+        this.clockMillis = clockMillis;
+        this.reuseWindowMillis = reuseWindowMillis;
+    }
+
+    /**
+     * 依序預先連線到端點（略過最近已連線過的端點）
+     */
+    public Handle warm(List<String> urls) {
+        List<String> pending = new ArrayList<>();
+        long now = clockMillis.getAsLong();
+        synchronized (this) {
+            for (String url : urls) {
+                Long at = warmedAt.get(url);
+                if (at == null || now - at >= reuseWindowMillis) pending.add(url);
+            }
+        }
+        if (pending.isEmpty()) return NONE;
+        Task task = new Task(pending);
+        executor.execute(task);
+        return task;
+    }
+
+    private synchronized void markWarmed(String url, long at) {
+        warmedAt.put(url, at);
+    }
+
+    private final class Task implements Runnable, Handle {
+        private final List<String> urls;
+        private volatile boolean cancelled;
+        private volatile boolean done;
+        private volatile long connectMillis;
+
+        Task(List<String> urls) {
+            this.urls = urls;
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (String url : urls) {
+                    if (cancelled) return;
+                    long start = clockMillis.getAsLong();
+                    try {
+                        connector.connect(url);
+                    } catch (IOException e) {
+                        // 預先連線失敗不影響之後的請求，略過
+                        continue;
+                    }
+                    long end = clockMillis.getAsLong();
+                    connectMillis += end - start;
+                    markWarmed(url, end);
+                }
+            } finally {
+                done = true;
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        @Override
+        public boolean isDone() {
+            return done;
+        }
+
+        @Override
+        public long getConnectMillis() {
+            return connectMillis;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * 延後建立的驗證後端：實際後端在背景建立完成前，非同步呼叫依序排隊，建立完成後依原順序送出
+ * 需要回傳值的呼叫（getCurrentUser 等）會等待後端建立完成：呼叫端應先以 {@link #whenReady} 排到建立完成後，
+ * 不在 auth-background 等共用執行緒上等待；登入狀態應先以 {@link AuthSessionStore} 的快照決定
+ * {@link #mapError} 不等待，建立完成前回傳 null（此時的錯誤只會是逾時或取消，由流程依步驟決定代碼）
+ */
+public class DeferredAuthBackend implements AuthBackend {
+
+    private final CountDownLatch ready = new CountDownLatch(1);
+    // 建立完成前排隊的呼叫（依呼叫順序）
+    private final List<Consumer<AuthBackend>> pending = new ArrayList<>();
+    private volatile AuthBackend delegate;
+
+    /**
+     * 實際後端建立完成：先依序送出排隊的呼叫，之後的呼叫直接轉交（只能呼叫一次）
+     */
+    public void setDelegate(AuthBackend backend) {
+        while (true) {
+            List<Consumer<AuthBackend>> batch;
+            synchronized (this) {
+                if (delegate != null) throw new IllegalStateException("驗證後端已建立");
+                if (pending.isEmpty()) {
+                    delegate = backend;
+                    break;
+                }
+                batch = new ArrayList<>(pending);
+                pending.clear();
+            }
+            // 送出期間新加入的呼叫留到下一輪，維持順序
+            for (Consumer<AuthBackend> call : batch) {
+                call.accept(backend);
+            }
+        }
+        ready.countDown();
+    }
+
+    /**
+     * 實際後端是否已建立完成
+     */
+    public boolean isReady() {
+        return delegate != null;
+    }
+
+    @Override
+    public AuthUser getCurrentUser() {
+        return await().getCurrentUser();
+    }
+
+    @Override
+    public void signIn(String email, String password, Callback<AuthUser> callback) {
+        enqueue(backend -> backend.signIn(email, password, callback));
+    }
+
+    @Override
+    public void createUser(String email, String password, Callback<AuthUser> callback) {
+        enqueue(backend -> backend.createUser(email, password, callback));
+    }
+
+    @Override
+    public void sendEmailVerification(AuthUser user, Callback<Void> callback) {
+        enqueue(backend -> backend.sendEmailVerification(user, callback));
+    }
+
+    @Override
+    public void applyActionCode(String code, Callback<Void> callback) {
+        enqueue(backend -> backend.applyActionCode(code, callback));
+    }
+
+    @Override
+    public void verifyPhoneNumber(String phone, long timeoutSeconds, Object host, ResendToken resendToken,
+                                  PhoneCallbacks callbacks) {
+        enqueue(backend -> backend.verifyPhoneNumber(phone, timeoutSeconds, host, resendToken, callbacks));
+    }
+
+    @Override
+    public PhoneCredential getPhoneCredential(String verificationId, String code) {
+        return await().getPhoneCredential(verificationId, code);
+    }
+
+    @Override
+    public void reloadUser(AuthUser user, Callback<AuthUser> callback) {
+        enqueue(backend -> backend.reloadUser(user, callback));
+    }
+
+    @Override
+    public void getIdToken(AuthUser user, boolean forceRefresh, Callback<IdToken> callback) {
+        enqueue(backend -> backend.getIdToken(user, forceRefresh, callback));
+    }
+
+    @Override
+    public void signInWithPhoneCredential(PhoneCredential credential, Callback<SignInResult> callback) {
+        enqueue(backend -> backend.signInWithPhoneCredential(credential, callback));
+    }
+
+    @Override
+    public void linkWithEmail(AuthUser user, String email, String password, Callback<AuthUser> callback) {
+        enqueue(backend -> backend.linkWithEmail(user, email, password, callback));
+    }
+
+    @Override
+    public void deleteUser(AuthUser user, Callback<Void> callback) {
+        enqueue(backend -> backend.deleteUser(user, callback));
+    }
+
+    @Override
+    public void signOut() {
+        enqueue(AuthBackend::signOut);
+    }
+
+    @Override
+    public AuthErrorCode mapError(Exception error) {
+        AuthBackend current = delegate;
+        return current != null ? current.mapError(error) : null;
+    }
+
+    @Override
+    public boolean isPhoneVerificationReattachable() {
+        return await().isPhoneVerificationReattachable();
+    }
+
+    @Override
+    public void whenReady(Executor executor, Runnable action) {
+        enqueue(backend -> executor.execute(action));
+    }
+
+    @Override
+    public void addIdTokenListener(UserListener listener) {
+        enqueue(backend -> backend.addIdTokenListener(listener));
+    }
+
+    @Override
+    public void removeIdTokenListener(UserListener listener) {
+        enqueue(backend -> backend.removeIdTokenListener(listener));
+    }
+
+    @Override
+    public ConnectionPrewarmer.Handle prewarm(boolean phone) {
+        AuthBackend current = delegate;
+        if (current != null) return current.prewarm(phone);
+        // 後端建立完成後才開始，期間取消則不送出
+        DeferredPrewarm deferred = new DeferredPrewarm();
+        enqueue(backend -> deferred.start(backend, phone));
+        return deferred;
+    }
+
+    private void enqueue(Consumer<AuthBackend> call) {
+        AuthBackend current = delegate;
+        if (current == null) {
+            synchronized (this) {
+                current = delegate;
+                if (current == null) {
+                    pending.add(call);
+                    return;
+                }
+            }
+        }
+        call.accept(current);
+    }
+
+    /**
+     * 後端建立前要求的預先連線
+     */
+    private static final class DeferredPrewarm implements ConnectionPrewarmer.Handle {
+        private ConnectionPrewarmer.Handle started;
+        private boolean cancelled;
+
+        synchronized void start(AuthBackend backend, boolean phone) {
+            if (!cancelled) started = backend.prewarm(phone);
+        }
+
+        @Override
+        public synchronized void cancel() {
+            cancelled = true;
+            if (started != null) started.cancel();
+        }
+
+        @Override
+        public synchronized boolean isDone() {
+            return cancelled || started != null && started.isDone();
+        }
+
+        @Override
+        public synchronized long getConnectMillis() {
+            return started != null ? started.getConnectMillis() : 0;
+        }
+    }
+
+    private AuthBackend await() {
+        AuthBackend current = delegate;
+        if (current != null) return current;
+        try {
+            ready.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("等待驗證後端建立時中斷", e);
+        }
+        return delegate;
+    }
+}
@@ -0,0 +1,196 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.core;
+
+import java.util.Random;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 信箱驗證等待：註冊後依退避間隔重新讀取用戶，確認已驗證就通知並停止
+ * 間隔 5 秒起每次加倍（最長 2 分鐘，±20% 抖動），每次等待最多檢查 20 次、30 分鐘
+ * App 在背景時暫停，回到前景或開啟驗證連結時立即檢查一次並回到最短間隔
+ */
+public class EmailVerificationWatcher {
+
+    // 檢查間隔
+    static final long INITIAL_DELAY_MILLIS = 5_000L;
+    static final long MAX_DELAY_MILLIS = 120_000L;
+    // 每次等待的檢查上限（含回到前景、開啟連結觸發的檢查）
+    static final int MAX_CHECKS = 20;
+    static final long MAX_WATCH_MILLIS = 30 * 60_000L;
+    // 立即檢查的最短間隔（頻繁切換前景時不重複送出）
+    static final long MIN_IMMEDIATE_INTERVAL_MILLIS = 2_000L;
+
+    /**
+     * 信箱驗證完成通知（於後端回呼的執行緒呼叫）
+     */
+    public interface Listener {
+        void onVerified(AuthUser user);
+    }
+
+    private final AuthBackend backend;
+    private final ScheduledExecutorService scheduler;
+    private final Listener listener;
+    private final LongSupplier clockMillis;
+    private final Random random = new Random();
+
+    private AuthUser user;
+    // 每次 watch/stop 遞增，舊排程與回呼比對後忽略
+    private int generation;
+    private boolean foreground = true;
+    // 正在重新讀取的世代，-1 表示沒有進行中的檢查
+    private int checkingGeneration = -1;
+    private int step;
+    private int checks;
+    private long startedAt;
+    private long lastCheckAt;
+    private ScheduledFuture<?> pending;
+
+    // 統計：累計檢查次數、最近一次從開始等待到驗證完成的毫秒數(-1 表示尚未完成)
+    private long totalChecks;
+    private long lastVerifiedAfterMillis = -1;
+
+    public EmailVerificationWatcher(AuthBackend backend, ScheduledExecutorService scheduler, Listener listener) {
+        this(backend, scheduler, listener, System::currentTimeMillis);
+    }
+
+    public EmailVerificationWatcher(AuthBackend backend, ScheduledExecutorService scheduler, Listener listener,
+                                    LongSupplier clockMillis) {
+        this.backend = backend;
+        this.scheduler = scheduler;
+        this.listener = listener;
+        this.clockMillis = clockMillis;
+    }
+
+    /**
+     * 開始等待用戶完成信箱驗證（同一用戶已在等待時無作用）
+     */
+    public synchronized void watch(AuthUser user) {
+        if (user == null || user.isEmailVerified()) return;
+        if (this.user != null && this.user.getUid().equals(user.getUid())) return;
+        cancelPending();
+        this.user = user;
+        generation++;
+        step = 0;
+        checks = 0;
+        startedAt = clockMillis.getAsLong();
+        lastCheckAt = 0;
+        if (foreground) {
+            schedule(INITIAL_DELAY_MILLIS);
+        }
+    }
+
+    /**
+     * 停止等待
+     */
+    public synchronized void stop() {
+        cancelPending();
+        user = null;
+        generation++;
+    }
+
+    /**
+     * App 前景/背景切換，背景時暫停，回到前景立即檢查並回到最短間隔
+     */
+    public synchronized void setForeground(boolean foreground) {
+        if (this.foreground == foreground) return;
+        this.foreground = foreground;
+        if (!foreground) {
+            cancelPending();
+        } else if (user != null) {
+            step = 0;
+            checkSoon();
+        }
+    }
+
+    /**
+     * 開啟驗證連結等明確訊號時立即檢查
+     */
+    public synchronized void checkNow() {
+        if (user == null || !foreground) return;
+        step = 0;
+        checkSoon();
+    }
+
+    public synchronized boolean isWatching() {
+        return user != null;
+    }
+
+    /**
+     * 累計送出的用戶重新讀取次數
+     */
+    public synchronized long getTotalChecks() {
+        return totalChecks;
+    }
+
+    /**
+     * 最近一次從開始等待到確認驗證完成的毫秒數，尚未完成為 -1
+     */
+    public synchronized long getLastVerifiedAfterMillis() {
+        return lastVerifiedAfterMillis;
+    }
+
+    private void checkSoon() {
+        if (checkingGeneration == generation) return;
+        long sinceLast = clockMillis.getAsLong() - lastCheckAt;
+        schedule(Math.max(0, MIN_IMMEDIATE_INTERVAL_MILLIS - sinceLast));
+    }
+
+    private void schedule(long delayMillis) {
+        cancelPending();
+        final int scheduled = generation;
+        pending = scheduler.schedule(() -> check(scheduled), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void cancelPending() {
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+    }
+
+    private void check(int scheduled) {
+        final AuthUser target;
+        synchronized (this) {
+            if (scheduled != generation || user == null || !foreground || checkingGeneration == generation) return;
+            pending = null;
+            AuthUser current = backend.getCurrentUser();
+            long now = clockMillis.getAsLong();
+            // 已登出、換帳號或超過上限時放棄等待
+            if (current == null || !current.getUid().equals(user.getUid())
+                    || checks >= MAX_CHECKS || now - startedAt >= MAX_WATCH_MILLIS) {
+                stop();
+                return;
+            }
+            target = user;
+            checks++;
+            totalChecks++;
+            lastCheckAt = now;
+            checkingGeneration = scheduled;
+        }
+        backend.reloadUser(target, (reloaded, error) -> onReloaded(scheduled, reloaded));
+    }
+
+    private void onReloaded(int scheduled, AuthUser reloaded) {
+        synchronized (this) {
+            if (scheduled != generation || user == null) return;
+            checkingGeneration = -1;
+            if (reloaded == null || !reloaded.isEmailVerified()) {
+                // 失敗或尚未驗證：繼續退避（背景時等回到前景再檢查）
+                if (foreground) schedule(nextDelay());
+                return;
+            }
+            lastVerifiedAfterMillis = clockMillis.getAsLong() - startedAt;
+            stop();
+        }
+        listener.onVerified(reloaded);
+    }
+
+    private long nextDelay() {
+        long delay = Math.min(MAX_DELAY_MILLIS, INITIAL_DELAY_MILLIS << Math.min(step, 16));
+        step++;
+        // 抖動 ±20%，避免大量用戶同時檢查
+        return delay - delay / 5 + (long) (random.nextDouble() * (delay * 2 / 5));
+    }
+}
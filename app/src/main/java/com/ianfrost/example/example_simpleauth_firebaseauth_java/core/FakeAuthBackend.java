@@ -0,0 +1,469 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.core;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * 記憶體內的驗證後端，不需 Google Play services 與網路
+ * 延遲、失敗率、亂數種子皆可設定，同樣設定下結果可重現，供 JVM 量測與回歸測試使用
+ */
+public class FakeAuthBackend implements AuthBackend {
+
+    /**
+     * 模擬 Play services 的手機自動驗證行為
+     */
+    public enum PhoneAutoVerify {
+        // 不自動驗證，需手動輸入驗證碼
+        NONE,
+        // 即時驗證：不發送簡訊，直接回傳憑證
+        INSTANT,
+        // 簡訊自動讀取：簡訊送出後再回傳憑證
+        AUTO_RETRIEVAL
+    }
+
+    // 延遲(毫秒)、延遲浮動(毫秒)、失敗率(0~1)
+    private final long latencyMillis;
+    private final long jitterMillis;
+    private final double failureRate;
+    // 手機驗證碼（所有號碼共用）
+    private final String verificationCode;
+    private final PhoneAutoVerify phoneAutoVerify;
+    // ID token 有效時間(毫秒)
+    private final long tokenLifetimeMillis;
+    // token 到期時間使用的時鐘
+    private final LongSupplier clockMillis;
+    // 延遲排程器，延遲為 0 時可為 null
+    private final ScheduledExecutorService scheduler;
+    // 回呼執行緒（Android 可指定主執行緒）
+    private final Executor callbackExecutor;
+
+    private final Random random;
+    private final Map<String, FakeUser> accounts = new ConcurrentHashMap<>();
+    private final Map<String, FakeUser> phoneAccounts = new ConcurrentHashMap<>();
+    private final Map<String, String> pendingPhones = new ConcurrentHashMap<>();
+    // 已寄出的驗證信 oobCode -> 用戶
+    private final Map<String, FakeUser> emailActionCodes = new ConcurrentHashMap<>();
+    private volatile String lastEmailActionCode;
+    private final List<UserListener> idTokenListeners = new CopyOnWriteArrayList<>();
+    private final AtomicInteger idSequence = new AtomicInteger();
+    private volatile FakeUser currentUser;
+
+    private FakeAuthBackend(Builder builder) {
+        this.latencyMillis = builder.latencyMillis;
+        this.jitterMillis = builder.jitterMillis;
+        this.failureRate = builder.failureRate;
+        this.verificationCode = builder.verificationCode;
+        this.phoneAutoVerify = builder.phoneAutoVerify;
+        this.tokenLifetimeMillis = builder.tokenLifetimeMillis;
+        this.clockMillis = builder.clockMillis;
+        this.scheduler = builder.scheduler;
+        this.callbackExecutor = builder.callbackExecutor;
+        this.random = new Random(builder.seed);
+        if ((latencyMillis > 0 || jitterMillis > 0) && scheduler == null) {
+            throw new IllegalStateException("設定延遲時必須提供 scheduler");
+        }
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * 模擬後端回傳的錯誤
+     */
+    public static class FakeAuthException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        private final AuthErrorCode code;
+
+        public FakeAuthException(String message, AuthErrorCode code) {
+            super(message, null, false, false);
+            this.code = code;
+        }
+
+        public AuthErrorCode getCode() {
+            return code;
+        }
+    }
+
+    /**
+     * 預先建立帳號（量測登入流程時使用）
+     */
+    public void addAccount(String email, String password) {
+        accounts.put(email, new FakeUser(nextId("uid"), email, password));
+    }
+
+    /**
+     * 移除帳號（重複量測註冊流程時使用）
+     */
+    public void removeAccount(String email) {
+        FakeUser removed = accounts.remove(email);
+        if (removed != null) {
+            if (removed.phone != null) phoneAccounts.remove(removed.phone, removed);
+            if (removed == currentUser) setCurrentUser(null);
+        }
+    }
+
+    /**
+     * 模擬用戶點擊驗證信連結（下次重新讀取用戶時即為已驗證）
+     */
+    public void markEmailVerified(String email) {
+        FakeUser user = accounts.get(email);
+        if (user != null) {
+            user.emailVerified = true;
+        }
+    }
+
+    /**
+     * 清除所有帳號與登入狀態
+     */
+    public void reset() {
+        accounts.clear();
+        phoneAccounts.clear();
+        pendingPhones.clear();
+        emailActionCodes.clear();
+        currentUser = null;
+    }
+
+    @Override
+    public AuthUser getCurrentUser() {
+        return currentUser;
+    }
+
+    @Override
+    public void signIn(String email, String password, Callback<AuthUser> callback) {
+        deliver(() -> {
+            FakeUser user = accounts.get(email);
+            if (user == null || !user.password.equals(password)) {
+                callback.onComplete(null, new FakeAuthException("帳號或密碼錯誤", AuthErrorCode.INVALID_CREDENTIALS));
+                return;
+            }
+            setCurrentUser(user);
+            callback.onComplete(user, null);
+        }, callback);
+    }
+
+    @Override
+    public void createUser(String email, String password, Callback<AuthUser> callback) {
+        deliver(() -> {
+            FakeUser user = new FakeUser(nextId("uid"), email, password);
+            if (accounts.putIfAbsent(email, user) != null) {
+                callback.onComplete(null, new FakeAuthException("信箱已被使用", AuthErrorCode.EMAIL_IN_USE));
+                return;
+            }
+            setCurrentUser(user);
+            callback.onComplete(user, null);
+        }, callback);
+    }
+
+    @Override
+    public void sendEmailVerification(AuthUser user, Callback<Void> callback) {
+        deliver(() -> {
+            String code = nextId("oob");
+            emailActionCodes.put(code, (FakeUser) user);
+            lastEmailActionCode = code;
+            callback.onComplete(null, null);
+        }, callback);
+    }
+
+    /**
+     * 最後一封驗證信連結中的 oobCode（模擬用戶開啟驗證連結時使用）
+     */
+    public String getLastEmailActionCode() {
+        return lastEmailActionCode;
+    }
+
+    @Override
+    public void applyActionCode(String code, Callback<Void> callback) {
+        deliver(() -> {
+            FakeUser user = emailActionCodes.remove(code);
+            if (user == null) {
+                callback.onComplete(null, new FakeAuthException("驗證連結無效或已使用", AuthErrorCode.VERIFICATION_EXPIRED));
+                return;
+            }
+            user.emailVerified = true;
+            callback.onComplete(null, null);
+        }, callback);
+    }
+
+    @Override
+    public void verifyPhoneNumber(String phone, long timeoutSeconds, Object host, ResendToken resendToken,
+                                  PhoneCallbacks callbacks) {
+        deliver(() -> {
+            String verificationId = nextId("vid");
+            pendingPhones.put(verificationId, phone);
+            PhoneCredential credential = new FakePhoneCredential(verificationId, verificationCode);
+            if (phoneAutoVerify == PhoneAutoVerify.INSTANT) {
+                callbacks.onVerificationCompleted(credential);
+                return;
+            }
+            callbacks.onCodeSent(verificationId, new ResendToken() {
+            });
+            if (phoneAutoVerify == PhoneAutoVerify.AUTO_RETRIEVAL) {
+                // 自動讀取失敗時 Firebase 不回呼，等到逾時由用戶手動輸入
+                deliver(() -> callbacks.onVerificationCompleted(credential), (value, error) -> {
+                });
+            }
+        }, (value, error) -> callbacks.onVerificationFailed(error));
+    }
+
+    @Override
+    public PhoneCredential getPhoneCredential(String verificationId, String code) {
+        return new FakePhoneCredential(verificationId, code);
+    }
+
+    @Override
+    public void reloadUser(AuthUser user, Callback<AuthUser> callback) {
+        deliver(() -> callback.onComplete(user, null), callback);
+    }
+
+    /**
+     * 與 Firebase 相同：未到期時直接回傳快取的 token，到期或強制更新時才經過延遲重新取得
+     */
+    @Override
+    public void getIdToken(AuthUser user, boolean forceRefresh, Callback<IdToken> callback) {
+        FakeUser fake = (FakeUser) user;
+        IdToken cached = fake.idToken;
+        if (!forceRefresh && cached != null && cached.expiresAtMillis > clockMillis.getAsLong()) {
+            callbackExecutor.execute(() -> callback.onComplete(cached, null));
+            return;
+        }
+        deliver(() -> {
+            IdToken token = new IdToken(nextId("token"), clockMillis.getAsLong() + tokenLifetimeMillis);
+            fake.idToken = token;
+            callback.onComplete(token, null);
+        }, callback);
+    }
+
+    @Override
+    public void signInWithPhoneCredential(PhoneCredential credential, Callback<SignInResult> callback) {
+        deliver(() -> {
+            FakePhoneCredential fake = (FakePhoneCredential) credential;
+            String phone = pendingPhones.get(fake.verificationId);
+            if (phone == null || !verificationCode.equals(fake.code)) {
+                callback.onComplete(null, new FakeAuthException("驗證碼錯誤", AuthErrorCode.VERIFY_CODE_REJECTED));
+                return;
+            }
+            FakeUser user = phoneAccounts.get(phone);
+            boolean newUser = user == null;
+            if (newUser) {
+                user = new FakeUser(nextId("uid"), null, null);
+                user.phone = phone;
+                phoneAccounts.put(phone, user);
+            }
+            setCurrentUser(user);
+            callback.onComplete(new SignInResult(user, newUser), null);
+        }, callback);
+    }
+
+    @Override
+    public void linkWithEmail(AuthUser user, String email, String password, Callback<AuthUser> callback) {
+        deliver(() -> {
+            FakeUser fake = (FakeUser) user;
+            if (accounts.containsKey(email)) {
+                callback.onComplete(null, new FakeAuthException("信箱已被使用", AuthErrorCode.EMAIL_IN_USE));
+                return;
+            }
+            fake.email = email;
+            fake.password = password;
+            accounts.put(email, fake);
+            callback.onComplete(fake, null);
+        }, callback);
+    }
+
+    @Override
+    public void deleteUser(AuthUser user, Callback<Void> callback) {
+        deliver(() -> {
+            FakeUser fake = (FakeUser) user;
+            if (fake.email != null) accounts.remove(fake.email, fake);
+            if (fake.phone != null) phoneAccounts.remove(fake.phone, fake);
+            if (fake == currentUser) setCurrentUser(null);
+            callback.onComplete(null, null);
+        }, callback);
+    }
+
+    @Override
+    public void signOut() {
+        setCurrentUser(null);
+    }
+
+    @Override
+    public AuthErrorCode mapError(Exception error) {
+        if (error instanceof FakeAuthException) {
+            return ((FakeAuthException) error).getCode();
+        }
+        return null;
+    }
+
+    @Override
+    public void addIdTokenListener(UserListener listener) {
+        idTokenListeners.add(listener);
+        listener.onUserChanged(currentUser);
+    }
+
+    @Override
+    public void removeIdTokenListener(UserListener listener) {
+        idTokenListeners.remove(listener);
+    }
+
+    /**
+     * 切換登入用戶並通知監聽者
+     */
+    private void setCurrentUser(FakeUser user) {
+        currentUser = user;
+        for (UserListener listener : idTokenListeners) {
+            listener.onUserChanged(user);
+        }
+    }
+
+    /**
+     * 依設定的延遲與失敗率送出結果
+     *
+     * @param success   成功時執行的動作（仍可能回傳業務錯誤）
+     * @param onFailure 模擬失敗時的回呼
+     */
+    private void deliver(Runnable success, Callback<?> onFailure) {
+        final boolean fail;
+        final long delay;
+        synchronized (random) {
+            fail = failureRate > 0 && random.nextDouble() < failureRate;
+            delay = latencyMillis + (jitterMillis > 0 ? (long) (random.nextDouble() * jitterMillis) : 0);
+        }
+        Runnable task = () -> callbackExecutor.execute(() -> {
+            if (fail) {
+                onFailure.onComplete(null, new FakeAuthException("模擬網路失敗", AuthErrorCode.NETWORK));
+            } else {
+                success.run();
+            }
+        });
+        if (delay <= 0) {
+            task.run();
+        } else {
+            scheduler.schedule(task, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private String nextId(String prefix) {
+        return prefix + "-" + idSequence.incrementAndGet();
+    }
+
+    private static final class FakeUser implements AuthUser {
+        private final String uid;
+        private volatile String email;
+        private volatile String password;
+        private volatile String phone;
+        private volatile boolean emailVerified;
+        private volatile IdToken idToken;
+
+        private FakeUser(String uid, String email, String password) {
+            this.uid = uid;
+            this.email = email;
+            this.password = password;
+        }
+
+        @Override
+        public String getUid() {
+            return uid;
+        }
+
+        @Override
+        public String getEmail() {
+            return email;
+        }
+
+        @Override
+        public boolean isEmailVerified() {
+            return emailVerified;
+        }
+    }
+
+    private static final class FakePhoneCredential implements PhoneCredential {
+        private final String verificationId;
+        private final String code;
+
+        private FakePhoneCredential(String verificationId, String code) {
+            this.verificationId = verificationId;
+            this.code = code;
+        }
+    }
+
+    /**
+     * {@link FakeAuthBackend} 設定
+     */
+    public static class Builder {
+        private long latencyMillis;
+        private long jitterMillis;
+        private double failureRate;
+        private long seed = 1L;
+        private String verificationCode = "123456";
+        private PhoneAutoVerify phoneAutoVerify = PhoneAutoVerify.NONE;
+        private long tokenLifetimeMillis = TimeUnit.HOURS.toMillis(1);
+        private LongSupplier clockMillis = System::currentTimeMillis;
+        private ScheduledExecutorService scheduler;
+        private Executor callbackExecutor = Runnable::run;
+
+        private Builder() {
+        }
+
+        public Builder setLatency(long latency, long jitter, TimeUnit unit) {
+            this.latencyMillis = unit.toMillis(latency);
+            this.jitterMillis = unit.toMillis(jitter);
+            return this;
+        }
+
+        public Builder setFailureRate(double failureRate) {
+            if (failureRate < 0 || failureRate > 1) {
+                throw new IllegalArgumentException("failureRate 需介於 0~1");
+            }
+            this.failureRate = failureRate;
+            return this;
+        }
+
+        public Builder setSeed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public Builder setVerificationCode(String verificationCode) {
+            this.verificationCode = verificationCode;
+            return this;
+        }
+
+        public Builder setPhoneAutoVerify(PhoneAutoVerify phoneAutoVerify) {
+            this.phoneAutoVerify = phoneAutoVerify;
+            return this;
+        }
+
+        public Builder setTokenLifetime(long lifetime, TimeUnit unit) {
+            this.tokenLifetimeMillis = unit.toMillis(lifetime);
+            return this;
+        }
+
+        public Builder setClock(LongSupplier clockMillis) {
+            this.clockMillis = clockMillis;
+            return this;
+        }
+
+        public Builder setScheduler(ScheduledExecutorService scheduler) {
+            this.scheduler = scheduler;
+            return this;
+        }
+
+        public Builder setCallbackExecutor(Executor callbackExecutor) {
+            this.callbackExecutor = callbackExecutor;
+            return this;
+        }
+
+        public FakeAuthBackend build() {
+            return new FakeAuthBackend(this);
+        }
+    }
+}
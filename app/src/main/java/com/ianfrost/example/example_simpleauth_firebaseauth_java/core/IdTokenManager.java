@@ -0,0 +1,196 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.core;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * ID token 管理（後端 API 呼叫用）
+ * 快取目前 token 與到期時間，到期前在背景先行更新，同時間多個更新請求合併為一次
+ * 以 {@link AuthSessionStore.Observer} 跟隨登入狀態，換帳號或登出時清除
+ */
+public class IdTokenManager implements AuthSessionStore.Observer {
+
+    // 到期前多久先行更新
+    static final long DEFAULT_REFRESH_AHEAD_MILLIS = 5 * 60_000L;
+    // 剩餘有效時間低於此值時不再直接使用快取（時鐘誤差、請求傳送時間）
+    static final long DEFAULT_EXPIRY_SKEW_MILLIS = 30_000L;
+
+    private final AuthBackend backend;
+    private final ScheduledExecutorService scheduler;
+    private final LongSupplier clockMillis;
+    private final long refreshAheadMillis;
+    private final long expirySkewMillis;
+
+    private AuthUser user;
+    // 每次換帳號遞增，舊請求的結果比對後丟棄
+    private int generation;
+    private AuthBackend.IdToken cached;
+    private CompletableFuture<String> inFlight;
+    private ScheduledFuture<?> scheduledRefresh;
+
+    // 統計：快取命中、實際向後端取得、合併次數
+    private long hits;
+    private long fetches;
+    private long coalesced;
+
+    public IdTokenManager(AuthBackend backend, ScheduledExecutorService scheduler) {
+        this(backend, scheduler, System::currentTimeMillis, DEFAULT_REFRESH_AHEAD_MILLIS, DEFAULT_EXPIRY_SKEW_MILLIS);
+    }
+
+    public IdTokenManager(AuthBackend backend, ScheduledExecutorService scheduler, LongSupplier clockMillis,
+                          long refreshAheadMillis, long expirySkewMillis) {
+        this.backend = backend;
+        this.scheduler = scheduler;
+        this.clockMillis = clockMillis;
+        this.refreshAheadMillis = refreshAheadMillis;
+        this.expirySkewMillis = expirySkewMillis;
+    }
+
+    /**
+     * 登入狀態變動：換帳號或登出時清除快取並取消背景更新
+     */
+    @Override
+    public void onSessionChanged(AuthSession session) {
+        setUser(session != null ? session.user : null);
+    }
+
+    /**
+     * 設定目前用戶（同一用戶時保留快取）
+     */
+    public synchronized void setUser(AuthUser user) {
+        if (this.user == null ? user == null : user != null && this.user.getUid().equals(user.getUid())) {
+            if (user != null) this.user = user;
+            return;
+        }
+        this.user = user;
+        generation++;
+        cached = null;
+        cancelScheduledRefresh();
+        if (inFlight != null) {
+            inFlight.completeExceptionally(new IllegalStateException("登入狀態已變更"));
+            inFlight = null;
+        }
+    }
+
+    /**
+     * 目前可用的 token，沒有或即將到期時為 null（不會送出請求）
+     */
+    public synchronized String peekToken() {
+        return isUsable(cached) ? cached.token : null;
+    }
+
+    /**
+     * 取得 token：快取可用時回傳已完成的 future，否則加入進行中的更新或送出一次更新
+     */
+    public CompletableFuture<String> getToken() {
+        synchronized (this) {
+            if (isUsable(cached)) {
+                hits++;
+                return CompletableFuture.completedFuture(cached.token);
+            }
+        }
+        return refresh(false);
+    }
+
+    /**
+     * 後端 API 回報 token 無效（例如 401）時呼叫，捨棄快取並強制重新取得
+     */
+    public CompletableFuture<String> invalidate() {
+        synchronized (this) {
+            cached = null;
+        }
+        return refresh(true);
+    }
+
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    public synchronized long getFetchCount() {
+        return fetches;
+    }
+
+    public synchronized long getCoalescedCount() {
+        return coalesced;
+    }
+
+    private CompletableFuture<String> refresh(boolean forceRefresh) {
+        // 後端建立完成前不在呼叫端執行緒等待，建立完成後再讀取目前用戶
+        CompletableFuture<Void> ready = new CompletableFuture<>();
+        backend.whenReady(Runnable::run, () -> ready.complete(null));
+        if (!ready.isDone()) return ready.thenCompose(ignored -> fetch(forceRefresh));
+        return fetch(forceRefresh);
+    }
+
+    private CompletableFuture<String> fetch(boolean forceRefresh) {
+        // 以後端目前用戶為準（快照還原時登入狀態存放處尚未有用戶參考）
+        setUser(backend.getCurrentUser());
+        final AuthUser target;
+        final int requested;
+        final CompletableFuture<String> future;
+        synchronized (this) {
+            if (user == null) {
+                CompletableFuture<String> failed = new CompletableFuture<>();
+                failed.completeExceptionally(new IllegalStateException("尚未登入"));
+                return failed;
+            }
+            if (inFlight != null) {
+                coalesced++;
+                return inFlight;
+            }
+            future = new CompletableFuture<>();
+            inFlight = future;
+            target = user;
+            requested = generation;
+            fetches++;
+        }
+        backend.getIdToken(target, forceRefresh, (token, error) -> onFetched(requested, future, token, error));
+        return future;
+    }
+
+    private void onFetched(int requested, CompletableFuture<String> future, AuthBackend.IdToken token, Exception error) {
+        synchronized (this) {
+            if (inFlight == future) inFlight = null;
+            if (requested != generation) return; // 已換帳號，future 已在 setUser 時失敗
+            if (error == null && token != null) {
+                cached = token;
+                scheduleRefresh(token);
+            }
+        }
+        if (error != null || token == null) {
+            future.completeExceptionally(error != null ? error : new IllegalStateException("無法取得 ID token"));
+        } else {
+            future.complete(token.token);
+        }
+    }
+
+    /**
+     * 到期前在背景先行更新（後端快取已接近到期，需強制重新取得）
+     */
+    private void scheduleRefresh(AuthBackend.IdToken token) {
+        cancelScheduledRefresh();
+        long delay = Math.max(0, token.expiresAtMillis - refreshAheadMillis - clockMillis.getAsLong());
+        final int scheduled = generation;
+        scheduledRefresh = scheduler.schedule(() -> {
+            synchronized (this) {
+                if (scheduled != generation) return;
+                scheduledRefresh = null;
+            }
+            refresh(true);
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void cancelScheduledRefresh() {
+        if (scheduledRefresh != null) {
+            scheduledRefresh.cancel(false);
+            scheduledRefresh = null;
+        }
+    }
+
+    private boolean isUsable(AuthBackend.IdToken token) {
+        return token != null && token.expiresAtMillis - expirySkewMillis > clockMillis.getAsLong();
+    }
+}
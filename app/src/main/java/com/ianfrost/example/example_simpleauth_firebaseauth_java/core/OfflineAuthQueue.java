@@ -0,0 +1,408 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.core;
+
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.AuthResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * 離線時送出失敗的登入/註冊，保存後在網路恢復時重新送出
+ * 每個信箱只保留最後一次的請求（重複送出合併為一筆）；內容以 {@link SealedBox} 加密保存，key 為信箱雜湊，不保存明文密碼
+ * 重新送出依加入順序逐筆經過 {@link AuthFlow#confirm}（送出前檢查、節流與一般送出相同），
+ * 網路仍無法連線時停止並保留剩下的請求，其他結果（成功或失敗）移除該筆並交給 {@link Listener}
+ * 註冊成功但驗證信未寄出時保存重新寄送（{@link #enqueueVerificationResend}），只在同一信箱的用戶登入中時送出；
+ * 登入/註冊只在未登入時送出，登入狀態不符的請求直接移除；登出或直接送出成功時以 {@link #clear} 清空
+ */
+public final class OfflineAuthQueue {
+
+    /**
+     * 加密後的請求保存處（App 重啟、程序被回收後仍存在）
+     */
+    public interface Storage {
+        Map<String, byte[]> load();
+
+        void save(String key, byte[] sealed);
+
+        void remove(String key);
+
+        /**
+         * 移除全部請求
+         */
+        default void clear() {
+            for (String key : load().keySet()) {
+                remove(key);
+            }
+        }
+    }
+
+    /**
+     * 重新送出的結果（於 AuthFlow 回傳結果的執行緒呼叫）
+     */
+    public interface Listener {
+        void onReplayed(AuthResult result);
+    }
+
+    /**
+     * 重新送出結束
+     */
+    public interface DrainCallback {
+        /**
+         * @param retry 仍有請求因網路無法送出，需稍後再試
+         */
+        void onDrained(boolean retry);
+    }
+
+    // 超過保存期限的請求不再送出（用戶可能已忘記或改用其他帳號）
+    static final long MAX_AGE_MILLIS = 24 * 60 * 60_000L;
+    private static final int FORMAT_VERSION = 1;
+    private static final String KEY_PREFIX = "q_";
+    private static final int RUNNING = 0;
+    private static final int SYNC = 1;
+    private static final int ASYNC = 2;
+
+    private final Storage storage;
+    private final SealedBox box;
+    private final LongSupplier clockMillis;
+    // key -> 請求（依加入順序），第一次使用時從 storage 解密載入
+    private LinkedHashMap<String, Entry> entries;
+    private boolean draining;
+    // clear 時遞增，之前開始的重新送出不再繼續、結果不回報
+    private int generation;
+    private Listener listener;
+    // 還沒有 Listener 時完成的結果
+    private final ArrayDeque<AuthResult> undelivered = new ArrayDeque<>();
+
+    public OfflineAuthQueue(Storage storage, SealedBox box) {
+        this(storage, box, System::currentTimeMillis);
+    }
+
+    public OfflineAuthQueue(Storage storage, SealedBox box, LongSupplier clockMillis) {
+        this.storage = storage;
+        this.box = box;
+        this.clockMillis = clockMillis;
+    }
+
+    /**
+     * 可離線保存的認證動作（手機驗證需要簡訊互動，不保存）
+     */
+    public static boolean isQueueable(AuthResult.AuthAction action) {
+        return action == AuthResult.AuthAction.LOGIN
+                || action == AuthResult.AuthAction.REGISTER_NO_VERIFY
+                || action == AuthResult.AuthAction.REGISTER_EMAIL_VERIFY;
+    }
+
+    /**
+     * 網路恢復後重新送出可能成功的失敗結果：網路錯誤、逾時、請求過多與用戶端節流
+     */
+    public static boolean isRetryable(AuthResult result) {
+        if (result.isSuccess || result.errorCode == null) return false;
+        return result.errorCode == AuthErrorCode.RATE_LIMITED
+                || result.errorCode.getFailureKind() != AuthBackend.FailureKind.OTHER;
+    }
+
+    /**
+     * 保存請求，同一信箱已有請求時取代並排到最後（加密可能較慢，不在主執行緒呼叫）
+     *
+     * @param action  {@link #isQueueable} 的認證動作
+     * @param request 輸入資料
+     */
+    public void enqueue(AuthResult.AuthAction action, AuthRequest request) throws GeneralSecurityException {
+        if (!isQueueable(action)) {
+            throw new IllegalArgumentException("不可離線保存的認證動作：" + action);
+        }
+        save(new Entry(action, false, request.email, request.password, clockMillis.getAsLong()));
+    }
+
+    /**
+     * 保存重新寄送驗證信（帳號已建立，寄送驗證信時網路無法連線），取代同一信箱的請求
+     *
+     * @param email 註冊的信箱
+     */
+    public void enqueueVerificationResend(String email) throws GeneralSecurityException {
+        save(new Entry(AuthResult.AuthAction.REGISTER_EMAIL_VERIFY, true, email, "", clockMillis.getAsLong()));
+    }
+
+    private void save(Entry entry) throws GeneralSecurityException {
+        String key = key(entry.email);
+        byte[] sealed = box.seal(entry.encode(), key.getBytes(StandardCharsets.UTF_8));
+        synchronized (this) {
+            ensureLoaded();
+            entries.remove(key);
+            entries.put(key, entry);
+            storage.save(key, sealed);
+        }
+    }
+
+    /**
+     * 清空全部請求與尚未交給 Listener 的結果（登出、直接送出成功時），進行中的重新送出結束且不回報結果
+     */
+    public synchronized void clear() {
+        generation++;
+        draining = false;
+        entries = new LinkedHashMap<>();
+        undelivered.clear();
+        storage.clear();
+    }
+
+    /**
+     * 等待送出的請求數
+     */
+    public synchronized int size() {
+        ensureLoaded();
+        return entries.size();
+    }
+
+    /**
+     * 設定結果接收者（取代上一個），之前完成的結果立即交給它
+     */
+    public void setListener(Listener listener) {
+        List<AuthResult> pending;
+        synchronized (this) {
+            this.listener = listener;
+            if (undelivered.isEmpty()) return;
+            pending = new ArrayList<>(undelivered);
+            undelivered.clear();
+        }
+        for (AuthResult result : pending) {
+            listener.onReplayed(result);
+        }
+    }
+
+    /**
+     * 移除結果接收者（已被取代時不影響目前的接收者），之後的結果先暫存
+     */
+    public synchronized void removeListener(Listener listener) {
+        if (this.listener == listener) this.listener = null;
+    }
+
+    /**
+     * 依加入順序逐筆重新送出（同時只會有一個重新送出進行中，其他呼叫直接回傳需稍後再試）
+     * 重新送出期間加入的請求也會送出；每筆送出前以 {@link AuthBackend#getCurrentUser} 確認登入狀態
+     * （後端建立完成前會等待，不在主執行緒呼叫）
+     *
+     * @param flow     送出使用的流程（一般為背景執行緒回傳結果）
+     * @param callback 全部送出，或遇到網路錯誤停止時回呼
+     */
+    public void drain(AuthFlow flow, DrainCallback callback) {
+        int drainGeneration;
+        synchronized (this) {
+            if (draining) {
+                callback.onDrained(true); // 另一個重新送出尚未結束，稍後再確認
+                return;
+            }
+            draining = true;
+            drainGeneration = generation;
+        }
+        next(flow, drainGeneration, callback);
+    }
+
+    /**
+     * 逐筆送出；後端同步回傳時以迴圈接續（不讓呼叫堆疊隨筆數增加），非同步回傳時由回呼接續
+     */
+    private void next(AuthFlow flow, int drainGeneration, DrainCallback callback) {
+        while (true) {
+            String key = null;
+            Entry entry = null;
+            List<AuthResult> expired = new ArrayList<>();
+            synchronized (this) {
+                // 已清空時不再送出（重新送出的狀態已由 clear 重設）
+                if (generation == drainGeneration) {
+                    ensureLoaded();
+                    long now = clockMillis.getAsLong();
+                    for (Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator(); it.hasNext(); ) {
+                        Map.Entry<String, Entry> candidate = it.next();
+                        if (now - candidate.getValue().enqueuedAt > MAX_AGE_MILLIS) {
+                            it.remove();
+                            storage.remove(candidate.getKey());
+                            expired.add(AuthResult.failure(candidate.getValue().action, AuthErrorCode.NETWORK));
+                        } else {
+                            key = candidate.getKey();
+                            entry = candidate.getValue();
+                            break;
+                        }
+                    }
+                    if (entry == null) draining = false;
+                }
+            }
+            for (AuthResult result : expired) {
+                report(result);
+            }
+            if (entry == null) {
+                callback.onDrained(false); // 全部送出或已清空
+                return;
+            }
+
+            final String sentKey = key;
+            final Entry sent = entry;
+            if (!isSendable(sent, flow.getBackend().getCurrentUser())) {
+                // 登入狀態已不同（已登入其他帳號、已登出）：不送出也不回報
+                remove(sentKey, sent);
+                continue;
+            }
+            // RUNNING -> SYNC（送出中已完成，由迴圈接續）或 ASYNC（之後由回呼接續）
+            AtomicInteger step = new AtomicInteger(RUNNING);
+            AuthFlow.ResultCallback onResult = result -> {
+                if (result.action == AuthResult.AuthAction.LOAD) return;
+                boolean stale;
+                synchronized (this) {
+                    stale = generation != drainGeneration;
+                }
+                if (stale) {
+                    callback.onDrained(false);
+                    return;
+                }
+                if (isRetryable(result)) {
+                    synchronized (this) {
+                        draining = false;
+                    }
+                    callback.onDrained(true);
+                    return;
+                }
+                remove(sentKey, sent);
+                report(result);
+                if (!step.compareAndSet(RUNNING, SYNC)) next(flow, drainGeneration, callback);
+            };
+            if (sent.resend) {
+                flow.resendEmailVerification(sent.email, onResult);
+            } else {
+                flow.confirm(sent.action, new AuthRequest(sent.email, sent.password, null, null, null), null, onResult);
+            }
+            if (step.compareAndSet(RUNNING, ASYNC)) return;
+        }
+    }
+
+    /**
+     * 移除已處理的請求（送出期間同一信箱又加入新的請求時保留新的）
+     */
+    private synchronized void remove(String key, Entry entry) {
+        if (entries.get(key) == entry) {
+            entries.remove(key);
+            storage.remove(key);
+        }
+    }
+
+    /**
+     * 目前的登入狀態下可送出：登入/註冊需未登入（已登入時送出會取代目前的用戶），重新寄送驗證信需為同一信箱的用戶
+     */
+    private static boolean isSendable(Entry entry, AuthUser current) {
+        if (entry.resend) return current != null && entry.email.equalsIgnoreCase(current.getEmail());
+        return current == null;
+    }
+
+    private void report(AuthResult result) {
+        Listener current;
+        synchronized (this) {
+            current = listener;
+            if (current == null) {
+                undelivered.add(result);
+                return;
+            }
+        }
+        current.onReplayed(result);
+    }
+
+    /**
+     * 載入保存的請求，無法解密（金鑰已更換、資料損毀）的直接移除
+     */
+    private void ensureLoaded() {
+        if (entries != null) return;
+        List<Map.Entry<String, Entry>> loaded = new ArrayList<>();
+        for (Map.Entry<String, byte[]> saved : storage.load().entrySet()) {
+            Entry entry;
+            try {
+                entry = Entry.decode(box.open(saved.getValue(), saved.getKey().getBytes(StandardCharsets.UTF_8)));
+            } catch (GeneralSecurityException | IOException | IllegalArgumentException e) {
+                storage.remove(saved.getKey());
+                continue;
+            }
+            loaded.add(new AbstractMap.SimpleImmutableEntry<>(saved.getKey(), entry));
+        }
+        loaded.sort((a, b) -> Long.compare(a.getValue().enqueuedAt, b.getValue().enqueuedAt));
+        entries = new LinkedHashMap<>();
+        for (Map.Entry<String, Entry> entry : loaded) {
+            entries.put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * 保存 key：正規化信箱的 SHA-256（不保存明文信箱）
+     */
+    static String key(String email) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(email.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(KEY_PREFIX.length() + digest.length * 2).append(KEY_PREFIX);
+            for (byte b : digest) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 一筆等待送出的請求
+     */
+    private static final class Entry {
+        final AuthResult.AuthAction action;
+        // 重新寄送驗證信（帳號已建立，不保存密碼）
+        final boolean resend;
+        final String email;
+        final String password;
+        final long enqueuedAt;
+
+        Entry(AuthResult.AuthAction action, boolean resend, String email, String password, long enqueuedAt) {
+            this.action = action;
+            this.resend = resend;
+            this.email = email;
+            this.password = password;
+            this.enqueuedAt = enqueuedAt;
+        }
+
+        byte[] encode() {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeByte(FORMAT_VERSION);
+                out.writeUTF(action.name());
+                out.writeUTF(email);
+                out.writeUTF(password);
+                out.writeLong(enqueuedAt);
+                out.writeBoolean(resend);
+            } catch (IOException e) {
+                throw new IllegalStateException(e); // ByteArrayOutputStream 不會失敗
+            }
+            return bytes.toByteArray();
+        }
+
+        static Entry decode(byte[] data) throws IOException {
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+                int version = in.readByte();
+                if (version != FORMAT_VERSION) throw new IOException("不支援的格式版本");
+                AuthResult.AuthAction action = AuthResult.AuthAction.valueOf(in.readUTF());
+                String email = in.readUTF();
+                String password = in.readUTF();
+                long enqueuedAt = in.readLong();
+                boolean resend = in.readBoolean();
+                return new Entry(action, resend, email, password, enqueuedAt);
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.core;
+
+/**
+ * 請求被用戶端節流擋下（未送出任何網路請求）
+ */
+public class RateLimitedException extends AuthException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterMillis;
+
+    public RateLimitedException(long retryAfterMillis) {
+        super(AuthErrorCode.RATE_LIMITED);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    /**
+     * 需等待的毫秒數
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
@@ -0,0 +1,77 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.core;
+
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+
+/**
+ * AES-GCM 加密本機保存的敏感資料（離線佇列的密碼等）
+ * 金鑰由呼叫端提供（Android 為 Keystore 金鑰，不離開安全硬體），第一次使用時才取得
+ * 格式：IV 長度(1 byte) + IV + 密文（含 128-bit tag）；associatedData 綁定保存位置，換到其他 key 下無法解密
+ */
+public final class SealedBox {
+
+    /**
+     * 取得金鑰（可能較慢，不在主執行緒呼叫）
+     */
+    public interface KeySource {
+        SecretKey get() throws GeneralSecurityException;
+    }
+
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int TAG_BITS = 128;
+
+    private final KeySource keySource;
+    private volatile SecretKey key;
+
+    public SealedBox(KeySource keySource) {
+        this.keySource = keySource;
+    }
+
+    /**
+     * 加密（IV 由 Cipher 隨機產生，Keystore 金鑰不允許自訂 IV）
+     */
+    public byte[] seal(byte[] plaintext, byte[] associatedData) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(Cipher.ENCRYPT_MODE, key());
+        cipher.updateAAD(associatedData);
+        byte[] iv = cipher.getIV();
+        byte[] encrypted = cipher.doFinal(plaintext);
+        byte[] sealed = new byte[1 + iv.length + encrypted.length];
+        sealed[0] = (byte) iv.length;
+        System.arraycopy(iv, 0, sealed, 1, iv.length);
+        System.arraycopy(encrypted, 0, sealed, 1 + iv.length, encrypted.length);
+        return sealed;
+    }
+
+    /**
+     * 解密，內容被修改、associatedData 不同或金鑰已更換時丟出例外
+     */
+    public byte[] open(byte[] sealed, byte[] associatedData) throws GeneralSecurityException {
+        if (sealed.length < 1 || sealed.length < 1 + sealed[0]) {
+            throw new GeneralSecurityException("資料格式錯誤");
+        }
+        int ivLength = sealed[0];
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(Cipher.DECRYPT_MODE, key(), new GCMParameterSpec(TAG_BITS, Arrays.copyOfRange(sealed, 1, 1 + ivLength)));
+        cipher.updateAAD(associatedData);
+        return cipher.doFinal(sealed, 1 + ivLength, sealed.length - 1 - ivLength);
+    }
+
+    private SecretKey key() throws GeneralSecurityException {
+        SecretKey current = key;
+        if (current == null) {
+            synchronized (this) {
+                current = key;
+                if (current == null) {
+                    current = keySource.get();
+                    key = current;
+                }
+            }
+        }
+        return current;
+    }
+}
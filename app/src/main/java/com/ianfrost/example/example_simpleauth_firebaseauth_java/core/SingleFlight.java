@@ -0,0 +1,179 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * 同一 key 同時間只執行一次請求，之後的呼叫者加入等待並取得同一結果
+ * 可選擇將成功結果短暫快取（只適用於重複執行結果相同的操作）
+ *
+ * @param <K> 請求 key
+ * @param <V> 請求結果
+ */
+public class SingleFlight<K, V> {
+
+    /**
+     * 實際執行的請求，完成時呼叫 complete 一次
+     */
+    public interface Operation<V> {
+        void start(Consumer<V> complete);
+    }
+
+    /**
+     * 是否可快取此結果
+     */
+    public interface CachePolicy<V> {
+        /**
+         * @return 快取毫秒數，0 表示不快取
+         */
+        long ttlMillis(V result);
+    }
+
+    private final CachePolicy<V> cachePolicy;
+    private final LongSupplier clockMillis;
+
+    private final Map<K, Flight<V>> inFlight = new HashMap<>();
+    private final Map<K, Cached<V>> cache = new HashMap<>();
+
+    // 統計：實際執行次數、加入進行中請求次數、快取命中次數
+    private final AtomicLong executed = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+
+    public SingleFlight(CachePolicy<V> cachePolicy) {
+        this(cachePolicy, System::currentTimeMillis);
+    }
+
+    public SingleFlight(CachePolicy<V> cachePolicy, LongSupplier clockMillis) {
+        this.cachePolicy = cachePolicy;
+        this.clockMillis = clockMillis;
+    }
+
+    /**
+     * 執行或加入請求
+     *
+     * @param key       請求 key
+     * @param operation 沒有進行中請求與有效快取時才會執行
+     * @param waiter    結果回呼
+     * @return true 表示加入了進行中的請求或命中快取（沒有發出新請求）
+     */
+    public boolean execute(K key, Operation<V> operation, Consumer<V> waiter) {
+        V cachedResult = null;
+        Flight<V> flight;
+        synchronized (this) {
+            Cached<V> cached = cache.get(key);
+            if (cached != null) {
+                if (cached.expiresAt > clockMillis.getAsLong()) {
+                    cachedResult = cached.value;
+                } else {
+                    cache.remove(key);
+                }
+            }
+            if (cachedResult == null) {
+                flight = inFlight.get(key);
+                if (flight != null) {
+                    flight.waiters.add(waiter);
+                    coalesced.incrementAndGet();
+                    return true;
+                }
+                flight = new Flight<>();
+                flight.waiters.add(waiter);
+                inFlight.put(key, flight);
+            } else {
+                flight = null;
+            }
+        }
+
+        if (cachedResult != null) {
+            cacheHits.incrementAndGet();
+            waiter.accept(cachedResult);
+            return true;
+        }
+
+        executed.incrementAndGet();
+        final Flight<V> started = flight;
+        operation.start(result -> complete(key, started, result));
+        return false;
+    }
+
+    private void complete(K key, Flight<V> flight, V result) {
+        List<Consumer<V>> waiters;
+        synchronized (this) {
+            if (flight.done) return;
+            flight.done = true;
+            inFlight.remove(key);
+            long ttl = cachePolicy.ttlMillis(result);
+            if (ttl > 0) {
+                cache.put(key, new Cached<>(result, clockMillis.getAsLong() + ttl));
+            }
+            waiters = flight.waiters;
+        }
+        for (Consumer<V> waiter : waiters) {
+            waiter.accept(result);
+        }
+    }
+
+    /**
+     * 放棄進行中的請求：之後相同 key 的呼叫重新執行，原本的等待者不會再收到結果
+     * 用於結果已不會回傳的請求（例如後端解除了回呼）
+     */
+    public synchronized void abandon(K key) {
+        Flight<V> flight = inFlight.remove(key);
+        if (flight != null) flight.done = true;
+    }
+
+    /**
+     * 清除指定 key 的快取結果（不影響進行中的請求）
+     */
+    public synchronized void forget(K key) {
+        cache.remove(key);
+    }
+
+    /**
+     * 清除所有快取結果
+     */
+    public synchronized void clearCache() {
+        cache.clear();
+    }
+
+    /**
+     * 實際執行的請求數
+     */
+    public long getExecutedCount() {
+        return executed.get();
+    }
+
+    /**
+     * 加入進行中請求而未重複送出的次數
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    /**
+     * 命中快取而未重複送出的次數
+     */
+    public long getCacheHitCount() {
+        return cacheHits.get();
+    }
+
+    private static final class Flight<V> {
+        final List<Consumer<V>> waiters = new ArrayList<>(1);
+        boolean done;
+    }
+
+    private static final class Cached<V> {
+        final V value;
+        final long expiresAt;
+
+        Cached(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.core.validation;
+
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.AuthResult;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthErrorCode;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthRequest;
+
+/**
+ * 送出前檢查：依 AuthAction 檢查需要的欄位，並將手機號碼正規化為 E.164
+ * 檢查不通過時不會送出任何網路請求（也不會發送簡訊）
+ */
+public class AuthValidator {
+
+    private final PasswordPolicy passwordPolicy;
+    private final PhoneNumberNormalizer phoneNormalizer;
+
+    public AuthValidator() {
+        this(PasswordPolicy.FIREBASE_DEFAULT, new PhoneNumberNormalizer(PhoneNumberNormalizer.TW));
+    }
+
+    public AuthValidator(PasswordPolicy passwordPolicy, PhoneNumberNormalizer phoneNormalizer) {
+        this.passwordPolicy = passwordPolicy;
+        this.phoneNormalizer = phoneNormalizer;
+    }
+
+    /**
+     * 檢查請求
+     *
+     * @return 可送出的請求（手機號碼已正規化）
+     * @throws ValidationException 檢查不通過
+     */
+    public AuthRequest validate(AuthResult.AuthAction action, AuthRequest request) throws ValidationException {
+        switch (action) {
+            case LOGIN:
+                // 登入不套用密碼規則，舊帳號可能早於目前的密碼政策
+                checkEmail(request.email);
+                if (request.password.isEmpty()) throw ValidationException.of(AuthErrorCode.PASSWORD_EMPTY);
+                return request;
+            case REGISTER_NO_VERIFY:
+            case REGISTER_EMAIL_VERIFY:
+                checkEmail(request.email);
+                checkPassword(request.password);
+                return request;
+            case REGISTER_PHONE_VERIFY:
+                checkEmail(request.email);
+                checkPassword(request.password);
+                String phone = checkPhone(request.phone);
+                if (phone.equals(request.phone)) return request;
+                return new AuthRequest(request.email, request.password, phone, request.verificationId, request.verifyCode);
+            case REGISTER_PHONE_VERIFY_End:
+                // 尚未送出簡訊（沒有 verificationId）時同樣要求輸入驗證碼
+                if (request.verificationId.isEmpty()) throw ValidationException.of(AuthErrorCode.VERIFY_CODE_EMPTY);
+                checkVerifyCode(request.verifyCode);
+                return request;
+            default:
+                return request;
+        }
+    }
+
+    private void checkEmail(String email) throws ValidationException {
+        if (email.isEmpty()) throw ValidationException.of(AuthErrorCode.EMAIL_EMPTY);
+        if (!EmailValidator.isValid(email)) throw ValidationException.of(AuthErrorCode.EMAIL_INVALID);
+    }
+
+    private void checkPassword(String password) throws ValidationException {
+        AuthErrorCode error = passwordPolicy.check(password);
+        if (error != null) throw ValidationException.of(error);
+    }
+
+    private String checkPhone(String phone) throws ValidationException {
+        if (phone.isEmpty()) throw ValidationException.of(AuthErrorCode.PHONE_EMPTY);
+        // 只用於簡訊驗證：市話收不到簡訊，不浪費發送次數
+        String normalized = phoneNormalizer.normalizeMobile(phone);
+        if (normalized == null) throw ValidationException.of(AuthErrorCode.PHONE_INVALID);
+        return normalized;
+    }
+
+    private static void checkVerifyCode(String code) throws ValidationException {
+        if (code.isEmpty()) throw ValidationException.of(AuthErrorCode.VERIFY_CODE_EMPTY);
+        if (code.length() != 6) throw ValidationException.of(AuthErrorCode.VERIFY_CODE_INVALID);
+        for (int i = 0; i < code.length(); i++) {
+            char c = code.charAt(i);
+            if (c < '0' || c > '9') throw ValidationException.of(AuthErrorCode.VERIFY_CODE_INVALID);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.core.validation;
+
+/**
+ * Email 格式檢查（RFC 5321/5322 addr-spec 常用子集，不使用正規表示式、不配置物件）
+ * local-part：dot-atom 或 quoted-string，最長 64
+ * domain：以 . 分隔的 LDH label（每段 1~63、不以 - 開頭結尾、至少兩段），或 [IPv4] 位址，最長 253
+ */
+public final class EmailValidator {
+
+    private static final int MAX_LOCAL_LENGTH = 64;
+    private static final int MAX_DOMAIN_LENGTH = 253;
+    private static final int MAX_LABEL_LENGTH = 63;
+
+    private EmailValidator() {
+    }
+
+    public static boolean isValid(CharSequence email) {
+        int length = email.length();
+        int at = -1;
+        // 從後面找 @，quoted local-part 內可以出現 @
+        for (int i = length - 1; i >= 0; i--) {
+            if (email.charAt(i) == '@') {
+                at = i;
+                break;
+            }
+        }
+        if (at <= 0 || at == length - 1) return false;
+        if (at > MAX_LOCAL_LENGTH || length - at - 1 > MAX_DOMAIN_LENGTH) return false;
+        return isValidLocalPart(email, 0, at) && isValidDomain(email, at + 1, length);
+    }
+
+    private static boolean isValidLocalPart(CharSequence s, int start, int end) {
+        if (s.charAt(start) == '"') {
+            return isValidQuotedString(s, start, end);
+        }
+        boolean previousDot = true; // 不可以 . 開頭
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c == '.') {
+                if (previousDot) return false; // 不可連續 ..
+                previousDot = true;
+            } else if (isAtext(c)) {
+                previousDot = false;
+            } else {
+                return false;
+            }
+        }
+        return !previousDot; // 不可以 . 結尾
+    }
+
+    private static boolean isValidQuotedString(CharSequence s, int start, int end) {
+        if (end - start < 2 || s.charAt(end - 1) != '"') return false;
+        for (int i = start + 1; i < end - 1; i++) {
+            char c = s.charAt(i);
+            if (c == '\\') {
+                i++;
+                if (i >= end - 1 || s.charAt(i) < 0x20 || s.charAt(i) > 0x7E) return false;
+            } else if (c == '"' || c < 0x20 || c > 0x7E) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isValidDomain(CharSequence s, int start, int end) {
+        if (s.charAt(start) == '[') {
+            return s.charAt(end - 1) == ']' && isValidIpv4(s, start + 1, end - 1);
+        }
+        int labels = 0;
+        int labelStart = start;
+        for (int i = start; i <= end; i++) {
+            if (i == end || s.charAt(i) == '.') {
+                if (!isValidLabel(s, labelStart, i)) return false;
+                labels++;
+                labelStart = i + 1;
+            }
+        }
+        return labels >= 2;
+    }
+
+    private static boolean isValidLabel(CharSequence s, int start, int end) {
+        int length = end - start;
+        if (length < 1 || length > MAX_LABEL_LENGTH) return false;
+        if (s.charAt(start) == '-' || s.charAt(end - 1) == '-') return false;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (!(isLetterOrDigit(c) || c == '-')) return false;
+        }
+        return true;
+    }
+
+    private static boolean isValidIpv4(CharSequence s, int start, int end) {
+        int parts = 0;
+        int value = -1;
+        for (int i = start; i <= end; i++) {
+            if (i == end || s.charAt(i) == '.') {
+                if (value < 0 || value > 255) return false;
+                parts++;
+                value = -1;
+            } else {
+                char c = s.charAt(i);
+                if (c < '0' || c > '9') return false;
+                value = (value < 0 ? 0 : value * 10) + (c - '0');
+                if (value > 255) return false;
+            }
+        }
+        return parts == 4;
+    }
+
+    /**
+     * RFC 5322 atext
+     */
+    private static boolean isAtext(char c) {
+        if (isLetterOrDigit(c)) return true;
+        switch (c) {
+            case '!': case '#': case '$': case '%': case '&': case '\'': case '*': case '+':
+            case '-': case '/': case '=': case '?': case '^': case '_': case '`': case '{':
+            case '|': case '}': case '~':
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isLetterOrDigit(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+}
@@ -0,0 +1,56 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.core.validation;
+
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthErrorCode;
+
+/**
+ * 密碼規則，需與 Firebase Console 的密碼政策設定一致
+ * 預設為 Firebase 預設值：至少 6 碼，最長 4096 碼，不要求字元種類
+ */
+public final class PasswordPolicy {
+
+    // Firebase 預設密碼規則
+    public static final PasswordPolicy FIREBASE_DEFAULT = new PasswordPolicy(6, 4096, false, false, false, false);
+
+    private final int minLength;
+    private final int maxLength;
+    private final boolean requireUppercase;
+    private final boolean requireLowercase;
+    private final boolean requireDigit;
+    private final boolean requireSymbol;
+
+    public PasswordPolicy(int minLength, int maxLength, boolean requireUppercase, boolean requireLowercase,
+                          boolean requireDigit, boolean requireSymbol) {
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+        this.requireUppercase = requireUppercase;
+        this.requireLowercase = requireLowercase;
+        this.requireDigit = requireDigit;
+        this.requireSymbol = requireSymbol;
+    }
+
+    /**
+     * 檢查密碼
+     *
+     * @return 符合規則回傳 null，否則回傳第一個不符合的錯誤代碼
+     */
+    public AuthErrorCode check(CharSequence password) {
+        int length = password.length();
+        if (length == 0) return AuthErrorCode.PASSWORD_EMPTY;
+        if (length < minLength) return AuthErrorCode.PASSWORD_TOO_SHORT;
+        if (length > maxLength) return AuthErrorCode.PASSWORD_TOO_LONG;
+
+        boolean upper = false, lower = false, digit = false, symbol = false;
+        for (int i = 0; i < length; i++) {
+            char c = password.charAt(i);
+            if (c >= 'A' && c <= 'Z') upper = true;
+            else if (c >= 'a' && c <= 'z') lower = true;
+            else if (c >= '0' && c <= '9') digit = true;
+            else symbol = true;
+        }
+        if (requireUppercase && !upper) return AuthErrorCode.PASSWORD_MISSING_UPPERCASE;
+        if (requireLowercase && !lower) return AuthErrorCode.PASSWORD_MISSING_LOWERCASE;
+        if (requireDigit && !digit) return AuthErrorCode.PASSWORD_MISSING_DIGIT;
+        if (requireSymbol && !symbol) return AuthErrorCode.PASSWORD_MISSING_SYMBOL;
+        return null;
+    }
+}
@@ -0,0 +1,163 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.core.validation;
+
+/**
+ * 手機號碼正規化為 E.164（例：0932 111 222 -> +886932111222）
+ * 只內建常用地區資料，未知國碼只檢查 E.164 長度
+ * 簡訊驗證使用 {@link #normalizeMobile}：有行動號碼資料的地區只接受行動號碼（市話收不到簡訊）
+ */
+public final class PhoneNumberNormalizer {
+
+    // E.164 最多 15 位數字（含國碼）
+    private static final int MAX_E164_DIGITS = 15;
+    private static final int MIN_E164_DIGITS = 8;
+
+    /**
+     * 地區號碼資料
+     */
+    public static final class Region {
+        final String regionCode;
+        final int countryCode;
+        // 國內撥號前綴（台灣為 0），沒有為 0 字元
+        final char trunkPrefix;
+        // 國內號碼(不含國碼、前綴)長度範圍與第一碼範圍
+        final int minLength;
+        final int maxLength;
+        final char firstDigitMin;
+        // 行動號碼長度與可能的第一碼，null 表示無法從號碼區分行動/市話
+        final int mobileLength;
+        final String mobileFirstDigits;
+
+        public Region(String regionCode, int countryCode, char trunkPrefix, int minLength, int maxLength, char firstDigitMin) {
+            this(regionCode, countryCode, trunkPrefix, minLength, maxLength, firstDigitMin, 0, null);
+        }
+
+        public Region(String regionCode, int countryCode, char trunkPrefix, int minLength, int maxLength, char firstDigitMin,
+                      int mobileLength, String mobileFirstDigits) {
+            this.regionCode = regionCode;
+            this.countryCode = countryCode;
+            this.trunkPrefix = trunkPrefix;
+            this.minLength = minLength;
+            this.maxLength = maxLength;
+            this.firstDigitMin = firstDigitMin;
+            this.mobileLength = mobileLength;
+            this.mobileFirstDigits = mobileFirstDigits;
+        }
+
+        public String getRegionCode() {
+            return regionCode;
+        }
+    }
+
+    // 台灣：手機 9 開頭 9 碼（09xx-xxx-xxx）、市話區碼 2~8 共 8~9 碼
+    public static final Region TW = new Region("TW", 886, '0', 8, 9, '2', 9, "9");
+    // 香港：8 碼，無國內前綴；手機 4、5、6、7、9 開頭
+    public static final Region HK = new Region("HK", 852, '\0', 8, 8, '2', 8, "45679");
+    // 日本：手機/市話 9~10 碼；手機 070/080/090 開頭 10 碼
+    public static final Region JP = new Region("JP", 81, '0', 9, 10, '1', 10, "789");
+    // 美國/加拿大：10 碼（手機與市話號碼格式相同）
+    public static final Region US = new Region("US", 1, '1', 10, 10, '2');
+
+    private static final Region[] REGIONS = {TW, HK, JP, US};
+
+    private final Region defaultRegion;
+
+    /**
+     * @param defaultRegion 沒有輸入國碼時使用的地區
+     */
+    public PhoneNumberNormalizer(Region defaultRegion) {
+        this.defaultRegion = defaultRegion;
+    }
+
+    /**
+     * 正規化手機號碼，可接受空白、-、.、括號分隔
+     *
+     * @return E.164 格式號碼，格式錯誤回傳 null
+     */
+    public String normalize(CharSequence input) {
+        return normalize(input, false);
+    }
+
+    /**
+     * 正規化並確認為行動號碼（簡訊驗證用）；地區無法區分行動/市話時與 {@link #normalize} 相同
+     *
+     * @return E.164 格式號碼，格式錯誤或為市話時回傳 null
+     */
+    public String normalizeMobile(CharSequence input) {
+        return normalize(input, true);
+    }
+
+    private String normalize(CharSequence input, boolean mobileOnly) {
+        char[] digits = new char[MAX_E164_DIGITS + 1];
+        int count = 0;
+        boolean plus = false;
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (count == digits.length) return null;
+                digits[count++] = c;
+            } else if (c == '+') {
+                if (plus || count > 0) return null;
+                plus = true;
+            } else if (c != ' ' && c != '-' && c != '.' && c != '(' && c != ')') {
+                return null;
+            }
+        }
+        if (count == 0) return null;
+
+        if (!plus) {
+            // 國內號碼：去掉國內前綴後加上預設國碼
+            int start = defaultRegion.trunkPrefix != '\0' && digits[0] == defaultRegion.trunkPrefix ? 1 : 0;
+            return format(defaultRegion, digits, start, count, mobileOnly);
+        }
+
+        Region region = findRegion(digits, count);
+        if (region == null) {
+            if (count < MIN_E164_DIGITS || count > MAX_E164_DIGITS || digits[0] == '0') return null;
+            return new StringBuilder(count + 1).append('+').append(digits, 0, count).toString();
+        }
+        int start = countryCodeLength(region.countryCode);
+        // 常見輸入錯誤：+886 0932...，國碼後多了國內前綴
+        if (region.trunkPrefix != '\0' && start < count && digits[start] == region.trunkPrefix) {
+            start++;
+        }
+        return format(region, digits, start, count, mobileOnly);
+    }
+
+    /**
+     * 是否為可送出的手機號碼
+     */
+    public boolean isValid(CharSequence input) {
+        return normalize(input) != null;
+    }
+
+    private static String format(Region region, char[] digits, int start, int end, boolean mobileOnly) {
+        int length = end - start;
+        if (length < region.minLength || length > region.maxLength) return null;
+        if (digits[start] < region.firstDigitMin) return null;
+        if (mobileOnly && region.mobileFirstDigits != null
+                && (length != region.mobileLength || region.mobileFirstDigits.indexOf(digits[start]) < 0)) {
+            return null;
+        }
+        String countryCode = Integer.toString(region.countryCode);
+        return new StringBuilder(1 + countryCode.length() + length)
+                .append('+').append(countryCode).append(digits, start, length).toString();
+    }
+
+    private static Region findRegion(char[] digits, int count) {
+        for (Region region : REGIONS) {
+            int cc = region.countryCode;
+            int ccLength = countryCodeLength(cc);
+            if (ccLength > count) continue;
+            int value = 0;
+            for (int i = 0; i < ccLength; i++) {
+                value = value * 10 + (digits[i] - '0');
+            }
+            if (value == cc) return region;
+        }
+        return null;
+    }
+
+    private static int countryCodeLength(int countryCode) {
+        return countryCode >= 100 ? 3 : countryCode >= 10 ? 2 : 1;
+    }
+}
@@ -0,0 +1,32 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.core.validation;
+
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthErrorCode;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthException;
+
+/**
+ * 送出前檢查失敗（不擷取 stack trace，未送出任何網路請求）
+ * 內容只有錯誤代碼，以 {@link #of(AuthErrorCode)} 取得共用實例
+ */
+public class ValidationException extends AuthException {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final ValidationException[] SHARED = new ValidationException[AuthErrorCode.values().length];
+
+    static {
+        for (AuthErrorCode code : AuthErrorCode.values()) {
+            SHARED[code.ordinal()] = new ValidationException(code);
+        }
+    }
+
+    private ValidationException(AuthErrorCode code) {
+        super(code);
+    }
+
+    /**
+     * 共用實例
+     */
+    public static ValidationException of(AuthErrorCode code) {
+        return SHARED[code.ordinal()];
+    }
+}
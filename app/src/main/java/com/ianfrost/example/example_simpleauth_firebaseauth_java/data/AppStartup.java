@@ -0,0 +1,77 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.data;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.core.os.TraceCompat;
+import androidx.core.view.OneShotPreDrawListener;
+import androidx.startup.AppInitializer;
+
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthBackend;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 啟動流程（androidx.startup 依需要建立，不經由 ContentProvider）
+ * FirebaseApp 與驗證後端在背景執行緒建立，完成後交給 {@link AuthBackendProvider} 的延後後端，接著預先讀取節流狀態；
+ * Analytics 在第一個畫格繪製後才開啟。各步驟以 Startup.* trace 區段標示，可在啟動 trace 看到不在主執行緒上
+ */
+public final class AppStartup {
+
+    private static final ExecutorService startupExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "app-startup");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static boolean authStarted;
+    private static boolean analyticsScheduled;
+
+    private AppStartup() {
+    }
+
+    /**
+     * 在背景建立驗證後端（重複呼叫無作用），需在主執行緒呼叫
+     */
+    public static void startAuth(@NonNull Context context) {
+        if (authStarted) return;
+        authStarted = true;
+        Context app = context.getApplicationContext();
+        startupExecutor.execute(() -> {
+            AuthBackend backend;
+            try {
+                backend = AppInitializer.getInstance(app).initializeComponent(AuthBackendInitializer.class);
+            } catch (RuntimeException e) {
+                // 設定錯誤：與原本在主執行緒建立時相同，讓 App 直接崩潰
+                new Handler(Looper.getMainLooper()).post(() -> {
+                    throw e;
+                });
+                return;
+            }
+            AuthBackendProvider.onBackendReady(backend);
+            // 節流狀態也在背景讀取（第一次送出前完成，避免在主執行緒讀取 SharedPreferences）
+            AuthBackendProvider.getRateLimiter(app).load();
+        });
+    }
+
+    /**
+     * 畫面第一個畫格繪製後再開啟 Analytics（重複呼叫無作用），需在主執行緒呼叫
+     */
+    public static void startAnalyticsAfterFirstFrame(@NonNull View root) {
+        if (analyticsScheduled) return;
+        analyticsScheduled = true;
+        Context app = root.getContext().getApplicationContext();
+        // preDraw 後 post 的工作會在該畫格送出後執行
+        OneShotPreDrawListener.add(root, () -> root.post(() -> startupExecutor.execute(() -> {
+            TraceCompat.beginSection("Startup.afterFirstFrame");
+            try {
+                AppInitializer.getInstance(app).initializeComponent(AnalyticsInitializer.class);
+            } finally {
+                TraceCompat.endSection();
+            }
+        })));
+    }
+}
@@ -0,0 +1,279 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.data;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.ProcessLifecycleOwner;
+
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthBackend;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthMetrics;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthRateLimiter;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthSessionStore;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.DeferredAuthBackend;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.EmailVerificationWatcher;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.IdTokenManager;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.OfflineAuthQueue;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.SealedBox;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * 驗證後端取得處，預設使用 Firebase，測試/量測時可替換為 FakeAuthBackend
+ */
+public final class AuthBackendProvider {
+
+    private static volatile AuthBackend backend;
+    private static volatile AuthSessionStore sessionStore;
+    private static volatile AuthRateLimiter rateLimiter;
+    private static volatile EmailVerificationWatcher verificationWatcher;
+    private static volatile IdTokenManager idTokenManager;
+    private static volatile OfflineAuthQueue offlineQueue;
+    private static volatile AuthMetrics metrics;
+    // 驗證流程共用的背景執行緒（送出前檢查等輕量工作）
+    private static final ExecutorService backgroundExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "auth-background");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // 驗證流程共用的延遲排程（信箱驗證等待、階段期限等）
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "auth-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // 離線佇列加密金鑰（Android Keystore）
+    private static final String OFFLINE_QUEUE_KEY_ALIAS = "auth_offline_queue";
+    // 延遲統計匯出檔（App 內部儲存，adb shell run-as 讀取）
+    private static final String METRICS_FILE = "auth-metrics.json";
+
+    private AuthBackendProvider() {
+    }
+
+    /**
+     * 取得驗證後端
+     * 預設為延後後端：Firebase 實作由 {@link AppStartup#startAuth} 在背景建立，建立前的呼叫排隊等待
+     */
+    @NonNull
+    public static AuthBackend get() {
+        AuthBackend current = backend;
+        if (current == null) {
+            synchronized (AuthBackendProvider.class) {
+                current = backend;
+                if (current == null) {
+                    current = new DeferredAuthBackend();
+                    backend = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 背景建立的 Firebase 後端完成（已替換為其他後端時忽略）
+     */
+    static void onBackendReady(@NonNull AuthBackend firebaseBackend) {
+        AuthBackend current = get();
+        if (current instanceof DeferredAuthBackend && !((DeferredAuthBackend) current).isReady()) {
+            ((DeferredAuthBackend) current).setDelegate(firebaseBackend);
+        }
+    }
+
+    /**
+     * 取得驗證流程共用的背景執行緒
+     */
+    @NonNull
+    public static ExecutorService getBackgroundExecutor() {
+        return backgroundExecutor;
+    }
+
+    /**
+     * 取得驗證流程共用的延遲排程（階段期限等）
+     */
+    @NonNull
+    public static ScheduledExecutorService getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * 取得全 App 共用的登入狀態存放處（只向後端註冊一次監聽）
+     */
+    @NonNull
+    public static AuthSessionStore getSessionStore(@NonNull Context context) {
+        AuthSessionStore current = sessionStore;
+        if (current == null) {
+            synchronized (AuthBackendProvider.class) {
+                current = sessionStore;
+                if (current == null) {
+                    current = new AuthSessionStore(get(), new PrefsSessionStorage(context.getApplicationContext()));
+                    sessionStore = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 取得全 App 共用的請求節流器（狀態保存於 SharedPreferences）
+     */
+    @NonNull
+    public static AuthRateLimiter getRateLimiter(@NonNull Context context) {
+        AuthRateLimiter current = rateLimiter;
+        if (current == null) {
+            synchronized (AuthBackendProvider.class) {
+                current = rateLimiter;
+                if (current == null) {
+                    current = new AuthRateLimiter(new PrefsRateLimiterStorage(context.getApplicationContext()));
+                    rateLimiter = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 取得全 App 共用的信箱驗證等待（需在主執行緒第一次取得）
+     * 隨 App 前景/背景暫停與恢復，確認驗證後更新登入狀態存放處
+     */
+    @NonNull
+    public static EmailVerificationWatcher getEmailVerificationWatcher(@NonNull Context context) {
+        EmailVerificationWatcher current = verificationWatcher;
+        if (current == null) {
+            synchronized (AuthBackendProvider.class) {
+                current = verificationWatcher;
+                if (current == null) {
+                    AuthSessionStore store = getSessionStore(context);
+                    current = new EmailVerificationWatcher(get(), scheduler, user -> store.refresh());
+                    verificationWatcher = current;
+                    final EmailVerificationWatcher watcher = current;
+                    ProcessLifecycleOwner.get().getLifecycle().addObserver(new DefaultLifecycleObserver() {
+                        @Override
+                        public void onStart(@NonNull LifecycleOwner owner) {
+                            watcher.setForeground(true);
+                        }
+
+                        @Override
+                        public void onStop(@NonNull LifecycleOwner owner) {
+                            watcher.setForeground(false);
+                        }
+                    });
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 取得全 App 共用的 ID token 管理（跟隨登入狀態存放處切換用戶）
+     */
+    @NonNull
+    public static IdTokenManager getIdTokenManager(@NonNull Context context) {
+        IdTokenManager current = idTokenManager;
+        if (current == null) {
+            synchronized (AuthBackendProvider.class) {
+                current = idTokenManager;
+                if (current == null) {
+                    AuthSessionStore store = getSessionStore(context);
+                    current = new IdTokenManager(get(), scheduler);
+                    store.addObserver(current);
+                    idTokenManager = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 取得全 App 共用的離線佇列（建立時不讀取資料，第一次加入或送出時才解密載入）
+     */
+    @NonNull
+    public static OfflineAuthQueue getOfflineQueue(@NonNull Context context) {
+        OfflineAuthQueue current = offlineQueue;
+        if (current == null) {
+            synchronized (AuthBackendProvider.class) {
+                current = offlineQueue;
+                if (current == null) {
+                    current = new OfflineAuthQueue(new PrefsOfflineQueueStorage(context.getApplicationContext()),
+                            new SealedBox(() -> KeystoreKeys.getOrCreate(OFFLINE_QUEUE_KEY_ALIAS)));
+                    offlineQueue = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 取得全 App 共用的登入/註冊延遲統計（需在主執行緒第一次取得）
+     * App 進入背景時在背景執行緒匯出到 files/auth-metrics.json
+     */
+    @NonNull
+    public static AuthMetrics getMetrics(@NonNull Context context) {
+        AuthMetrics current = metrics;
+        if (current == null) {
+            synchronized (AuthBackendProvider.class) {
+                current = metrics;
+                if (current == null) {
+                    current = new AuthMetrics();
+                    metrics = current;
+                    final AuthMetrics exported = current;
+                    final File file = new File(context.getApplicationContext().getFilesDir(), METRICS_FILE);
+                    ProcessLifecycleOwner.get().getLifecycle().addObserver(new DefaultLifecycleObserver() {
+                        @Override
+                        public void onStop(@NonNull LifecycleOwner owner) {
+                            backgroundExecutor.execute(() -> exportMetrics(exported, file));
+                        }
+                    });
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 寫入暫存檔後改名，讀取時不會看到寫到一半的內容；寫入失敗時保留上次的檔案
+     */
+    private static void exportMetrics(AuthMetrics metrics, File file) {
+        File temp = new File(file.getPath() + ".tmp");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(temp), StandardCharsets.UTF_8)) {
+            metrics.writeJson(writer);
+        } catch (IOException e) {
+            temp.delete();
+            return;
+        }
+        if (!temp.renameTo(file)) temp.delete();
+    }
+
+    /**
+     * 替換驗證後端，需在 ViewModel 建立前呼叫
+     */
+    @VisibleForTesting
+    public static void set(AuthBackend authBackend) {
+        synchronized (AuthBackendProvider.class) {
+            if (sessionStore != null) {
+                sessionStore.stop();
+                if (idTokenManager != null) sessionStore.removeObserver(idTokenManager);
+                sessionStore = null;
+            }
+            if (idTokenManager != null) {
+                idTokenManager.setUser(null);
+                idTokenManager = null;
+            }
+            if (verificationWatcher != null) {
+                verificationWatcher.stop();
+                verificationWatcher = null;
+            }
+            backend = authBackend;
+        }
+    }
+}
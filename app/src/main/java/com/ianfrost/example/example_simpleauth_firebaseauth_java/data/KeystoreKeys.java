@@ -0,0 +1,47 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.data;
+
+import android.security.keystore.KeyGenParameterSpec;
+import android.security.keystore.KeyProperties;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyStore;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+
+/**
+ * Android Keystore 的 AES-GCM 金鑰（金鑰內容不離開 Keystore，解除安裝或清除資料後失效）
+ */
+final class KeystoreKeys {
+
+    private static final String PROVIDER = "AndroidKeyStore";
+    private static final int KEY_SIZE = 256;
+
+    private KeystoreKeys() {
+    }
+
+    /**
+     * 取得指定別名的金鑰，不存在時建立（Keystore 存取較慢，不在主執行緒呼叫）
+     */
+    static SecretKey getOrCreate(String alias) throws GeneralSecurityException {
+        KeyStore keyStore = KeyStore.getInstance(PROVIDER);
+        try {
+            keyStore.load(null);
+        } catch (IOException e) {
+            throw new GeneralSecurityException(e);
+        }
+        Key existing = keyStore.getKey(alias, null);
+        if (existing instanceof SecretKey) {
+            return (SecretKey) existing;
+        }
+        KeyGenerator generator = KeyGenerator.getInstance(KeyProperties.KEY_ALGORITHM_AES, PROVIDER);
+        generator.init(new KeyGenParameterSpec.Builder(alias, KeyProperties.PURPOSE_ENCRYPT | KeyProperties.PURPOSE_DECRYPT)
+                .setBlockModes(KeyProperties.BLOCK_MODE_GCM)
+                .setEncryptionPaddings(KeyProperties.ENCRYPTION_PADDING_NONE)
+                .setKeySize(KEY_SIZE)
+                .build());
+        return generator.generateKey();
+    }
+}
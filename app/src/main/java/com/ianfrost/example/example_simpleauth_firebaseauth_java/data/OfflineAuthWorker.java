@@ -0,0 +1,84 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.data;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.core.content.ContextCompat;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthFlow;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.OfflineAuthQueue;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.validation.AuthValidator;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 網路恢復後重新送出離線佇列（WorkManager 在有網路時執行，App 未開啟或重新開機後仍會執行）
+ * 仍無法連線時以指數退避稍後再試；結果經由 {@link OfflineAuthQueue.Listener} 交給 MainViewModel
+ */
+public final class OfflineAuthWorker extends Worker {
+
+    private static final String WORK_NAME = "auth-offline-queue";
+    private static final long BACKOFF_SECONDS = 30;
+    // WorkManager 單次工作上限 10 分鐘，超過前結束並稍後再試
+    private static final long DRAIN_TIMEOUT_MINUTES = 9;
+
+    public OfflineAuthWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * 排程重新送出（已排程或執行中時不重複排程，執行中加入的請求會一併送出）
+     */
+    public static void schedule(@NonNull Context context) {
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(OfflineAuthWorker.class)
+                .setConstraints(new Constraints.Builder().setRequiredNetworkType(NetworkType.CONNECTED).build())
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, BACKOFF_SECONDS, TimeUnit.SECONDS)
+                .build();
+        WorkManager.getInstance(context).enqueueUniqueWork(WORK_NAME, ExistingWorkPolicy.KEEP, request);
+    }
+
+    /**
+     * 取消排程（佇列已清空時），執行中的重新送出由佇列結束
+     */
+    public static void cancel(@NonNull Context context) {
+        WorkManager.getInstance(context).cancelUniqueWork(WORK_NAME);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        Context app = getApplicationContext();
+        // 程序由 WorkManager 啟動時驗證後端尚未建立
+        ContextCompat.getMainExecutor(app).execute(() -> AppStartup.startAuth(app));
+        OfflineAuthQueue queue = AuthBackendProvider.getOfflineQueue(app);
+        if (queue.size() == 0) return Result.success();
+
+        AuthFlow flow = new AuthFlow(AuthBackendProvider.get(), AuthBackendProvider.getRateLimiter(app), new AuthValidator(),
+                AuthBackendProvider.getBackgroundExecutor(), AuthBackendProvider.getBackgroundExecutor(),
+                AuthBackendProvider.getScheduler());
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicBoolean retry = new AtomicBoolean();
+        queue.drain(flow, needsRetry -> {
+            retry.set(needsRetry);
+            done.countDown();
+        });
+        try {
+            // 逾時時不取消：進行中的請求照常完成，剩下的下次再送出
+            if (!done.await(DRAIN_TIMEOUT_MINUTES, TimeUnit.MINUTES)) return Result.retry();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Result.retry();
+        }
+        return retry.get() ? Result.retry() : Result.success();
+    }
+}
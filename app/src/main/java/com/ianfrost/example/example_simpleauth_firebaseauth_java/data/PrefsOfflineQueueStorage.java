@@ -0,0 +1,54 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.data;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Base64;
+
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.OfflineAuthQueue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 以 SharedPreferences 保存離線佇列（內容已加密，不含明文信箱與密碼；不列入備份，金鑰不會跟著還原）
+ */
+public class PrefsOfflineQueueStorage implements OfflineAuthQueue.Storage {
+
+    static final String PREFS_NAME = "auth_offline_queue";
+
+    private final SharedPreferences prefs;
+
+    public PrefsOfflineQueueStorage(Context context) {
+        this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    @Override
+    public Map<String, byte[]> load() {
+        Map<String, byte[]> values = new HashMap<>();
+        for (Map.Entry<String, ?> entry : prefs.getAll().entrySet()) {
+            if (!(entry.getValue() instanceof String)) continue;
+            try {
+                values.put(entry.getKey(), Base64.decode((String) entry.getValue(), Base64.NO_WRAP));
+            } catch (IllegalArgumentException e) {
+                prefs.edit().remove(entry.getKey()).apply();
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public void save(String key, byte[] sealed) {
+        // commit：加入後馬上交給 WorkManager，程序隨即被回收也不能遺失
+        prefs.edit().putString(key, Base64.encodeToString(sealed, Base64.NO_WRAP)).commit();
+    }
+
+    @Override
+    public void remove(String key) {
+        prefs.edit().remove(key).apply();
+    }
+
+    @Override
+    public void clear() {
+        prefs.edit().clear().apply();
+    }
+}
@@ -0,0 +1,50 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.data;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthRateLimiter;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 以 SharedPreferences 保存節流狀態，App 重啟後仍有效
+ */
+public class PrefsRateLimiterStorage implements AuthRateLimiter.StateStorage {
+
+    private static final String PREFS_NAME = "auth_rate_limit";
+
+    private final SharedPreferences prefs;
+
+    public PrefsRateLimiterStorage(Context context) {
+        this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    @Override
+    public Map<String, String> load() {
+        Map<String, String> values = new HashMap<>();
+        for (Map.Entry<String, ?> entry : prefs.getAll().entrySet()) {
+            if (entry.getValue() instanceof String) {
+                values.put(entry.getKey(), (String) entry.getValue());
+            }
+        }
+        return values;
+    }
+
+    /**
+     * 每次請求只建立一次 Editor，apply 在背景寫入（tryAcquire 在主執行緒呼叫）
+     */
+    @Override
+    public void save(Map<String, String> changed, Collection<String> removed) {
+        SharedPreferences.Editor editor = prefs.edit();
+        for (String key : removed) {
+            editor.remove(key);
+        }
+        for (Map.Entry<String, String> entry : changed.entrySet()) {
+            editor.putString(entry.getKey(), entry.getValue());
+        }
+        editor.apply();
+    }
+}
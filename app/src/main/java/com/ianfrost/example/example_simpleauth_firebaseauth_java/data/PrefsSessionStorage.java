@@ -0,0 +1,46 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.data;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthSession;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthSessionStore;
+
+/**
+ * 以 SharedPreferences 保存登入狀態快照（不含 token 與密碼）
+ */
+public class PrefsSessionStorage implements AuthSessionStore.SnapshotStorage {
+
+    private static final String PREFS_NAME = "auth_session";
+    private static final String KEY_UID = "uid";
+    private static final String KEY_EMAIL = "email";
+    private static final String KEY_EMAIL_VERIFIED = "emailVerified";
+
+    private final SharedPreferences prefs;
+
+    public PrefsSessionStorage(Context context) {
+        this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    @Override
+    public AuthSession load() {
+        String uid = prefs.getString(KEY_UID, null);
+        if (uid == null) {
+            return null;
+        }
+        return new AuthSession(uid, prefs.getString(KEY_EMAIL, null), prefs.getBoolean(KEY_EMAIL_VERIFIED, false), 0, null);
+    }
+
+    @Override
+    public void save(AuthSession session) {
+        if (session == null) {
+            prefs.edit().clear().apply();
+            return;
+        }
+        prefs.edit()
+                .putString(KEY_UID, session.uid)
+                .putString(KEY_EMAIL, session.email)
+                .putBoolean(KEY_EMAIL_VERIFIED, session.emailVerified)
+                .apply();
+    }
+}
@@ -0,0 +1,55 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.featureAuth;
+
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.widget.EditText;
+
+import androidx.databinding.BindingAdapter;
+
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.R;
+
+/**
+ * 登入頁 DataBinding adapter
+ */
+public final class AuthBindingAdapters {
+
+    private AuthBindingAdapters() {
+    }
+
+    /**
+     * app:textInput：輸入文字直接交給 {@link TextInput}，畫面重建時還原 ViewModel 中的文字（程序被回收後反向以畫面文字還原）
+     */
+    @BindingAdapter("textInput")
+    public static void bindTextInput(EditText view, TextInput input) {
+        TextWatcher previous = (TextWatcher) view.getTag(R.id.textInputWatcher);
+        if (previous != null) {
+            view.removeTextChangedListener(previous);
+        }
+        if (input == null) {
+            view.setTag(R.id.textInputWatcher, null);
+            return;
+        }
+        if (input.get().isEmpty() && view.length() > 0) {
+            // 程序被回收後還原：EditText 已還原文字而 ViewModel 為新建，以畫面文字為準
+            input.onTextChanged(view.getText());
+        } else if (!input.get().contentEquals(view.getText())) {
+            view.setText(input.get());
+        }
+        TextWatcher watcher = new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                input.onTextChanged(s);
+            }
+        };
+        view.addTextChangedListener(watcher);
+        view.setTag(R.id.textInputWatcher, watcher);
+    }
+}
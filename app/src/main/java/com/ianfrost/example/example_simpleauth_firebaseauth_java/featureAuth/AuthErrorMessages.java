@@ -0,0 +1,88 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.featureAuth;
+
+import androidx.annotation.StringRes;
+
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.R;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthErrorCode;
+
+/**
+ * 錯誤代碼對應的訊息文字資源
+ */
+public final class AuthErrorMessages {
+
+    private AuthErrorMessages() {
+    }
+
+    @StringRes
+    public static int of(AuthErrorCode code) {
+        if (code == null) return R.string.Error_Unknown;
+        switch (code) {
+            case EMAIL_EMPTY:
+                return R.string.Error_EmailEmpty;
+            case EMAIL_INVALID:
+                return R.string.Error_EmailInvalid;
+            case PASSWORD_EMPTY:
+                return R.string.Error_PasswordEmpty;
+            case PASSWORD_TOO_SHORT:
+                return R.string.Error_PasswordTooShort;
+            case PASSWORD_TOO_LONG:
+                return R.string.Error_PasswordTooLong;
+            case PASSWORD_MISSING_UPPERCASE:
+                return R.string.Error_PasswordMissingUppercase;
+            case PASSWORD_MISSING_LOWERCASE:
+                return R.string.Error_PasswordMissingLowercase;
+            case PASSWORD_MISSING_DIGIT:
+                return R.string.Error_PasswordMissingDigit;
+            case PASSWORD_MISSING_SYMBOL:
+                return R.string.Error_PasswordMissingSymbol;
+            case PHONE_EMPTY:
+                return R.string.Error_PhoneEmpty;
+            case PHONE_INVALID:
+                return R.string.Error_PhoneInvalid;
+            case VERIFY_CODE_EMPTY:
+                return R.string.Error_VerifyCodeEmpty;
+            case VERIFY_CODE_INVALID:
+                return R.string.Error_VerifyCodeInvalid;
+            case INVALID_CREDENTIALS:
+                return R.string.Error_InvalidCredentials;
+            case USER_DISABLED:
+                return R.string.Error_UserDisabled;
+            case EMAIL_IN_USE:
+                return R.string.Error_EmailInUse;
+            case PHONE_IN_USE:
+                return R.string.Error_PhoneInUse;
+            case WEAK_PASSWORD:
+                return R.string.Error_WeakPassword;
+            case VERIFY_CODE_REJECTED:
+                return R.string.Error_VerifyCodeRejected;
+            case VERIFICATION_EXPIRED:
+                return R.string.Error_VerificationExpired;
+            case REQUIRES_RECENT_LOGIN:
+                return R.string.Error_RequiresRecentLogin;
+            case NETWORK:
+                return R.string.Error_Network;
+            case TOO_MANY_REQUESTS:
+                return R.string.Error_TooManyRequests;
+            case TIMEOUT:
+                return R.string.Error_Timeout;
+            case QUEUED_OFFLINE:
+                return R.string.Error_QueuedOffline;
+            case USER_MISSING:
+                return R.string.Error_UserMissing;
+            case LOGIN_FAILED:
+                return R.string.Error_LoginFailed;
+            case REGISTER_FAILED:
+                return R.string.Error_RegisterFailed;
+            case VERIFICATION_EMAIL_FAILED:
+                return R.string.Error_VerificationEmailFailed;
+            case SMS_SEND_FAILED:
+                return R.string.Error_SmsSendFailed;
+            case PHONE_VERIFY_FAILED:
+                return R.string.Error_PhoneVerifyFailed;
+            case EMAIL_LINK_FAILED:
+                return R.string.Error_EmailLinkFailed;
+            default:
+                return R.string.Error_Unknown;
+        }
+    }
+}
@@ -5,15 +5,24 @@ import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.Button;
+import android.widget.EditText;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.core.view.OneShotPreDrawListener;
+import androidx.databinding.ViewStubProxy;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
 
 import com.ianfrost.example.example_simpleauth_firebaseauth_java.AuthResult;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.AuthTrace;
 import com.ianfrost.example.example_simpleauth_firebaseauth_java.MainViewModel;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.PreInflatedViews;
 import com.ianfrost.example.example_simpleauth_firebaseauth_java.R;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthErrorCode;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.databinding.AuthPhoneSectionBinding;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.databinding.AuthVerifyCodeSectionBinding;
 import com.ianfrost.example.example_simpleauth_firebaseauth_java.databinding.FragmentAuthBinding;
 
 public class AuthFragment extends Fragment {
@@ -27,6 +36,15 @@ public class AuthFragment extends Fragment {
     // 本頁面資料管理，負責登入、註冊的【資料管理、請求送出、取得送出結果(處理UI)】
     private AuthViewModel viewModel;
 
+    // 上次顯示的頁面狀態（重建畫面後為 null，全部欄位重新設定）
+    private AuthUiState rendered;
+
+    // 重新發送簡訊倒數（每秒更新按鈕文字）
+    private final Runnable resendCountdown = this::updateResendButton;
+
+    // 啟動 Intent 帶 false 時不預先連線（Macrobenchmark 比較用）
+    public static final String EXTRA_PREWARM = "prewarm";
+
     /**
      * 實例化
      */
@@ -37,8 +55,16 @@ public class AuthFragment extends Fragment {
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container,
                              @Nullable Bundle savedInstanceState) {
-        // 利用 DataBinding inflate 並回傳最上層 root view
-        binding = FragmentAuthBinding.inflate(inflater, container, false);
+        // 利用 DataBinding inflate 並回傳最上層 root view（手機號碼、驗證碼區塊延後 inflate）
+        AuthTrace.beginSection("AuthFragment.onCreateView");
+        try {
+            // 有預先 inflate 的版面時直接綁定
+            View preInflated = PreInflatedViews.take(this, R.layout.fragment_auth);
+            binding = preInflated != null ? FragmentAuthBinding.bind(preInflated)
+                    : FragmentAuthBinding.inflate(inflater, container, false);
+        } finally {
+            AuthTrace.endSection();
+        }
         return binding.getRoot();
     }
 
@@ -55,65 +81,244 @@ public class AuthFragment extends Fragment {
 
         //  UI 監聽註冊
         setupAuthStatusObserver();
+        setupResendObserver();
+        viewModel.observeResults(getViewLifecycleOwner(), this::handleAuthResult);
+        setupSessionObserver();
         setupClickListeners();
+        setupPrewarm();
+
+        // 登入頁已可操作，回報完整顯示時間(TTFD)
+        requireActivity().reportFullyDrawn();
     }
 
     /**
-     * 認證狀態監聽（根據回傳狀態自動切換 UI 版型）
+     * 頁面狀態監聽（根據狀態自動切換 UI 版型）
      * 狀態有：登入、無驗證註冊、信箱驗證註冊、手機號碼驗證
      * 請至GitHub查看提供的手機測試號碼，FirebaseAuth免費版不提供真實的號碼測試
      */
     private void setupAuthStatusObserver() {
-        viewModel.getSwitchStatus().observe(getViewLifecycleOwner(), authAction -> {
-            // 注意多餘的重複 setVisibility 可以統合，如有多組可考慮 extract view switch 到 utility
-            switch (authAction) {
-                case LOGIN:
-                    setAuthUIVisibility(true, true, false, false);
-                    binding.switchStatusTxv.setText(R.string.Main_SwitchStatus_Login);
-                    binding.confirmBtn.setText(R.string.Main_Login);
-                    binding.switchBtn.setText(R.string.Main_Switch_Register);
-                    break;
-                case REGISTER_NO_VERIFY:
-                    setAuthUIVisibility(true, true, false, false);
-                    binding.switchStatusTxv.setText(R.string.Main_SwitchStatus_Register_No_Verify);
-                    binding.confirmBtn.setText(R.string.Main_Register);
-                    binding.switchBtn.setText(R.string.Main_Switch_Register);
-                    break;
-                case REGISTER_EMAIL_VERIFY:
-                    setAuthUIVisibility(true, true, false, false);
-                    binding.switchStatusTxv.setText(R.string.Main_SwitchStatus_Register_Email_Verify);
-                    binding.confirmBtn.setText(R.string.Main_Register);
-                    binding.switchBtn.setText(R.string.Main_Switch_Register);
-                    break;
-                case REGISTER_PHONE_VERIFY:
-                    setAuthUIVisibility(true, true, true, false);
-                    binding.switchStatusTxv.setText(R.string.Main_SwitchStatus_Register_Phone_Verify);
-                    binding.confirmBtn.setText(R.string.Main_Register);
-                    binding.switchBtn.setText(R.string.Main_Switch_Login);
-                    break;
-                case REGISTER_PHONE_VERIFY_End:
-                    setAuthUIVisibility(false, false, false, true);
-                    binding.switchStatusTxv.setText(R.string.Main_SwitchStatus_Register_Phone_Verify);
-                    binding.confirmBtn.setText(R.string.Main_Register);
-                    binding.switchBtn.setText(R.string.Main_Switch_Login);
-                    break;
+        viewModel.getUiState().observe(getViewLifecycleOwner(), this::render);
+    }
+
+    /**
+     * 只更新與上次顯示狀態不同的欄位，減少重複的 setVisibility/setText（每次都會觸發重新量測版面）
+     *
+     * @param state 頁面狀態
+     */
+    private void render(AuthUiState state) {
+        AuthUiState last = rendered;
+        rendered = state;
+        if (last == state) return;
+
+        if (last == null || last.credentialsVisible != state.credentialsVisible) {
+            setVisible(binding.credentialsGroup, state.credentialsVisible);
+        }
+        if (last == null || last.phoneVisible != state.phoneVisible) {
+            setSectionVisible(binding.phoneSection, state.phoneVisible);
+        }
+        if (last == null || last.verifyCodeVisible != state.verifyCodeVisible) {
+            setSectionVisible(binding.verifyCodeSection, state.verifyCodeVisible);
+        }
+        if (last == null || last.statusText != state.statusText) {
+            binding.switchStatusTxv.setText(state.statusText);
+        }
+        if (last == null || last.confirmText != state.confirmText) {
+            binding.confirmBtn.setText(state.confirmText);
+        }
+        if (last == null || last.switchText != state.switchText) {
+            binding.switchBtn.setText(state.switchText);
+        }
+        if (last == null || last.loading != state.loading) {
+            setVisible(binding.progressBar, state.loading);
+        }
+        if (last == null || last.inputError != state.inputError) {
+            renderInputError(last != null ? last.inputError : null, state.inputError);
+        }
+        // 隱藏時不跳出提示，顯示時再處理（onHiddenChanged）
+        if (state.error != null && (last == null || last.error != state.error) && !isHidden()) {
+            showError(state);
+        }
+    }
+
+    /**
+     * 欄位檢查提示：清除上次提示的欄位，顯示在對應欄位並停用確認按鈕
+     */
+    private void renderInputError(AuthErrorCode previous, AuthErrorCode current) {
+        EditText previousInput = previous != null ? inputFor(previous) : null;
+        if (previousInput != null) {
+            previousInput.setError(null);
+        }
+        EditText currentInput = current != null ? inputFor(current) : null;
+        if (currentInput != null) {
+            currentInput.setError(getString(AuthErrorMessages.of(current)));
+        }
+        binding.confirmBtn.setEnabled(current == null);
+    }
+
+    /**
+     * 錯誤代碼對應的欄位，欄位尚未 inflate 時為 null
+     */
+    private EditText inputFor(AuthErrorCode code) {
+        switch (code) {
+            case PASSWORD_EMPTY:
+            case PASSWORD_TOO_SHORT:
+            case PASSWORD_TOO_LONG:
+            case PASSWORD_MISSING_UPPERCASE:
+            case PASSWORD_MISSING_LOWERCASE:
+            case PASSWORD_MISSING_DIGIT:
+            case PASSWORD_MISSING_SYMBOL:
+                return binding.passwordInput;
+            case PHONE_EMPTY:
+            case PHONE_INVALID:
+                AuthPhoneSectionBinding phone = (AuthPhoneSectionBinding) binding.phoneSection.getBinding();
+                return phone != null ? phone.phoneInput : null;
+            case VERIFY_CODE_EMPTY:
+            case VERIFY_CODE_INVALID:
+                AuthVerifyCodeSectionBinding verify = verifyCodeBinding();
+                return verify != null ? verify.verifyCodeInput : null;
+            default:
+                return binding.emailInput;
+        }
+    }
+
+    private static void setVisible(View view, boolean visible) {
+        view.setVisibility(visible ? View.VISIBLE : View.GONE);
+    }
+
+    /**
+     * ViewStub 區塊顯示切換，第一次顯示時才 inflate
+     */
+    private static void setSectionVisible(ViewStubProxy section, boolean visible) {
+        if (!section.isInflated()) {
+            if (!visible) return;
+            AuthTrace.beginSection("AuthFragment.inflateSection");
+            try {
+                section.getViewStub().inflate();
+            } finally {
+                AuthTrace.endSection();
             }
+            return;
+        }
+        setVisible(section.getRoot(), visible);
+    }
+
+    private AuthVerifyCodeSectionBinding verifyCodeBinding() {
+        return binding != null ? (AuthVerifyCodeSectionBinding) binding.verifyCodeSection.getBinding() : null;
+    }
+
+    /**
+     * 顯示錯誤（訊息依錯誤代碼從資源取得），顯示後清除
+     */
+    private void showError(AuthUiState state) {
+        if (state.error == AuthErrorCode.RATE_LIMITED) {
+            // 用戶端節流，未送出請求
+            showAlert(getString(R.string.Error_RateLimited, (state.cooldownMillis + 999) / 1000));
+        } else if (state.error == AuthErrorCode.QUEUED_OFFLINE) {
+            // 離線保存，網路恢復後自動送出（不是失敗）
+            showAlert(getString(R.string.Error_QueuedOffline));
+        } else {
+            showAlert(getString(R.string.Error_Failed, getString(AuthErrorMessages.of(state.error))));
+        }
+        viewModel.onErrorShown();
+    }
+
+    /**
+     * 登入狀態監聽：登出時清除上一位用戶的輸入（頁面隱藏時 View 仍保留，直接清除）
+     */
+    private void setupSessionObserver() {
+        parentViewModel.getUser().observe(getViewLifecycleOwner(), user -> {
+            if (viewModel.onSessionChanged(user != null)) clearInputs(true);
         });
     }
 
     /**
-     * UI 顯示切換
-     *
-     * @param email      信箱輸入版面
-     * @param password   密碼輸入版面
-     * @param phone      手機號碼輸入版面
-     * @param verifyCode 驗證碼輸入版面
+     * 清除密碼與驗證碼欄位，登出時連同信箱（文字經由 app:textInput 同步到 ViewModel）
+     */
+    private void clearInputs(boolean includeEmail) {
+        if (includeEmail) binding.emailInput.setText(null);
+        binding.passwordInput.setText(null);
+        AuthVerifyCodeSectionBinding verify = verifyCodeBinding();
+        if (verify != null) verify.verifyCodeInput.setText(null);
+    }
+
+    /**
+     * 重新發送簡訊冷卻監聽（冷卻中顯示倒數秒數）
+     */
+    private void setupResendObserver() {
+        viewModel.getResendAvailableAt().observe(getViewLifecycleOwner(), availableAt -> updateResendButton());
+    }
+
+    /**
+     * 更新重新發送按鈕，冷卻中一秒後再更新一次
      */
-    private void setAuthUIVisibility(boolean email, boolean password, boolean phone, boolean verifyCode) {
-        binding.emailLayout.setVisibility(email ? View.VISIBLE : View.GONE);
-        binding.passwordLayout.setVisibility(password ? View.VISIBLE : View.GONE);
-        binding.phoneLayout.setVisibility(phone ? View.VISIBLE : View.GONE);
-        binding.verifyCodeLayout.setVisibility(verifyCode ? View.VISIBLE : View.GONE);
+    private void updateResendButton() {
+        AuthVerifyCodeSectionBinding verify = verifyCodeBinding();
+        if (verify == null) return; // 驗證碼區塊尚未顯示，inflate 時再更新
+        Button resendBtn = verify.resendBtn;
+        resendBtn.removeCallbacks(resendCountdown);
+        long remaining = viewModel.getResendRemainingMillis();
+        if (remaining > 0) {
+            resendBtn.setEnabled(false);
+            resendBtn.setText(getString(R.string.Main_ResendCodeCountdown, (remaining + 999) / 1000));
+            resendBtn.postDelayed(resendCountdown, Math.min(remaining, 1000));
+        } else {
+            resendBtn.setEnabled(true);
+            resendBtn.setText(R.string.Main_ResendCode);
+        }
+    }
+
+    /**
+     * 頁面顯示與信箱欄位第一次取得焦點時預先連線到驗證端點，使用者輸入帳密的時間內完成連線
+     */
+    private void setupPrewarm() {
+        if (!isPrewarmEnabled()) return;
+        viewModel.prewarm();
+        binding.emailInput.setOnFocusChangeListener((v, hasFocus) -> {
+            if (hasFocus) viewModel.prewarm();
+        });
+    }
+
+    private boolean isPrewarmEnabled() {
+        return requireActivity().getIntent().getBooleanExtra(EXTRA_PREWARM, true);
+    }
+
+    @Override
+    public void onStart() {
+        super.onStart();
+        // 先套用綁定（程序被回收後還原的欄位文字交給 ViewModel），再重新接上進行中的簡訊發送
+        binding.executePendingBindings();
+        viewModel.resumePending(requireActivity());
+    }
+
+    @Override
+    public void onStop() {
+        viewModel.onHostStopped();
+        super.onStop();
+    }
+
+    @Override
+    public void onHiddenChanged(boolean hidden) {
+        super.onHiddenChanged(hidden);
+        if (viewModel == null) return;
+        // 隱藏期間發生、尚未顯示的錯誤
+        if (!hidden && rendered != null && rendered.error != null) showError(rendered);
+        if (!isPrewarmEnabled()) return;
+        if (hidden) {
+            viewModel.cancelPrewarm();
+        } else {
+            viewModel.prewarm();
+        }
+    }
+
+    @Override
+    public void onDestroyView() {
+        viewModel.cancelPrewarm();
+        AuthVerifyCodeSectionBinding verify = verifyCodeBinding();
+        if (verify != null) {
+            verify.resendBtn.removeCallbacks(resendCountdown);
+        }
+        rendered = null;
+        super.onDestroyView();
     }
 
     /**
@@ -122,6 +327,12 @@ public class AuthFragment extends Fragment {
     private void setupClickListeners() {
         binding.confirmBtn.setOnClickListener(v -> handleConfirmBtnClick());
         binding.switchBtn.setOnClickListener(v -> viewModel.switchStatus());
+        // 驗證碼區塊 inflate 後才設定重新發送按鈕
+        binding.verifyCodeSection.setOnInflateListener((stub, inflated) -> {
+            AuthVerifyCodeSectionBinding verify = verifyCodeBinding();
+            verify.resendBtn.setOnClickListener(v -> viewModel.resendCode(requireActivity()));
+            updateResendButton();
+        });
     }
 
     /**
@@ -130,20 +341,37 @@ public class AuthFragment extends Fragment {
      * 狀態有：登入、無驗證註冊、信箱驗證註冊、手機號碼驗證
      */
     private void handleConfirmBtnClick() {
-        viewModel.doConfirm(requireActivity(), result -> {
+        AuthTrace.beginSection("AuthFragment.confirm");
+        try {
+            viewModel.doConfirm(requireActivity());
+        } finally {
+            AuthTrace.endSection();
+        }
+    }
+
+    /**
+     * 送出結果處理（確認按鈕與重新發送簡訊共用）
+     * 讀取中、錯誤與版型切換由頁面狀態顯示，這裡只處理一次性的提示
+     * 結果後的第一個畫格回報給 ViewModel（延遲統計的 UI 時間，含切換到個人頁）
+     *
+     * @param result 認證結果
+     */
+    private void handleAuthResult(AuthResult result) {
+        AuthTrace.beginSection("AuthFragment.handleResult");
+        try {
             if (result.isSuccess) {
                 handleAuthSuccess(result);
             } else if (result.verificationId != null) {
                 // [手機註冊階段1] 手機驗證碼已發送
-                binding.progressBar.setVisibility(View.GONE);
-                showAlert("手機驗證碼已送出，請輸入簡訊收到的驗證碼");
+                showAlert(getString(R.string.Alert_PhoneCodeSent));
                 // TODO: 可導向簡訊驗證畫面
-            } else {
-                // 失敗處理
-                binding.progressBar.setVisibility(View.GONE);
-                showAlert("失敗：" + (result.error != null ? result.error.getMessage() : "未知錯誤"));
             }
-        });
+        } finally {
+            AuthTrace.endSection();
+        }
+        if (result.action != AuthResult.AuthAction.LOAD) {
+            OneShotPreDrawListener.add(binding.getRoot(), viewModel::onResultDrawn);
+        }
     }
 
     /**
@@ -152,27 +380,21 @@ public class AuthFragment extends Fragment {
      * @param result 認證結果
      */
     private void handleAuthSuccess(AuthResult result) {
+        clearInputs(false);
         switch (result.action) {
-            case LOAD:
-                binding.progressBar.setVisibility(View.VISIBLE);
-                break;
             case LOGIN:
-                binding.progressBar.setVisibility(View.GONE);
                 parentViewModel.checkCurrentUser();
-                showAlert("使用者登入成功");
+                showAlert(getString(R.string.Alert_LoginSuccess));
                 break;
             case REGISTER_NO_VERIFY:
-                binding.progressBar.setVisibility(View.GONE);
-                showAlert("使用者註冊成功");
+                showAlert(getString(R.string.Alert_RegisterSuccess));
                 break;
             case REGISTER_EMAIL_VERIFY:
-                binding.progressBar.setVisibility(View.GONE);
-                showAlert("使用者信箱驗證註冊成功，請至信箱收信完成驗證");
+                showAlert(getString(R.string.Alert_RegisterEmailVerifySuccess));
                 break;
             case REGISTER_PHONE_VERIFY_End:
-                binding.progressBar.setVisibility(View.GONE);
-                showAlert("使用者手機驗證註冊成功!");
-                viewModel.switchStatus();
+                // 回到登入由頁面狀態處理
+                showAlert(getString(R.string.Alert_RegisterPhoneVerifySuccess));
                 break;
         }
     }
@@ -184,9 +406,9 @@ public class AuthFragment extends Fragment {
      */
     private void showAlert(String msg) {
         new AlertDialog.Builder(requireContext())
-                .setTitle("提醒")
+                .setTitle(R.string.Alert_Title)
                 .setMessage(msg)
-                .setPositiveButton("確定", null)
+                .setPositiveButton(R.string.Alert_Confirm, null)
                 .show();
     }
 }
\ No newline at end of file
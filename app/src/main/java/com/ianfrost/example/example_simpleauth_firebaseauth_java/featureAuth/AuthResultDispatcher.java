@@ -0,0 +1,92 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.featureAuth;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.AuthResult;
+
+import java.util.ArrayDeque;
+
+/**
+ * 送出結果分派（主執行緒）
+ * 結果由 ViewModel（{@link AuthViewModel}、離線佇列結果的 MainViewModel）持有，頁面以 LifecycleOwner 訂閱：RESUMED 才回呼，其餘時間先暫存，
+ * 訂閱者 DESTROYED 時自動解除，進行中的請求不會持有已銷毀的 Activity、Fragment 或畫面綁定
+ * 畫面重建（旋轉螢幕）期間完成的結果在新頁面 RESUMED 時送出；隱藏的頁面限制在 STARTED（DestinationHost），顯示後才送出
+ */
+public final class AuthResultDispatcher {
+
+    // 等待訂閱者的結果（讀取中由頁面狀態顯示，不暫存）
+    private final ArrayDeque<AuthResult> pending = new ArrayDeque<>();
+    private Subscription subscription;
+
+    /**
+     * 訂閱結果（取代上一個訂閱者），owner DESTROYED 時自動解除
+     *
+     * @param owner    一般為 Fragment 的 getViewLifecycleOwner()
+     * @param callback 結果回呼
+     */
+    public void observe(@NonNull LifecycleOwner owner, @NonNull AuthViewModel.AuthResultCallback callback) {
+        if (owner.getLifecycle().getCurrentState() == Lifecycle.State.DESTROYED) return;
+        removeSubscription();
+        subscription = new Subscription(owner.getLifecycle(), callback);
+        owner.getLifecycle().addObserver(subscription);
+    }
+
+    /**
+     * 送出結果：有 RESUMED 的訂閱者時直接回呼，否則暫存
+     */
+    public void dispatch(AuthResult result) {
+        if (subscription != null && subscription.isActive()) {
+            subscription.callback.onResult(result);
+        } else if (result.action != AuthResult.AuthAction.LOAD) {
+            pending.add(result);
+        }
+    }
+
+    /**
+     * 解除訂閱並丟棄暫存的結果（ViewModel 清除時呼叫）
+     */
+    public void clear() {
+        removeSubscription();
+        pending.clear();
+    }
+
+    private void removeSubscription() {
+        if (subscription != null) {
+            subscription.lifecycle.removeObserver(subscription);
+            subscription = null;
+        }
+    }
+
+    private void flush(Subscription target) {
+        AuthResult result;
+        while (subscription == target && target.isActive() && (result = pending.poll()) != null) {
+            target.callback.onResult(result);
+        }
+    }
+
+    private final class Subscription implements LifecycleEventObserver {
+        final Lifecycle lifecycle;
+        final AuthViewModel.AuthResultCallback callback;
+
+        Subscription(Lifecycle lifecycle, AuthViewModel.AuthResultCallback callback) {
+            this.lifecycle = lifecycle;
+            this.callback = callback;
+        }
+
+        boolean isActive() {
+            return lifecycle.getCurrentState().isAtLeast(Lifecycle.State.RESUMED);
+        }
+
+        @Override
+        public void onStateChanged(@NonNull LifecycleOwner source, @NonNull Lifecycle.Event event) {
+            if (event == Lifecycle.Event.ON_DESTROY) {
+                if (subscription == this) removeSubscription();
+            } else if (event == Lifecycle.Event.ON_RESUME) {
+                flush(this);
+            }
+        }
+    }
+}
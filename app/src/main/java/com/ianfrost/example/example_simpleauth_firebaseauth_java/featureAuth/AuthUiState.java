@@ -0,0 +1,97 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.featureAuth;
+
+import androidx.annotation.StringRes;
+
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.AuthResult;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.R;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthErrorCode;
+
+/**
+ * 登入頁 UI 狀態（不可變）
+ * 由 {@link AuthViewModel} 的 reducer 產生，AuthFragment 只更新與上次狀態不同的欄位
+ */
+public final class AuthUiState {
+
+    // 認證狀態
+    public final AuthResult.AuthAction mode;
+    // 欄位顯示（信箱與密碼一起顯示，重新發送按鈕跟隨驗證碼欄位）
+    public final boolean credentialsVisible;
+    public final boolean phoneVisible;
+    public final boolean verifyCodeVisible;
+    // 文字資源
+    @StringRes
+    public final int statusText;
+    @StringRes
+    public final int confirmText;
+    @StringRes
+    public final int switchText;
+    // 請求送出中
+    public final boolean loading;
+    // 尚未顯示的錯誤，null 表示沒有
+    public final AuthErrorCode error;
+    // 被節流時的剩餘冷卻毫秒數(0 表示可送出)
+    public final long cooldownMillis;
+    // 停止輸入後的欄位檢查結果，null 表示通過或尚未填完（填完且不通過時停用確認按鈕）
+    public final AuthErrorCode inputError;
+
+    private AuthUiState(AuthResult.AuthAction mode, boolean loading, AuthErrorCode error, long cooldownMillis,
+                        AuthErrorCode inputError) {
+        this.mode = mode;
+        this.credentialsVisible = mode != AuthResult.AuthAction.REGISTER_PHONE_VERIFY_End;
+        this.phoneVisible = mode == AuthResult.AuthAction.REGISTER_PHONE_VERIFY;
+        this.verifyCodeVisible = mode == AuthResult.AuthAction.REGISTER_PHONE_VERIFY_End;
+        this.statusText = statusText(mode);
+        this.confirmText = mode == AuthResult.AuthAction.LOGIN ? R.string.Main_Login : R.string.Main_Register;
+        this.switchText = mode == AuthResult.AuthAction.REGISTER_PHONE_VERIFY || mode == AuthResult.AuthAction.REGISTER_PHONE_VERIFY_End
+                ? R.string.Main_Switch_Login : R.string.Main_Switch_Register;
+        this.loading = loading;
+        this.error = error;
+        this.cooldownMillis = cooldownMillis;
+        this.inputError = inputError;
+    }
+
+    /**
+     * 初始狀態：登入
+     */
+    public static AuthUiState initial() {
+        return new AuthUiState(AuthResult.AuthAction.LOGIN, false, null, 0, null);
+    }
+
+    /**
+     * 切換模式（檢查的欄位不同，欄位檢查結果清除後重新檢查）
+     */
+    public AuthUiState withMode(AuthResult.AuthAction mode) {
+        return mode == this.mode ? this : new AuthUiState(mode, loading, error, cooldownMillis, null);
+    }
+
+    public AuthUiState withLoading(boolean loading) {
+        return loading == this.loading ? this : new AuthUiState(mode, loading, error, cooldownMillis, inputError);
+    }
+
+    public AuthUiState withError(AuthErrorCode error) {
+        return error == this.error ? this : new AuthUiState(mode, loading, error, cooldownMillis, inputError);
+    }
+
+    public AuthUiState withCooldown(long cooldownMillis) {
+        return cooldownMillis == this.cooldownMillis ? this : new AuthUiState(mode, loading, error, cooldownMillis, inputError);
+    }
+
+    public AuthUiState withInputError(AuthErrorCode inputError) {
+        return inputError == this.inputError ? this : new AuthUiState(mode, loading, error, cooldownMillis, inputError);
+    }
+
+    @StringRes
+    private static int statusText(AuthResult.AuthAction mode) {
+        switch (mode) {
+            case REGISTER_NO_VERIFY:
+                return R.string.Main_SwitchStatus_Register_No_Verify;
+            case REGISTER_EMAIL_VERIFY:
+                return R.string.Main_SwitchStatus_Register_Email_Verify;
+            case REGISTER_PHONE_VERIFY:
+            case REGISTER_PHONE_VERIFY_End:
+                return R.string.Main_SwitchStatus_Register_Phone_Verify;
+            default:
+                return R.string.Main_SwitchStatus_Login;
+        }
+    }
+}
@@ -1,46 +1,236 @@
 package com.ianfrost.example.example_simpleauth_firebaseauth_java.featureAuth;
 
 import android.app.Activity;
+import android.app.Application;
+import android.net.ConnectivityManager;
+import android.os.Parcelable;
+import android.os.SystemClock;
 
 import androidx.annotation.NonNull;
+import androidx.core.content.ContextCompat;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
-import androidx.lifecycle.ViewModel;
-
-import com.google.firebase.FirebaseException;
-import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.auth.PhoneAuthCredential;
-import com.google.firebase.auth.PhoneAuthOptions;
-import com.google.firebase.auth.PhoneAuthProvider;
-import com.ianfrost.example.example_simpleauth_firebaseauth_java.AuthResult;
-
-import java.util.concurrent.TimeUnit;
-
-public class AuthViewModel extends ViewModel {
+import androidx.lifecycle.SavedStateHandle;
 
-    // FirebaseAuth，驗證庫初始化
-    private final FirebaseAuth firebaseAuth = FirebaseAuth.getInstance();
-
-    // LiveData 管理 UI/資料雙向綁定
-    private final MutableLiveData<String> email = new MutableLiveData<>();
-    private final MutableLiveData<String> password = new MutableLiveData<>();
-    private final MutableLiveData<String> phone = new MutableLiveData<>();
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.AuthResult;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.AuthTrace;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthBackend;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthErrorCode;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthFlow;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthMetrics;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthRequest;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.ConnectionPrewarmer;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.EmailVerificationWatcher;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.OfflineAuthQueue;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.RateLimitedException;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.validation.AuthValidator;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.data.AuthBackendProvider;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.data.OfflineAuthWorker;
+
+import java.security.GeneralSecurityException;
+import java.util.concurrent.Executor;
+
+public class AuthViewModel extends AndroidViewModel {
+
+    // 重新發送簡訊冷卻時間(毫秒)
+    private static final long RESEND_COOLDOWN_MILLIS = 30_000L;
+    // 停止輸入多久後檢查欄位(毫秒)
+    private static final long INPUT_DEBOUNCE_MILLIS = 300L;
+    // 送出到結果回傳的 trace 區段（Macrobenchmark 比較驗證引擎的請求延遲）
+    static final String REQUEST_SECTION = "AuthViewModel.request";
+    // 第一次送出時預先連線省下的連線建立毫秒數（trace counter）
+    static final String PREWARM_SAVED_COUNTER = "AuthPrewarm.savedMillis";
+
+    // SavedStateHandle key（畫面重建、程序被回收後還原）
+    private static final String KEY_MODE = "mode";
+    private static final String KEY_VERIFICATION_ID = "verificationId";
+    private static final String KEY_RESEND_TOKEN = "resendToken";
+    private static final String KEY_RESEND_AVAILABLE_AT = "resendAvailableAt";
+    // 進行中的請求（認證動作名稱）與送出時的信箱、簡訊發送的號碼與自動讀取逾時時間(SystemClock.elapsedRealtime)
+    private static final String KEY_PENDING = "pending";
+    private static final String KEY_PENDING_EMAIL = "pendingEmail";
+    private static final String KEY_PENDING_PHONE = "pendingPhone";
+    private static final String KEY_PHONE_DEADLINE = "phoneDeadline";
+
+    // 需要保留的狀態（手機驗證進度、進行中的請求）
+    private final SavedStateHandle savedState;
+
+    // 登入/註冊流程（驗證後端可替換）
+    private final AuthFlow authFlow;
+    // 信箱驗證註冊後等待用戶完成驗證
+    private final EmailVerificationWatcher verificationWatcher;
+    // 網路無法連線時保存登入/註冊，恢復後自動送出
+    private final OfflineAuthQueue offlineQueue;
+    // 送出到畫面更新的延遲統計（App、後端、UI 各段）
+    private final AuthMetrics metrics;
+
+    // 輸入欄位（app:textInput 綁定），停止輸入後才檢查欄位、更新冷卻時間
+    private final InputDebouncer inputDebouncer = new InputDebouncer(INPUT_DEBOUNCE_MILLIS, this::onInputSettled);
+    private final TextInput email = new TextInput(inputDebouncer::post);
+    private final TextInput password = new TextInput(inputDebouncer::post);
+    private final TextInput phone = new TextInput(inputDebouncer::post);
+    // 上次檢查的模式與輸入（相同時不重複檢查）
+    private AuthResult.AuthAction checkedMode;
+    private AuthRequest checkedRequest;
 
     // 手機註冊驗證需求
     // 手機註冊-簡訊識別碼
-    private final MutableLiveData<String> verificationId = new MutableLiveData<>();
+    private final MutableLiveData<String> verificationId;
     // 手機註冊-簡訊驗證碼儲存
-    private final MutableLiveData<String> verifyCode = new MutableLiveData<>();
-
-    // 頁面狀態(發出請求、登入、無驗證註冊、信箱驗證註冊、手機號碼驗證註冊、等待輸入手機號碼驗證註冊)
-    private final MutableLiveData<AuthResult.AuthAction> switchStatus = new MutableLiveData<>(AuthResult.AuthAction.LOGIN);
+    private final TextInput verifyCode = new TextInput(inputDebouncer::post);
+    // 手機註冊-重新發送簡訊用 token（後端的 token 可 Parcelable 時一併保存）
+    private AuthBackend.ResendToken resendToken;
+    // 手機註冊-可重新發送簡訊的時間(SystemClock.elapsedRealtime，0 表示可立即重新發送)
+    private final MutableLiveData<Long> resendAvailableAt;
+    // 簡訊發送需重新接上（程序被回收後還原、Activity 停止時後端解除了回呼），頁面開始時處理
+    private boolean reattachPhone;
+    // 原本的回呼已不存在（程序被回收後還原）
+    private boolean interrupted;
+
+    // 頁面上次看到的登入狀態（由登入變為未登入時清除欄位與驗證進度）
+    private boolean signedIn;
+    // 最後一次回傳的成功結果（自動驗證與手動輸入驗證碼同時完成時只回傳一次；失敗結果為共用實例，不比對）
+    private AuthResult lastDelivered;
+    // 進行中的請求 trace 區段
+    private int requestTraceCookie;
+    private boolean requestTracing;
+    // 預先連線（null 表示尚未開始；手機模式另外連線 reCAPTCHA 端點）
+    private ConnectionPrewarmer.Handle prewarm;
+    private boolean prewarmPhone;
+    private boolean prewarmReported;
+
+    // 頁面狀態(認證狀態、欄位顯示、文字、讀取中、錯誤、冷卻時間)，只由 reducer 更新
+    private final MutableLiveData<AuthUiState> uiState = new MutableLiveData<>(AuthUiState.initial());
+    // 送出結果（一次性提示），頁面依生命週期訂閱，進行中的請求只持有 ViewModel
+    private final AuthResultDispatcher results = new AuthResultDispatcher();
 
     /**
      * 登入/註冊/驗證處理結果的回呼介面。
      * 用於 AuthViewModel 執行驗證流程後，回傳執行結果（成功/失敗／狀態等）。
      */
-    public interface AuthResultCallback {
-        void onResult(AuthResult result);
+    public interface AuthResultCallback extends AuthFlow.ResultCallback {
+    }
+
+    public AuthViewModel(@NonNull Application application, @NonNull SavedStateHandle savedState) {
+        this(application, savedState, new AuthFlow(AuthBackendProvider.get(), AuthBackendProvider.getRateLimiter(application),
+                new AuthValidator(), AuthBackendProvider.getBackgroundExecutor(), ContextCompat.getMainExecutor(application),
+                AuthBackendProvider.getScheduler()),
+                AuthBackendProvider.getEmailVerificationWatcher(application), AuthBackendProvider.getOfflineQueue(application),
+                AuthBackendProvider.getMetrics(application));
+    }
+
+    /**
+     * @param offlineQueue 網路無法連線時保存請求，null 表示不保存（直接回傳網路錯誤）
+     * @param metrics      延遲統計，null 表示不記錄
+     */
+    public AuthViewModel(@NonNull Application application, @NonNull SavedStateHandle savedState, AuthFlow authFlow,
+                         EmailVerificationWatcher verificationWatcher, OfflineAuthQueue offlineQueue, AuthMetrics metrics) {
+        super(application);
+        this.savedState = savedState;
+        this.authFlow = authFlow;
+        this.offlineQueue = offlineQueue;
+        this.metrics = metrics;
+        if (AuthTrace.ENABLED) this.authFlow.setTracer(AuthTrace.FLOW);
+        if (metrics != null) this.authFlow.setStageListener(metrics::onStage);
+        this.verificationWatcher = verificationWatcher;
+        this.verificationId = savedState.getLiveData(KEY_VERIFICATION_ID);
+        this.resendAvailableAt = savedState.getLiveData(KEY_RESEND_AVAILABLE_AT, 0L);
+        Object token = savedState.get(KEY_RESEND_TOKEN);
+        this.resendToken = token instanceof AuthBackend.ResendToken ? (AuthBackend.ResendToken) token : null;
+        restore();
+    }
+
+    /**
+     * 還原程序被回收前的狀態：認證模式與手機驗證進度
+     * 進行中的請求不重新送出：簡訊發送在頁面開始時重新接上，其他請求依後端保存的登入狀態回傳結果
+     */
+    private void restore() {
+        String mode = savedState.get(KEY_MODE);
+        if (mode != null) {
+            uiState.setValue(state().withMode(AuthResult.AuthAction.valueOf(mode)));
+        }
+        String pending = savedState.get(KEY_PENDING);
+        if (pending == null) return;
+        AuthResult.AuthAction action = AuthResult.AuthAction.valueOf(pending);
+        if (action == AuthResult.AuthAction.REGISTER_PHONE_VERIFY) {
+            reattachPhone = true;
+            interrupted = true;
+            uiState.setValue(state().withLoading(true));
+        } else {
+            String pendingEmail = savedState.get(KEY_PENDING_EMAIL);
+            savedState.remove(KEY_PENDING);
+            savedState.remove(KEY_PENDING_EMAIL);
+            authFlow.recover(action, pendingEmail, this::onRecovered);
+        }
+    }
+
+    /**
+     * 程序被回收前已完成的請求（後端登入用戶的信箱與送出時相同），與正常完成相同處理
+     * 手機註冊階段2 也可能是綁定前中斷而回傳的失敗
+     */
+    private void onRecovered(AuthResult result) {
+        if (result.action == AuthResult.AuthAction.REGISTER_EMAIL_VERIFY) {
+            verificationWatcher.watch(result.user);
+        }
+        if (result.action == AuthResult.AuthAction.REGISTER_PHONE_VERIFY_End) {
+            onPhoneCodeResult(result);
+        } else {
+            deliver(result);
+        }
+    }
+
+    /**
+     * 頁面開始時呼叫：重新接上進行中的簡訊發送（後端支援時不會再寄送簡訊），已逾時則結束讀取中
+     *
+     * @param activity reCAPTCHA 宿主
+     */
+    public void resumePending(Activity activity) {
+        if (!reattachPhone) return;
+        reattachPhone = false;
+        boolean wasInterrupted = interrupted;
+        interrupted = false;
+        String pendingPhone = savedState.get(KEY_PENDING_PHONE);
+        Long deadline = savedState.get(KEY_PHONE_DEADLINE);
+        if (!isPending(AuthResult.AuthAction.REGISTER_PHONE_VERIFY) || pendingPhone == null || deadline == null
+                || SystemClock.elapsedRealtime() >= deadline) {
+            if (wasInterrupted) {
+                savedState.remove(KEY_PENDING);
+                setState(state().withLoading(false));
+            }
+            return;
+        }
+        AuthRequest request = new AuthRequest(email.get(), password.get(), pendingPhone, null, null);
+        authFlow.resumePhoneVerification(request, activity, wasInterrupted, this::onPhoneCodeResult);
+    }
+
+    /**
+     * 頁面停止時呼叫：簡訊發送中時後端可能已解除回呼（Firebase 回呼綁定 Activity），下次開始時重新接上
+     */
+    public void onHostStopped() {
+        if (isPending(AuthResult.AuthAction.REGISTER_PHONE_VERIFY)) reattachPhone = true;
+    }
+
+    private boolean isPending(AuthResult.AuthAction action) {
+        return action.name().equals(savedState.get(KEY_PENDING));
+    }
+
+    /**
+     * 記錄送出中的請求與信箱（完成前程序被回收時依此還原，信箱用來確認後端的登入用戶是這次送出的帳號）
+     */
+    private void begin(AuthResult.AuthAction action) {
+        savedState.set(KEY_PENDING, action.name());
+        savedState.set(KEY_PENDING_EMAIL, AuthRequest.safeText(email.get()));
+    }
+
+    /**
+     * 記錄送出中的簡訊發送：號碼與自動讀取逾時時間
+     */
+    private void beginPhone(String phoneNumber) {
+        begin(AuthResult.AuthAction.REGISTER_PHONE_VERIFY);
+        savedState.set(KEY_PENDING_PHONE, phoneNumber);
+        savedState.set(KEY_PHONE_DEADLINE, SystemClock.elapsedRealtime() + AuthFlow.PHONE_TIMEOUT_SECONDS * 1000);
     }
 
     /**
@@ -48,7 +238,7 @@ public class AuthViewModel extends ViewModel {
      *
      * @return 信箱
      */
-    public MutableLiveData<String> getEmail() {
+    public TextInput getEmail() {
         return email;
     }
 
@@ -57,7 +247,7 @@ public class AuthViewModel extends ViewModel {
      *
      * @return 密碼
      */
-    public MutableLiveData<String> getPassword() {
+    public TextInput getPassword() {
         return password;
     }
 
@@ -66,18 +256,27 @@ public class AuthViewModel extends ViewModel {
      *
      * @return 手機號碼
      */
-    public MutableLiveData<String> getPhone() {
+    public TextInput getPhone() {
         return phone;
     }
 
     /**
-     * 取得認證狀態
-     * 狀態：{@link AuthResult.AuthAction}
+     * 訂閱送出結果，owner RESUMED 才回呼（隱藏的頁面顯示後才送出），DESTROYED 時自動解除
      *
-     * @return 認證狀態
+     * @param owner    一般為 Fragment 的 getViewLifecycleOwner()
+     * @param callback 回傳送出結果 {@link AuthResultCallback}
      */
-    public MutableLiveData<AuthResult.AuthAction> getSwitchStatus() {
-        return switchStatus;
+    public void observeResults(@NonNull LifecycleOwner owner, @NonNull AuthResultCallback callback) {
+        results.observe(owner, callback);
+    }
+
+    /**
+     * 取得頁面狀態
+     *
+     * @return 頁面狀態 {@link AuthUiState}
+     */
+    public LiveData<AuthUiState> getUiState() {
+        return uiState;
     }
 
     /**
@@ -85,294 +284,397 @@ public class AuthViewModel extends ViewModel {
      *
      * @return 手機簡訊驗證碼
      */
-    public MutableLiveData<String> getVerifyCode() {
+    public TextInput getVerifyCode() {
         return verifyCode;
     }
 
+    /**
+     * 取得可重新發送簡訊的時間
+     *
+     * @return SystemClock.elapsedRealtime 毫秒
+     */
+    public MutableLiveData<Long> getResendAvailableAt() {
+        return resendAvailableAt;
+    }
+
+    /**
+     * 重新發送簡訊剩餘冷卻毫秒數
+     *
+     * @return 冷卻毫秒數(0 表示可重新發送)
+     */
+    public long getResendRemainingMillis() {
+        Long availableAt = resendAvailableAt.getValue();
+        return availableAt == null ? 0 : Math.max(0, availableAt - SystemClock.elapsedRealtime());
+    }
+
+    /**
+     * 重新計算目前認證狀態與輸入的剩餘冷卻時間
+     *
+     * @return 冷卻毫秒數
+     */
+    public long refreshCooldown() {
+        long remaining = authFlow.getCooldownMillis(state().mode, buildRequest());
+        setState(state().withCooldown(remaining));
+        return remaining;
+    }
+
     /**
      * 認證狀態切換
      */
     public void switchStatus() {
-        AuthResult.AuthAction current = switchStatus.getValue();
-        if (current == null) current = AuthResult.AuthAction.LOGIN;
-        switchStatus.setValue(
-                current == AuthResult.AuthAction.LOGIN ? AuthResult.AuthAction.REGISTER_NO_VERIFY :
-                        current == AuthResult.AuthAction.REGISTER_NO_VERIFY ? AuthResult.AuthAction.REGISTER_EMAIL_VERIFY :
-                                current == AuthResult.AuthAction.REGISTER_EMAIL_VERIFY ? AuthResult.AuthAction.REGISTER_PHONE_VERIFY :
-                                        AuthResult.AuthAction.LOGIN
-        );
+        setState(state().withMode(state().mode.next()));
+    }
+
+    /**
+     * 預先連線到驗證端點（頁面顯示、開始輸入時呼叫）
+     * 計量付費網路或沒有網路時不連線；已在進行或已完成時不重複送出
+     */
+    public void prewarm() {
+        boolean phone = state().mode == AuthResult.AuthAction.REGISTER_PHONE_VERIFY;
+        if (prewarm != null && (prewarmPhone || !phone)) return;
+        ConnectivityManager connectivity = ContextCompat.getSystemService(getApplication(), ConnectivityManager.class);
+        if (connectivity == null || connectivity.getActiveNetwork() == null || connectivity.isActiveNetworkMetered()) return;
+        if (prewarm != null) prewarm.cancel();
+        prewarm = authFlow.getBackend().prewarm(phone);
+        prewarmPhone = phone;
+    }
+
+    /**
+     * 取消進行中的預先連線（頁面隱藏時呼叫），下次顯示時重新開始
+     */
+    public void cancelPrewarm() {
+        if (prewarm == null) return;
+        if (!prewarm.isDone()) {
+            prewarm.cancel();
+            prewarm = null;
+        }
+    }
+
+    /**
+     * 錯誤已顯示，清除後同一錯誤再次發生時會再顯示
+     */
+    public void onErrorShown() {
+        setState(state().withError(null));
     }
 
     /**
      * 根據認證狀態決定採用哪一種註冊/登入方式
      * 狀態：{@link AuthResult.AuthAction}
      *
-     * @param activity 該頁主程序
-     * @param callback 回傳送出結果 {@link AuthResultCallback}
+     * 結果經由 {@link #observeResults} 回傳
+     *
+     * @param activity 該頁主程序（只在送出手機驗證時交給後端，ViewModel 不保存）
      */
-    public void doConfirm(Activity activity, AuthResultCallback callback) {
-        AuthResult.AuthAction status = switchStatus.getValue();
-        if (status == null) {
-            return;
+    public void doConfirm(Activity activity) {
+        AuthTrace.beginSection("AuthViewModel.doConfirm");
+        try {
+            if (metrics != null) metrics.begin(state().mode);
+            switch (state().mode) {
+                case LOGIN:
+                    login();
+                    break;
+                case REGISTER_NO_VERIFY:
+                    registerNoVerify();
+                    break;
+                case REGISTER_EMAIL_VERIFY:
+                    registerWithEmailVerify();
+                    break;
+                case REGISTER_PHONE_VERIFY:
+                    registerWithPhoneVerify(activity); // 手機階段1
+                    break;
+                case REGISTER_PHONE_VERIFY_End:
+                    registerWithPhoneCodeVerify(); // 手機階段2
+                    break;
+            }
+        } finally {
+            AuthTrace.endSection();
         }
+    }
 
-        switch (status) {
-            case LOGIN:
-                login(callback);
-                break;
-            case REGISTER_NO_VERIFY:
-                registerNoVerify(callback);
-                break;
-            case REGISTER_EMAIL_VERIFY:
-                registerWithEmailVerify(callback);
-                break;
+    /**
+     * 送出結果已畫到畫面上（頁面在結果後的第一個畫格呼叫），記錄 UI 與總延遲
+     */
+    public void onResultDrawn() {
+        if (metrics != null) metrics.onUiDrawn();
+    }
+
+    /**
+     * 目前輸入欄位組成請求資料
+     */
+    private AuthRequest buildRequest() {
+        return new AuthRequest(email.get(), password.get(), phone.get(),
+                verificationId.getValue(), verifyCode.get());
+    }
+
+    /**
+     * 停止輸入後：欄位填完才檢查（輸入中不提示），並更新目前輸入的冷卻時間
+     * 模式與輸入（trim 後）都和上次相同時略過
+     */
+    private void onInputSettled() {
+        AuthResult.AuthAction mode = state().mode;
+        AuthRequest request = buildRequest();
+        if (mode == checkedMode && sameInput(request, checkedRequest)) return;
+        checkedMode = mode;
+        checkedRequest = request;
+        AuthErrorCode inputError = isFilled(mode, request) ? authFlow.check(mode, request) : null;
+        setState(state().withInputError(inputError).withCooldown(authFlow.getCooldownMillis(mode, request)));
+    }
+
+    private static boolean isFilled(AuthResult.AuthAction mode, AuthRequest request) {
+        switch (mode) {
             case REGISTER_PHONE_VERIFY:
-                registerWithPhoneVerify(activity, callback); // 手機階段1
-                break;
+                return !request.email.isEmpty() && !request.password.isEmpty() && !request.phone.isEmpty();
             case REGISTER_PHONE_VERIFY_End:
-                registerWithPhoneCodeVerify(callback); // 手機階段2
-                break;
+                return !request.verifyCode.isEmpty();
+            default:
+                return !request.email.isEmpty() && !request.password.isEmpty();
         }
     }
 
+    private static boolean sameInput(AuthRequest a, AuthRequest b) {
+        return b != null && a.email.equals(b.email) && a.password.equals(b.password) && a.phone.equals(b.phone)
+                && a.verificationId.equals(b.verificationId) && a.verifyCode.equals(b.verifyCode);
+    }
+
     /**
-     * 安全取得字串，trim/null safe
-     *
-     * @param data 字串
+     * 登入流程
      */
-    private String getSafeText(MutableLiveData<String> data) {
-        String s = data.getValue();
-        return s == null ? "" : s.trim();
+    public void login() {
+        begin(AuthResult.AuthAction.LOGIN);
+        AuthRequest request = buildRequest();
+        authFlow.confirm(AuthResult.AuthAction.LOGIN, request, null, result -> deliverOrQueue(request, result));
     }
 
     /**
-     * 登入流程
-     *
-     * @param callback 回傳認證送出的結果 {@link AuthResultCallback}
+     * 註冊 - 無驗證
      */
-    public void login(AuthResultCallback callback) {
-        final AuthResult.AuthAction action = AuthResult.AuthAction.LOGIN;
-        String emailVal = getSafeText(email);
-        String pwVal = getSafeText(password);
+    public void registerNoVerify() {
+        begin(AuthResult.AuthAction.REGISTER_NO_VERIFY);
+        AuthRequest request = buildRequest();
+        authFlow.confirm(AuthResult.AuthAction.REGISTER_NO_VERIFY, request, null, result -> deliverOrQueue(request, result));
+    }
 
-        try {
-            if (emailVal.isEmpty()) {
-                callback.onResult(new AuthResult(action, false, null, new IllegalArgumentException("Email 不可為空")));
-                return;
-            }
-            if (pwVal.isEmpty()) {
-                callback.onResult(new AuthResult(action, false, null, new IllegalArgumentException("密碼不可為空")));
-                return;
+    /**
+     * 註冊 - 信箱驗證
+     */
+    public void registerWithEmailVerify() {
+        begin(AuthResult.AuthAction.REGISTER_EMAIL_VERIFY);
+        AuthRequest request = buildRequest();
+        authFlow.confirm(AuthResult.AuthAction.REGISTER_EMAIL_VERIFY, request, null, result -> {
+            if (result.isSuccess && result.action == AuthResult.AuthAction.REGISTER_EMAIL_VERIFY) {
+                verificationWatcher.watch(result.user); // 背景確認用戶是否已點擊驗證信
             }
-
-            callback.onResult(AuthResult.load());
-            firebaseAuth.signInWithEmailAndPassword(emailVal, pwVal)
-                    .addOnCompleteListener(task -> {
-                        try {
-                            if (task.isSuccessful()) {
-                                callback.onResult(new AuthResult(action, true, firebaseAuth.getCurrentUser(), null));
-                            } else {
-                                callback.onResult(new AuthResult(action, false, null,
-                                        safeException(task.getException(), "登入失敗")));
-                            }
-                        } catch (Exception ex) {
-                            callback.onResult(new AuthResult(action, false, null, ex));
-                        }
-                    });
-        } catch (Exception ex) {
-            callback.onResult(new AuthResult(action, false, null, ex));
-        }
+            deliverOrQueue(request, result);
+        });
     }
 
     /**
-     * 註冊 - 無驗證
+     * 註冊 - 手機號碼驗證註冊
      *
-     * @param callback 回傳認證送出的結果 {@link AuthResultCallback}
+     * @param activity reCAPTCHA 宿主
      */
-    public void registerNoVerify(AuthResultCallback callback) {
-        final AuthResult.AuthAction action = AuthResult.AuthAction.REGISTER_NO_VERIFY;
-        String emailVal = getSafeText(email);
-        String pwVal = getSafeText(password);
+    public void registerWithPhoneVerify(Activity activity) {
+        beginPhone(phone.get());
+        authFlow.confirm(AuthResult.AuthAction.REGISTER_PHONE_VERIFY, buildRequest(), activity, this::onPhoneCodeResult);
+    }
 
-        try {
-            if (emailVal.isEmpty()) {
-                callback.onResult(new AuthResult(action, false, null, new IllegalArgumentException("Email 不可為空")));
-                return;
-            }
-            if (pwVal.isEmpty()) {
-                callback.onResult(new AuthResult(action, false, null, new IllegalArgumentException("密碼不可為空")));
-                return;
-            }
+    /**
+     * 註冊 - 手機號碼驗證註冊 -> 重新發送簡訊
+     * 冷卻時間內或尚未送出過簡訊時不送出
+     *
+     * @param activity reCAPTCHA 宿主
+     */
+    public void resendCode(Activity activity) {
+        if (resendToken == null || getResendRemainingMillis() > 0) {
+            return;
+        }
+        AuthRequest request = buildRequest();
+        if (request.phone.isEmpty()) {
+            // 程序被回收後還原：手機號碼欄位未重新 inflate，使用簡訊發送時的號碼
+            request = new AuthRequest(request.email, request.password, savedState.get(KEY_PENDING_PHONE),
+                    request.verificationId, request.verifyCode);
+        }
+        beginPhone(request.phone);
+        authFlow.resendPhoneCode(request, resendToken, activity, this::onPhoneCodeResult);
+    }
 
-            callback.onResult(AuthResult.load());
-            firebaseAuth.createUserWithEmailAndPassword(emailVal, pwVal)
-                    .addOnCompleteListener(task -> {
-                        try {
-                            if (task.isSuccessful()) {
-                                callback.onResult(new AuthResult(action, true, firebaseAuth.getCurrentUser(), null));
-                            } else {
-                                callback.onResult(new AuthResult(action, false, null,
-                                        safeException(task.getException(), "註冊失敗")));
-                            }
-                        } catch (Exception ex) {
-                            callback.onResult(new AuthResult(action, false, null, ex));
-                        }
-                    });
-        } catch (Exception ex) {
-            callback.onResult(new AuthResult(action, false, null, ex));
+    /**
+     * 手機驗證結果：簡訊送出後進入驗證碼輸入階段並開始重新發送冷卻，註冊完成後清除重新發送狀態
+     */
+    private void onPhoneCodeResult(AuthResult result) {
+        if (result.verificationId != null) {
+            verificationId.setValue(result.verificationId);
+            resendToken = result.forceResendToken;
+            savedState.set(KEY_RESEND_TOKEN, resendToken instanceof Parcelable ? (Parcelable) resendToken : null);
+            resendAvailableAt.setValue(SystemClock.elapsedRealtime() + RESEND_COOLDOWN_MILLIS);
+            // 進入下一階段由 reducer 處理，UI 監聽頁面狀態顯示驗證碼輸入欄位即可
         }
+        deliver(result);
     }
 
     /**
-     * 註冊 - 信箱驗證
-     *
-     * @param callback 回傳認證送出的結果 {@link AuthResultCallback}
+     * 註冊 - 手機號碼註冊 -> 取得驗證碼後驗證
      */
-    public void registerWithEmailVerify(AuthResultCallback callback) {
-        final AuthResult.AuthAction action = AuthResult.AuthAction.REGISTER_EMAIL_VERIFY;
-        String emailVal = getSafeText(email);
-        String pwVal = getSafeText(password);
+    public void registerWithPhoneCodeVerify() {
+        begin(AuthResult.AuthAction.REGISTER_PHONE_VERIFY_End);
+        authFlow.confirm(AuthResult.AuthAction.REGISTER_PHONE_VERIFY_End, buildRequest(), null, this::onPhoneCodeResult);
+    }
 
-        try {
-            if (emailVal.isEmpty()) {
-                callback.onResult(new AuthResult(action, false, null, new IllegalArgumentException("Email 不可為空")));
-                return;
-            }
-            if (pwVal.isEmpty()) {
-                callback.onResult(new AuthResult(action, false, null, new IllegalArgumentException("密碼不可為空")));
+    /**
+     * 網路無法連線而失敗時保存請求（加密後寫入），網路恢復後由 {@link OfflineAuthWorker} 重新送出，結果經由 MainViewModel 回傳
+     * 帳號已建立、只有驗證信未寄出時（失敗結果帶有用戶）只保存重新寄送驗證信，不再送出註冊
+     * 保存失敗時照原本的網路錯誤回傳
+     */
+    private void deliverOrQueue(AuthRequest request, AuthResult result) {
+        if (offlineQueue == null || result.errorCode != AuthErrorCode.NETWORK || !OfflineAuthQueue.isQueueable(result.action)) {
+            deliver(result);
+            return;
+        }
+        Application application = getApplication();
+        Executor mainExecutor = ContextCompat.getMainExecutor(application);
+        AuthBackendProvider.getBackgroundExecutor().execute(() -> {
+            try {
+                if (result.user != null) {
+                    offlineQueue.enqueueVerificationResend(request.email);
+                } else {
+                    offlineQueue.enqueue(result.action, request);
+                }
+            } catch (GeneralSecurityException e) {
+                mainExecutor.execute(() -> deliver(result));
                 return;
             }
+            OfflineAuthWorker.schedule(application);
+            mainExecutor.execute(() -> deliver(AuthResult.failure(result.action, AuthErrorCode.QUEUED_OFFLINE)));
+        });
+    }
 
-            callback.onResult(AuthResult.load());
-            firebaseAuth.createUserWithEmailAndPassword(emailVal, pwVal)
-                    .addOnCompleteListener(task -> {
-                        try {
-                            if (task.isSuccessful()) {
-                                FirebaseUser user = firebaseAuth.getCurrentUser();
-                                if (user != null) {
-                                    user.sendEmailVerification().addOnCompleteListener(verifyTask -> {
-                                        try {
-                                            if (verifyTask.isSuccessful()) {
-                                                callback.onResult(new AuthResult(action, true, user, null));
-                                            } else {
-                                                callback.onResult(new AuthResult(action, false, null,
-                                                        safeException(verifyTask.getException(), "驗證信寄出失敗")));
-                                            }
-                                        } catch (Exception ex) {
-                                            callback.onResult(new AuthResult(action, false, null, ex));
-                                        }
-                                    });
-                                } else {
-                                    callback.onResult(new AuthResult(action, false, null, new Exception("註冊成功後找不到用戶資訊")));
-                                }
-                            } else {
-                                callback.onResult(new AuthResult(action, false, null,
-                                        safeException(task.getException(), "註冊失敗")));
-                            }
-                        } catch (Exception ex) {
-                            callback.onResult(new AuthResult(action, false, null, ex));
-                        }
-                    });
-        } catch (Exception ex) {
-            callback.onResult(new AuthResult(action, false, null, ex));
+    /**
+     * 回傳結果，先更新頁面狀態（讀取中、錯誤、冷卻時間、手機驗證階段），再交給訂閱中的頁面
+     */
+    private void deliver(AuthResult result) {
+        if (result.isSuccess && result.action != AuthResult.AuthAction.LOAD) {
+            if (result == lastDelivered) return;
+            lastDelivered = result;
+            // 完成後不再需要簡訊識別碼與重新發送（密碼欄位由頁面收到結果時清除）
+            clearPendingVerification();
+            clearOfflineQueue();
         }
+        traceRequest(result);
+        if (result.action != AuthResult.AuthAction.LOAD) {
+            savedState.remove(KEY_PENDING);
+            savedState.remove(KEY_PENDING_EMAIL);
+            if (metrics != null) metrics.onResult(result);
+        }
+        setState(reduce(state(), result));
+        results.dispatch(result);
     }
 
     /**
-     * 註冊 - 手機號碼驗證註冊
+     * 登入狀態變動（頁面訂閱 MainViewModel 的用戶資料時呼叫）
+     * 登出時清除手機驗證進度並回到登入模式；ViewModel 與頁面在整個程序期間保留，不清除時下一位用戶會看到上一位的輸入
      *
-     * @param callback 回傳認證送出的結果 {@link AuthResultCallback}
+     * @return 是否為登出（頁面需清除信箱、密碼與驗證碼欄位）
      */
-    public void registerWithPhoneVerify(Activity activity, AuthResultCallback callback) {
-        final AuthResult.AuthAction action = AuthResult.AuthAction.REGISTER_PHONE_VERIFY;
-        String emailVal = getSafeText(email);
-        String pwVal = getSafeText(password);
-        String phoneVal = getSafeText(phone);
-
-        // 基本檢查
-        if (emailVal.isEmpty() || pwVal.isEmpty() || phoneVal.isEmpty()) {
-            callback.onResult(new AuthResult(action, false, null, new IllegalArgumentException("Email、密碼、手機不可為空")));
-            return;
+    public boolean onSessionChanged(boolean signedIn) {
+        boolean signedOut = this.signedIn && !signedIn;
+        this.signedIn = signedIn;
+        if (signedOut) {
+            clearPendingVerification();
+            lastDelivered = null;
+            setState(state().withMode(AuthResult.AuthAction.LOGIN).withError(null));
         }
+        return signedOut;
+    }
 
-        callback.onResult(AuthResult.load());
-        PhoneAuthOptions options = PhoneAuthOptions.newBuilder(firebaseAuth)
-                .setPhoneNumber(phoneVal)
-                .setTimeout(60L, TimeUnit.SECONDS)
-                .setActivity(activity)
-                .setCallbacks(new PhoneAuthProvider.OnVerificationStateChangedCallbacks() {
-                    @Override
-                    public void onVerificationCompleted(@NonNull PhoneAuthCredential credential) {
-                        // 如果自動完成驗證，可以幫用戶直接流程完成 (進階可做)
-                    }
+    /**
+     * 直接送出成功：離線保存的請求不再送出（送出會取代目前的用戶）
+     */
+    private void clearOfflineQueue() {
+        if (offlineQueue == null) return;
+        AuthBackendProvider.getBackgroundExecutor().execute(offlineQueue::clear);
+        OfflineAuthWorker.cancel(getApplication());
+    }
 
-                    @Override
-                    public void onVerificationFailed(@NonNull FirebaseException e) {
-                        callback.onResult(new AuthResult(action, false, null, e));
-                    }
+    /**
+     * 清除手機驗證進度：簡訊識別碼、重新發送 token 與冷卻、簡訊發送的號碼
+     */
+    private void clearPendingVerification() {
+        verificationId.setValue(null);
+        resendToken = null;
+        savedState.remove(KEY_RESEND_TOKEN);
+        savedState.remove(KEY_PENDING_PHONE);
+        savedState.remove(KEY_PHONE_DEADLINE);
+        resendAvailableAt.setValue(0L);
+    }
 
-                    @Override
-                    public void onCodeSent(@NonNull String verificationIdVal, @NonNull PhoneAuthProvider.ForceResendingToken token) {
-                        verificationId.setValue(verificationIdVal);
-                        switchStatus.setValue(AuthResult.AuthAction.REGISTER_PHONE_VERIFY_End); // 進入下一階段
-                        callback.onResult(new AuthResult(action, false, null, null, verificationIdVal, token));
-                        // UI監聽switchStatus, 顯示驗證碼輸入欄位即可
-                    }
-                }).build();
+    /**
+     * 送出（LOAD）開始 trace 區段，第一個非 LOAD 結果結束
+     */
+    private void traceRequest(AuthResult result) {
+        if (result.action == AuthResult.AuthAction.LOAD) {
+            if (requestTracing) return;
+            requestTracing = true;
+            AuthTrace.beginAsyncSection(REQUEST_SECTION, ++requestTraceCookie);
+            reportPrewarm();
+        } else if (requestTracing) {
+            requestTracing = false;
+            AuthTrace.endAsyncSection(REQUEST_SECTION, requestTraceCookie);
+        }
+    }
 
-        PhoneAuthProvider.verifyPhoneNumber(options);
+    /**
+     * 第一次送出時記錄預先連線省下的毫秒數（尚未完成的預先連線不計）
+     */
+    private void reportPrewarm() {
+        if (prewarmReported || prewarm == null) return;
+        prewarmReported = true;
+        AuthTrace.setCounter(PREWARM_SAVED_COUNTER, prewarm.isDone() ? (int) prewarm.getConnectMillis() : 0);
     }
 
     /**
-     * 註冊 - 手機號碼註冊 -> 取得驗證碼後驗證
-     *
-     * @param callback 回傳認證送出的結果 {@link AuthResultCallback}
+     * reducer：目前狀態與送出結果產生下一個狀態（內容不變時回傳同一實例）
      */
-    public void registerWithPhoneCodeVerify(AuthResultCallback callback) {
-        final AuthResult.AuthAction action = AuthResult.AuthAction.REGISTER_PHONE_VERIFY_End;
-        String emailVal = getSafeText(email);
-        String pwVal = getSafeText(password);
-        String verificationIdVal = getSafeText(verificationId);
-        String code = getSafeText(verifyCode);
+    static AuthUiState reduce(AuthUiState state, AuthResult result) {
+        if (result.action == AuthResult.AuthAction.LOAD) {
+            return state.withLoading(true).withError(null);
+        }
+        state = state.withLoading(false);
+        if (result.verificationId != null) {
+            // 簡訊已送出，進入驗證碼輸入階段
+            return state.withMode(AuthResult.AuthAction.REGISTER_PHONE_VERIFY_End);
+        }
+        if (result.isSuccess) {
+            // 手機註冊完成回到登入
+            return result.action == AuthResult.AuthAction.REGISTER_PHONE_VERIFY_End
+                    ? state.withMode(AuthResult.AuthAction.LOGIN) : state;
+        }
+        if (result.error instanceof RateLimitedException) {
+            state = state.withCooldown(((RateLimitedException) result.error).getRetryAfterMillis());
+        }
+        return state.withError(result.errorCode != null ? result.errorCode : AuthErrorCode.UNKNOWN);
+    }
 
-        if (verificationIdVal.isEmpty() || code.isEmpty()) {
-            callback.onResult(new AuthResult(action, false, null, new IllegalArgumentException("驗證碼不可為空")));
-            return;
+    private AuthUiState state() {
+        return uiState.getValue();
+    }
+
+    private void setState(AuthUiState next) {
+        AuthUiState current = uiState.getValue();
+        if (next == current) return;
+        uiState.setValue(next);
+        if (next.mode != current.mode) {
+            savedState.set(KEY_MODE, next.mode.name());
+            inputDebouncer.post(); // 檢查的欄位不同，重新檢查
+            if (next.mode == AuthResult.AuthAction.REGISTER_PHONE_VERIFY && prewarm != null) prewarm();
         }
+    }
 
-        PhoneAuthCredential credential = PhoneAuthProvider.getCredential(verificationIdVal, code);
-        callback.onResult(AuthResult.load());
-        firebaseAuth.createUserWithEmailAndPassword(emailVal, pwVal)
-                .addOnCompleteListener(regTask -> {
-                    if (regTask.isSuccessful()) {
-                        FirebaseUser user = firebaseAuth.getCurrentUser();
-                        if (user != null) {
-                            user.linkWithCredential(credential)
-                                    .addOnCompleteListener(linkTask -> {
-                                        if (linkTask.isSuccessful()) {
-                                            callback.onResult(new AuthResult(action, true, user, null));
-                                        } else {
-                                            callback.onResult(new AuthResult(action, false, null, safeException(linkTask.getException(), "手機驗證綁定失敗")));
-                                        }
-                                    });
-                        } else {
-                            callback.onResult(new AuthResult(action, false, null, new Exception("註冊成功後找不到用戶資訊")));
-                        }
-                    } else {
-                        callback.onResult(new AuthResult(action, false, null, safeException(regTask.getException(), "註冊失敗")));
-                    }
-                });
-    }
-
-    /**
-     * 保證永遠不丟 null Exception，log 替代
-     *
-     * @param ex 除錯取得的錯誤資訊
-     * @param fallback 錯誤資訊字串
-     */
-    private Exception safeException(Exception ex, String fallback) {
-        if (ex != null) return ex;
-        return new Exception(fallback != null ? fallback : "未知錯誤");
+    @Override
+    protected void onCleared() {
+        inputDebouncer.cancel();
+        results.clear();
+        if (prewarm != null) prewarm.cancel();
+        authFlow.cancel();
     }
 
-}
\ No newline at end of file
+}
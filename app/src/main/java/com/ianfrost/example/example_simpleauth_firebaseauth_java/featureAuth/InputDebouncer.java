@@ -0,0 +1,51 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.featureAuth;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+/**
+ * 停止輸入一段時間後才執行（主執行緒）
+ * 連續輸入時只保留一個排程，到期時若期間又有輸入就延後剩餘時間，不在每次按鍵移除/重新排入訊息
+ */
+final class InputDebouncer {
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final long delayMillis;
+    private final Runnable action;
+    private final Runnable tick = this::onTick;
+
+    private long lastInputAt;
+    private boolean scheduled;
+
+    InputDebouncer(long delayMillis, Runnable action) {
+        this.delayMillis = delayMillis;
+        this.action = action;
+    }
+
+    /**
+     * 有新的輸入
+     */
+    void post() {
+        lastInputAt = SystemClock.uptimeMillis();
+        if (!scheduled) {
+            scheduled = true;
+            handler.postDelayed(tick, delayMillis);
+        }
+    }
+
+    void cancel() {
+        handler.removeCallbacks(tick);
+        scheduled = false;
+    }
+
+    private void onTick() {
+        long remaining = lastInputAt + delayMillis - SystemClock.uptimeMillis();
+        if (remaining > 0) {
+            handler.postDelayed(tick, remaining);
+            return;
+        }
+        scheduled = false;
+        action.run();
+    }
+}
@@ -0,0 +1,31 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.featureAuth;
+
+/**
+ * 輸入欄位文字（取代雙向綁定的 MutableLiveData）
+ * 每次按鍵只保存文字並通知變動，不經過 LiveData 分派；trim 與檢查等衍生處理延後到停止輸入後
+ */
+public final class TextInput {
+
+    private final Runnable onChanged;
+    private String text = "";
+
+    TextInput(Runnable onChanged) {
+        this.onChanged = onChanged;
+    }
+
+    /**
+     * 輸入變動（主執行緒，每次按鍵呼叫）
+     */
+    void onTextChanged(CharSequence s) {
+        if (text.contentEquals(s)) return;
+        text = s.toString();
+        onChanged.run();
+    }
+
+    /**
+     * 目前文字（未 trim）
+     */
+    public String get() {
+        return text;
+    }
+}
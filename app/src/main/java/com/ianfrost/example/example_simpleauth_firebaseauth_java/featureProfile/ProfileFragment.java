@@ -11,6 +11,7 @@ import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import com.ianfrost.example.example_simpleauth_firebaseauth_java.MainViewModel;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.PreInflatedViews;
 import com.ianfrost.example.example_simpleauth_firebaseauth_java.R;
 import com.ianfrost.example.example_simpleauth_firebaseauth_java.databinding.FragmentProfileBinding;
 
@@ -25,7 +26,10 @@ public class ProfileFragment extends Fragment {
 
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
-        binding = FragmentProfileBinding.inflate(inflater, container, false);
+        // 有預先 inflate 的版面時直接綁定
+        View preInflated = PreInflatedViews.take(this, R.layout.fragment_profile);
+        binding = preInflated != null ? FragmentProfileBinding.bind(preInflated)
+                : FragmentProfileBinding.inflate(inflater, container, false);
         return binding.getRoot();
     }
 
@@ -39,6 +43,8 @@ public class ProfileFragment extends Fragment {
         parentViewModel.getUser().observe(getViewLifecycleOwner(), user -> {
             if (user != null) {
                 binding.content.setText(getString(R.string.Profile_Welcome, user.getEmail()));
+                // 用戶資料已顯示，回報完整顯示時間(TTFD)
+                requireActivity().reportFullyDrawn();
             }
         });
 
@@ -0,0 +1,27 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.data;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.startup.Initializer;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * REST 驗證引擎的建置不含 Analytics（不依賴 Play services），回傳 false 表示未開啟
+ */
+public class AnalyticsInitializer implements Initializer<Boolean> {
+
+    @NonNull
+    @Override
+    public Boolean create(@NonNull Context context) {
+        return Boolean.FALSE;
+    }
+
+    @NonNull
+    @Override
+    public List<Class<? extends Initializer<?>>> dependencies() {
+        return Collections.emptyList();
+    }
+}
@@ -0,0 +1,41 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.data;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.core.content.ContextCompat;
+import androidx.core.os.TraceCompat;
+import androidx.startup.Initializer;
+
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.BuildConfig;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.R;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthBackend;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.rest.RestAuthBackend;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 建立 REST 驗證後端（-PauthEngine=rest，API key 取自 google-services 產生的資源）
+ */
+public class AuthBackendInitializer implements Initializer<AuthBackend> {
+
+    @NonNull
+    @Override
+    public AuthBackend create(@NonNull Context context) {
+        TraceCompat.beginSection("Startup.RestAuth");
+        try {
+            return new RestAuthBackend(RestAuthBackend.sharedClient(), BuildConfig.AUTH_REST_BASE_URL,
+                    context.getString(R.string.google_api_key), new PrefsRestSessionStorage(context),
+                    ContextCompat.getMainExecutor(context));
+        } finally {
+            TraceCompat.endSection();
+        }
+    }
+
+    @NonNull
+    @Override
+    public List<Class<? extends Initializer<?>>> dependencies() {
+        return Collections.emptyList();
+    }
+}
@@ -0,0 +1,53 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.data;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.rest.RestAuthBackend;
+
+/**
+ * 以 SharedPreferences 保存 REST 驗證後端的登入狀態（與 Firebase SDK 相同，refresh token 存於 App 私有資料）
+ */
+public class PrefsRestSessionStorage implements RestAuthBackend.SessionStorage {
+
+    private static final String PREFS_NAME = "auth_rest_session";
+    private static final String KEY_UID = "uid";
+    private static final String KEY_EMAIL = "email";
+    private static final String KEY_EMAIL_VERIFIED = "emailVerified";
+    private static final String KEY_ID_TOKEN = "idToken";
+    private static final String KEY_REFRESH_TOKEN = "refreshToken";
+    private static final String KEY_EXPIRES_AT = "expiresAt";
+
+    private final SharedPreferences prefs;
+
+    public PrefsRestSessionStorage(Context context) {
+        this.prefs = context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    @Override
+    public RestAuthBackend.Session load() {
+        String uid = prefs.getString(KEY_UID, null);
+        String refreshToken = prefs.getString(KEY_REFRESH_TOKEN, null);
+        if (uid == null || refreshToken == null) {
+            return null;
+        }
+        return new RestAuthBackend.Session(uid, prefs.getString(KEY_EMAIL, null), prefs.getBoolean(KEY_EMAIL_VERIFIED, false),
+                prefs.getString(KEY_ID_TOKEN, null), refreshToken, prefs.getLong(KEY_EXPIRES_AT, 0));
+    }
+
+    @Override
+    public void save(RestAuthBackend.Session session) {
+        if (session == null) {
+            prefs.edit().clear().apply();
+            return;
+        }
+        prefs.edit()
+                .putString(KEY_UID, session.uid)
+                .putString(KEY_EMAIL, session.email)
+                .putBoolean(KEY_EMAIL_VERIFIED, session.emailVerified)
+                .putString(KEY_ID_TOKEN, session.idToken)
+                .putString(KEY_REFRESH_TOKEN, session.refreshToken)
+                .putLong(KEY_EXPIRES_AT, session.expiresAtMillis)
+                .apply();
+    }
+}
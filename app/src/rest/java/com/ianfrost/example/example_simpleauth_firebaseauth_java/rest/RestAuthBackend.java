@@ -0,0 +1,647 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.rest;
+
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthBackend;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthErrorCode;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthUser;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.ConnectionPrewarmer;
+import com.squareup.moshi.JsonDataException;
+import com.squareup.moshi.JsonReader;
+import com.squareup.moshi.JsonWriter;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.ConnectionPool;
+import okhttp3.FormBody;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ByteString;
+
+/**
+ * 直接呼叫 Identity Toolkit REST API 的驗證後端（不依賴 Firebase SDK 與 Play services）
+ * 共用同一個 OkHttpClient（連線池、HTTP/2 多工），回應以串流方式解析，不建立中間物件樹
+ * 用戶資料（uid、信箱、是否已驗證）取自 ID token 內容，refresh token 由 {@link SessionStorage} 保存
+ * 手機驗證只支援不需 reCAPTCHA 的環境（Auth emulator、測試號碼），不會自動讀取簡訊
+ * 回呼皆在建構時指定的 callbackExecutor
+ */
+public class RestAuthBackend implements AuthBackend {
+
+    // 正式環境；Auth emulator 為 http://<host>:9099/
+    public static final String DEFAULT_BASE_URL = "https://";
+
+    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+    // ID token 剩餘有效時間低於此值時先更新
+    private static final long EXPIRY_SKEW_MILLIS = 60_000L;
+    // 本機沒有登入用戶（不是後端回報的錯誤）
+    static final String NO_CURRENT_USER = "NO_CURRENT_USER";
+
+    private static volatile OkHttpClient sharedClient;
+
+    /**
+     * 保存登入狀態（含 refresh token），冷啟動時還原
+     */
+    public interface SessionStorage {
+        Session load();
+
+        void save(Session session);
+    }
+
+    /**
+     * 登入狀態（不可變）
+     */
+    public static final class Session {
+        public final String uid;
+        public final String email;
+        public final boolean emailVerified;
+        public final String idToken;
+        public final String refreshToken;
+        // ID token 到期時間(epoch 毫秒)
+        public final long expiresAtMillis;
+
+        public Session(String uid, String email, boolean emailVerified, String idToken, String refreshToken,
+                       long expiresAtMillis) {
+            this.uid = uid;
+            this.email = email;
+            this.emailVerified = emailVerified;
+            this.idToken = idToken;
+            this.refreshToken = refreshToken;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        Session withProfile(String email, boolean emailVerified) {
+            return new Session(uid, email, emailVerified, idToken, refreshToken, expiresAtMillis);
+        }
+    }
+
+    /**
+     * 手機驗證憑證：簡訊識別碼(sessionInfo)與驗證碼
+     */
+    static final class RestPhoneCredential implements PhoneCredential {
+        final String sessionInfo;
+        final String code;
+
+        RestPhoneCredential(String sessionInfo, String code) {
+            this.sessionInfo = sessionInfo;
+            this.code = code;
+        }
+    }
+
+    /**
+     * 重新寄送簡訊不需要 token，沿用介面標示已寄送過
+     */
+    static final class RestResendToken implements ResendToken {
+    }
+
+    private final OkHttpClient client;
+    private final String accountsUrl;
+    private final String tokenUrl;
+    private final String apiKey;
+    private final SessionStorage storage;
+    private final Executor callbackExecutor;
+    private final List<UserListener> listeners = new CopyOnWriteArrayList<>();
+    // 預先連線（在 OkHttp 的執行緒池執行，連線留在共用連線池）
+    private final ConnectionPrewarmer prewarmer;
+    private final List<String> prewarmUrls;
+
+    private Session session;
+
+    /**
+     * @param client           HTTP client，一般使用 {@link #sharedClient()}
+     * @param baseUrl          {@link #DEFAULT_BASE_URL} 或 emulator/stub 伺服器位址
+     * @param apiKey           Firebase 專案的 Web API key
+     * @param storage          登入狀態保存處
+     * @param callbackExecutor 回呼執行處（Android 為主執行緒）
+     */
+    public RestAuthBackend(OkHttpClient client, String baseUrl, String apiKey, SessionStorage storage,
+                           Executor callbackExecutor) {
+        String root = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+        this.client = client;
+        this.accountsUrl = root + "identitytoolkit.googleapis.com/v1/accounts:";
+        this.tokenUrl = root + "securetoken.googleapis.com/v1/token?key=" + apiKey;
+        this.apiKey = apiKey;
+        this.storage = storage;
+        this.callbackExecutor = callbackExecutor;
+        this.session = storage.load();
+        this.prewarmer = new ConnectionPrewarmer(client.dispatcher().executorService(), this::connect);
+        this.prewarmUrls = Arrays.asList(root + "identitytoolkit.googleapis.com/", root + "securetoken.googleapis.com/");
+    }
+
+    /**
+     * 全 App 共用的 HTTP client（連線池保留閒置連線 5 分鐘，TLS 連線以 ALPN 協商 HTTP/2）
+     */
+    public static OkHttpClient sharedClient() {
+        OkHttpClient current = sharedClient;
+        if (current == null) {
+            synchronized (RestAuthBackend.class) {
+                current = sharedClient;
+                if (current == null) {
+                    current = new OkHttpClient.Builder()
+                            .connectionPool(new ConnectionPool(4, 5, TimeUnit.MINUTES))
+                            .connectTimeout(10, TimeUnit.SECONDS)
+                            .callTimeout(30, TimeUnit.SECONDS)
+                            .build();
+                    sharedClient = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    @Override
+    public synchronized AuthUser getCurrentUser() {
+        return userOf(session);
+    }
+
+    @Override
+    public void signIn(String email, String password, Callback<AuthUser> callback) {
+        call(accounts("signInWithPassword",
+                "email", email, "password", password, "returnSecureToken", true), (reply, error) -> {
+            if (error != null) {
+                deliver(callback, null, error);
+            } else {
+                deliver(callback, signedIn(reply), null);
+            }
+        });
+    }
+
+    @Override
+    public void createUser(String email, String password, Callback<AuthUser> callback) {
+        call(accounts("signUp",
+                "email", email, "password", password, "returnSecureToken", true), (reply, error) -> {
+            if (error != null) {
+                deliver(callback, null, error);
+            } else {
+                deliver(callback, signedIn(reply), null);
+            }
+        });
+    }
+
+    @Override
+    public void sendEmailVerification(AuthUser user, Callback<Void> callback) {
+        withToken(user, false, (idToken, tokenError) -> {
+            if (tokenError != null) {
+                deliver(callback, null, tokenError);
+                return;
+            }
+            call(accounts("sendOobCode", "requestType", "VERIFY_EMAIL", "idToken", idToken),
+                    (reply, error) -> deliver(callback, null, error));
+        });
+    }
+
+    @Override
+    public void applyActionCode(String code, Callback<Void> callback) {
+        call(accounts("update", "oobCode", code), (reply, error) -> deliver(callback, null, error));
+    }
+
+    @Override
+    public void verifyPhoneNumber(String phone, long timeoutSeconds, Object host, ResendToken resendToken,
+                                  PhoneCallbacks callbacks) {
+        call(accounts("sendVerificationCode", "phoneNumber", phone), (reply, error) -> {
+            if (error == null && reply.sessionInfo == null) {
+                error = new RestAuthException(200, "MISSING_SESSION_INFO");
+            }
+            final Exception failure = error;
+            callbackExecutor.execute(() -> {
+                if (failure != null) {
+                    callbacks.onVerificationFailed(failure);
+                } else {
+                    callbacks.onCodeSent(reply.sessionInfo, new RestResendToken());
+                }
+            });
+        });
+    }
+
+    @Override
+    public PhoneCredential getPhoneCredential(String verificationId, String code) {
+        return new RestPhoneCredential(verificationId, code);
+    }
+
+    @Override
+    public void reloadUser(AuthUser user, Callback<AuthUser> callback) {
+        withToken(user, false, (idToken, tokenError) -> {
+            if (tokenError != null) {
+                deliver(callback, null, tokenError);
+                return;
+            }
+            call(accounts("lookup", "idToken", idToken), (reply, error) -> {
+                if (error != null) {
+                    deliver(callback, null, error);
+                    return;
+                }
+                AuthUser reloaded;
+                synchronized (this) {
+                    if (session == null || !session.uid.equals(user.getUid())) {
+                        reloaded = null;
+                    } else {
+                        session = session.withProfile(reply.email, reply.emailVerified);
+                        storage.save(session);
+                        reloaded = userOf(session);
+                    }
+                }
+                if (reloaded == null) {
+                    deliver(callback, null, new RestAuthException(0, NO_CURRENT_USER));
+                } else {
+                    deliver(callback, reloaded, null);
+                }
+            });
+        });
+    }
+
+    @Override
+    public void getIdToken(AuthUser user, boolean forceRefresh, Callback<IdToken> callback) {
+        withToken(user, forceRefresh, (idToken, error) -> {
+            if (error != null) {
+                deliver(callback, null, error);
+                return;
+            }
+            long expiresAt;
+            synchronized (this) {
+                expiresAt = session != null && idToken.equals(session.idToken) ? session.expiresAtMillis : 0;
+            }
+            deliver(callback, new IdToken(idToken, expiresAt), null);
+        });
+    }
+
+    @Override
+    public void signInWithPhoneCredential(PhoneCredential credential, Callback<SignInResult> callback) {
+        RestPhoneCredential phone = (RestPhoneCredential) credential;
+        call(accounts("signInWithPhoneNumber", "sessionInfo", phone.sessionInfo, "code", phone.code), (reply, error) -> {
+            if (error != null) {
+                deliver(callback, null, error);
+            } else {
+                deliver(callback, new SignInResult(signedIn(reply), reply.newUser), null);
+            }
+        });
+    }
+
+    @Override
+    public void linkWithEmail(AuthUser user, String email, String password, Callback<AuthUser> callback) {
+        withToken(user, false, (idToken, tokenError) -> {
+            if (tokenError != null) {
+                deliver(callback, null, tokenError);
+                return;
+            }
+            call(accounts("update", "idToken", idToken, "email", email, "password", password, "returnSecureToken", true),
+                    (reply, error) -> {
+                        if (error != null) {
+                            deliver(callback, null, error);
+                        } else {
+                            deliver(callback, signedIn(reply), null);
+                        }
+                    });
+        });
+    }
+
+    @Override
+    public void deleteUser(AuthUser user, Callback<Void> callback) {
+        withToken(user, false, (idToken, tokenError) -> {
+            if (tokenError != null) {
+                deliver(callback, null, tokenError);
+                return;
+            }
+            call(accounts("delete", "idToken", idToken), (reply, error) -> {
+                if (error == null) {
+                    setSession(null);
+                }
+                deliver(callback, null, error);
+            });
+        });
+    }
+
+    @Override
+    public void signOut() {
+        setSession(null);
+    }
+
+    @Override
+    public AuthErrorCode mapError(Exception error) {
+        if (error instanceof IOException) {
+            return AuthErrorCode.NETWORK;
+        }
+        if (!(error instanceof RestAuthException)) {
+            return null;
+        }
+        switch (((RestAuthException) error).getReason()) {
+            case "EMAIL_NOT_FOUND":
+            case "INVALID_PASSWORD":
+            case "INVALID_LOGIN_CREDENTIALS":
+            case "USER_NOT_FOUND":
+            case "INVALID_ID_TOKEN":
+            case "INVALID_REFRESH_TOKEN":
+            case "TOKEN_EXPIRED":
+                return AuthErrorCode.INVALID_CREDENTIALS;
+            case "INVALID_EMAIL":
+                return AuthErrorCode.EMAIL_INVALID;
+            case "USER_DISABLED":
+                return AuthErrorCode.USER_DISABLED;
+            case "EMAIL_EXISTS":
+                return AuthErrorCode.EMAIL_IN_USE;
+            case "PHONE_NUMBER_EXISTS":
+            case "CREDENTIAL_ALREADY_IN_USE":
+                return AuthErrorCode.PHONE_IN_USE;
+            case "WEAK_PASSWORD":
+                return AuthErrorCode.WEAK_PASSWORD;
+            case "CREDENTIAL_TOO_OLD_LOGIN_AGAIN":
+                return AuthErrorCode.REQUIRES_RECENT_LOGIN;
+            case "INVALID_CODE":
+                return AuthErrorCode.VERIFY_CODE_REJECTED;
+            case "SESSION_EXPIRED":
+            case "INVALID_SESSION_INFO":
+            case "EXPIRED_OOB_CODE":
+            case "INVALID_OOB_CODE":
+                return AuthErrorCode.VERIFICATION_EXPIRED;
+            case "INVALID_PHONE_NUMBER":
+                return AuthErrorCode.PHONE_INVALID;
+            case "TOO_MANY_ATTEMPTS_TRY_LATER":
+            case "QUOTA_EXCEEDED":
+                return AuthErrorCode.TOO_MANY_REQUESTS;
+            case NO_CURRENT_USER:
+                return AuthErrorCode.USER_MISSING;
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public void addIdTokenListener(UserListener listener) {
+        if (listeners.contains(listener)) return;
+        listeners.add(listener);
+        // 與 Firebase 相同：註冊當下先回呼一次目前狀態
+        callbackExecutor.execute(() -> listener.onUserChanged(getCurrentUser()));
+    }
+
+    @Override
+    public void removeIdTokenListener(UserListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * 預先連線到 accounts 與 token 端點（不支援 reCAPTCHA，手機模式不另外連線）
+     */
+    @Override
+    public ConnectionPrewarmer.Handle prewarm(boolean phone) {
+        return prewarmer.warm(prewarmUrls);
+    }
+
+    /**
+     * HEAD 請求建立連線，關閉回應後連線回到連線池
+     */
+    private void connect(String url) throws IOException {
+        client.newCall(new Request.Builder().url(url).head().build()).execute().close();
+    }
+
+    /**
+     * 取得可用的 ID token：快取即將到期或 forceRefresh 時以 refresh token 更新（回呼在 OkHttp 執行緒）
+     */
+    private void withToken(AuthUser user, boolean forceRefresh, Callback<String> callback) {
+        Session current;
+        synchronized (this) {
+            current = session;
+        }
+        if (current == null || user == null || !current.uid.equals(user.getUid())) {
+            callback.onComplete(null, new RestAuthException(0, NO_CURRENT_USER));
+            return;
+        }
+        if (!forceRefresh && current.expiresAtMillis - EXPIRY_SKEW_MILLIS > System.currentTimeMillis()) {
+            callback.onComplete(current.idToken, null);
+            return;
+        }
+        RequestBody form = new FormBody.Builder()
+                .add("grant_type", "refresh_token")
+                .add("refresh_token", current.refreshToken)
+                .build();
+        call(new Request.Builder().url(tokenUrl).post(form).build(), (reply, error) -> {
+            if (error != null) {
+                callback.onComplete(null, error);
+                return;
+            }
+            AuthUser refreshed = signedIn(reply);
+            if (refreshed == null) {
+                callback.onComplete(null, new RestAuthException(0, NO_CURRENT_USER));
+            } else {
+                callback.onComplete(reply.idToken, null);
+            }
+        });
+    }
+
+    /**
+     * 取得新的 token（登入、註冊、綁定、更新 token）：依 ID token 內容更新登入狀態並通知監聽
+     */
+    private AuthUser signedIn(Reply reply) {
+        Reply claims = Reply.claimsOf(reply.idToken);
+        String uid = claims.localId != null ? claims.localId : reply.localId;
+        String email = claims.email != null ? claims.email : reply.email;
+        long expiresAt = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(reply.expiresInSeconds);
+        Session next;
+        synchronized (this) {
+            String refreshToken = reply.refreshToken != null ? reply.refreshToken
+                    : session != null ? session.refreshToken : null;
+            next = new Session(uid, email, claims.emailVerified, reply.idToken, refreshToken, expiresAt);
+        }
+        setSession(next);
+        return userOf(next);
+    }
+
+    private void setSession(Session next) {
+        synchronized (this) {
+            if (session == null && next == null) return;
+            session = next;
+            storage.save(next);
+        }
+        AuthUser user = userOf(next);
+        for (UserListener listener : listeners) {
+            callbackExecutor.execute(() -> listener.onUserChanged(user));
+        }
+    }
+
+    private static AuthUser userOf(Session session) {
+        return session == null ? null : new RestAuthUser(session.uid, session.email, session.emailVerified);
+    }
+
+    private <T> void deliver(Callback<T> callback, T value, Exception error) {
+        callbackExecutor.execute(() -> callback.onComplete(value, error));
+    }
+
+    /**
+     * accounts:* 請求（JSON body）
+     *
+     * @param fields 欄位名稱與值交錯排列，值為 String 或 Boolean
+     */
+    private Request accounts(String method, Object... fields) {
+        Buffer buffer = new Buffer();
+        try (JsonWriter writer = JsonWriter.of(buffer)) {
+            writer.beginObject();
+            for (int i = 0; i < fields.length; i += 2) {
+                writer.name((String) fields[i]);
+                Object value = fields[i + 1];
+                if (value instanceof Boolean) {
+                    writer.value((boolean) (Boolean) value);
+                } else {
+                    writer.value((String) value);
+                }
+            }
+            writer.endObject();
+        } catch (IOException e) {
+            // 寫入記憶體 Buffer 不會失敗
+            throw new IllegalStateException(e);
+        }
+        return new Request.Builder()
+                .url(accountsUrl + method + "?key=" + apiKey)
+                .post(RequestBody.create(buffer.readByteString(), JSON))
+                .build();
+    }
+
+    /**
+     * 送出請求並串流解析回應（回呼在 OkHttp 執行緒），非 2xx 或含 error 時回傳 {@link RestAuthException}
+     */
+    private void call(Request request, Callback<Reply> callback) {
+        client.newCall(request).enqueue(new okhttp3.Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                callback.onComplete(null, e);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                Reply reply;
+                Exception error = null;
+                try (Response closing = response) {
+                    ResponseBody body = closing.body();
+                    reply = body == null ? new Reply() : Reply.read(body.source());
+                    if (!closing.isSuccessful() || reply.errorMessage != null) {
+                        error = new RestAuthException(closing.code(),
+                                reply.errorMessage != null ? reply.errorMessage : "HTTP_" + closing.code());
+                    }
+                } catch (IOException | JsonDataException e) {
+                    reply = null;
+                    error = e;
+                }
+                callback.onComplete(error == null ? reply : null, error);
+            }
+        });
+    }
+
+    /**
+     * 回應中用到的欄位（accounts:*、securetoken、accounts:lookup 的 users[0]、ID token 內容共用）
+     * 以 {@link JsonReader.Options} 比對欄位名稱，不需要的欄位直接略過
+     */
+    static final class Reply {
+        private static final JsonReader.Options NAMES = JsonReader.Options.of(
+                "idToken", "id_token", "refreshToken", "refresh_token", "expiresIn", "expires_in",
+                "localId", "user_id", "email", "emailVerified", "email_verified", "isNewUser",
+                "sessionInfo", "users", "error", "message");
+
+        String idToken;
+        String refreshToken;
+        long expiresInSeconds;
+        String localId;
+        String email;
+        boolean emailVerified;
+        boolean newUser;
+        String sessionInfo;
+        String errorMessage;
+
+        static Reply read(BufferedSource source) throws IOException {
+            Reply reply = new Reply();
+            JsonReader reader = JsonReader.of(source);
+            reader.setLenient(true);
+            readObject(reader, reply);
+            return reply;
+        }
+
+        /**
+         * 解析 ID token（JWT）內容中的 user_id、email、email_verified，失敗時各欄位為預設值
+         */
+        static Reply claimsOf(String idToken) {
+            Reply claims = new Reply();
+            if (idToken == null) return claims;
+            String[] parts = idToken.split("\\.");
+            ByteString payload = parts.length >= 2 ? ByteString.decodeBase64(parts[1]) : null;
+            if (payload == null) return claims;
+            try {
+                readObject(JsonReader.of(new Buffer().write(payload)), claims);
+            } catch (IOException | JsonDataException e) {
+                return new Reply();
+            }
+            return claims;
+        }
+
+        private static void readObject(JsonReader reader, Reply reply) throws IOException {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.selectName(NAMES)) {
+                    case 0:
+                    case 1:
+                        reply.idToken = nextString(reader);
+                        break;
+                    case 2:
+                    case 3:
+                        reply.refreshToken = nextString(reader);
+                        break;
+                    case 4:
+                    case 5:
+                        reply.expiresInSeconds = reader.nextLong();
+                        break;
+                    case 6:
+                    case 7:
+                        reply.localId = nextString(reader);
+                        break;
+                    case 8:
+                        reply.email = nextString(reader);
+                        break;
+                    case 9:
+                    case 10:
+                        reply.emailVerified = reader.nextBoolean();
+                        break;
+                    case 11:
+                        reply.newUser = reader.nextBoolean();
+                        break;
+                    case 12:
+                        reply.sessionInfo = nextString(reader);
+                        break;
+                    case 13:
+                        // accounts:lookup 只取第一個用戶
+                        reader.beginArray();
+                        if (reader.hasNext()) readObject(reader, reply);
+                        while (reader.hasNext()) reader.skipValue();
+                        reader.endArray();
+                        break;
+                    case 14:
+                        // {"error": {"code": 400, "message": "EMAIL_EXISTS"}}，少數端點為字串
+                        if (reader.peek() == JsonReader.Token.BEGIN_OBJECT) {
+                            readObject(reader, reply);
+                        } else {
+                            reply.errorMessage = nextString(reader);
+                        }
+                        break;
+                    case 15:
+                        reply.errorMessage = nextString(reader);
+                        break;
+                    default:
+                        reader.skipName();
+                        reader.skipValue();
+                        break;
+                }
+            }
+            reader.endObject();
+        }
+
+        private static String nextString(JsonReader reader) throws IOException {
+            if (reader.peek() == JsonReader.Token.NULL) {
+                return reader.nextNull();
+            }
+            return reader.nextString();
+        }
+    }
+}
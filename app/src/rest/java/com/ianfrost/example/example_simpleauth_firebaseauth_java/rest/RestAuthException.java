@@ -0,0 +1,35 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.rest;
+
+/**
+ * Identity Toolkit 回報的錯誤（不含堆疊，錯誤是預期中的結果）
+ */
+public class RestAuthException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int httpCode;
+    private final String reason;
+
+    public RestAuthException(int httpCode, String message) {
+        super(message, null, false, false);
+        this.httpCode = httpCode;
+        this.reason = reasonOf(message);
+    }
+
+    public int getHttpCode() {
+        return httpCode;
+    }
+
+    /**
+     * 錯誤代碼（例如 EMAIL_EXISTS），訊息中 " : " 後的說明不含在內
+     */
+    public String getReason() {
+        return reason;
+    }
+
+    private static String reasonOf(String message) {
+        if (message == null) return "";
+        int separator = message.indexOf(" : ");
+        return separator < 0 ? message.trim() : message.substring(0, separator).trim();
+    }
+}
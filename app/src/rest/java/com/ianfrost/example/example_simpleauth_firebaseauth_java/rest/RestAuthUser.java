@@ -0,0 +1,34 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.rest;
+
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthUser;
+
+/**
+ * REST 驗證後端的用戶（不可變快照，資料來自 ID token 或 accounts:lookup）
+ */
+public final class RestAuthUser implements AuthUser {
+
+    private final String uid;
+    private final String email;
+    private final boolean emailVerified;
+
+    public RestAuthUser(String uid, String email, boolean emailVerified) {
+        this.uid = uid;
+        this.email = email;
+        this.emailVerified = emailVerified;
+    }
+
+    @Override
+    public String getUid() {
+        return uid;
+    }
+
+    @Override
+    public String getEmail() {
+        return email;
+    }
+
+    @Override
+    public boolean isEmailVerified() {
+        return emailVerified;
+    }
+}
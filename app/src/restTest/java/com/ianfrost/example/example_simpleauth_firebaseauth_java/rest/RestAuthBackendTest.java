@@ -0,0 +1,306 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.rest;
+
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthBackend;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthErrorCode;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthUser;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+
+import static org.junit.Assert.*;
+
+public class RestAuthBackendTest {
+
+    private static final String API_KEY = "test-key";
+
+    private final MockWebServer server = new MockWebServer();
+    private final MemoryStorage storage = new MemoryStorage();
+    private RestAuthBackend backend;
+
+    @Before
+    public void setUp() throws IOException {
+        server.start();
+        OkHttpClient client = new OkHttpClient.Builder().callTimeout(5, TimeUnit.SECONDS).build();
+        backend = new RestAuthBackend(client, server.url("/").toString(), API_KEY, storage, Runnable::run);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    /**
+     * 測試用 ID token（只有內容，不驗證簽章）
+     */
+    private static String idToken(String uid, String email, boolean verified) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String payload = "{\"user_id\":\"" + uid + "\",\"email\":\"" + email + "\",\"email_verified\":" + verified + "}";
+        return encoder.encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + ".sig";
+    }
+
+    private static MockResponse json(int code, String body) {
+        return new MockResponse().setResponseCode(code).setHeader("Content-Type", "application/json").setBody(body);
+    }
+
+    private static MockResponse signedIn(String uid, String email, boolean verified) {
+        return json(200, "{\"kind\":\"identitytoolkit#VerifyPasswordResponse\",\"localId\":\"" + uid + "\","
+                + "\"email\":\"" + email + "\",\"idToken\":\"" + idToken(uid, email, verified) + "\","
+                + "\"registered\":true,\"refreshToken\":\"refresh-" + uid + "\",\"expiresIn\":\"3600\"}");
+    }
+
+    private static <T> Result<T> await(CompletableFuture<Result<T>> future) throws Exception {
+        return future.get(5, TimeUnit.SECONDS);
+    }
+
+    private Result<AuthUser> signIn(String email, String password) throws Exception {
+        CompletableFuture<Result<AuthUser>> future = new CompletableFuture<>();
+        backend.signIn(email, password, (user, error) -> future.complete(new Result<>(user, error)));
+        return await(future);
+    }
+
+    @Test
+    public void signInParsesTokenClaimsAndSavesSession() throws Exception {
+        server.enqueue(signedIn("uid-1", "user@example.com", true));
+
+        Result<AuthUser> result = signIn("user@example.com", "secret1");
+
+        assertNull(result.error);
+        assertEquals("uid-1", result.value.getUid());
+        assertEquals("user@example.com", result.value.getEmail());
+        assertTrue(result.value.isEmailVerified());
+        assertEquals("refresh-uid-1", storage.session.refreshToken);
+        assertTrue(storage.session.expiresAtMillis > System.currentTimeMillis());
+        assertEquals("uid-1", backend.getCurrentUser().getUid());
+
+        RecordedRequest request = server.takeRequest();
+        assertEquals("/identitytoolkit.googleapis.com/v1/accounts:signInWithPassword?key=" + API_KEY, request.getPath());
+        String body = request.getBody().readUtf8();
+        assertTrue(body.contains("\"email\":\"user@example.com\""));
+        assertTrue(body.contains("\"returnSecureToken\":true"));
+    }
+
+    @Test
+    public void errorObjectBecomesRestAuthException() throws Exception {
+        server.enqueue(json(400, "{\"error\":{\"code\":400,\"message\":\"EMAIL_EXISTS\","
+                + "\"errors\":[{\"message\":\"EMAIL_EXISTS\",\"domain\":\"global\",\"reason\":\"invalid\"}]}}"));
+
+        CompletableFuture<Result<AuthUser>> future = new CompletableFuture<>();
+        backend.createUser("user@example.com", "secret1", (user, error) -> future.complete(new Result<>(user, error)));
+        Result<AuthUser> result = await(future);
+
+        assertNull(result.value);
+        RestAuthException error = (RestAuthException) result.error;
+        assertEquals(400, error.getHttpCode());
+        assertEquals("EMAIL_EXISTS", error.getReason());
+        assertEquals(AuthErrorCode.EMAIL_IN_USE, backend.mapError(error));
+        assertNull(backend.getCurrentUser());
+    }
+
+    @Test
+    public void applyActionCodeSendsOobCodeWithoutSession() throws Exception {
+        server.enqueue(json(200, "{\"email\":\"user@example.com\",\"emailVerified\":true}"));
+        server.enqueue(json(400, "{\"error\":{\"code\":400,\"message\":\"INVALID_OOB_CODE\"}}"));
+
+        CompletableFuture<Result<Void>> applied = new CompletableFuture<>();
+        backend.applyActionCode("oob-1", (ignored, error) -> applied.complete(new Result<>(null, error)));
+        assertNull(await(applied).error);
+        RecordedRequest request = server.takeRequest();
+        assertEquals("/identitytoolkit.googleapis.com/v1/accounts:update?key=" + API_KEY, request.getPath());
+        assertTrue(request.getBody().readUtf8().contains("\"oobCode\":\"oob-1\""));
+
+        // 已使用或過期的連結
+        CompletableFuture<Result<Void>> reused = new CompletableFuture<>();
+        backend.applyActionCode("oob-1", (ignored, error) -> reused.complete(new Result<>(null, error)));
+        assertEquals(AuthErrorCode.VERIFICATION_EXPIRED, backend.mapError(await(reused).error));
+    }
+
+    @Test
+    public void errorDetailAfterSeparatorIsIgnored() throws Exception {
+        server.enqueue(json(400, "{\"error\":{\"code\":400,"
+                + "\"message\":\"WEAK_PASSWORD : Password should be at least 6 characters\"}}"));
+
+        Result<AuthUser> result = signIn("user@example.com", "123");
+
+        assertEquals("WEAK_PASSWORD", ((RestAuthException) result.error).getReason());
+        assertEquals(AuthErrorCode.WEAK_PASSWORD, backend.mapError(result.error));
+    }
+
+    @Test
+    public void httpErrorWithoutMessageUsesStatusCode() throws Exception {
+        server.enqueue(json(503, "{}"));
+
+        Result<AuthUser> result = signIn("user@example.com", "secret1");
+
+        assertEquals("HTTP_503", ((RestAuthException) result.error).getReason());
+        assertNull(backend.mapError(result.error));
+    }
+
+    @Test
+    public void malformedBodyFailsWithoutSession() throws Exception {
+        server.enqueue(json(200, "{\"idToken\":[1,2]}"));
+
+        Result<AuthUser> result = signIn("user@example.com", "secret1");
+
+        assertNull(result.value);
+        assertNotNull(result.error);
+        assertNull(backend.mapError(result.error));
+        assertNull(storage.session);
+    }
+
+    @Test
+    public void connectionFailureMapsToNetwork() throws Exception {
+        server.shutdown();
+
+        Result<AuthUser> result = signIn("user@example.com", "secret1");
+
+        assertTrue(result.error instanceof IOException);
+        assertEquals(AuthErrorCode.NETWORK, backend.mapError(result.error));
+    }
+
+    @Test
+    public void lookupReadsFirstUserOnly() throws Exception {
+        server.enqueue(signedIn("uid-1", "user@example.com", false));
+        AuthUser user = signIn("user@example.com", "secret1").value;
+        assertFalse(user.isEmailVerified());
+
+        server.enqueue(json(200, "{\"kind\":\"identitytoolkit#GetAccountInfoResponse\",\"users\":["
+                + "{\"localId\":\"uid-1\",\"email\":\"user@example.com\",\"emailVerified\":true,\"providerUserInfo\":[]},"
+                + "{\"localId\":\"uid-2\",\"email\":\"other@example.com\",\"emailVerified\":false}]}"));
+        CompletableFuture<Result<AuthUser>> future = new CompletableFuture<>();
+        backend.reloadUser(user, (reloaded, error) -> future.complete(new Result<>(reloaded, error)));
+        Result<AuthUser> result = await(future);
+
+        assertNull(result.error);
+        assertEquals("user@example.com", result.value.getEmail());
+        assertTrue(result.value.isEmailVerified());
+        assertTrue(storage.session.emailVerified);
+    }
+
+    @Test
+    public void reloadWithoutSessionReportsMissingUser() throws Exception {
+        CompletableFuture<Result<AuthUser>> future = new CompletableFuture<>();
+        backend.reloadUser(new RestAuthUser("uid-1", "user@example.com", false),
+                (reloaded, error) -> future.complete(new Result<>(reloaded, error)));
+        Result<AuthUser> result = await(future);
+
+        assertEquals(AuthErrorCode.USER_MISSING, backend.mapError(result.error));
+        assertEquals(0, server.getRequestCount());
+    }
+
+    @Test
+    public void phoneSignInReportsNewUser() throws Exception {
+        server.enqueue(json(200, "{\"idToken\":\"" + idToken("uid-9", "", false) + "\",\"refreshToken\":\"r\","
+                + "\"expiresIn\":\"3600\",\"localId\":\"uid-9\",\"isNewUser\":true,\"phoneNumber\":\"+886932111222\"}"));
+
+        CompletableFuture<Result<AuthBackend.SignInResult>> future = new CompletableFuture<>();
+        backend.signInWithPhoneCredential(backend.getPhoneCredential("session-1", "123456"),
+                (signIn, error) -> future.complete(new Result<>(signIn, error)));
+        Result<AuthBackend.SignInResult> result = await(future);
+
+        assertNull(result.error);
+        assertTrue(result.value.newUser);
+        assertEquals("uid-9", result.value.user.getUid());
+        String body = server.takeRequest().getBody().readUtf8();
+        assertTrue(body.contains("\"sessionInfo\":\"session-1\""));
+        assertTrue(body.contains("\"code\":\"123456\""));
+    }
+
+    @Test
+    public void codeSentWithoutSessionInfoFails() throws Exception {
+        server.enqueue(json(200, "{}"));
+
+        CompletableFuture<Exception> failed = new CompletableFuture<>();
+        backend.verifyPhoneNumber("+886932111222", 60, null, null, new AuthBackend.PhoneCallbacks() {
+            @Override
+            public void onVerificationCompleted(AuthBackend.PhoneCredential credential) {
+                failed.completeExceptionally(new AssertionError("不應自動完成"));
+            }
+
+            @Override
+            public void onVerificationFailed(Exception e) {
+                failed.complete(e);
+            }
+
+            @Override
+            public void onCodeSent(String verificationId, AuthBackend.ResendToken token) {
+                failed.completeExceptionally(new AssertionError("不應送出"));
+            }
+        });
+
+        assertEquals("MISSING_SESSION_INFO", ((RestAuthException) failed.get(5, TimeUnit.SECONDS)).getReason());
+    }
+
+    @Test
+    public void mapErrorCoversBackendReasons() {
+        assertEquals(AuthErrorCode.INVALID_CREDENTIALS, backend.mapError(new RestAuthException(400, "INVALID_LOGIN_CREDENTIALS")));
+        assertEquals(AuthErrorCode.INVALID_CREDENTIALS, backend.mapError(new RestAuthException(400, "EMAIL_NOT_FOUND")));
+        assertEquals(AuthErrorCode.USER_DISABLED, backend.mapError(new RestAuthException(400, "USER_DISABLED")));
+        assertEquals(AuthErrorCode.PHONE_IN_USE, backend.mapError(new RestAuthException(400, "CREDENTIAL_ALREADY_IN_USE")));
+        assertEquals(AuthErrorCode.VERIFY_CODE_REJECTED, backend.mapError(new RestAuthException(400, "INVALID_CODE")));
+        assertEquals(AuthErrorCode.VERIFICATION_EXPIRED, backend.mapError(new RestAuthException(400, "SESSION_EXPIRED")));
+        assertEquals(AuthErrorCode.TOO_MANY_REQUESTS,
+                backend.mapError(new RestAuthException(400, "TOO_MANY_ATTEMPTS_TRY_LATER : Too many unsuccessful login attempts")));
+        assertNull(backend.mapError(new RestAuthException(400, "SOMETHING_NEW")));
+        assertNull(backend.mapError(new IllegalStateException()));
+    }
+
+    @Test
+    public void claimsOfInvalidTokenAreEmpty() {
+        assertNull(RestAuthBackend.Reply.claimsOf(null).localId);
+        assertNull(RestAuthBackend.Reply.claimsOf("not-a-jwt").localId);
+        assertNull(RestAuthBackend.Reply.claimsOf("a.%%%.c").localId);
+        RestAuthBackend.Reply claims = RestAuthBackend.Reply.claimsOf(idToken("uid-1", "user@example.com", true));
+        assertEquals("uid-1", claims.localId);
+        assertTrue(claims.emailVerified);
+    }
+
+    @Test
+    public void replySkipsUnknownFieldsAndReadsNulls() throws IOException {
+        RestAuthBackend.Reply reply = RestAuthBackend.Reply.read(new Buffer().writeUtf8(
+                "{\"kind\":\"x\",\"nested\":{\"idToken\":\"ignored\"},\"idToken\":null,\"expires_in\":3600,"
+                        + "\"refresh_token\":\"r\",\"user_id\":\"uid-1\"}"));
+        assertNull(reply.idToken);
+        assertEquals(3600, reply.expiresInSeconds);
+        assertEquals("r", reply.refreshToken);
+        assertEquals("uid-1", reply.localId);
+        assertNull(reply.errorMessage);
+    }
+
+    private static final class Result<T> {
+        final T value;
+        final Exception error;
+
+        Result(T value, Exception error) {
+            this.value = value;
+            this.error = error;
+        }
+    }
+
+    private static final class MemoryStorage implements RestAuthBackend.SessionStorage {
+        volatile RestAuthBackend.Session session;
+
+        @Override
+        public RestAuthBackend.Session load() {
+            return session;
+        }
+
+        @Override
+        public void save(RestAuthBackend.Session session) {
+            this.session = session;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.core;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.Assert.*;
+
+public class AuthPipelineTest {
+
+    private final ManualScheduler scheduler = new ManualScheduler();
+    private final AuthPipeline.Cancellation cancellation = new AuthPipeline.Cancellation();
+    private final List<String> stages = new ArrayList<>();
+    private final List<Outcome> outcomes = new ArrayList<>();
+    private final List<Object> lateResults = new ArrayList<>();
+    // 尚未回呼的階段
+    private final List<AuthBackend.Callback<String>> running = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    private AuthPipeline.Environment environment(long deadlineMillis) {
+        return new AuthPipeline.Environment(Runnable::run, scheduler, deadlineMillis, cancellation,
+                AuthPipeline.Tracer.NONE, (stage, elapsedNanos, success) -> stages.add(stage + (success ? ":ok" : ":fail")));
+    }
+
+    private <I> AuthPipeline.Step<I, String> pending() {
+        return (input, cb) -> running.add(cb);
+    }
+
+    private <T> void run(AuthPipeline<T> pipeline, long deadlineMillis) {
+        pipeline.run(environment(deadlineMillis), (value, stage, error) -> outcomes.add(new Outcome(value, stage, error)));
+    }
+
+    @Test
+    public void stagesRunInOrderAndPassValues() {
+        run(AuthPipeline.<String>first("a", (ignored, cb) -> cb.onComplete("1", null))
+                .<String>then("b", (input, cb) -> cb.onComplete(input + "2", null)), 1_000);
+
+        assertEquals(1, outcomes.size());
+        assertEquals("12", outcomes.get(0).value);
+        assertNull(outcomes.get(0).error);
+        assertEquals(List.of("a:ok", "b:ok"), stages);
+        // 完成的階段取消逾時
+        assertTrue(scheduler.timers.stream().allMatch(ManualScheduler.Timer::isCancelled));
+    }
+
+    @Test
+    public void errorStopsPipeline() {
+        Exception failure = new Exception("boom");
+        run(AuthPipeline.<String>first("a", (ignored, cb) -> cb.onComplete(null, failure))
+                .then("b", pending()), 1_000);
+
+        assertEquals("a", outcomes.get(0).stage);
+        assertSame(failure, outcomes.get(0).error);
+        assertTrue(running.isEmpty());
+    }
+
+    @Test
+    public void throwingStepFailsStage() {
+        run(AuthPipeline.<String>first("a", (ignored, cb) -> {
+            throw new IllegalStateException("boom");
+        }), 1_000);
+
+        assertEquals("a", outcomes.get(0).stage);
+        assertTrue(outcomes.get(0).error instanceof IllegalStateException);
+    }
+
+    @Test
+    public void timeoutFailsStageAndLateSuccessGoesToHook() {
+        run(AuthPipeline.first("a", pending(), lateResults::add).then("b", pending()), 1_000);
+        assertEquals(1_000, scheduler.timers.get(0).delayMillis);
+
+        scheduler.timers.get(0).fire();
+        assertEquals(1, outcomes.size());
+        assertEquals("a", outcomes.get(0).stage);
+        assertTrue(outcomes.get(0).error instanceof AuthPipeline.StageTimeoutException);
+
+        // 逾時後才成功：交給補償，不開始下一個階段、不再回傳結果
+        running.get(0).onComplete("late", null);
+        assertEquals(List.of("late"), lateResults);
+        assertEquals(1, outcomes.size());
+        assertEquals(1, running.size());
+    }
+
+    @Test
+    public void lateErrorIsIgnored() {
+        run(AuthPipeline.first("a", pending(), lateResults::add), 1_000);
+        scheduler.timers.get(0).fire();
+
+        running.get(0).onComplete(null, new Exception("late"));
+        assertTrue(lateResults.isEmpty());
+        assertEquals(1, outcomes.size());
+    }
+
+    @Test
+    public void successBeforeTimeoutDoesNotCallHook() {
+        run(AuthPipeline.first("a", pending(), lateResults::add), 1_000);
+        running.get(0).onComplete("done", null);
+
+        // 已排程的逾時在取消前觸發也不影響結果
+        scheduler.timers.get(0).fire();
+        assertEquals(1, outcomes.size());
+        assertEquals("done", outcomes.get(0).value);
+        assertTrue(lateResults.isEmpty());
+    }
+
+    @Test
+    public void stageDeadlineOverridesDefault() {
+        run(AuthPipeline.<String>first("a", (ignored, cb) -> cb.onComplete("1", null))
+                .then("b", 0, pending())
+                .then("c", 50, pending()), 1_000);
+
+        // b 不設期限
+        assertEquals(1, scheduler.timers.size());
+        running.get(0).onComplete("2", null);
+        assertEquals(2, scheduler.timers.size());
+        assertEquals(50, scheduler.timers.get(1).delayMillis);
+    }
+
+    @Test
+    public void noDefaultDeadlineMeansNoTimer() {
+        run(AuthPipeline.first("a", pending()), 0);
+
+        assertTrue(scheduler.timers.isEmpty());
+        running.get(0).onComplete("done", null);
+        assertEquals("done", outcomes.get(0).value);
+    }
+
+    @Test
+    public void canceledBeforeRunDoesNotStartStage() {
+        cancellation.cancel();
+        run(AuthPipeline.first("a", pending()), 1_000);
+
+        assertTrue(running.isEmpty());
+        assertTrue(scheduler.timers.isEmpty());
+        assertEquals("a", outcomes.get(0).stage);
+        assertTrue(outcomes.get(0).error instanceof CancellationException);
+    }
+
+    @Test
+    public void cancelDuringStageFailsItAndLateSuccessGoesToHook() {
+        run(AuthPipeline.first("a", pending(), lateResults::add).then("b", pending()), 1_000);
+
+        cancellation.cancel();
+        assertEquals(1, outcomes.size());
+        assertTrue(outcomes.get(0).error instanceof CancellationException);
+        assertTrue(scheduler.timers.get(0).isCancelled());
+
+        running.get(0).onComplete("late", null);
+        assertEquals(List.of("late"), lateResults);
+        assertEquals(1, running.size());
+        assertEquals(List.of("a:fail"), stages);
+    }
+
+    @Test
+    public void timeoutAndCancelTogetherStillHandLateSuccessToHook() {
+        run(AuthPipeline.first("a", pending(), lateResults::add), 1_000);
+
+        // 逾時先結束此階段，之後的取消不影響已記錄的結束方式
+        scheduler.timers.get(0).fire();
+        cancellation.cancel();
+        assertEquals(1, outcomes.size());
+        assertTrue(outcomes.get(0).error instanceof AuthPipeline.StageTimeoutException);
+
+        running.get(0).onComplete("late", null);
+        assertEquals(List.of("late"), lateResults);
+    }
+
+    @Test
+    public void timeoutAfterCancelDoesNotLoseLateSuccess() {
+        run(AuthPipeline.first("a", pending(), lateResults::add), 1_000);
+
+        cancellation.cancel();
+        // 取消前已開始執行的逾時
+        scheduler.timers.get(0).fire();
+        assertEquals(1, outcomes.size());
+        assertTrue(outcomes.get(0).error instanceof CancellationException);
+
+        running.get(0).onComplete("late", null);
+        assertEquals(List.of("late"), lateResults);
+    }
+
+    @Test
+    public void cancelDuringLaterStageReportsThatStage() {
+        run(AuthPipeline.first("a", pending()).then("b", pending()), 1_000);
+
+        running.get(0).onComplete("1", null);
+        cancellation.cancel();
+        assertEquals(2, running.size());
+        assertTrue(outcomes.get(0).error instanceof CancellationException);
+        assertEquals("b", outcomes.get(0).stage);
+    }
+
+    @Test
+    public void cancelAfterCompletionIsIgnored() {
+        run(AuthPipeline.first("a", pending(), lateResults::add), 1_000);
+        running.get(0).onComplete("done", null);
+
+        cancellation.cancel();
+        assertEquals(1, outcomes.size());
+        assertNull(outcomes.get(0).error);
+        assertTrue(lateResults.isEmpty());
+    }
+
+    private static final class Outcome {
+        final Object value;
+        final String stage;
+        final Exception error;
+
+        Outcome(Object value, String stage, Exception error) {
+            this.value = value;
+            this.stage = stage;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.core;
+
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.AuthResult;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class AuthRateLimiterTest {
+
+    private static final AuthResult.AuthAction LOGIN = AuthResult.AuthAction.LOGIN;
+    private static final AuthResult.AuthAction PHONE = AuthResult.AuthAction.REGISTER_PHONE_VERIFY;
+    private static final String EMAIL = "user@example.com";
+
+    private final TestClock clock = new TestClock();
+    private final MemoryStorages.RateLimiterState storage = new MemoryStorages.RateLimiterState();
+
+    private AuthRateLimiter limiter() {
+        return new AuthRateLimiter(storage, clock, new Random(1));
+    }
+
+    @Test
+    public void identifierBucketAllowsCapacityThenWaits() {
+        AuthRateLimiter limiter = limiter();
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire(LOGIN, EMAIL));
+        }
+        assertEquals(12_000, limiter.tryAcquire(LOGIN, EMAIL));
+        // 其他信箱不受影響
+        assertEquals(0, limiter.tryAcquire(LOGIN, "other@example.com"));
+    }
+
+    @Test
+    public void tokensRefillOverTime() {
+        AuthRateLimiter limiter = limiter();
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire(LOGIN, EMAIL);
+        }
+        clock.advance(6_000);
+        assertEquals(6_000, limiter.tryAcquire(LOGIN, EMAIL));
+        clock.advance(6_000);
+        assertEquals(0, limiter.tryAcquire(LOGIN, EMAIL));
+    }
+
+    @Test
+    public void actionBucketLimitsAcrossIdentifiers() {
+        AuthRateLimiter limiter = limiter();
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire(PHONE, "+88691234567" + i));
+        }
+        assertEquals(60_000, limiter.tryAcquire(PHONE, "+886912345679"));
+    }
+
+    @Test
+    public void clockMovedBackDoesNotRefill() {
+        AuthRateLimiter limiter = limiter();
+        limiter.tryAcquire(PHONE, "+886912345678");
+        limiter.tryAcquire(PHONE, "+886912345678");
+        clock.advance(-3_600_000);
+        assertTrue(limiter.tryAcquire(PHONE, "+886912345678") > 0);
+    }
+
+    @Test
+    public void networkFailuresBackOffExponentiallyWithJitter() {
+        AuthRateLimiter limiter = limiter();
+        limiter.record(LOGIN, EMAIL, AuthBackend.FailureKind.NETWORK);
+        long first = limiter.getCooldownMillis(LOGIN, EMAIL);
+        assertTrue(first >= 1_000 && first <= 2_000);
+
+        limiter.record(LOGIN, EMAIL, AuthBackend.FailureKind.NETWORK);
+        long second = limiter.getCooldownMillis(LOGIN, EMAIL);
+        assertTrue(second >= 2_000 && second <= 4_000);
+        assertEquals(second, limiter.tryAcquire(LOGIN, EMAIL));
+
+        clock.advance(second);
+        assertEquals(0, limiter.tryAcquire(LOGIN, EMAIL));
+    }
+
+    @Test
+    public void tooManyRequestsStartsAtLongerBackoff() {
+        AuthRateLimiter limiter = limiter();
+        limiter.record(LOGIN, EMAIL, AuthBackend.FailureKind.TOO_MANY_REQUESTS);
+        long cooldown = limiter.getCooldownMillis(LOGIN, EMAIL);
+        assertTrue(cooldown >= 15_000 && cooldown <= 30_000);
+    }
+
+    @Test
+    public void backoffIsCapped() {
+        AuthRateLimiter limiter = limiter();
+        for (int i = 0; i < 40; i++) {
+            limiter.record(LOGIN, EMAIL, AuthBackend.FailureKind.TOO_MANY_REQUESTS);
+        }
+        assertTrue(limiter.getCooldownMillis(LOGIN, EMAIL) <= 15 * 60_000L);
+    }
+
+    @Test
+    public void successClearsBackoffAndOtherFailuresDoNotBackOff() {
+        AuthRateLimiter limiter = limiter();
+        limiter.record(LOGIN, EMAIL, AuthBackend.FailureKind.NETWORK);
+        limiter.record(LOGIN, EMAIL, null);
+        assertEquals(0, limiter.getCooldownMillis(LOGIN, EMAIL));
+
+        limiter.record(LOGIN, EMAIL, AuthBackend.FailureKind.OTHER);
+        assertEquals(0, limiter.getCooldownMillis(LOGIN, EMAIL));
+    }
+
+    @Test
+    public void stateSurvivesRestart() {
+        AuthRateLimiter limiter = limiter();
+        limiter.record(LOGIN, EMAIL, AuthBackend.FailureKind.NETWORK);
+        long cooldown = limiter.getCooldownMillis(LOGIN, EMAIL);
+
+        AuthRateLimiter restarted = limiter();
+        restarted.load();
+        assertEquals(cooldown, restarted.getCooldownMillis(LOGIN, EMAIL));
+    }
+
+    @Test
+    public void constructorDoesNotTouchStorage() {
+        storage.loads = 0;
+        AuthRateLimiter limiter = limiter();
+        assertEquals(0, storage.loads);
+        assertEquals(0, storage.writes);
+        // 尚未讀取時不在呼叫端讀取儲存
+        assertEquals(0, limiter.getCooldownMillis(LOGIN, EMAIL));
+        assertEquals(0, storage.loads);
+
+        limiter.load();
+        limiter.load();
+        assertEquals(1, storage.loads);
+        assertNotNull(storage.values.get(AuthRateLimiter.SALT_KEY));
+    }
+
+    @Test
+    public void firstAcquireLoadsSavedState() {
+        AuthRateLimiter limiter = limiter();
+        limiter.record(LOGIN, EMAIL, AuthBackend.FailureKind.NETWORK);
+
+        AuthRateLimiter restarted = limiter();
+        assertTrue(restarted.tryAcquire(LOGIN, EMAIL) > 0);
+    }
+
+    @Test
+    public void cooldownQueryDoesNotAddOrWriteState() {
+        AuthRateLimiter limiter = limiter();
+        limiter.tryAcquire(LOGIN, EMAIL);
+        Map<String, String> saved = new HashMap<>(storage.values);
+        int writes = storage.writes;
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, limiter.getCooldownMillis(LOGIN, "user" + i + "@example.com"));
+        }
+        clock.advance(60_000);
+        limiter.getCooldownMillis(LOGIN, EMAIL);
+        assertEquals(writes, storage.writes);
+        assertEquals(saved, storage.values);
+        // 查詢不回復額度：下一次送出依原本的狀態計算
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire(LOGIN, EMAIL));
+        }
+        assertTrue(limiter.tryAcquire(LOGIN, EMAIL) > 0);
+    }
+
+    @Test
+    public void savedKeysDoNotRevealIdentifier() {
+        AuthRateLimiter limiter = limiter();
+        limiter.tryAcquire(LOGIN, EMAIL);
+
+        for (String key : storage.values.keySet()) {
+            assertFalse(key.contains(EMAIL));
+            assertFalse(key.contains(Integer.toHexString(EMAIL.hashCode())));
+        }
+        // 每次安裝的鹽不同，相同信箱的 key 也不同
+        MemoryStorages.RateLimiterState otherInstall = new MemoryStorages.RateLimiterState();
+        new AuthRateLimiter(otherInstall, clock, new Random(1)).tryAcquire(LOGIN, EMAIL);
+        assertNotEquals(storage.values.get(AuthRateLimiter.SALT_KEY), otherInstall.values.get(AuthRateLimiter.SALT_KEY));
+        assertNotEquals(storage.values.keySet(), otherInstall.values.keySet());
+    }
+
+    @Test
+    public void eachRequestWritesOnce() {
+        AuthRateLimiter limiter = limiter();
+        limiter.load(); // 第一次讀取時寫入鹽
+        int before = storage.writes;
+        limiter.tryAcquire(LOGIN, EMAIL);
+        assertEquals(before + 1, storage.writes);
+        limiter.record(LOGIN, EMAIL, AuthBackend.FailureKind.NETWORK);
+        assertEquals(before + 2, storage.writes);
+        // 等待中不扣額度，也不寫入
+        limiter.tryAcquire(LOGIN, EMAIL);
+        assertEquals(before + 2, storage.writes);
+    }
+}
@@ -0,0 +1,173 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class AuthSessionStoreTest {
+
+    private static final String EMAIL = "user@example.com";
+    private static final String OTHER = "other@example.com";
+    private static final String PASSWORD = "secret123";
+
+    private final FakeAuthBackend backend = FakeAuthBackend.newBuilder().build();
+    private final MemoryStorages.SessionSnapshot storage = new MemoryStorages.SessionSnapshot();
+    // 收到的通知（未登入為 null）
+    private final List<AuthSession> changes = new ArrayList<>();
+    private AuthSessionStore store;
+
+    @Before
+    public void setUp() {
+        backend.addAccount(EMAIL, PASSWORD);
+        backend.addAccount(OTHER, PASSWORD);
+    }
+
+    private AuthSessionStore newStore() {
+        AuthSessionStore created = new AuthSessionStore(backend, storage);
+        created.addObserver(changes::add);
+        return created;
+    }
+
+    private AuthUser signIn(String email) {
+        List<AuthUser> signedIn = new ArrayList<>();
+        backend.signIn(email, PASSWORD, (user, error) -> signedIn.add(user));
+        return signedIn.get(0);
+    }
+
+    @Test
+    public void emitsOnlyWhenStateChanges() {
+        store = newStore();
+        store.start();
+        // 未登入且沒有快照：狀態相同，不通知
+        assertTrue(changes.isEmpty());
+
+        AuthUser user = signIn(EMAIL);
+        assertEquals(1, changes.size());
+        assertEquals(user.getUid(), changes.get(0).uid);
+        assertEquals(0, changes.get(0).tokenGeneration);
+
+        // 主動讀取：狀態相同不通知
+        store.refresh();
+        store.refresh();
+        assertEquals(1, changes.size());
+
+        backend.markEmailVerified(EMAIL);
+        store.refresh();
+        assertEquals(2, changes.size());
+        assertTrue(changes.get(1).emailVerified);
+
+        backend.signOut();
+        assertEquals(3, changes.size());
+        assertNull(changes.get(2));
+        assertNull(store.getCurrent());
+        assertEquals(3, storage.saves);
+    }
+
+    @Test
+    public void tokenEventsAdvanceGenerationAndNewUserResetsIt() {
+        store = newStore();
+        store.start();
+        signIn(EMAIL);
+        // 同一用戶再次登入：token 更新
+        signIn(EMAIL);
+        assertEquals(2, changes.size());
+        assertEquals(1, changes.get(1).tokenGeneration);
+
+        AuthUser other = signIn(OTHER);
+        assertEquals(3, changes.size());
+        assertEquals(other.getUid(), changes.get(2).uid);
+        assertEquals(0, changes.get(2).tokenGeneration);
+    }
+
+    @Test
+    public void snapshotIsAvailableBeforeBackendReports() {
+        storage.value = new AuthSession("uid-1", EMAIL, true, 3, null);
+        store = newStore();
+
+        AuthSession restored = store.getCurrent();
+        assertEquals("uid-1", restored.uid);
+        assertTrue(restored.emailVerified);
+        assertNull(restored.user);
+        // 第一次回呼前略過主動讀取
+        store.refresh();
+        assertSame(restored, store.getCurrent());
+        assertTrue(changes.isEmpty());
+        assertEquals(0, storage.saves);
+    }
+
+    @Test
+    public void firstCallbackReconcilesMatchingSnapshotWithoutNotifying() {
+        AuthUser user = signIn(EMAIL);
+        storage.value = new AuthSession(user.getUid(), EMAIL, false, 0, null);
+        store = newStore();
+
+        store.start();
+        assertTrue(changes.isEmpty());
+        assertEquals(0, storage.saves);
+        // 校正後帶有後端用戶參考
+        assertSame(user, store.getCurrent().user);
+    }
+
+    @Test
+    public void firstCallbackIsNotCountedAsTokenUpdate() {
+        AuthUser user = signIn(EMAIL);
+        storage.value = new AuthSession(user.getUid(), EMAIL, false, 2, null);
+        store = newStore();
+
+        store.start();
+        assertEquals(2, store.getCurrent().tokenGeneration);
+        signIn(EMAIL);
+        assertEquals(3, changes.get(0).tokenGeneration);
+    }
+
+    @Test
+    public void firstCallbackReplacesStaleSnapshot() {
+        storage.value = new AuthSession("uid-gone", EMAIL, false, 0, null);
+        store = newStore();
+
+        store.start();
+        assertEquals(1, changes.size());
+        assertNull(changes.get(0));
+        assertNull(storage.value);
+
+        AuthUser other = signIn(OTHER);
+        storage.value = new AuthSession("uid-gone", EMAIL, false, 0, null);
+        AuthSessionStore restarted = newStore();
+        restarted.start();
+        assertEquals(other.getUid(), restarted.getCurrent().uid);
+        assertEquals(other.getUid(), storage.value.uid);
+    }
+
+    @Test
+    public void stopDetachesFromBackendAndStartReconcilesAgain() {
+        store = newStore();
+        store.start();
+        store.start();
+        store.stop();
+
+        AuthUser user = signIn(EMAIL);
+        assertTrue(changes.isEmpty());
+
+        store.start();
+        assertEquals(1, changes.size());
+        assertEquals(user.getUid(), changes.get(0).uid);
+    }
+
+    @Test
+    public void removedObserverIsNotNotified() {
+        store = newStore();
+        List<AuthSession> removed = new ArrayList<>();
+        AuthSessionStore.Observer observer = removed::add;
+        store.addObserver(observer);
+        store.start();
+        store.removeObserver(observer);
+
+        signIn(EMAIL);
+        assertTrue(removed.isEmpty());
+        assertEquals(1, changes.size());
+    }
+}
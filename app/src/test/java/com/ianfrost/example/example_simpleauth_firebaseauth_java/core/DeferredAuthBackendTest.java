@@ -0,0 +1,121 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class DeferredAuthBackendTest {
+
+    private static final String EMAIL = "user@example.com";
+    private static final String PASSWORD = "secret123";
+
+    private final DeferredAuthBackend deferred = new DeferredAuthBackend();
+    private final FakeAuthBackend delegate = FakeAuthBackend.newBuilder().build();
+    private final List<String> events = new ArrayList<>();
+    // 記錄交給 executor 的工作，由測試手動執行
+    private final List<Runnable> executed = new ArrayList<>();
+    private final Executor executor = executed::add;
+
+    @Test
+    public void queuedCallsReplayInOrderOnceReady() {
+        deferred.createUser(EMAIL, PASSWORD, (user, error) -> events.add("create:" + (error == null)));
+        deferred.signOut();
+        deferred.whenReady(Runnable::run, () -> events.add("ready"));
+        // 依序送出時，登入在建立帳號之後才會成功
+        deferred.signIn(EMAIL, PASSWORD, (user, error) -> events.add("signIn:" + (error == null)));
+        assertTrue(events.isEmpty());
+        assertFalse(deferred.isReady());
+
+        deferred.setDelegate(delegate);
+        assertTrue(deferred.isReady());
+        assertEquals(List.of("create:true", "ready", "signIn:true"), events);
+        assertEquals(EMAIL, deferred.getCurrentUser().getEmail());
+    }
+
+    @Test
+    public void callsMadeDuringReplayRunAfterQueuedCalls() {
+        deferred.whenReady(Runnable::run, () -> {
+            events.add("first");
+            deferred.whenReady(Runnable::run, () -> events.add("nested"));
+        });
+        deferred.whenReady(Runnable::run, () -> events.add("second"));
+
+        deferred.setDelegate(delegate);
+        assertEquals(List.of("first", "second", "nested"), events);
+    }
+
+    @Test
+    public void whenReadyAlwaysDispatchesThroughExecutor() {
+        deferred.whenReady(executor, () -> events.add("before"));
+        deferred.setDelegate(delegate);
+        assertEquals(1, executed.size());
+        assertTrue(events.isEmpty());
+
+        // 已就緒時也不在呼叫端執行緒直接執行
+        deferred.whenReady(executor, () -> events.add("after"));
+        assertEquals(2, executed.size());
+        assertTrue(events.isEmpty());
+
+        executed.forEach(Runnable::run);
+        assertEquals(List.of("before", "after"), events);
+    }
+
+    @Test
+    public void defaultWhenReadyDispatchesThroughExecutor() {
+        delegate.whenReady(executor, () -> events.add("ready"));
+        assertTrue(events.isEmpty());
+        executed.get(0).run();
+        assertEquals(List.of("ready"), events);
+    }
+
+    @Test
+    public void getCurrentUserWaitsForDelegate() throws Exception {
+        delegate.createUser(EMAIL, PASSWORD, (user, error) -> { });
+        AtomicReference<AuthUser> seen = new AtomicReference<>();
+        Thread waiting = new Thread(() -> seen.set(deferred.getCurrentUser()));
+        waiting.start();
+        waiting.join(100);
+        assertTrue(waiting.isAlive());
+
+        deferred.setDelegate(delegate);
+        waiting.join(5_000);
+        assertFalse(waiting.isAlive());
+        assertEquals(EMAIL, seen.get().getEmail());
+    }
+
+    @Test
+    public void interruptedWaitFails() throws Exception {
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+        Thread waiting = new Thread(() -> {
+            try {
+                deferred.getCurrentUser();
+            } catch (IllegalStateException e) {
+                thrown.set(e);
+            }
+        });
+        waiting.start();
+        waiting.interrupt();
+        waiting.join(5_000);
+        assertNotNull(thrown.get());
+    }
+
+    @Test
+    public void mapErrorBeforeReadyIsNull() {
+        Exception error = new FakeAuthBackend.FakeAuthException("失敗", AuthErrorCode.NETWORK);
+        assertNull(deferred.mapError(error));
+
+        deferred.setDelegate(delegate);
+        assertEquals(AuthErrorCode.NETWORK, deferred.mapError(error));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void delegateCanOnlyBeSetOnce() {
+        deferred.setDelegate(delegate);
+        deferred.setDelegate(delegate);
+    }
+}
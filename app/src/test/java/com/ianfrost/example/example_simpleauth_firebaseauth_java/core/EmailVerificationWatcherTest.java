@@ -0,0 +1,202 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.core;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class EmailVerificationWatcherTest {
+
+    private static final String EMAIL = "user@example.com";
+    private static final String PASSWORD = "secret123";
+
+    private final TestClock clock = new TestClock();
+    private final ManualScheduler scheduler = new ManualScheduler();
+    private final List<AuthUser> verified = new ArrayList<>();
+    private FakeAuthBackend backend;
+    private EmailVerificationWatcher watcher;
+    private AuthUser user;
+
+    @Before
+    public void setUp() {
+        backend = FakeAuthBackend.newBuilder().build();
+        backend.addAccount(EMAIL, PASSWORD);
+        List<AuthUser> signedIn = new ArrayList<>();
+        backend.signIn(EMAIL, PASSWORD, (signed, error) -> signedIn.add(signed));
+        user = signedIn.get(0);
+        watcher = new EmailVerificationWatcher(backend, scheduler, verified::add, clock);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * 經過排程的等待時間後觸發唯一的排程
+     *
+     * @return 該排程的延遲毫秒數
+     */
+    private long fireNext() {
+        List<ManualScheduler.Timer> pending = scheduler.pending();
+        assertEquals(1, pending.size());
+        ManualScheduler.Timer timer = pending.get(0);
+        clock.advance(timer.delayMillis);
+        timer.fire();
+        return timer.delayMillis;
+    }
+
+    private static void assertJittered(long expected, long actual) {
+        assertTrue(actual + " 不在 " + expected + " ±20% 內",
+                actual >= expected - expected / 5 && actual <= expected + expected / 5);
+    }
+
+    @Test
+    public void backoffDoublesUpToMaximum() {
+        watcher.watch(user);
+        assertEquals(EmailVerificationWatcher.INITIAL_DELAY_MILLIS, fireNext());
+
+        long expected = EmailVerificationWatcher.INITIAL_DELAY_MILLIS;
+        for (int i = 0; i < 8; i++) {
+            assertJittered(expected, fireNext());
+            expected = Math.min(EmailVerificationWatcher.MAX_DELAY_MILLIS, expected * 2);
+        }
+        assertEquals(9, watcher.getTotalChecks());
+        assertTrue(verified.isEmpty());
+    }
+
+    @Test
+    public void stopsAfterMaxChecks() {
+        watcher.watch(user);
+        // 不推進時鐘：只受次數上限限制
+        for (int i = 0; i < EmailVerificationWatcher.MAX_CHECKS; i++) {
+            scheduler.pending().get(0).fire();
+        }
+        assertTrue(watcher.isWatching());
+
+        scheduler.pending().get(0).fire();
+        assertFalse(watcher.isWatching());
+        assertTrue(scheduler.pending().isEmpty());
+        assertEquals(EmailVerificationWatcher.MAX_CHECKS, watcher.getTotalChecks());
+    }
+
+    @Test
+    public void stopsAfterMaxWatchTime() {
+        watcher.watch(user);
+        fireNext();
+        clock.advance(EmailVerificationWatcher.MAX_WATCH_MILLIS);
+
+        fireNext();
+        assertFalse(watcher.isWatching());
+        assertEquals(1, watcher.getTotalChecks());
+    }
+
+    @Test
+    public void stopsAndNotifiesWhenVerified() {
+        watcher.watch(user);
+        fireNext();
+        fireNext();
+
+        backend.markEmailVerified(EMAIL);
+        fireNext();
+        assertEquals(1, verified.size());
+        assertTrue(verified.get(0).isEmailVerified());
+        assertFalse(watcher.isWatching());
+        assertTrue(scheduler.pending().isEmpty());
+        assertEquals(3, watcher.getTotalChecks());
+        assertEquals(clock.now() - TestClock.START_MILLIS, watcher.getLastVerifiedAfterMillis());
+    }
+
+    @Test
+    public void backgroundPausesAndForegroundChecksAtShortestInterval() {
+        watcher.watch(user);
+        fireNext();
+        fireNext();
+        fireNext();
+
+        watcher.setForeground(false);
+        assertTrue(scheduler.pending().isEmpty());
+        // 背景期間不檢查
+        clock.advance(10 * 60_000L);
+        assertTrue(scheduler.pending().isEmpty());
+
+        watcher.setForeground(true);
+        assertEquals(0, fireNext());
+        assertEquals(4, watcher.getTotalChecks());
+        // 回到最短間隔
+        assertJittered(EmailVerificationWatcher.INITIAL_DELAY_MILLIS, fireNext());
+    }
+
+    @Test
+    public void quickForegroundSwitchesWaitForMinimumInterval() {
+        watcher.watch(user);
+        fireNext();
+
+        clock.advance(500);
+        watcher.setForeground(false);
+        watcher.setForeground(true);
+        assertEquals(EmailVerificationWatcher.MIN_IMMEDIATE_INTERVAL_MILLIS - 500, fireNext());
+    }
+
+    @Test
+    public void watchInBackgroundWaitsForForeground() {
+        watcher.setForeground(false);
+        watcher.watch(user);
+        assertTrue(scheduler.pending().isEmpty());
+        watcher.checkNow();
+        assertTrue(scheduler.pending().isEmpty());
+
+        watcher.setForeground(true);
+        assertEquals(0, fireNext());
+        assertEquals(1, watcher.getTotalChecks());
+    }
+
+    @Test
+    public void checkNowChecksImmediatelyAndResetsBackoff() {
+        watcher.watch(user);
+        fireNext();
+        fireNext();
+        fireNext();
+        clock.advance(EmailVerificationWatcher.MIN_IMMEDIATE_INTERVAL_MILLIS);
+
+        watcher.checkNow();
+        assertEquals(0, fireNext());
+        assertJittered(EmailVerificationWatcher.INITIAL_DELAY_MILLIS, fireNext());
+    }
+
+    @Test
+    public void signOutStopsWatching() {
+        watcher.watch(user);
+        backend.signOut();
+
+        fireNext();
+        assertFalse(watcher.isWatching());
+        assertEquals(0, watcher.getTotalChecks());
+    }
+
+    @Test
+    public void watchingSameUserAgainKeepsSchedule() {
+        watcher.watch(user);
+        fireNext();
+        ManualScheduler.Timer pending = scheduler.pending().get(0);
+
+        watcher.watch(user);
+        assertEquals(List.of(pending), scheduler.pending());
+    }
+
+    @Test
+    public void stopCancelsPendingCheck() {
+        watcher.watch(user);
+        ManualScheduler.Timer pending = scheduler.pending().get(0);
+
+        watcher.stop();
+        assertTrue(pending.isCancelled());
+        // 取消前已開始執行的檢查不送出請求
+        pending.fire();
+        assertEquals(0, watcher.getTotalChecks());
+    }
+}
@@ -0,0 +1,199 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.core;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class IdTokenManagerTest {
+
+    private static final String EMAIL = "user@example.com";
+    private static final String OTHER = "other@example.com";
+    private static final String PASSWORD = "secret123";
+    private static final long LIFETIME_MILLIS = 60 * 60_000L;
+    private static final long REFRESH_AHEAD_MILLIS = 5 * 60_000L;
+    private static final long SKEW_MILLIS = 30_000L;
+
+    private final TestClock clock = new TestClock();
+    // 後端延遲（每個請求一個排程，觸發後才回呼）與先行更新各自使用手動排程
+    private final ManualScheduler backendScheduler = new ManualScheduler();
+    private final ManualScheduler refreshScheduler = new ManualScheduler();
+    private FakeAuthBackend backend;
+    private IdTokenManager manager;
+
+    @Before
+    public void setUp() {
+        backend = FakeAuthBackend.newBuilder()
+                .setLatency(100, 0, TimeUnit.MILLISECONDS)
+                .setScheduler(backendScheduler)
+                .setTokenLifetime(LIFETIME_MILLIS, TimeUnit.MILLISECONDS)
+                .setClock(clock)
+                .build();
+        backend.addAccount(EMAIL, PASSWORD);
+        backend.addAccount(OTHER, PASSWORD);
+        manager = new IdTokenManager(backend, refreshScheduler, clock, REFRESH_AHEAD_MILLIS, SKEW_MILLIS);
+    }
+
+    @After
+    public void tearDown() {
+        backendScheduler.shutdownNow();
+        refreshScheduler.shutdownNow();
+    }
+
+    /**
+     * 完成所有進行中的後端請求
+     */
+    private void completeBackendCalls() {
+        while (!backendScheduler.pending().isEmpty()) {
+            backendScheduler.pending().get(0).fire();
+        }
+    }
+
+    private void signIn(String email) {
+        backend.signIn(email, PASSWORD, (user, error) -> { });
+        completeBackendCalls();
+    }
+
+    private String fetchToken() throws Exception {
+        CompletableFuture<String> future = manager.getToken();
+        completeBackendCalls();
+        return future.get();
+    }
+
+    @Test
+    public void concurrentRequestsShareOneFetch() throws Exception {
+        signIn(EMAIL);
+        CompletableFuture<String> first = manager.getToken();
+        CompletableFuture<String> second = manager.getToken();
+        assertSame(first, second);
+        assertFalse(first.isDone());
+        assertEquals(1, manager.getFetchCount());
+        assertEquals(1, manager.getCoalescedCount());
+
+        completeBackendCalls();
+        String token = first.get();
+        assertEquals(token, manager.peekToken());
+        // 快取可用：不再送出請求
+        assertEquals(token, manager.getToken().get());
+        assertEquals(1, manager.getFetchCount());
+        assertEquals(1, manager.getHitCount());
+    }
+
+    @Test
+    public void refreshIsScheduledAheadOfExpiry() throws Exception {
+        signIn(EMAIL);
+        String first = fetchToken();
+        assertEquals(1, refreshScheduler.pending().size());
+        assertEquals(LIFETIME_MILLIS - REFRESH_AHEAD_MILLIS, refreshScheduler.pending().get(0).delayMillis);
+
+        clock.advance(LIFETIME_MILLIS - REFRESH_AHEAD_MILLIS);
+        refreshScheduler.pending().get(0).fire();
+        assertEquals(2, manager.getFetchCount());
+        // 更新完成前仍使用原本的 token
+        assertEquals(first, manager.peekToken());
+
+        completeBackendCalls();
+        String refreshed = manager.peekToken();
+        assertNotNull(refreshed);
+        assertNotEquals(first, refreshed);
+        assertEquals(1, refreshScheduler.pending().size());
+        assertEquals(LIFETIME_MILLIS - REFRESH_AHEAD_MILLIS, refreshScheduler.pending().get(0).delayMillis);
+    }
+
+    @Test
+    public void tokenNearExpiryIsNotUsedFromCache() throws Exception {
+        signIn(EMAIL);
+        fetchToken();
+
+        clock.advance(LIFETIME_MILLIS - SKEW_MILLIS - 1);
+        assertNotNull(manager.peekToken());
+        clock.advance(1);
+        assertNull(manager.peekToken());
+        manager.getToken();
+        assertEquals(2, manager.getFetchCount());
+    }
+
+    @Test
+    public void signOutFailsInFlightRequestAndDropsItsResult() throws Exception {
+        signIn(EMAIL);
+        CompletableFuture<String> pending = manager.getToken();
+
+        backend.signOut();
+        manager.onSessionChanged(null);
+        assertTrue(pending.isCompletedExceptionally());
+
+        completeBackendCalls();
+        assertNull(manager.peekToken());
+        assertTrue(refreshScheduler.pending().isEmpty());
+    }
+
+    @Test
+    public void signOutCancelsScheduledRefresh() throws Exception {
+        signIn(EMAIL);
+        fetchToken();
+        ManualScheduler.Timer refresh = refreshScheduler.pending().get(0);
+
+        backend.signOut();
+        manager.onSessionChanged(null);
+        assertTrue(refresh.isCancelled());
+        assertNull(manager.peekToken());
+
+        // 取消前已開始執行的更新不送出請求
+        refresh.fire();
+        assertEquals(1, manager.getFetchCount());
+    }
+
+    @Test
+    public void switchingUserDiscardsPreviousToken() throws Exception {
+        signIn(EMAIL);
+        String first = fetchToken();
+
+        signIn(OTHER);
+        manager.onSessionChanged(new AuthSession(backend.getCurrentUser().getUid(), OTHER, false, 0,
+                backend.getCurrentUser()));
+        assertNull(manager.peekToken());
+        String second = fetchToken();
+        assertNotEquals(first, second);
+        assertEquals(2, manager.getFetchCount());
+    }
+
+    @Test
+    public void sameUserKeepsCachedToken() throws Exception {
+        signIn(EMAIL);
+        String token = fetchToken();
+
+        AuthUser user = backend.getCurrentUser();
+        manager.onSessionChanged(new AuthSession(user.getUid(), EMAIL, true, 1, user));
+        assertEquals(token, manager.peekToken());
+    }
+
+    @Test
+    public void invalidateForcesNewToken() throws Exception {
+        signIn(EMAIL);
+        String first = fetchToken();
+
+        CompletableFuture<String> refreshed = manager.invalidate();
+        assertNull(manager.peekToken());
+        completeBackendCalls();
+        assertNotEquals(first, refreshed.get());
+        assertEquals(2, manager.getFetchCount());
+    }
+
+    @Test
+    public void signedOutRequestFails() {
+        CompletableFuture<String> future = manager.getToken();
+        assertTrue(future.isCompletedExceptionally());
+        try {
+            future.get();
+            fail();
+        } catch (InterruptedException | ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        assertEquals(0, manager.getFetchCount());
+    }
+}
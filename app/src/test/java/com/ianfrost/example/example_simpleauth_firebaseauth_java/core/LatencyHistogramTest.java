@@ -0,0 +1,92 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.core;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void smallValuesHaveExactBuckets() {
+        for (long micros = 0; micros < 16; micros++) {
+            assertEquals(micros, LatencyHistogram.upperBound(LatencyHistogram.index(micros)));
+        }
+    }
+
+    @Test
+    public void bucketsCoverValuesWithinOneEighth() {
+        Random random = new Random(1);
+        for (int i = 0; i < 100_000; i++) {
+            long micros = random.nextLong() >>> (27 + random.nextInt(37)); // 0 ~ 2^37
+            int index = LatencyHistogram.index(micros);
+            long upper = LatencyHistogram.upperBound(index);
+            long lower = index == 0 ? 0 : LatencyHistogram.upperBound(index - 1) + 1;
+            assertTrue(micros + " 不在分桶內", lower <= micros && micros <= upper);
+            assertTrue(micros + " 的分桶過寬", upper - micros <= micros / 8);
+        }
+    }
+
+    @Test
+    public void bucketBoundariesAtPowersOfTwo() {
+        for (int exponent = 4; exponent <= 36; exponent++) {
+            long power = 1L << exponent;
+            assertEquals(power - 1, LatencyHistogram.upperBound(LatencyHistogram.index(power - 1)));
+            assertEquals(LatencyHistogram.index(power - 1) + 1, LatencyHistogram.index(power));
+        }
+    }
+
+    @Test
+    public void hugeValuesGoToLastBucket() {
+        int last = LatencyHistogram.index((1L << 37) - 1);
+        assertEquals(last, LatencyHistogram.index(1L << 37));
+        assertEquals(last, LatencyHistogram.index(1L << 40));
+        assertEquals(last, LatencyHistogram.index(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void emptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMaxMicros());
+        assertEquals(0, histogram.getPercentileMicros(50));
+    }
+
+    @Test
+    public void percentilesFollowRecordedValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int millis = 1; millis <= 100; millis++) {
+            histogram.record(millis * 1000L);
+        }
+        assertEquals(100, histogram.getCount());
+        assertEquals(100_000, histogram.getMaxMicros());
+        assertWithinBucket(1_000, histogram.getPercentileMicros(0));
+        assertWithinBucket(50_000, histogram.getPercentileMicros(50));
+        assertWithinBucket(90_000, histogram.getPercentileMicros(90));
+        assertWithinBucket(99_000, histogram.getPercentileMicros(99));
+        assertEquals(100_000, histogram.getPercentileMicros(100));
+    }
+
+    @Test
+    public void percentileDoesNotExceedMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1_000);
+        // 分桶上限為 1023，回報不超過實際最大值
+        assertEquals(1_000, histogram.getPercentileMicros(99));
+    }
+
+    @Test
+    public void negativeValuesRecordedAsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.getMaxMicros());
+        assertEquals(0, histogram.getPercentileMicros(50));
+    }
+
+    private static void assertWithinBucket(long expected, long actual) {
+        assertTrue(actual + " 與 " + expected + " 不在同一分桶",
+                actual >= expected && actual <= LatencyHistogram.upperBound(LatencyHistogram.index(expected)));
+    }
+}
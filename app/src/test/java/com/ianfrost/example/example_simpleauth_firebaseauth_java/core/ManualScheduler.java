@@ -0,0 +1,93 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 測試用排程：只記錄排程，由測試以 {@link Timer#fire()} 手動觸發
+ */
+final class ManualScheduler extends ScheduledThreadPoolExecutor {
+    final List<Timer> timers = new ArrayList<>();
+
+    ManualScheduler() {
+        super(1);
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        Timer timer = new Timer(command, unit.toMillis(delay));
+        timers.add(timer);
+        return timer;
+    }
+
+    /**
+     * 尚未觸發也未取消的排程
+     */
+    List<Timer> pending() {
+        List<Timer> result = new ArrayList<>();
+        for (Timer timer : timers) {
+            if (!timer.isDone()) result.add(timer);
+        }
+        return result;
+    }
+
+    static final class Timer implements ScheduledFuture<Object> {
+        final Runnable command;
+        final long delayMillis;
+        private boolean cancelled;
+        private boolean fired;
+
+        Timer(Runnable command, long delayMillis) {
+            this.command = command;
+            this.delayMillis = delayMillis;
+        }
+
+        /**
+         * 執行排程的工作（已取消時仍會執行，模擬取消前已開始的排程）
+         */
+        void fire() {
+            fired = true;
+            command.run();
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(delayMillis, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getDelay(TimeUnit.MILLISECONDS), other.getDelay(TimeUnit.MILLISECONDS));
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            cancelled = true;
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public boolean isDone() {
+            return cancelled || fired;
+        }
+
+        @Override
+        public Object get() {
+            return null;
+        }
+
+        @Override
+        public Object get(long timeout, TimeUnit unit) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.core;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 測試用記憶體儲存，重新建立受測物件即模擬 App 重啟
+ */
+final class MemoryStorages {
+
+    private MemoryStorages() {
+    }
+
+    static final class RateLimiterState implements AuthRateLimiter.StateStorage {
+        final Map<String, String> values = new HashMap<>();
+        int loads;
+        int writes;
+
+        @Override
+        public Map<String, String> load() {
+            loads++;
+            return new HashMap<>(values);
+        }
+
+        @Override
+        public void save(Map<String, String> changed, Collection<String> removed) {
+            writes++;
+            for (String key : removed) {
+                values.remove(key);
+            }
+            values.putAll(changed);
+        }
+    }
+
+    static final class OfflineQueue implements OfflineAuthQueue.Storage {
+        final Map<String, byte[]> values = new HashMap<>();
+
+        @Override
+        public Map<String, byte[]> load() {
+            return new HashMap<>(values);
+        }
+
+        @Override
+        public void save(String key, byte[] sealed) {
+            values.put(key, sealed);
+        }
+
+        @Override
+        public void remove(String key) {
+            values.remove(key);
+        }
+    }
+
+    static final class SessionSnapshot implements AuthSessionStore.SnapshotStorage {
+        AuthSession value;
+        int saves;
+
+        @Override
+        public AuthSession load() {
+            return value;
+        }
+
+        @Override
+        public void save(AuthSession session) {
+            saves++;
+            value = session;
+        }
+    }
+}
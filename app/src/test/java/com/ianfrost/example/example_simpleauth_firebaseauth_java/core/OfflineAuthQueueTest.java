@@ -0,0 +1,241 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.core;
+
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.AuthResult;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+
+import static org.junit.Assert.*;
+
+public class OfflineAuthQueueTest {
+
+    private static final String PASSWORD = "secret123";
+    private static final String EMAIL = "user@example.com";
+
+    private final TestClock clock = new TestClock();
+    private final MemoryStorages.OfflineQueue storage = new MemoryStorages.OfflineQueue();
+    private final List<AuthResult> replayed = new ArrayList<>();
+    private final OfflineAuthQueue.Listener listener = replayed::add;
+    private final List<Boolean> drained = new ArrayList<>();
+    private SealedBox box;
+    private FakeAuthBackend backend;
+    private OfflineAuthQueue queue;
+
+    @Before
+    public void setUp() throws Exception {
+        KeyGenerator generator = KeyGenerator.getInstance("AES");
+        generator.init(128);
+        SecretKey key = generator.generateKey();
+        box = new SealedBox(() -> key);
+        backend = FakeAuthBackend.newBuilder().build();
+        queue = newQueue();
+    }
+
+    private OfflineAuthQueue newQueue() {
+        OfflineAuthQueue created = new OfflineAuthQueue(storage, box, clock);
+        created.setListener(listener);
+        return created;
+    }
+
+    private void drain() {
+        queue.drain(new AuthFlow(backend), drained::add);
+    }
+
+    private static AuthRequest request(String email) {
+        return new AuthRequest(email, PASSWORD, null, null, null);
+    }
+
+    @Test
+    public void sameEmailKeepsLatestRequest() throws Exception {
+        queue.enqueue(AuthResult.AuthAction.LOGIN, request(EMAIL));
+        queue.enqueue(AuthResult.AuthAction.REGISTER_NO_VERIFY, request("USER@example.com"));
+        assertEquals(1, queue.size());
+        assertEquals(1, storage.values.size());
+
+        drain();
+        assertEquals(List.of(false), drained);
+        assertEquals(1, replayed.size());
+        assertEquals(AuthResult.AuthAction.REGISTER_NO_VERIFY, replayed.get(0).action);
+        assertTrue(replayed.get(0).isSuccess);
+        assertEquals(0, queue.size());
+        assertTrue(storage.values.isEmpty());
+    }
+
+    @Test
+    public void savedEntriesDoNotContainPlaintext() throws Exception {
+        queue.enqueue(AuthResult.AuthAction.LOGIN, request(EMAIL));
+
+        String key = storage.values.keySet().iterator().next();
+        assertFalse(key.contains(EMAIL));
+        String sealed = new String(storage.values.get(key), StandardCharsets.ISO_8859_1);
+        assertFalse(sealed.contains(EMAIL));
+        assertFalse(sealed.contains(PASSWORD));
+    }
+
+    @Test
+    public void entriesSurviveRestartInEnqueueOrder() throws Exception {
+        queue.enqueue(AuthResult.AuthAction.REGISTER_NO_VERIFY, request("first@example.com"));
+        clock.advance(1_000);
+        queue.enqueue(AuthResult.AuthAction.REGISTER_NO_VERIFY, request("second@example.com"));
+
+        queue = newQueue();
+        assertEquals(2, queue.size());
+        // 佇列只在未登入時送出：每筆完成後登出
+        queue.setListener(result -> {
+            replayed.add(result);
+            backend.signOut();
+        });
+        drain();
+        assertEquals(2, replayed.size());
+        assertEquals("first@example.com", replayed.get(0).user.getEmail());
+        assertEquals("second@example.com", replayed.get(1).user.getEmail());
+    }
+
+    @Test
+    public void expiredEntriesAreDroppedAsNetworkFailure() throws Exception {
+        queue.enqueue(AuthResult.AuthAction.REGISTER_NO_VERIFY, request(EMAIL));
+        clock.advance(OfflineAuthQueue.MAX_AGE_MILLIS + 1);
+
+        drain();
+        assertEquals(List.of(false), drained);
+        assertEquals(AuthErrorCode.NETWORK, replayed.get(0).errorCode);
+        assertEquals(0, queue.size());
+        // 不送出：帳號沒有建立
+        assertNull(backend.getCurrentUser());
+    }
+
+    @Test
+    public void entryAtMaxAgeIsStillSent() throws Exception {
+        queue.enqueue(AuthResult.AuthAction.REGISTER_NO_VERIFY, request(EMAIL));
+        clock.advance(OfflineAuthQueue.MAX_AGE_MILLIS);
+
+        drain();
+        assertTrue(replayed.get(0).isSuccess);
+    }
+
+    @Test
+    public void networkFailureKeepsEntryAndAsksForRetry() throws Exception {
+        backend = FakeAuthBackend.newBuilder().setFailureRate(1).build();
+        queue.enqueue(AuthResult.AuthAction.REGISTER_NO_VERIFY, request(EMAIL));
+
+        drain();
+        assertEquals(List.of(true), drained);
+        assertTrue(replayed.isEmpty());
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    public void submitIsDroppedWhileSignedIn() throws Exception {
+        backend.addAccount("other@example.com", PASSWORD);
+        backend.signIn("other@example.com", PASSWORD, (user, error) -> { });
+        queue.enqueue(AuthResult.AuthAction.LOGIN, request(EMAIL));
+
+        drain();
+        assertEquals(List.of(false), drained);
+        assertTrue(replayed.isEmpty());
+        assertEquals(0, queue.size());
+        assertEquals("other@example.com", backend.getCurrentUser().getEmail());
+    }
+
+    @Test
+    public void verificationResendOnlySentForSameUser() throws Exception {
+        backend.createUser(EMAIL, PASSWORD, (user, error) -> { });
+        queue.enqueueVerificationResend(EMAIL);
+
+        drain();
+        assertEquals(1, replayed.size());
+        assertEquals(AuthResult.AuthAction.REGISTER_EMAIL_VERIFY, replayed.get(0).action);
+        assertTrue(replayed.get(0).isSuccess);
+        assertEquals(EMAIL, replayed.get(0).user.getEmail());
+
+        // 已登出：不送出也不回報
+        backend.signOut();
+        queue.enqueueVerificationResend(EMAIL);
+        drain();
+        assertEquals(1, replayed.size());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void clearRemovesEntriesAndPendingResults() throws Exception {
+        queue.removeListener(listener);
+        queue.enqueue(AuthResult.AuthAction.REGISTER_NO_VERIFY, request("first@example.com"));
+        drain();
+        queue.enqueue(AuthResult.AuthAction.REGISTER_NO_VERIFY, request("second@example.com"));
+
+        queue.clear();
+        assertEquals(0, queue.size());
+        assertTrue(storage.values.isEmpty());
+        assertEquals(0, newQueue().size());
+        // 清空前完成、尚未交給 Listener 的結果也一併丟棄
+        queue.setListener(listener);
+        assertTrue(replayed.isEmpty());
+    }
+
+    @Test
+    public void clearDuringDrainStopsRemainingEntries() throws Exception {
+        queue.enqueue(AuthResult.AuthAction.REGISTER_NO_VERIFY, request("first@example.com"));
+        clock.advance(1_000);
+        queue.enqueue(AuthResult.AuthAction.REGISTER_NO_VERIFY, request("second@example.com"));
+        queue.setListener(result -> {
+            replayed.add(result);
+            backend.signOut();
+            queue.clear(); // 例如用戶在此時登出
+        });
+
+        drain();
+        assertEquals(List.of(false), drained);
+        assertEquals(1, replayed.size());
+        assertEquals(0, queue.size());
+
+        // 清空後可以重新開始
+        queue.enqueue(AuthResult.AuthAction.REGISTER_NO_VERIFY, request("third@example.com"));
+        drain();
+        assertEquals(2, replayed.size());
+    }
+
+    @Test
+    public void resultsWaitForListener() throws Exception {
+        queue.removeListener(listener);
+        queue.enqueue(AuthResult.AuthAction.REGISTER_NO_VERIFY, request(EMAIL));
+        drain();
+        assertTrue(replayed.isEmpty());
+
+        queue.setListener(listener);
+        assertEquals(1, replayed.size());
+    }
+
+    @Test
+    public void undecryptableEntriesAreRemoved() throws Exception {
+        queue.enqueue(AuthResult.AuthAction.LOGIN, request(EMAIL));
+        String key = storage.values.keySet().iterator().next();
+        storage.values.get(key)[storage.values.get(key).length - 1] ^= 1;
+
+        assertEquals(0, newQueue().size());
+        assertTrue(storage.values.isEmpty());
+    }
+
+    @Test
+    public void otherFormatVersionsAreRemoved() throws Exception {
+        queue.enqueue(AuthResult.AuthAction.LOGIN, request(EMAIL));
+        String key = storage.values.keySet().iterator().next();
+        byte[] plain = box.open(storage.values.get(key), key.getBytes(StandardCharsets.UTF_8));
+        plain[0] = 2;
+        storage.values.put(key, box.seal(plain, key.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(0, newQueue().size());
+        assertTrue(storage.values.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void phoneRegistrationIsNotQueueable() throws Exception {
+        queue.enqueue(AuthResult.AuthAction.REGISTER_PHONE_VERIFY, request(EMAIL));
+    }
+}
@@ -0,0 +1,142 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.*;
+
+public class SingleFlightTest {
+
+    private final AtomicLong now = new AtomicLong(1_000);
+    private final List<Consumer<String>> started = new ArrayList<>();
+
+    private SingleFlight<String, String> flight(long ttlMillis) {
+        return new SingleFlight<>(result -> ttlMillis, now::get);
+    }
+
+    private SingleFlight.Operation<String> operation() {
+        return started::add;
+    }
+
+    @Test
+    public void concurrentCallsShareOneExecution() {
+        SingleFlight<String, String> flight = flight(0);
+        List<String> results = new ArrayList<>();
+
+        assertFalse(flight.execute("a", operation(), results::add));
+        assertTrue(flight.execute("a", operation(), results::add));
+        assertEquals(1, started.size());
+
+        started.get(0).accept("done");
+        assertEquals(List.of("done", "done"), results);
+        assertEquals(1, flight.getExecutedCount());
+        assertEquals(1, flight.getCoalescedCount());
+    }
+
+    @Test
+    public void differentKeysRunIndependently() {
+        SingleFlight<String, String> flight = flight(0);
+
+        assertFalse(flight.execute("a", operation(), result -> { }));
+        assertFalse(flight.execute("b", operation(), result -> { }));
+        assertEquals(2, started.size());
+    }
+
+    @Test
+    public void completedFlightStartsAgainWithoutCache() {
+        SingleFlight<String, String> flight = flight(0);
+        flight.execute("a", operation(), result -> { });
+        started.get(0).accept("first");
+
+        assertFalse(flight.execute("a", operation(), result -> { }));
+        assertEquals(2, started.size());
+    }
+
+    @Test
+    public void secondCompletionIsIgnored() {
+        SingleFlight<String, String> flight = flight(0);
+        List<String> results = new ArrayList<>();
+        flight.execute("a", operation(), results::add);
+
+        started.get(0).accept("first");
+        started.get(0).accept("second");
+        assertEquals(List.of("first"), results);
+    }
+
+    @Test
+    public void cachedResultServedUntilExpiry() {
+        SingleFlight<String, String> flight = flight(500);
+        flight.execute("a", operation(), result -> { });
+        started.get(0).accept("sent");
+
+        List<String> results = new ArrayList<>();
+        assertTrue(flight.execute("a", operation(), results::add));
+        assertEquals(List.of("sent"), results);
+        assertEquals(1, flight.getCacheHitCount());
+
+        now.addAndGet(500);
+        assertFalse(flight.execute("a", operation(), results::add));
+        assertEquals(2, started.size());
+    }
+
+    @Test
+    public void forgetDropsCachedResult() {
+        SingleFlight<String, String> flight = flight(500);
+        flight.execute("a", operation(), result -> { });
+        started.get(0).accept("sent");
+
+        flight.forget("a");
+        assertFalse(flight.execute("a", operation(), result -> { }));
+        assertEquals(2, started.size());
+    }
+
+    @Test
+    public void forgetDoesNotAffectInFlightRequest() {
+        SingleFlight<String, String> flight = flight(0);
+        flight.execute("a", operation(), result -> { });
+
+        flight.forget("a");
+        assertTrue(flight.execute("a", operation(), result -> { }));
+        assertEquals(1, started.size());
+    }
+
+    @Test
+    public void abandonStartsNewFlightAndSilencesOldWaiters() {
+        SingleFlight<String, String> flight = flight(0);
+        List<String> oldResults = new ArrayList<>();
+        List<String> newResults = new ArrayList<>();
+        flight.execute("a", operation(), oldResults::add);
+
+        flight.abandon("a");
+        assertFalse(flight.execute("a", operation(), newResults::add));
+        assertEquals(2, started.size());
+
+        // 被放棄的請求之後才完成：不回傳、不影響新的請求
+        started.get(0).accept("stale");
+        assertTrue(oldResults.isEmpty());
+        assertTrue(flight.execute("a", operation(), newResults::add));
+
+        started.get(1).accept("fresh");
+        assertEquals(List.of("fresh", "fresh"), newResults);
+    }
+
+    @Test
+    public void waiterJoiningDuringCompletionGetsNewFlight() {
+        SingleFlight<String, String> flight = flight(0);
+        List<String> results = new ArrayList<>();
+        flight.execute("a", operation(), result -> {
+            results.add(result);
+            // 回呼中再次送出：前一個請求已結束，重新執行
+            flight.execute("a", operation(), results::add);
+        });
+
+        started.get(0).accept("first");
+        assertEquals(2, started.size());
+        started.get(1).accept("second");
+        assertEquals(List.of("first", "second"), results);
+    }
+}
@@ -0,0 +1,37 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 測試用時鐘（毫秒），只在呼叫 {@link #advance} 時前進
+ */
+final class TestClock implements LongSupplier {
+    static final long START_MILLIS = 1_700_000_000_000L;
+
+    private final AtomicLong now;
+
+    TestClock() {
+        this(START_MILLIS);
+    }
+
+    TestClock(long startMillis) {
+        now = new AtomicLong(startMillis);
+    }
+
+    long now() {
+        return now.get();
+    }
+
+    /**
+     * @param millis 可為負數（模擬系統時間被往回調）
+     */
+    void advance(long millis) {
+        now.addAndGet(millis);
+    }
+
+    @Override
+    public long getAsLong() {
+        return now.get();
+    }
+}
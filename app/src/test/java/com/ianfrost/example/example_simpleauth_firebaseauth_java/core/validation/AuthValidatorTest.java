@@ -0,0 +1,84 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.core.validation;
+
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.AuthResult;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthErrorCode;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthRequest;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class AuthValidatorTest {
+
+    private final AuthValidator validator = new AuthValidator();
+
+    private static AuthRequest request(String email, String password, String phone, String verifyCode) {
+        return new AuthRequest(email, password, phone, null, verifyCode);
+    }
+
+    private static AuthRequest codeRequest(String verifyCode) {
+        return new AuthRequest("", "", "", "verification-id", verifyCode);
+    }
+
+    private AuthErrorCode error(AuthResult.AuthAction action, AuthRequest request) {
+        try {
+            validator.validate(action, request);
+            return null;
+        } catch (ValidationException e) {
+            return e.getCode();
+        }
+    }
+
+    @Test
+    public void loginSkipsPasswordPolicy() throws ValidationException {
+        AuthRequest request = request("user@example.com", "123", "", "");
+        assertSame(request, validator.validate(AuthResult.AuthAction.LOGIN, request));
+        assertEquals(AuthErrorCode.PASSWORD_EMPTY, error(AuthResult.AuthAction.LOGIN, request("user@example.com", "", "", "")));
+    }
+
+    @Test
+    public void emailCheckedBeforePassword() {
+        assertEquals(AuthErrorCode.EMAIL_EMPTY, error(AuthResult.AuthAction.REGISTER_NO_VERIFY, request("", "", "", "")));
+        assertEquals(AuthErrorCode.EMAIL_INVALID, error(AuthResult.AuthAction.REGISTER_EMAIL_VERIFY, request("user@", "", "", "")));
+        assertEquals(AuthErrorCode.PASSWORD_TOO_SHORT,
+                error(AuthResult.AuthAction.REGISTER_NO_VERIFY, request("user@example.com", "123", "", "")));
+    }
+
+    @Test
+    public void phoneRegistrationNormalizesNumber() throws ValidationException {
+        AuthRequest validated = validator.validate(AuthResult.AuthAction.REGISTER_PHONE_VERIFY,
+                request("user@example.com", "123456", "0932-111-222", ""));
+        assertEquals("+886932111222", validated.phone);
+        assertEquals("user@example.com", validated.email);
+
+        // 已是 E.164 時沿用原請求
+        AuthRequest normalized = request("user@example.com", "123456", "+886932111222", "");
+        assertSame(normalized, validator.validate(AuthResult.AuthAction.REGISTER_PHONE_VERIFY, normalized));
+    }
+
+    @Test
+    public void phoneRegistrationRejectsLandline() {
+        assertEquals(AuthErrorCode.PHONE_EMPTY,
+                error(AuthResult.AuthAction.REGISTER_PHONE_VERIFY, request("user@example.com", "123456", "", "")));
+        assertEquals(AuthErrorCode.PHONE_INVALID,
+                error(AuthResult.AuthAction.REGISTER_PHONE_VERIFY, request("user@example.com", "123456", "02-2345-6789", "")));
+        assertEquals(AuthErrorCode.PHONE_INVALID,
+                error(AuthResult.AuthAction.REGISTER_PHONE_VERIFY, request("user@example.com", "123456", "+886 7 234 5678", "")));
+    }
+
+    @Test
+    public void verifyCodeMustBeSixDigits() {
+        AuthResult.AuthAction action = AuthResult.AuthAction.REGISTER_PHONE_VERIFY_End;
+        assertEquals(AuthErrorCode.VERIFY_CODE_EMPTY, error(action, codeRequest("")));
+        assertEquals(AuthErrorCode.VERIFY_CODE_INVALID, error(action, codeRequest("12345")));
+        assertEquals(AuthErrorCode.VERIFY_CODE_INVALID, error(action, codeRequest("12345a")));
+        assertNull(error(action, codeRequest("123456")));
+    }
+
+    @Test
+    public void verifyCodeNeedsVerificationId() {
+        // 簡訊尚未送出
+        assertEquals(AuthErrorCode.VERIFY_CODE_EMPTY,
+                error(AuthResult.AuthAction.REGISTER_PHONE_VERIFY_End, request("", "", "", "123456")));
+    }
+}
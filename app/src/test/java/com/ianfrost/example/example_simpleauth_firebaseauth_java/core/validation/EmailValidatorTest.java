@@ -0,0 +1,70 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.core.validation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class EmailValidatorTest {
+
+    @Test
+    public void acceptsCommonAddresses() {
+        assertTrue(EmailValidator.isValid("user@example.com"));
+        assertTrue(EmailValidator.isValid("first.last+tag@mail.example.com.tw"));
+        assertTrue(EmailValidator.isValid("a_b-c@sub-domain.example.org"));
+        assertTrue(EmailValidator.isValid("user@[192.168.0.1]"));
+        // quoted local-part 內可以出現 @ 與空白
+        assertTrue(EmailValidator.isValid("\"john doe@home\"@example.com"));
+    }
+
+    @Test
+    public void rejectsMissingParts() {
+        assertFalse(EmailValidator.isValid(""));
+        assertFalse(EmailValidator.isValid("user"));
+        assertFalse(EmailValidator.isValid("@example.com"));
+        assertFalse(EmailValidator.isValid("user@"));
+        // domain 至少兩段
+        assertFalse(EmailValidator.isValid("user@localhost"));
+    }
+
+    @Test
+    public void rejectsBadDots() {
+        assertFalse(EmailValidator.isValid(".user@example.com"));
+        assertFalse(EmailValidator.isValid("user.@example.com"));
+        assertFalse(EmailValidator.isValid("us..er@example.com"));
+        assertFalse(EmailValidator.isValid("user@example..com"));
+        assertFalse(EmailValidator.isValid("user@example.com."));
+    }
+
+    @Test
+    public void rejectsBadCharacters() {
+        assertFalse(EmailValidator.isValid("us er@example.com"));
+        assertFalse(EmailValidator.isValid("user@exa_mple.com"));
+        assertFalse(EmailValidator.isValid("user@-example.com"));
+        assertFalse(EmailValidator.isValid("user@example-.com"));
+        assertFalse(EmailValidator.isValid("使用者@example.com"));
+        assertFalse(EmailValidator.isValid("\"unterminated@example.com"));
+    }
+
+    @Test
+    public void rejectsBadIpv4() {
+        assertFalse(EmailValidator.isValid("user@[256.0.0.1]"));
+        assertFalse(EmailValidator.isValid("user@[1.2.3]"));
+        assertFalse(EmailValidator.isValid("user@[1.2..3]"));
+    }
+
+    @Test
+    public void enforcesLengthLimits() {
+        String local64 = "a".repeat(64);
+        assertTrue(EmailValidator.isValid(local64 + "@example.com"));
+        assertFalse(EmailValidator.isValid(local64 + "a@example.com"));
+
+        String label63 = "b".repeat(63);
+        assertTrue(EmailValidator.isValid("user@" + label63 + ".com"));
+        assertFalse(EmailValidator.isValid("user@" + label63 + "b.com"));
+
+        // domain 最長 253
+        String domain = label63 + "." + label63 + "." + label63 + "." + "c".repeat(59) + ".tw";
+        assertEquals(254, domain.length());
+        assertFalse(EmailValidator.isValid("user@" + domain));
+    }
+}
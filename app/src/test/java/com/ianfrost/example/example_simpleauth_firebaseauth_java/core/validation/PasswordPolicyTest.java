@@ -0,0 +1,42 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.core.validation;
+
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthErrorCode;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PasswordPolicyTest {
+
+    @Test
+    public void firebaseDefaultOnlyChecksLength() {
+        PasswordPolicy policy = PasswordPolicy.FIREBASE_DEFAULT;
+        assertEquals(AuthErrorCode.PASSWORD_EMPTY, policy.check(""));
+        assertEquals(AuthErrorCode.PASSWORD_TOO_SHORT, policy.check("12345"));
+        assertNull(policy.check("123456"));
+        assertNull(policy.check("a".repeat(4096)));
+        assertEquals(AuthErrorCode.PASSWORD_TOO_LONG, policy.check("a".repeat(4097)));
+    }
+
+    @Test
+    public void requiredCharacterClassesReportedInOrder() {
+        PasswordPolicy policy = new PasswordPolicy(8, 64, true, true, true, true);
+        assertEquals(AuthErrorCode.PASSWORD_MISSING_UPPERCASE, policy.check("abcdefgh"));
+        assertEquals(AuthErrorCode.PASSWORD_MISSING_LOWERCASE, policy.check("ABCDEFGH"));
+        assertEquals(AuthErrorCode.PASSWORD_MISSING_DIGIT, policy.check("Abcdefgh"));
+        assertEquals(AuthErrorCode.PASSWORD_MISSING_SYMBOL, policy.check("Abcdefg1"));
+        assertNull(policy.check("Abcdef1!"));
+    }
+
+    @Test
+    public void nonAsciiCountsAsSymbol() {
+        PasswordPolicy policy = new PasswordPolicy(6, 64, false, false, false, true);
+        assertNull(policy.check("abcde密"));
+    }
+
+    @Test
+    public void lengthCheckedBeforeCharacterClasses() {
+        PasswordPolicy policy = new PasswordPolicy(8, 64, true, false, false, false);
+        assertEquals(AuthErrorCode.PASSWORD_TOO_SHORT, policy.check("abc"));
+    }
+}
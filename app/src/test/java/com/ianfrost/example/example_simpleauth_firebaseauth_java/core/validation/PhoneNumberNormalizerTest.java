@@ -0,0 +1,84 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.core.validation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PhoneNumberNormalizerTest {
+
+    private final PhoneNumberNormalizer tw = new PhoneNumberNormalizer(PhoneNumberNormalizer.TW);
+
+    @Test
+    public void domesticNumberGetsDefaultCountryCode() {
+        assertEquals("+886932111222", tw.normalize("0932111222"));
+        assertEquals("+886932111222", tw.normalize("0932 111 222"));
+        assertEquals("+886932111222", tw.normalize("0932-111-222"));
+        assertEquals("+886932111222", tw.normalize("(0932) 111.222"));
+    }
+
+    @Test
+    public void internationalNumberKeepsCountryCode() {
+        assertEquals("+886932111222", tw.normalize("+886932111222"));
+        // 國碼後多了國內前綴
+        assertEquals("+886932111222", tw.normalize("+886 0932 111 222"));
+        assertEquals("+85291234567", tw.normalize("+852 9123 4567"));
+        assertEquals("+819012345678", tw.normalize("+81 90 1234 5678"));
+        assertEquals("+12025550123", tw.normalize("+1 202 555 0123"));
+    }
+
+    @Test
+    public void unknownCountryCodeOnlyChecksE164Length() {
+        assertEquals("+4915112345678", tw.normalize("+49 151 1234 5678"));
+        assertNull(tw.normalize("+49 1234"));
+        assertNull(tw.normalize("+4915112345678901"));
+    }
+
+    @Test
+    public void rejectsMalformedInput() {
+        assertNull(tw.normalize(""));
+        assertNull(tw.normalize("+"));
+        assertNull(tw.normalize("0932a111222"));
+        assertNull(tw.normalize("09+32111222"));
+        assertNull(tw.normalize("++886932111222"));
+        assertNull(tw.normalize("09321112223"));
+        // 第一碼不合法
+        assertNull(tw.normalize("0132111222"));
+    }
+
+    @Test
+    public void landlineIsValidButNotMobile() {
+        // 台北市話 02-2345-6789
+        assertEquals("+886223456789", tw.normalize("02-2345-6789"));
+        assertTrue(tw.isValid("02-2345-6789"));
+        assertNull(tw.normalizeMobile("02-2345-6789"));
+        assertNull(tw.normalizeMobile("+886 2 2345 6789"));
+        // 8 碼市話
+        assertNull(tw.normalizeMobile("07-234-5678"));
+    }
+
+    @Test
+    public void mobileOnlyAcceptsTaiwanMobileNumbers() {
+        assertEquals("+886932111222", tw.normalizeMobile("0932111222"));
+        assertEquals("+886932111222", tw.normalizeMobile("+886932111222"));
+        assertEquals("+886932111222", tw.normalizeMobile("+886 0932 111 222"));
+        assertNull(tw.normalizeMobile("093211122"));
+    }
+
+    @Test
+    public void mobileOnlyForOtherRegions() {
+        assertEquals("+85291234567", tw.normalizeMobile("+852 9123 4567"));
+        assertNull(tw.normalizeMobile("+852 2123 4567"));
+        assertEquals("+819012345678", tw.normalizeMobile("+81 90 1234 5678"));
+        assertNull(tw.normalizeMobile("+81 3 1234 5678"));
+        // 無法區分行動/市話的地區不額外限制
+        assertEquals("+12025550123", tw.normalizeMobile("+1 202 555 0123"));
+        assertEquals("+4915112345678", tw.normalizeMobile("+49 151 1234 5678"));
+    }
+
+    @Test
+    public void otherDefaultRegionWithoutTrunkPrefix() {
+        PhoneNumberNormalizer hk = new PhoneNumberNormalizer(PhoneNumberNormalizer.HK);
+        assertEquals("+85291234567", hk.normalize("9123 4567"));
+        assertNull(hk.normalize("09123 4567"));
+    }
+}
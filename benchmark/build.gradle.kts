@@ -0,0 +1,51 @@
+// JVM 上執行的 JMH 效能量測，只編譯 :app 中不依賴 Android 的驗證流程程式碼（含 REST 驗證引擎）
+plugins {
+    `java-library`
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+sourceSets {
+    main {
+        java {
+            srcDir("../app/src/main/java")
+            srcDir("../app/src/rest/java")
+            include("**/core/**", "**/rest/**", "**/AuthResult.java")
+        }
+    }
+}
+
+dependencies {
+    implementation(libs.okhttp)
+    implementation(libs.moshi)
+    jmhImplementation(libs.mockwebserver)
+}
+
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    // gc profiler 提供 gc.alloc.rate / gc.alloc.rate.norm（每次操作配置量）
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+    // 只跑部分量測：./gradlew :benchmark:jmh -Pjmh.includes=AuthFlow
+    providers.gradleProperty("jmh.includes").orNull?.let { includes.add(it) }
+}
+
+// 將最新量測結果存為版本基準，跨版本比對用：./gradlew :benchmark:jmhSaveBaseline -Pjmh.baseline=1.0
+tasks.register<Copy>("jmhSaveBaseline") {
+    val baseline = providers.gradleProperty("jmh.baseline").orElse("latest")
+    from(layout.buildDirectory.file("results/jmh/results.json"))
+    into(layout.projectDirectory.dir("baselines"))
+    rename { "jmh-${baseline.get()}.json" }
+}
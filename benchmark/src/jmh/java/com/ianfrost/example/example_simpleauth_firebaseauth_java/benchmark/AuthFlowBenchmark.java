@@ -0,0 +1,77 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.benchmark;
+
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.AuthResult;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthFlow;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthRequest;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.FakeAuthBackend;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * doConfirm 分派量測：每個 AuthAction 走一次完整流程（後端零延遲、同步回呼）
+ * 只量測流程本身的 CPU 與配置成本，不含網路
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AuthFlowBenchmark {
+
+    private static final String EMAIL = "user@example.com";
+    private static final String PASSWORD = "secret123";
+
+    @Param({"LOGIN", "REGISTER_NO_VERIFY", "REGISTER_EMAIL_VERIFY", "REGISTER_PHONE_VERIFY", "REGISTER_PHONE_VERIFY_End"})
+    public AuthResult.AuthAction action;
+
+    private FakeAuthBackend backend;
+    private AuthFlow flow;
+    private AuthRequest request;
+    private AuthRequest emptyRequest;
+
+    @Setup
+    public void setup() {
+        backend = FakeAuthBackend.newBuilder().build();
+        flow = new AuthFlow(backend);
+        if (action == AuthResult.AuthAction.LOGIN) {
+            backend.addAccount(EMAIL, PASSWORD);
+        }
+
+        String[] verificationId = new String[1];
+        if (action == AuthResult.AuthAction.REGISTER_PHONE_VERIFY_End) {
+            // 先走一次階段1 取得 verificationId
+            flow.confirm(AuthResult.AuthAction.REGISTER_PHONE_VERIFY,
+                    new AuthRequest(EMAIL, PASSWORD, "+886932111111", null, null), null,
+                    result -> {
+                        if (result.verificationId != null) verificationId[0] = result.verificationId;
+                    });
+        }
+        request = new AuthRequest(EMAIL, PASSWORD, "+886932111111", verificationId[0], "123456");
+        emptyRequest = new AuthRequest("", "", "", "", "");
+    }
+
+    @Benchmark
+    public void confirm(Blackhole bh) {
+        flow.confirm(action, request, null, bh::consume);
+        if (action == AuthResult.AuthAction.REGISTER_PHONE_VERIFY) {
+            // 簡訊已送出結果會被短暫快取，清除後才會每次都走完整流程
+            flow.getSingleFlight().clearCache();
+        } else if (action != AuthResult.AuthAction.LOGIN) {
+            // 註冊類流程會建立帳號，移除後下一次才會再走成功路徑
+            backend.removeAccount(EMAIL);
+        }
+    }
+
+    @Benchmark
+    public void confirmEmptyInput(Blackhole bh) {
+        flow.confirm(action, emptyRequest, null, bh::consume);
+    }
+}
@@ -0,0 +1,77 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.benchmark;
+
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.AuthResult;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthErrorCode;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthException;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.FakeAuthBackend;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AuthResult 建立與錯誤量測，搭配 gc profiler（gc.alloc.rate.norm）觀察每次請求的配置量
+ * legacy* 為改用錯誤代碼前的寫法（每次建立例外並擷取 stack trace），作為對照
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AuthResultBenchmark {
+
+    private FakeAuthBackend backend;
+    private Exception backendError;
+
+    @Setup
+    public void setup() {
+        backend = FakeAuthBackend.newBuilder().build();
+        backendError = new FakeAuthBackend.FakeAuthException("帳號或密碼錯誤", AuthErrorCode.INVALID_CREDENTIALS);
+    }
+
+    @Benchmark
+    public AuthResult load() {
+        return AuthResult.load();
+    }
+
+    @Benchmark
+    public AuthResult success() {
+        return new AuthResult(AuthResult.AuthAction.LOGIN, true, null, null);
+    }
+
+    @Benchmark
+    public AuthResult emptyEmailError() {
+        // 與 AuthFlow 驗證失敗相同寫法：共用結果，不配置
+        return AuthResult.failure(AuthResult.AuthAction.LOGIN, AuthErrorCode.EMAIL_EMPTY);
+    }
+
+    @Benchmark
+    public AuthResult fallbackError() {
+        return AuthResult.failure(AuthResult.AuthAction.LOGIN, AuthErrorCode.LOGIN_FAILED);
+    }
+
+    @Benchmark
+    public AuthResult backendError() {
+        // 後端錯誤對應代碼並保留原始錯誤：不擷取 stack trace 的例外 + 結果
+        AuthErrorCode code = backend.mapError(backendError);
+        return AuthResult.failure(AuthResult.AuthAction.LOGIN,
+                new AuthException(code != null ? code : AuthErrorCode.LOGIN_FAILED, backendError));
+    }
+
+    @Benchmark
+    public void legacyEmptyEmailError(Blackhole blackhole) {
+        blackhole.consume(new IllegalArgumentException("Email 不可為空"));
+        blackhole.consume(new AuthResult(AuthResult.AuthAction.LOGIN, false, null, null));
+    }
+
+    @Benchmark
+    public void legacyFallbackError(Blackhole blackhole) {
+        blackhole.consume(new Exception("登入失敗"));
+        blackhole.consume(new AuthResult(AuthResult.AuthAction.LOGIN, false, null, null));
+    }
+}
@@ -0,0 +1,78 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.benchmark;
+
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthUser;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.FakeAuthBackend;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.IdTokenManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 8 個呼叫者同時取得 ID token 的延遲分布（看 p0.99、p0.999）
+ * 後端 token 有效 1 秒、重新取得需 20ms；DIRECT 每次直接向後端取得（到期時呼叫者等待更新），
+ * MANAGER 經由 {@link IdTokenManager}（到期前 300ms 背景更新、更新請求合併）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(8)
+public class IdTokenBenchmark {
+
+    private static final String EMAIL = "user@example.com";
+    private static final String PASSWORD = "secret123";
+
+    public enum Source {
+        DIRECT, MANAGER
+    }
+
+    @Param({"DIRECT", "MANAGER"})
+    public Source source;
+
+    private ScheduledExecutorService scheduler;
+    private FakeAuthBackend backend;
+    private AuthUser user;
+    private IdTokenManager manager;
+
+    @Setup
+    public void setup() throws Exception {
+        scheduler = Executors.newScheduledThreadPool(2);
+        backend = FakeAuthBackend.newBuilder()
+                .setLatency(20, 0, TimeUnit.MILLISECONDS)
+                .setScheduler(scheduler)
+                .setTokenLifetime(1, TimeUnit.SECONDS)
+                .build();
+        backend.addAccount(EMAIL, PASSWORD);
+        CompletableFuture<AuthUser> signedIn = new CompletableFuture<>();
+        backend.signIn(EMAIL, PASSWORD, (value, error) -> signedIn.complete(value));
+        user = signedIn.get(5, TimeUnit.SECONDS);
+        manager = new IdTokenManager(backend, scheduler, System::currentTimeMillis, 300, 50);
+    }
+
+    @TearDown
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Benchmark
+    public String getToken() throws Exception {
+        if (source == Source.MANAGER) {
+            return manager.getToken().get(5, TimeUnit.SECONDS);
+        }
+        CompletableFuture<String> token = new CompletableFuture<>();
+        backend.getIdToken(user, false, (value, error) -> token.complete(value.token));
+        return token.get(5, TimeUnit.SECONDS);
+    }
+}
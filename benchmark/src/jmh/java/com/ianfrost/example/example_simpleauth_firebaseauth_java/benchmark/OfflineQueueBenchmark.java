@@ -0,0 +1,135 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.benchmark;
+
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.AuthResult;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthFlow;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthRequest;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.FakeAuthBackend;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.OfflineAuthQueue;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.SealedBox;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+
+/**
+ * 離線佇列：網路恢復後把 N 筆保存的註冊全部送出的時間（送出前檢查、後端呼叫、移除）
+ * SampleTime 看整批送出的延遲分布，Throughput 為每秒可送完的批數（每秒筆數 = 批數 × entries）
+ * 後端每次呼叫模擬 latencyMillis 延遲，0 時只量佇列本身的開銷
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OfflineQueueBenchmark {
+
+    private static final String PASSWORD = "secret123";
+
+    @Param({"1", "20", "100"})
+    public int entries;
+
+    @Param({"0", "5"})
+    public long latencyMillis;
+
+    private ScheduledExecutorService scheduler;
+    private FakeAuthBackend backend;
+    private AuthFlow flow;
+    private OfflineAuthQueue queue;
+    private final List<String> emails = new ArrayList<>();
+    private int sequence;
+
+    @Setup
+    public void setup() throws Exception {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        backend = FakeAuthBackend.newBuilder()
+                .setLatency(latencyMillis, 0, TimeUnit.MILLISECONDS)
+                .setScheduler(scheduler)
+                .build();
+        flow = new AuthFlow(backend);
+        KeyGenerator generator = KeyGenerator.getInstance("AES");
+        generator.init(256);
+        SecretKey key = generator.generateKey();
+        queue = new OfflineAuthQueue(new MemoryStorage(), new SealedBox(() -> key));
+        // 註冊成功即登入，佇列只在未登入時送出：每筆完成後登出，量測全部送出
+        queue.setListener(result -> backend.signOut());
+    }
+
+    @TearDown
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * 離線時送出的註冊（每次新的信箱，不會被合併）
+     */
+    @Setup(Level.Invocation)
+    public void fill() throws Exception {
+        for (int i = 0; i < entries; i++) {
+            String email = "offline" + (sequence++) + "@example.com";
+            emails.add(email);
+            queue.enqueue(AuthResult.AuthAction.REGISTER_NO_VERIFY, new AuthRequest(email, PASSWORD, null, null, null));
+        }
+    }
+
+    /**
+     * 移除送出時建立的帳號，後端資料量不隨次數增加
+     */
+    @TearDown(Level.Invocation)
+    public void clearAccounts() {
+        for (String email : emails) {
+            backend.removeAccount(email);
+        }
+        emails.clear();
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.SampleTime, Mode.Throughput})
+    public boolean drain() throws Exception {
+        CompletableFuture<Boolean> drained = new CompletableFuture<>();
+        queue.drain(flow, drained::complete);
+        boolean retry = drained.get(30, TimeUnit.SECONDS);
+        if (retry || queue.size() != 0) {
+            throw new IllegalStateException("佇列未送完");
+        }
+        return retry;
+    }
+
+    /**
+     * 保存在記憶體（量測不含 SharedPreferences 寫入）
+     */
+    private static final class MemoryStorage implements OfflineAuthQueue.Storage {
+        private final Map<String, byte[]> values = new ConcurrentHashMap<>();
+
+        @Override
+        public Map<String, byte[]> load() {
+            return new HashMap<>(values);
+        }
+
+        @Override
+        public void save(String key, byte[] sealed) {
+            values.put(key, sealed);
+        }
+
+        @Override
+        public void remove(String key) {
+            values.remove(key);
+        }
+    }
+}
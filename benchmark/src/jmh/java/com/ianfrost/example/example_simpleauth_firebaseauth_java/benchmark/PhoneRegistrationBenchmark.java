@@ -0,0 +1,88 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.benchmark;
+
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.AuthResult;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthFlow;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthRequest;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.FakeAuthBackend;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 手機註冊：按下註冊到用戶登入完成的時間（後端每次呼叫模擬 20ms 延遲）
+ * NONE 為手動輸入驗證碼（不含用戶輸入時間），INSTANT / AUTO_RETRIEVAL 為自動驗證直接建立帳號並綁定
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PhoneRegistrationBenchmark {
+
+    private static final String PASSWORD = "secret123";
+    private static final String PHONE = "+886932111111";
+    private static final String CODE = "123456";
+
+    @Param({"NONE", "AUTO_RETRIEVAL", "INSTANT"})
+    public FakeAuthBackend.PhoneAutoVerify autoVerify;
+
+    private ScheduledExecutorService scheduler;
+    private FakeAuthBackend backend;
+    private AuthFlow flow;
+    private int sequence;
+
+    @Setup
+    public void setup() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        backend = FakeAuthBackend.newBuilder()
+                .setLatency(20, 0, TimeUnit.MILLISECONDS)
+                .setScheduler(scheduler)
+                .setVerificationCode(CODE)
+                .setPhoneAutoVerify(autoVerify)
+                .build();
+        flow = new AuthFlow(backend);
+    }
+
+    @TearDown
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Benchmark
+    public AuthResult registerToSignedIn() throws Exception {
+        String email = "user" + (sequence++) + "@example.com";
+        CompletableFuture<AuthResult> signedIn = new CompletableFuture<>();
+        flow.getSingleFlight().clearCache();
+        flow.confirm(AuthResult.AuthAction.REGISTER_PHONE_VERIFY, new AuthRequest(email, PASSWORD, PHONE, null, null), null,
+                result -> {
+                    if (result.action == AuthResult.AuthAction.REGISTER_PHONE_VERIFY_End) {
+                        signedIn.complete(result);
+                    } else if (result.verificationId != null) {
+                        if (autoVerify == FakeAuthBackend.PhoneAutoVerify.NONE) {
+                            // 手動輸入驗證碼後送出階段2
+                            flow.confirm(AuthResult.AuthAction.REGISTER_PHONE_VERIFY_End,
+                                    new AuthRequest(email, PASSWORD, PHONE, result.verificationId, CODE), null,
+                                    end -> {
+                                        if (end.action != AuthResult.AuthAction.LOAD) signedIn.complete(end);
+                                    });
+                        }
+                    } else if (result.action != AuthResult.AuthAction.LOAD) {
+                        signedIn.complete(result);
+                    }
+                });
+        AuthResult result = signedIn.get(5, TimeUnit.SECONDS);
+        // 同一支手機號碼只能註冊一次，移除後下一次才會再走成功路徑
+        backend.removeAccount(email);
+        return result;
+    }
+}
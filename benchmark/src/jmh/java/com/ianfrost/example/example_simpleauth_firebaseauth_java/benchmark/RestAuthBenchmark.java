@@ -0,0 +1,156 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.benchmark;
+
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthUser;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.rest.RestAuthBackend;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ServerSocketFactory;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.ByteString;
+
+/**
+ * REST 驗證引擎的用戶端開銷：本機 stub 伺服器回應 accounts:signInWithPassword（不含真實網路延遲）
+ * SHARED 使用共用 client（連線重複使用），PER_REQUEST 每次建立新 client（每次重新連線）
+ * 與 Firebase SDK 在裝置上的比較見 :macrobenchmark 的 AuthEngineBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RestAuthBenchmark {
+
+    private static final String EMAIL = "user@example.com";
+    private static final String PASSWORD = "secret123";
+
+    public enum Client {
+        SHARED, PER_REQUEST
+    }
+
+    @Param({"SHARED", "PER_REQUEST"})
+    public Client client;
+
+    private MockWebServer server;
+    private String baseUrl;
+    private RestAuthBackend shared;
+
+    @Setup
+    public void setup() throws Exception {
+        String claims = "{\"user_id\":\"uid1\",\"email\":\"" + EMAIL + "\",\"email_verified\":true}";
+        String idToken = "e30." + ByteString.encodeUtf8(claims).base64Url() + ".c2ln";
+        String body = "{\"kind\":\"identitytoolkit#VerifyPasswordResponse\",\"localId\":\"uid1\",\"email\":\"" + EMAIL
+                + "\",\"displayName\":\"\",\"idToken\":\"" + idToken + "\",\"registered\":true,"
+                + "\"refreshToken\":\"refresh-token\",\"expiresIn\":\"3600\"}";
+        server = new MockWebServer();
+        server.setServerSocketFactory(new NoDelayServerSocketFactory());
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse().setHeader("Content-Type", "application/json").setBody(body);
+            }
+        });
+        server.start();
+        baseUrl = server.url("/").toString();
+        shared = newBackend(RestAuthBackend.sharedClient());
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Benchmark
+    public AuthUser signIn() throws Exception {
+        if (client == Client.SHARED) {
+            return signIn(shared);
+        }
+        OkHttpClient perRequest = new OkHttpClient();
+        try {
+            return signIn(newBackend(perRequest));
+        } finally {
+            perRequest.dispatcher().executorService().shutdown();
+            perRequest.connectionPool().evictAll();
+        }
+    }
+
+    private static AuthUser signIn(RestAuthBackend backend) throws Exception {
+        CompletableFuture<AuthUser> signedIn = new CompletableFuture<>();
+        backend.signIn(EMAIL, PASSWORD, (user, error) -> {
+            if (error != null) {
+                signedIn.completeExceptionally(error);
+            } else {
+                signedIn.complete(user);
+            }
+        });
+        return signedIn.get(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * stub 伺服器連線關閉 Nagle（MockWebServer 標頭與內容分開寫入，重複使用連線時會遇到 delayed ACK 的 40ms 延遲，
+     * 正式伺服器不會有這個問題）
+     */
+    private static final class NoDelayServerSocketFactory extends ServerSocketFactory {
+
+        @Override
+        public ServerSocket createServerSocket() throws IOException {
+            return new ServerSocket() {
+                @Override
+                public Socket accept() throws IOException {
+                    Socket socket = super.accept();
+                    socket.setTcpNoDelay(true);
+                    return socket;
+                }
+            };
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port) throws IOException {
+            return createServerSocket(port, 50, null);
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port, int backlog) throws IOException {
+            return createServerSocket(port, backlog, null);
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port, int backlog, InetAddress address) throws IOException {
+            ServerSocket socket = createServerSocket();
+            socket.bind(new InetSocketAddress(address, port), backlog);
+            return socket;
+        }
+    }
+
+    private RestAuthBackend newBackend(OkHttpClient httpClient) {
+        return new RestAuthBackend(httpClient, baseUrl, "test-key", new RestAuthBackend.SessionStorage() {
+            @Override
+            public RestAuthBackend.Session load() {
+                return null;
+            }
+
+            @Override
+            public void save(RestAuthBackend.Session session) {
+            }
+        }, Runnable::run);
+    }
+}
@@ -0,0 +1,44 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.benchmark;
+
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthRequest;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * getSafeText trim 路徑與請求資料建立量測
+ * 前後無空白時 trim 直接回傳原字串，有空白時才配置新字串
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SafeTextBenchmark {
+
+    @Param({"null", "user@example.com", "   user@example.com   "})
+    public String input;
+
+    private String value;
+
+    @Setup
+    public void setup() {
+        value = "null".equals(input) ? null : input;
+    }
+
+    @Benchmark
+    public String safeText() {
+        return AuthRequest.safeText(value);
+    }
+
+    @Benchmark
+    public AuthRequest buildRequest() {
+        return new AuthRequest(value, value, value, value, value);
+    }
+}
@@ -0,0 +1,38 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.benchmark;
+
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.AuthResult;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * switchStatus() 狀態切換量測（登入 -> 三種註冊 -> 登入 一整輪）
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SwitchStatusBenchmark {
+
+    private AuthResult.AuthAction current = AuthResult.AuthAction.LOGIN;
+
+    @Benchmark
+    public AuthResult.AuthAction next() {
+        current = current.next();
+        return current;
+    }
+
+    @Benchmark
+    public AuthResult.AuthAction fullCycle() {
+        AuthResult.AuthAction status = AuthResult.AuthAction.LOGIN;
+        do {
+            status = status.next();
+        } while (status != AuthResult.AuthAction.LOGIN);
+        return status;
+    }
+}
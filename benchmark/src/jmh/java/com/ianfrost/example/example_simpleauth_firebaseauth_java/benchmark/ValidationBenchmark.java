@@ -0,0 +1,70 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.benchmark;
+
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.AuthResult;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthErrorCode;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.AuthRequest;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.validation.AuthValidator;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.validation.EmailValidator;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.validation.PasswordPolicy;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.validation.PhoneNumberNormalizer;
+import com.ianfrost.example.example_simpleauth_firebaseauth_java.core.validation.ValidationException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 送出前檢查每筆輸入的成本（微秒）
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ValidationBenchmark {
+
+    @Param({"user@example.com", "first.last+tag@sub.example.com.tw", "bad..email@example.com", "no-at-sign"})
+    public String email;
+
+    @Param({"0932111222", "+886 932 111 222", "+886 0932-111-222", "12345"})
+    public String phone;
+
+    private final PhoneNumberNormalizer normalizer = new PhoneNumberNormalizer(PhoneNumberNormalizer.TW);
+    private final PasswordPolicy strictPolicy = new PasswordPolicy(8, 4096, true, true, true, false);
+    private final AuthValidator validator = new AuthValidator();
+    private AuthRequest phoneRequest;
+
+    @Setup
+    public void setup() {
+        phoneRequest = new AuthRequest(email, "Secret123", phone, null, null);
+    }
+
+    @Benchmark
+    public boolean email() {
+        return EmailValidator.isValid(email);
+    }
+
+    @Benchmark
+    public String phone() {
+        return normalizer.normalize(phone);
+    }
+
+    @Benchmark
+    public AuthErrorCode password() {
+        return strictPolicy.check("Secret123");
+    }
+
+    @Benchmark
+    public Object phoneRegistration() {
+        try {
+            return validator.validate(AuthResult.AuthAction.REGISTER_PHONE_VERIFY, phoneRequest);
+        } catch (ValidationException e) {
+            return e.getCode();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+// 冷啟動量測(Macrobenchmark)與 Baseline Profile 產生器，需連接裝置或使用 Gradle Managed Device
+plugins {
+    alias(libs.plugins.android.test)
+    alias(libs.plugins.baselineprofile)
+}
+
+android {
+    namespace = "com.ianfrost.example.example_simpleauth_firebaseauth_java.macrobenchmark"
+    compileSdk {
+        version = release(36)
+    }
+
+    defaultConfig {
+        minSdk = 28
+        targetSdk = 36
+
+        testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+    }
+
+    compileOptions {
+        sourceCompatibility = JavaVersion.VERSION_11
+        targetCompatibility = JavaVersion.VERSION_11
+    }
+
+    targetProjectPath = ":app"
+
+    // CI 用無畫面模擬器：./gradlew :macrobenchmark:pixel6Api34BenchmarkReleaseAndroidTest
+    testOptions.managedDevices.localDevices {
+        create("pixel6Api34") {
+            device = "Pixel 6"
+            apiLevel = 34
+            systemImageSource = "aosp-atd"
+        }
+        // 低階裝置（小螢幕、低解析度）：./gradlew :macrobenchmark:lowEndApi30BenchmarkReleaseAndroidTest
+        create("lowEndApi30") {
+            device = "Nexus 4"
+            apiLevel = 30
+            systemImageSource = "aosp-atd"
+        }
+    }
+}
+
+baselineProfile {
+    managedDevices += "pixel6Api34"
+    useConnectedDevices = false
+}
+
+dependencies {
+    implementation(libs.ext.junit)
+    implementation(libs.uiautomator)
+    implementation(libs.benchmark.macro.junit4)
+}
@@ -0,0 +1,60 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.macrobenchmark;
+
+import static org.junit.Assume.assumeTrue;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.MemoryUsageMetric;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.TraceSectionMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+
+import kotlin.Unit;
+
+/**
+ * 驗證引擎比較：冷啟動後登入的請求延遲（AuthViewModel.request）與記憶體（heap、RSS 最大值）
+ * 依 -PauthEngine 分別建置後各跑一次比對：
+ * ./gradlew :macrobenchmark:connectedBenchmarkReleaseAndroidTest -PauthEngine=rest -Pandroid.testInstrumentationRunnerArguments.class=...AuthEngineBenchmark
+ * dex 大小以 :app:apkSizeReport 比對（見 README）
+ */
+@RunWith(AndroidJUnit4.class)
+public class AuthEngineBenchmark {
+
+    private static final int ITERATIONS = 10;
+
+    @Rule
+    public MacrobenchmarkRule rule = new MacrobenchmarkRule();
+
+    @Test
+    public void coldLogin() {
+        String[] credentials = AuthJourneys.credentials();
+        assumeTrue("未提供 authEmail/authPassword，略過登入量測", credentials != null);
+
+        rule.measureRepeated(
+                AuthJourneys.PACKAGE_NAME,
+                Arrays.asList(
+                        new TraceSectionMetric("AuthViewModel.request", TraceSectionMetric.Mode.First.INSTANCE),
+                        new MemoryUsageMetric(MemoryUsageMetric.Mode.Max, Arrays.asList(
+                                MemoryUsageMetric.SubMetric.HeapSize,
+                                MemoryUsageMetric.SubMetric.RssAnon))),
+                new CompilationMode.Partial(BaselineProfileMode.Require),
+                StartupMode.COLD,
+                ITERATIONS,
+                scope -> {
+                    AuthJourneys.ensureSignedOut(scope);
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    scope.startActivityAndWait();
+                    AuthJourneys.login(scope.getDevice(), credentials[0], credentials[1]);
+                    return Unit.INSTANCE;
+                });
+    }
+}
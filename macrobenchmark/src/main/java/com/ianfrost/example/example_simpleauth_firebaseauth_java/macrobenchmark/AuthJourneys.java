@@ -0,0 +1,100 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.macrobenchmark;
+
+import android.os.Bundle;
+
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.BySelector;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+
+/**
+ * 量測共用的使用者操作（登入頁、登入、登出）
+ * 登入帳號由 instrumentation 參數提供：
+ * -Pandroid.testInstrumentationRunnerArguments.authEmail=... -Pandroid.testInstrumentationRunnerArguments.authPassword=...
+ */
+final class AuthJourneys {
+
+    static final String PACKAGE_NAME = "com.ianfrost.example.example_simpleauth_firebaseauth_java";
+
+    private static final long TIMEOUT_MS = 10_000L;
+
+    private AuthJourneys() {
+    }
+
+    /**
+     * 取得測試帳號，未提供時為 null
+     */
+    static String[] credentials() {
+        Bundle args = InstrumentationRegistry.getArguments();
+        String email = args.getString("authEmail");
+        String password = args.getString("authPassword");
+        if (email == null || password == null) {
+            return null;
+        }
+        return new String[]{email, password};
+    }
+
+    static BySelector res(String id) {
+        return By.res(PACKAGE_NAME, id);
+    }
+
+    /**
+     * 確保為登出狀態（冷啟動會進入 AuthFragment）
+     */
+    static void ensureSignedOut(MacrobenchmarkScope scope) {
+        scope.startActivityAndWait();
+        UiDevice device = scope.getDevice();
+        UiObject2 logout = device.wait(Until.findObject(res("logoutBtn")), 2_000L);
+        if (logout != null) {
+            logout.click();
+            device.wait(Until.hasObject(res("confirmBtn")), TIMEOUT_MS);
+        }
+        scope.killProcess();
+    }
+
+    /**
+     * 確保為登入狀態（冷啟動會進入 ProfileFragment）
+     */
+    static void ensureSignedIn(MacrobenchmarkScope scope, String email, String password) {
+        scope.startActivityAndWait();
+        UiDevice device = scope.getDevice();
+        if (device.wait(Until.findObject(res("logoutBtn")), 2_000L) == null) {
+            login(device, email, password);
+        }
+        scope.killProcess();
+    }
+
+    /**
+     * 登入頁輸入帳密並點擊登入，等待個人頁出現
+     */
+    static void login(UiDevice device, String email, String password) {
+        device.wait(Until.findObject(res("emailInput")), TIMEOUT_MS).setText(email);
+        device.findObject(res("passwordInput")).setText(password);
+        device.findObject(res("confirmBtn")).click();
+        device.wait(Until.hasObject(res("logoutBtn")), TIMEOUT_MS);
+    }
+
+    /**
+     * 點擊切換按鈕切換一輪所有模式（登入 -> 三種註冊 -> 登入）
+     */
+    static void cycleModes(UiDevice device) {
+        for (int i = 0; i < 4; i++) {
+            device.findObject(res("switchBtn")).click();
+            device.waitForIdle();
+        }
+    }
+
+    /**
+     * 個人頁點擊登出，等待登入頁出現
+     */
+    static void logout(UiDevice device) {
+        UiObject2 logout = device.wait(Until.findObject(res("logoutBtn")), TIMEOUT_MS);
+        if (logout != null) {
+            logout.click();
+            device.wait(Until.hasObject(res("confirmBtn")), TIMEOUT_MS);
+        }
+    }
+}
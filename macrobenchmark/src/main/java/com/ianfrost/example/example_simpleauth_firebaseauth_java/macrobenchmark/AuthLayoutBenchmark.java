@@ -0,0 +1,88 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.macrobenchmark;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.Metric;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.TraceSectionMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.Until;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.List;
+
+import kotlin.Unit;
+
+/**
+ * 登入頁版面成本：AuthFragment.onCreateView 的 inflate 時間、measure/layout 次數與總時間
+ * loginScreen 為冷啟動到登入模式（大多數用戶只會看到這個畫面），
+ * phoneMode 為第一次切換到手機驗證註冊（延後 inflate 的區塊在此時建立）
+ */
+@RunWith(AndroidJUnit4.class)
+public class AuthLayoutBenchmark {
+
+    private static final int ITERATIONS = 10;
+
+    @Rule
+    public MacrobenchmarkRule rule = new MacrobenchmarkRule();
+
+    @Test
+    public void loginScreen() {
+        rule.measureRepeated(
+                AuthJourneys.PACKAGE_NAME,
+                metrics("AuthFragment.onCreateView"),
+                new CompilationMode.Partial(BaselineProfileMode.Require),
+                StartupMode.COLD,
+                ITERATIONS,
+                scope -> {
+                    AuthJourneys.ensureSignedOut(scope);
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    scope.startActivityAndWait();
+                    scope.getDevice().wait(Until.hasObject(AuthJourneys.res("confirmBtn")), 10_000L);
+                    return Unit.INSTANCE;
+                });
+    }
+
+    @Test
+    public void phoneMode() {
+        rule.measureRepeated(
+                AuthJourneys.PACKAGE_NAME,
+                metrics("AuthFragment.inflateSection"),
+                new CompilationMode.Partial(BaselineProfileMode.Require),
+                null, // 不量測啟動，由 setup 自行啟動到登入頁
+                ITERATIONS,
+                scope -> {
+                    AuthJourneys.ensureSignedOut(scope);
+                    scope.startActivityAndWait();
+                    scope.getDevice().wait(Until.hasObject(AuthJourneys.res("switchBtn")), 10_000L);
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    // 登入 -> 無驗證註冊 -> 信箱驗證註冊 -> 手機驗證註冊
+                    UiDevice device = scope.getDevice();
+                    for (int i = 0; i < 3; i++) {
+                        device.findObject(AuthJourneys.res("switchBtn")).click();
+                        device.waitForIdle();
+                    }
+                    device.wait(Until.hasObject(AuthJourneys.res("phoneInput")), 10_000L);
+                    return Unit.INSTANCE;
+                });
+    }
+
+    private static List<Metric> metrics(String section) {
+        return Arrays.asList(
+                new TraceSectionMetric(section, TraceSectionMetric.Mode.Sum.INSTANCE),
+                new TraceSectionMetric("measure", TraceSectionMetric.Mode.Sum.INSTANCE),
+                new TraceSectionMetric("measure", TraceSectionMetric.Mode.Count.INSTANCE, "measureCount", true),
+                new TraceSectionMetric("layout", TraceSectionMetric.Mode.Sum.INSTANCE),
+                new TraceSectionMetric("layout", TraceSectionMetric.Mode.Count.INSTANCE, "layoutCount", true));
+    }
+}
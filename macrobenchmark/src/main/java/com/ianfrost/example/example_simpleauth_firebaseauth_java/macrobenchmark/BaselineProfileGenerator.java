@@ -0,0 +1,61 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.macrobenchmark;
+
+import androidx.benchmark.macro.junit4.BaselineProfileRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.Until;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import kotlin.Unit;
+
+/**
+ * Baseline Profile 產生器：./gradlew :app:generateBaselineProfile
+ * 涵蓋冷啟動到 AuthFragment、切換登入/註冊模式、點擊登入、ProfileFragment 與登出
+ * 產出檔案由 baselineprofile plugin 複製到 :app 並隨 release 版本出貨
+ */
+@RunWith(AndroidJUnit4.class)
+public class BaselineProfileGenerator {
+
+    @Rule
+    public BaselineProfileRule rule = new BaselineProfileRule();
+
+    @Test
+    public void generate() {
+        String[] credentials = AuthJourneys.credentials();
+
+        rule.collect(
+                AuthJourneys.PACKAGE_NAME,
+                15,
+                3,
+                null,
+                true,
+                false,
+                className -> true,
+                scope -> {
+                    scope.pressHome();
+                    scope.startActivityAndWait();
+                    UiDevice device = scope.getDevice();
+
+                    // 已登入時先登出，讓流程從 AuthFragment 開始
+                    AuthJourneys.logout(device);
+
+                    // 切換一輪所有模式（登入 -> 三種註冊 -> 登入）
+                    AuthJourneys.cycleModes(device);
+
+                    if (credentials != null) {
+                        AuthJourneys.login(device, credentials[0], credentials[1]);
+                        device.pressBack(); // 關閉登入成功提示
+                        AuthJourneys.logout(device);
+                    } else {
+                        // 沒有測試帳號時仍走一次點擊登入（空白欄位驗證路徑）
+                        device.findObject(AuthJourneys.res("confirmBtn")).click();
+                        device.wait(Until.hasObject(AuthJourneys.res("confirmBtn")), 2_000L);
+                        device.pressBack();
+                    }
+                    return Unit.INSTANCE;
+                });
+    }
+}
@@ -0,0 +1,75 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.macrobenchmark;
+
+import static org.junit.Assume.assumeTrue;
+
+import android.os.SystemClock;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.TraceSectionMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.uiautomator.Until;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import kotlin.Unit;
+
+/**
+ * 預先連線比較：冷啟動後停留在登入頁（模擬輸入帳密的時間）再登入，第一次請求的延遲（AuthViewModel.request）
+ * prewarm=false 時以 Intent extra 關閉預先連線；AuthPrewarm.savedMillis counter 可在 trace 檔確認省下的連線時間
+ * 需在非計量付費網路（Wi-Fi）下執行，計量付費網路不會預先連線
+ */
+@RunWith(Parameterized.class)
+public class PrewarmBenchmark {
+
+    private static final int ITERATIONS = 10;
+    // 模擬使用者輸入帳密的時間
+    private static final long TYPING_MILLIS = 3_000L;
+
+    @Rule
+    public MacrobenchmarkRule rule = new MacrobenchmarkRule();
+
+    @Parameterized.Parameter
+    public boolean prewarm;
+
+    @Parameterized.Parameters(name = "prewarm={0}")
+    public static List<Object> parameters() {
+        return Arrays.asList(false, true);
+    }
+
+    @Test
+    public void firstRequest() {
+        String[] credentials = AuthJourneys.credentials();
+        assumeTrue("未提供 authEmail/authPassword，略過登入量測", credentials != null);
+
+        rule.measureRepeated(
+                AuthJourneys.PACKAGE_NAME,
+                Collections.singletonList(
+                        new TraceSectionMetric("AuthViewModel.request", TraceSectionMetric.Mode.First.INSTANCE)),
+                new CompilationMode.Partial(BaselineProfileMode.Require),
+                StartupMode.COLD,
+                ITERATIONS,
+                scope -> {
+                    AuthJourneys.ensureSignedOut(scope);
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    scope.startActivityAndWait(intent -> {
+                        intent.putExtra("prewarm", prewarm);
+                        return Unit.INSTANCE;
+                    });
+                    scope.getDevice().wait(Until.hasObject(AuthJourneys.res("emailInput")), 10_000L);
+                    SystemClock.sleep(TYPING_MILLIS);
+                    AuthJourneys.login(scope.getDevice(), credentials[0], credentials[1]);
+                    return Unit.INSTANCE;
+                });
+    }
+}
@@ -0,0 +1,66 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.macrobenchmark;
+
+import static org.junit.Assume.assumeTrue;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.TraceSectionMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.Until;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+
+import kotlin.Unit;
+
+/**
+ * 登入、登出時登入頁與個人頁切換到第一個畫格的時間（DestinationHost.transition，API 29 以上）與畫格時間
+ * 每次量測登入、登出各兩次：第一次切換使用預先 inflate 的版面，第二次為 show/hide 已保留的頁面
+ * 需提供測試帳號（見 {@link AuthJourneys}）
+ */
+@RunWith(AndroidJUnit4.class)
+public class SessionTransitionBenchmark {
+
+    private static final int ITERATIONS = 10;
+    private static final int ROUNDS = 2;
+    private static final String SECTION = "DestinationHost.transition";
+
+    @Rule
+    public MacrobenchmarkRule rule = new MacrobenchmarkRule();
+
+    @Test
+    public void signInOut() {
+        String[] credentials = AuthJourneys.credentials();
+        assumeTrue("未提供 authEmail/authPassword，略過登入切換", credentials != null);
+
+        rule.measureRepeated(
+                AuthJourneys.PACKAGE_NAME,
+                Arrays.asList(
+                        new TraceSectionMetric(SECTION, TraceSectionMetric.Mode.Sum.INSTANCE),
+                        new TraceSectionMetric(SECTION, TraceSectionMetric.Mode.Max.INSTANCE),
+                        new FrameTimingMetric()),
+                new CompilationMode.Partial(BaselineProfileMode.Require),
+                null, // 不量測啟動，由 setup 自行啟動到登入頁
+                ITERATIONS,
+                scope -> {
+                    AuthJourneys.ensureSignedOut(scope);
+                    scope.startActivityAndWait();
+                    scope.getDevice().wait(Until.hasObject(AuthJourneys.res("confirmBtn")), 10_000L);
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    UiDevice device = scope.getDevice();
+                    for (int i = 0; i < ROUNDS; i++) {
+                        AuthJourneys.login(device, credentials[0], credentials[1]);
+                        AuthJourneys.logout(device);
+                    }
+                    return Unit.INSTANCE;
+                });
+    }
+}
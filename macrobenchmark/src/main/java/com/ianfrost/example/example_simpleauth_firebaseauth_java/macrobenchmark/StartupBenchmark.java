@@ -0,0 +1,94 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.macrobenchmark;
+
+import static org.junit.Assume.assumeTrue;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.StartupTimingMetric;
+import androidx.benchmark.macro.TraceSectionMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import kotlin.Unit;
+
+/**
+ * MainActivity 冷啟動量測（timeToInitialDisplay / timeToFullDisplay）
+ * 兩種路線：登出 -> AuthFragment、登入 -> ProfileFragment
+ * 三種編譯模式：None（無 AOT）、Partial（Baseline Profile）、Full（完整 AOT）
+ * 另記錄移出主執行緒的啟動步驟（Startup.*，於 app-startup 執行緒），trace 檔可確認與第一個畫格重疊的部分
+ */
+@RunWith(Parameterized.class)
+public class StartupBenchmark {
+
+    private static final int ITERATIONS = 10;
+
+    @Rule
+    public MacrobenchmarkRule rule = new MacrobenchmarkRule();
+
+    @Parameterized.Parameter(0)
+    public String compilation;
+
+    @Parameterized.Parameter(1)
+    public boolean signedIn;
+
+    @Parameterized.Parameters(name = "{0}_signedIn={1}")
+    public static List<Object[]> parameters() {
+        List<Object[]> params = new ArrayList<>();
+        for (String mode : new String[]{"None", "Partial", "Full"}) {
+            params.add(new Object[]{mode, false});
+            params.add(new Object[]{mode, true});
+        }
+        return params;
+    }
+
+    @Test
+    public void startup() {
+        String[] credentials = AuthJourneys.credentials();
+        if (signedIn) {
+            assumeTrue("未提供 authEmail/authPassword，略過登入路線", credentials != null);
+        }
+
+        rule.measureRepeated(
+                AuthJourneys.PACKAGE_NAME,
+                Arrays.asList(
+                        new StartupTimingMetric(),
+                        new TraceSectionMetric("Startup.FirebaseApp", TraceSectionMetric.Mode.First.INSTANCE),
+                        new TraceSectionMetric("Startup.FirebaseAuth", TraceSectionMetric.Mode.First.INSTANCE),
+                        new TraceSectionMetric("Startup.Analytics", TraceSectionMetric.Mode.First.INSTANCE)),
+                compilationMode(),
+                StartupMode.COLD,
+                ITERATIONS,
+                scope -> {
+                    if (signedIn) {
+                        AuthJourneys.ensureSignedIn(scope, credentials[0], credentials[1]);
+                    } else {
+                        AuthJourneys.ensureSignedOut(scope);
+                    }
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    scope.startActivityAndWait();
+                    return Unit.INSTANCE;
+                });
+    }
+
+    private CompilationMode compilationMode() {
+        switch (compilation) {
+            case "None":
+                return new CompilationMode.None();
+            case "Partial":
+                return new CompilationMode.Partial(BaselineProfileMode.Require);
+            default:
+                return new CompilationMode.Full();
+        }
+    }
+}
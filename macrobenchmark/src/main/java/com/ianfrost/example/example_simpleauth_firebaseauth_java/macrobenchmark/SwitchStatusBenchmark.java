@@ -0,0 +1,54 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.macrobenchmark;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.Until;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import kotlin.Unit;
+
+/**
+ * 登入頁切換模式的畫格時間（frameDurationCpuMs / frameOverrunMs）
+ * 每次量測切換三輪所有模式，改動版面或 UI 狀態處理前後各跑一次比對
+ */
+@RunWith(AndroidJUnit4.class)
+public class SwitchStatusBenchmark {
+
+    private static final int ITERATIONS = 10;
+    private static final int ROUNDS = 3;
+
+    @Rule
+    public MacrobenchmarkRule rule = new MacrobenchmarkRule();
+
+    @Test
+    public void switchStatus() {
+        rule.measureRepeated(
+                AuthJourneys.PACKAGE_NAME,
+                Collections.singletonList(new FrameTimingMetric()),
+                new CompilationMode.Partial(BaselineProfileMode.Require),
+                null, // 不量測啟動，由 setup 自行啟動到登入頁
+                ITERATIONS,
+                scope -> {
+                    AuthJourneys.ensureSignedOut(scope);
+                    scope.startActivityAndWait();
+                    scope.getDevice().wait(Until.hasObject(AuthJourneys.res("switchBtn")), 10_000L);
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    UiDevice device = scope.getDevice();
+                    for (int i = 0; i < ROUNDS; i++) {
+                        AuthJourneys.cycleModes(device);
+                    }
+                    return Unit.INSTANCE;
+                });
+    }
+}
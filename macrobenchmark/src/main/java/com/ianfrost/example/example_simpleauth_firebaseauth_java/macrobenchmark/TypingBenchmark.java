@@ -0,0 +1,64 @@
+package com.ianfrost.example.example_simpleauth_firebaseauth_java.macrobenchmark;
+
+import android.view.KeyEvent;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.Until;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import kotlin.Unit;
+
+/**
+ * 登入頁輸入時的畫格時間（frameDurationCpuMs / frameOverrunMs），逐字送出按鍵事件
+ * 建議在低階裝置設定執行：./gradlew :macrobenchmark:lowEndApi30BenchmarkReleaseAndroidTest
+ */
+@RunWith(AndroidJUnit4.class)
+public class TypingBenchmark {
+
+    private static final int ITERATIONS = 10;
+    // 每個欄位輸入的字數
+    private static final int CHARS = 20;
+
+    @Rule
+    public MacrobenchmarkRule rule = new MacrobenchmarkRule();
+
+    @Test
+    public void typeEmailAndPassword() {
+        rule.measureRepeated(
+                AuthJourneys.PACKAGE_NAME,
+                Collections.singletonList(new FrameTimingMetric()),
+                new CompilationMode.Partial(BaselineProfileMode.Require),
+                null, // 不量測啟動，由 setup 自行啟動到登入頁
+                ITERATIONS,
+                scope -> {
+                    AuthJourneys.ensureSignedOut(scope);
+                    scope.startActivityAndWait();
+                    scope.getDevice().wait(Until.hasObject(AuthJourneys.res("emailInput")), 10_000L);
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    UiDevice device = scope.getDevice();
+                    type(device, "emailInput");
+                    type(device, "passwordInput");
+                    return Unit.INSTANCE;
+                });
+    }
+
+    private static void type(UiDevice device, String inputId) {
+        device.findObject(AuthJourneys.res(inputId)).click();
+        for (int i = 0; i < CHARS; i++) {
+            device.pressKeyCode(KeyEvent.KEYCODE_A + i % 26);
+        }
+        device.waitForIdle();
+    }
+}
@@ -21,4 +21,6 @@ dependencyResolutionManagement {
 
 rootProject.name = "Example_SimpleAuth_FirebaseAuth_Java"
 include(":app")
+include(":benchmark")
+include(":macrobenchmark")
  
\ No newline at end of file